@@ -0,0 +1,17 @@
+package metricas;
+
+import java.util.Map;
+
+/** Contadores do jogo via JMX ("jogogo:type=Contadores"). */
+public interface ContadoresMXBean {
+    /** Jogadas aceitas pelo 'Jogo'. */
+    long getJogadasAceitas();
+    /** Jogadas recusadas, somando todos os motivos. */
+    long getJogadasRecusadas();
+    /** Jogadas recusadas por motivo (ex: "Ko: repetir posição anterior é proibido"). */
+    Map<String, Long> getRecusasPorMotivo();
+    /** Peças capturadas, somando as duas cores. */
+    long getCapturas();
+
+    void zerar();
+}
@@ -0,0 +1,37 @@
+package metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Evento JFR para o tempo que um comando esperou na fila do 'LacoJogo' até
+ * começar a rodar (com a partida ocupada, os comandos entram em fila). Só é
+ * gravado a partir de 100 µs: com a partida livre, a espera é de
+ * microssegundos e não interessa.
+ *
+ * Criado (e iniciado) ao entrar na fila; 'comecou()' é chamado quando o comando sai dela.
+ */
+@Name("jogogo.EsperaFila")
+@Label("Espera na Fila do Jogo")
+@Category({"JogoGo", "Jogo"})
+@Description("Tempo entre um comando entrar na fila da partida e começar a rodar")
+@Threshold("100 us")
+public class EventoEsperaFila extends jdk.jfr.Event {
+    @Label("Operação") public String operacao;
+
+    public static EventoEsperaFila iniciar(String operacao) {
+        EventoEsperaFila e = new EventoEsperaFila();
+        e.operacao = operacao;
+        e.begin();
+        return e;
+    }
+
+    /** Chamado quando o comando sai da fila e começa a rodar. */
+    public void comecou() {
+        end();
+        if (shouldCommit()) commit();
+    }
+}
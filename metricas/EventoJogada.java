@@ -0,0 +1,44 @@
+package metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento do Java Flight Recorder para cada 'Tabuleiro.tentarJogada'.
+ *
+ * Além da duração total, separa o tempo gasto nos hashes em String (Ko e
+ * desfazer jogada ilegal) e nas varreduras de grupos (capturas e suicídio),
+ * para saber o que pesou numa jogada lenta. As fases só são cronometradas
+ * quando o evento está ligado na gravação.
+ */
+@Name("jogogo.TentarJogada")
+@Label("Tentar Jogada")
+@Category({"JogoGo", "Regras"})
+@Description("Validação e execução de uma jogada no tabuleiro")
+public class EventoJogada extends jdk.jfr.Event {
+    @Label("X") public int x;
+    @Label("Y") public int y;
+    @Label("Cor") public int cor;
+    @Label("Legal") public boolean legal;
+    @Label("Motivo da recusa") public String motivo;
+    @Label("Capturadas") public int capturadas;
+    @Label("Tempo em hashes") @Timespan(Timespan.NANOSECONDS) public long nanosHash;
+    @Label("Tempo em grupos") @Timespan(Timespan.NANOSECONDS) public long nanosGrupos;
+
+    /** Soma o tempo desde 'desde' à fase de hashes; devolve o instante atual. */
+    public long hash(long desde) {
+        long agora = System.nanoTime();
+        nanosHash += agora - desde;
+        return agora;
+    }
+
+    /** Soma o tempo desde 'desde' à fase de grupos; devolve o instante atual. */
+    public long grupos(long desde) {
+        long agora = System.nanoTime();
+        nanosGrupos += agora - desde;
+        return agora;
+    }
+}
@@ -0,0 +1,34 @@
+package metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.io.Serializable;
+
+/**
+ * Evento JFR com o tamanho (serializado) do estado devolvido a um cliente.
+ *
+ * Medir custa uma serialização extra (ver 'TamanhoSerializado'), por isso só
+ * acontece quando o evento está ligado na gravação.
+ */
+@Name("jogogo.Serializacao")
+@Label("Tamanho do Estado Serializado")
+@Category({"JogoGo", "RMI"})
+@Description("Bytes do EstadoJogo/AtualizacaoJogo devolvido por uma chamada remota")
+public class EventoSerializacao extends jdk.jfr.Event {
+    @Label("Operação") public String operacao;
+    @Label("Tamanho") @DataAmount public long bytes;
+
+    /** Grava o tamanho de 'objeto', se o evento estiver ligado (senão, não faz nada). */
+    public static void registrar(String operacao, Serializable objeto) {
+        EventoSerializacao e = new EventoSerializacao();
+        if (!e.isEnabled()) return;
+        e.begin();
+        e.operacao = operacao;
+        e.bytes = TamanhoSerializado.de(objeto);
+        e.commit();
+    }
+}
@@ -0,0 +1,15 @@
+package metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Evento JFR para cada 'Jogo.snapshotEstado' (a "foto" do jogo enviada aos clientes). */
+@Name("jogogo.SnapshotEstado")
+@Label("Snapshot do Estado")
+@Category({"JogoGo", "Jogo"})
+@Description("Montagem do EstadoJogo publicado pelo laço de comandos do Jogo")
+public class EventoSnapshot extends jdk.jfr.Event {
+    @Label("Versão") public long versao;
+}
@@ -0,0 +1,104 @@
+package metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências (em nanossegundos), sem locks.
+ *
+ * Os "baldes" são log-lineares: cada potência de 2 é dividida em 8 faixas
+ * iguais, então um valor é guardado com erro de no máximo 12,5% (ex: 1,0 ms
+ * cai num balde de 0,98 a 1,05 ms). São 488 contadores fixos, que cobrem de
+ * 0 ns até Long.MAX_VALUE: registrar é um cálculo de bits e um incremento
+ * atômico, sem alocação. Várias threads podem registrar ao mesmo tempo.
+ *
+ * Os percentis são lidos de uma cópia dos contadores; com registros
+ * acontecendo durante a leitura, o resultado é aproximado (o que basta aqui).
+ */
+public class HistogramaLatencia implements LatenciaMXBean {
+
+    private static final int SUB_BITS = 3;             // 8 faixas por potência de 2.
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BALDES = (63 - SUB_BITS + 1) * SUB;
+
+    private final String nome;
+    private final AtomicLongArray baldes = new AtomicLongArray(BALDES);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder soma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    public HistogramaLatencia(String nome) { this.nome = nome; }
+
+    public String getNome(){ return nome; }
+
+    /** Registra uma duração em nanossegundos (valores negativos contam como 0). */
+    public void registrar(long nanos) {
+        if (nanos < 0) nanos = 0;
+        baldes.incrementAndGet(indice(nanos));
+        total.increment();
+        soma.add(nanos);
+        // Só tenta o CAS quando o valor é mesmo maior (o caso raro).
+        long m = maximo.get();
+        while (nanos > m && !maximo.compareAndSet(m, nanos)) m = maximo.get();
+    }
+
+    /** Registra o tempo passado desde 't0' (um valor de System.nanoTime()). */
+    public void registrarDesde(long t0) {
+        registrar(System.nanoTime() - t0);
+    }
+
+    /** Latência (ns) abaixo da qual estão 'p' (0 a 1) dos registros; 0 se não há nenhum. */
+    public long percentil(double p) {
+        long[] copia = new long[BALDES];
+        long n = 0;
+        for (int i = 0; i < BALDES; i++) { copia[i] = baldes.get(i); n += copia[i]; }
+        if (n == 0) return 0;
+        long alvo = Math.max(1, (long) Math.ceil(p * n));
+        long acumulado = 0;
+        for (int i = 0; i < BALDES; i++) {
+            acumulado += copia[i];
+            // O maior valor do balde: o percentil nunca sai menor do que o real.
+            if (acumulado >= alvo) return Math.min(limiteSuperior(i), maximo.get());
+        }
+        return maximo.get();
+    }
+
+    // Balde do valor: de 0 a 15 um balde por valor; acima disso, (expoente, 3 bits seguintes).
+    static int indice(long v) {
+        if (v < 2 * SUB) return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros(v);
+        return (e - SUB_BITS + 1) * SUB + (int) ((v >>> (e - SUB_BITS)) & (SUB - 1));
+    }
+
+    static long limiteSuperior(int i) {
+        if (i < 2 * SUB) return i;
+        int e = i / SUB + SUB_BITS - 1;
+        long base = (long) (SUB + i % SUB) << (e - SUB_BITS);
+        return base + (1L << (e - SUB_BITS)) - 1;
+    }
+
+    // ---- LatenciaMXBean ----
+
+    @Override public long getChamadas(){ return total.sum(); }
+    @Override public double getMediaMicros(){
+        long n = total.sum();
+        return n == 0 ? 0 : soma.sum() / (double) n / 1000.0;
+    }
+    @Override public double getP50Micros(){ return percentil(0.50) / 1000.0; }
+    @Override public double getP99Micros(){ return percentil(0.99) / 1000.0; }
+    @Override public double getP999Micros(){ return percentil(0.999) / 1000.0; }
+    @Override public double getMaxMicros(){ return maximo.get() / 1000.0; }
+
+    @Override public void zerar() {
+        for (int i = 0; i < BALDES; i++) baldes.set(i, 0);
+        total.reset();
+        soma.reset();
+        maximo.set(0);
+    }
+
+    @Override public String toString() {
+        return String.format("%s: %d chamadas, p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                nome, getChamadas(), getP50Micros(), getP99Micros(), getP999Micros(), getMaxMicros());
+    }
+}
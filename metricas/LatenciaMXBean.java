@@ -0,0 +1,17 @@
+package metricas;
+
+/**
+ * O que cada histograma de latência mostra via JMX (ex: no JConsole ou
+ * VisualVM, em "jogogo:type=Latencia"). Tempos em microssegundos.
+ */
+public interface LatenciaMXBean {
+    long getChamadas();
+    double getMediaMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+
+    /** Começa a medição do zero (ex: depois de aquecer o servidor). */
+    void zerar();
+}
@@ -0,0 +1,107 @@
+package metricas;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Métricas do processo: um histograma de latência por operação e os
+ * contadores do jogo (jogadas aceitas, recusas por motivo, capturas).
+ *
+ * Registrar é barato e sem locks (dois System.nanoTime() e alguns
+ * incrementos atômicos), então fica sempre ligado. Para ver os números,
+ * o servidor chama 'publicarJmx()' e eles aparecem no MBeanServer da
+ * plataforma: JConsole, VisualVM ou qualquer coletor JMX, sem reiniciar
+ * nada nem ligar um profiler.
+ */
+public final class Metricas {
+
+    private static final String DOMINIO = "jogogo";
+
+    private static final Map<String, HistogramaLatencia> histogramas = new ConcurrentHashMap<>();
+    private static final Contadores contadores = new Contadores();
+    private static volatile MBeanServer servidorJmx;
+
+    private Metricas() { }
+
+    /**
+     * O histograma da operação 'nome' (ex: "remoto.fazerJogada"), criado na
+     * primeira chamada. Guarde a referência num campo: a busca é por nome.
+     */
+    public static HistogramaLatencia latencia(String nome) {
+        HistogramaLatencia h = histogramas.get(nome);
+        if (h != null) return h;
+        h = histogramas.computeIfAbsent(nome, HistogramaLatencia::new);
+        MBeanServer mbs = servidorJmx;
+        if (mbs != null) publicar(mbs, h);
+        return h;
+    }
+
+    public static void jogadaAceita(int capturadas) {
+        contadores.aceitas.increment();
+        if (capturadas > 0) contadores.capturas.add(capturadas);
+    }
+
+    public static void jogadaRecusada(String motivo) {
+        contadores.recusadas.increment();
+        contadores.porMotivo.computeIfAbsent(motivo != null ? motivo : "(sem motivo)", m -> new LongAdder()).increment();
+    }
+
+    public static ContadoresMXBean getContadores(){ return contadores; }
+
+    /**
+     * Publica os contadores e todos os histogramas (inclusive os criados
+     * depois desta chamada) no MBeanServer da plataforma. Pode ser chamado mais de uma vez.
+     */
+    public static synchronized void publicarJmx() {
+        if (servidorJmx != null) return;
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName nome = new ObjectName(DOMINIO + ":type=Contadores");
+            if (!mbs.isRegistered(nome)) mbs.registerMBean(contadores, nome);
+        } catch (JMException e) {
+            throw new IllegalStateException("Não foi possível publicar as métricas", e);
+        }
+        servidorJmx = mbs;
+        for (HistogramaLatencia h : histogramas.values()) publicar(mbs, h);
+    }
+
+    private static void publicar(MBeanServer mbs, HistogramaLatencia h) {
+        try {
+            ObjectName nome = new ObjectName(DOMINIO + ":type=Latencia,name=" + ObjectName.quote(h.getNome()));
+            if (!mbs.isRegistered(nome)) mbs.registerMBean(h, nome);
+        } catch (InstanceAlreadyExistsException e) {
+            // Duas threads publicaram o mesmo histograma ao mesmo tempo: o primeiro registro vale.
+        } catch (JMException e) {
+            throw new IllegalStateException("Não foi possível publicar " + h.getNome(), e);
+        }
+    }
+
+    private static final class Contadores implements ContadoresMXBean {
+        final LongAdder aceitas = new LongAdder();
+        final LongAdder recusadas = new LongAdder();
+        final LongAdder capturas = new LongAdder();
+        final Map<String, LongAdder> porMotivo = new ConcurrentHashMap<>();
+
+        @Override public long getJogadasAceitas(){ return aceitas.sum(); }
+        @Override public long getJogadasRecusadas(){ return recusadas.sum(); }
+        @Override public long getCapturas(){ return capturas.sum(); }
+        @Override public Map<String, Long> getRecusasPorMotivo() {
+            Map<String, Long> m = new TreeMap<>();
+            porMotivo.forEach((motivo, n) -> m.put(motivo, n.sum()));
+            return m;
+        }
+        @Override public void zerar() {
+            aceitas.reset();
+            recusadas.reset();
+            capturas.reset();
+            porMotivo.clear();
+        }
+    }
+}
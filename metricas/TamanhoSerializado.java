@@ -0,0 +1,33 @@
+package metricas;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * Quantos bytes um objeto ocupa serializado (como o RMI o envia).
+ *
+ * O RMI não conta os bytes que escreve ou lê, então o objeto é serializado de
+ * novo num "contador" que descarta os dados. Custa uma serialização extra:
+ * use só quando a medida foi pedida.
+ */
+public final class TamanhoSerializado {
+
+    private TamanhoSerializado() { }
+
+    /** Tamanho de 'objeto' em bytes, ou -1 se ele não puder ser serializado. */
+    public static long de(Serializable objeto) {
+        long[] contador = new long[1];
+        OutputStream descarte = new OutputStream() {
+            @Override public void write(int b) { contador[0]++; }
+            @Override public void write(byte[] b, int off, int len) { contador[0] += len; }
+        };
+        try (ObjectOutputStream out = new ObjectOutputStream(descarte)) {
+            out.writeObject(objeto);
+        } catch (IOException e) {
+            return -1;
+        }
+        return contador[0];
+    }
+}
@@ -0,0 +1,214 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Árvore de variações do modo análise: a partida e todas as alternativas
+ * que o jogador quiser experimentar a partir de qualquer lance.
+ *
+ * Cada nó guarda só o "delta" do seu lance (como o 'Replay'): onde a peça
+ * entrou e quais peças saíram. Um cursor marca o nó cuja posição está em
+ * 'getTabuleiro()'. Para levar o cursor a qualquer nó, desfaz os deltas até o
+ * ancestral comum e aplica os do caminho até o destino: o custo é o tamanho
+ * do caminho (normalmente 1, para voltar ou avançar um lance), sem recalcular
+ * o tabuleiro inteiro, mesmo numa árvore funda de um 19x19.
+ *
+ * Só um lance NOVO passa pelas regras ('Tabuleiro.reproduzirJogada'); repetir um
+ * lance que já está na árvore só move o cursor para ele.
+ *
+ * Não é thread-safe: use numa thread só (a EDT, na janela).
+ */
+public class ArvoreVariacoes {
+
+    /** Um lance da árvore (a raiz é a posição inicial, sem lance). */
+    public final class No {
+        private final No pai;
+        private final List<No> filhos = new ArrayList<>(1);
+        private final int cor;          // Quem jogou (VAZIO na raiz).
+        private final int x, y;         // -1 no passe (e na raiz).
+        private final short[] capturas; // Pontos capturados (x*tam + y).
+        private final long hash;        // Zobrist da posição após o lance (para o Ko).
+        private final int profundidade; // Lances desde a raiz.
+
+        private No(No pai, int cor, int x, int y, short[] capturas, long hash) {
+            this.pai = pai;
+            this.cor = cor;
+            this.x = x;
+            this.y = y;
+            this.capturas = capturas;
+            this.hash = hash;
+            this.profundidade = pai == null ? 0 : pai.profundidade + 1;
+        }
+
+        public No getPai(){ return pai; }
+        /** As continuações; a primeira é a linha principal. */
+        public List<No> getFilhos(){ return Collections.unmodifiableList(filhos); }
+        public int getCor(){ return cor; }
+        public int getX(){ return x; }
+        public int getY(){ return y; }
+        public boolean isPasse(){ return pai != null && x < 0; }
+        public int getCapturadas(){ return capturas.length; }
+        public int getProfundidade(){ return profundidade; }
+
+        private ArvoreVariacoes arvore(){ return ArvoreVariacoes.this; }
+    }
+
+    private static final short[] SEM_CAPTURAS = new short[0];
+
+    private final int tam;
+    private final Tabuleiro tabuleiro; // A posição do cursor.
+    private final No raiz;
+    private No cursor;
+    private String ultimaInfo;
+
+    public ArvoreVariacoes(int tamanho) {
+        this.tam = tamanho;
+        this.tabuleiro = new Tabuleiro(tamanho);
+        this.raiz = new No(null, Tabuleiro.VAZIO, -1, -1, SEM_CAPTURAS, tabuleiro.getHashZobrist());
+        this.cursor = raiz;
+    }
+
+    /**
+     * Árvore com os 'lances' primeiros lances (jogadas e passes) do histórico
+     * como linha principal, e o cursor no último deles.
+     */
+    public static ArvoreVariacoes daPartida(int tamanho, List<Lance> historico, int lances) {
+        ArvoreVariacoes a = new ArvoreVariacoes(tamanho);
+        for (Lance l : historico) {
+            if (a.cursor.profundidade >= lances) break;
+            if (l.tipo == Lance.JOGADA) a.jogar(l.x, l.y);
+            else if (l.tipo == Lance.PASSE) a.passar();
+        }
+        return a;
+    }
+
+    public Tabuleiro getTabuleiro(){ return tabuleiro; }
+    public No getRaiz(){ return raiz; }
+    public No getCursor(){ return cursor; }
+    /** Motivo da última jogada recusada (ou null). */
+    public String getUltimaInfo(){ return ultimaInfo; }
+
+    /** De quem é a vez na posição do cursor (as pretas começam). */
+    public int getProximaCor(){
+        return cursor.cor == Tabuleiro.PRETO ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+    }
+
+    /**
+     * Joga em (x, y) a partir do cursor, criando uma variação se o lance é novo.
+     * @return false se o lance é ilegal (o motivo fica em 'getUltimaInfo').
+     */
+    public boolean jogar(int x, int y) {
+        for (No f : cursor.filhos) {
+            if (f.x == x && f.y == y) { irPara(f); ultimaInfo = null; return true; }
+        }
+        int cor = getProximaCor();
+        // Análise, não jogada ao vivo: sem as métricas de 'tentarJogada'. O Ko é conferido abaixo, pelo hash.
+        Tabuleiro.MoveResult r = tabuleiro.reproduzirJogada(x, y, cor, null);
+        if (!r.legal) { ultimaInfo = r.reason; return false; }
+
+        short[] capturas = new short[r.removed.size()];
+        for (int k = 0; k < capturas.length; k++) {
+            int[] p = r.removed.get(k);
+            capturas[k] = (short) (p[0] * tam + p[1]);
+        }
+        No novo = new No(cursor, cor, x, y, capturas, tabuleiro.getHashZobrist());
+        // Ko: a posição voltou a ser a de antes do último lance do oponente.
+        if (cursor.pai != null && novo.hash == cursor.pai.hash) {
+            desfazer(novo);
+            ultimaInfo = "Ko: repetir posição anterior é proibido";
+            return false;
+        }
+        cursor.filhos.add(novo);
+        cursor = novo;
+        ultimaInfo = null;
+        return true;
+    }
+
+    /** Passa a vez a partir do cursor. */
+    public void passar() {
+        for (No f : cursor.filhos) {
+            if (f.x < 0) { cursor = f; return; }
+        }
+        No novo = new No(cursor, getProximaCor(), -1, -1, SEM_CAPTURAS, tabuleiro.getHashZobrist());
+        cursor.filhos.add(novo);
+        cursor = novo;
+    }
+
+    /** Volta um lance (desfaz o lance do cursor). @return false se já está na raiz. */
+    public boolean voltar() {
+        if (cursor == raiz) return false;
+        desfazer(cursor);
+        cursor = cursor.pai;
+        return true;
+    }
+
+    /** Avança um lance pela linha principal. @return false se não há continuação. */
+    public boolean avancar() {
+        if (cursor.filhos.isEmpty()) return false;
+        No f = cursor.filhos.get(0);
+        aplicar(f);
+        cursor = f;
+        return true;
+    }
+
+    /**
+     * Leva o cursor (e o tabuleiro) a qualquer nó da árvore: desfaz os lances até
+     * o ancestral comum e aplica os do caminho até 'destino'.
+     */
+    public void irPara(No destino) {
+        if (destino.arvore() != this) throw new IllegalArgumentException("Nó de outra árvore");
+        List<No> descer = new ArrayList<>();
+        No a = cursor, b = destino;
+        while (b.profundidade > a.profundidade) { descer.add(b); b = b.pai; }
+        while (a.profundidade > b.profundidade) { desfazer(a); a = a.pai; }
+        while (a != b) {
+            desfazer(a); a = a.pai;
+            descer.add(b); b = b.pai;
+        }
+        for (int i = descer.size() - 1; i >= 0; i--) aplicar(descer.get(i));
+        cursor = destino;
+    }
+
+    /** Torna 'n' a linha principal a partir do seu pai. */
+    public void promover(No n) {
+        if (n.arvore() != this || n == raiz) return;
+        n.pai.filhos.remove(n);
+        n.pai.filhos.add(0, n);
+    }
+
+    /** Apaga a variação que começa em 'n' (se o cursor estava nela, ele vai para o pai de 'n'). */
+    public void remover(No n) {
+        if (n.arvore() != this) throw new IllegalArgumentException("Nó de outra árvore");
+        if (n == raiz) throw new IllegalArgumentException("A raiz não pode ser removida");
+        No c = cursor;
+        while (c.profundidade > n.profundidade) c = c.pai;
+        if (c == n) irPara(n.pai);
+        n.pai.filhos.remove(n);
+    }
+
+    /** Os lances da raiz até o cursor (sem a raiz). */
+    public List<No> getCaminho() {
+        No[] caminho = new No[cursor.profundidade];
+        for (No n = cursor; n != raiz; n = n.pai) caminho[n.profundidade - 1] = n;
+        List<No> lista = new ArrayList<>(caminho.length);
+        Collections.addAll(lista, caminho);
+        return lista;
+    }
+
+    // ---- Deltas ----
+
+    private void aplicar(No n) {
+        if (n.x < 0) return; // Passe.
+        tabuleiro.definir(n.x, n.y, n.cor);
+        for (short c : n.capturas) tabuleiro.definir(c / tam, c % tam, Tabuleiro.VAZIO);
+    }
+
+    private void desfazer(No n) {
+        if (n.x < 0) return;
+        int oponente = n.cor == Tabuleiro.PRETO ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+        for (short c : n.capturas) tabuleiro.definir(c / tam, c % tam, oponente);
+        tabuleiro.definir(n.x, n.y, Tabuleiro.VAZIO);
+    }
+}
@@ -0,0 +1,30 @@
+package modelo;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Resposta de uma ressincronização ('getAtualizacoes').
+ *
+ * Pode vir de dois jeitos:
+ * - INCREMENTAL: 'lances' traz só o que o cliente perdeu, e o 'estado' vem
+ *   SEM tabuleiro (só relógios, placar, turno...). O cliente aplica os lances
+ *   na cópia local dele.
+ * - COMPLETA: 'lances' é null e o 'estado' traz o tabuleiro inteiro
+ *   (ex: o cliente está muito atrasado, o jogo foi reiniciado ou é outra partida).
+ */
+public class AtualizacaoJogo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final EstadoJogo estado;
+    private final List<Lance> lances;
+
+    public AtualizacaoJogo(EstadoJogo estado, List<Lance> lances) {
+        this.estado = estado;
+        this.lances = lances;
+    }
+
+    public EstadoJogo getEstado(){ return estado; }
+    public List<Lance> getLances(){ return lances; }
+    public boolean isCompleta(){ return lances == null; }
+}
@@ -0,0 +1,90 @@
+package modelo;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Mede playouts por segundo com a política de padrões 3x3 ('PoliticaPadroes')
+ * contra o jeito ingênuo: a cada lance, varrer o tabuleiro inteiro atrás dos
+ * vazios e olhar os vizinhos de cada candidato.
+ *
+ * Também mostra quantos bytes cada playout aloca (deve ser 0 com os padrões) e a
+ * fração de vitórias das pretas com komi 7, para conferir que as partidas fazem sentido.
+ *
+ * Uso: java -cp bin modelo.BenchmarkPlayout [tamanho] [playouts]
+ */
+public class BenchmarkPlayout {
+
+    private static final int KOMI = 7;
+
+    public static void main(String[] args) {
+        int tam = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+        int playouts = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        // Aquecimento (JIT), depois a medição de verdade.
+        rodar("padrões", tam, playouts / 4, true, false);
+        rodar("varredura", tam, playouts / 4, false, false);
+        System.out.println("Tabuleiro " + tam + "x" + tam + ", " + playouts + " playouts");
+        System.out.println("política     playouts/s   µs/playout   bytes/playout   vitórias pretas");
+        rodar("padrões", tam, playouts, true, true);
+        rodar("varredura", tam, playouts, false, true);
+    }
+
+    private static void rodar(String nome, int tam, int playouts, boolean padroes, boolean imprimir) {
+        Tabuleiro t = new Tabuleiro(tam);
+        SplittableRandom rnd = new SplittableRandom(42);
+        int vitorias = 0;
+        long bytes0 = bytesAlocados();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < playouts; i++) {
+            int placar = padroes ? PoliticaPadroes.playout(t, Tabuleiro.PRETO, rnd) : playoutVarredura(t, rnd);
+            if (placar > KOMI) vitorias++;
+        }
+        double segundos = (System.nanoTime() - t0) / 1e9;
+        long bytes = bytesAlocados() - bytes0;
+        if (!imprimir) return;
+        System.out.printf("%-10s  %11.0f  %11.1f  %14.1f  %15.1f%%%n", nome, playouts / segundos,
+                segundos * 1e6 / playouts, bytes < 0 ? Double.NaN : (double) bytes / playouts,
+                100.0 * vitorias / playouts);
+    }
+
+    // O jeito ingênuo: a cada lance, conta os vazios, sorteia um e olha os 4 vizinhos (sem olhos).
+    private static int playoutVarredura(Tabuleiro t, SplittableRandom rnd) {
+        int tam = t.getTamanho();
+        int cor = Tabuleiro.PRETO, jogados = 0, passes = 0;
+        for (int lance = 0; lance < 3 * tam * tam && passes < 2; lance++) {
+            boolean jogou = false;
+            for (int tentativa = 0; tentativa < 8 && !jogou; tentativa++) {
+                int vazios = 0;
+                for (int x = 0; x < tam; x++)
+                    for (int y = 0; y < tam; y++)
+                        if (t.get(x, y) == Tabuleiro.VAZIO && !olho(t, x, y, cor)) vazios++;
+                if (vazios == 0) break;
+                int k = rnd.nextInt(vazios);
+                for (int x = 0; x < tam && k >= 0; x++)
+                    for (int y = 0; y < tam && k >= 0; y++)
+                        if (t.get(x, y) == Tabuleiro.VAZIO && !olho(t, x, y, cor) && k-- == 0)
+                            jogou = t.jogarBusca(x, y, cor) >= 0;
+            }
+            if (jogou) { jogados++; passes = 0; }
+            else passes++;
+            cor = cor == Tabuleiro.PRETO ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+        }
+        int placar = PoliticaPadroes.pontuarFimDePlayout(t);
+        for (int i = 0; i < jogados; i++) t.desfazerBusca();
+        return placar;
+    }
+
+    private static boolean olho(Tabuleiro t, int x, int y, int cor) {
+        int tam = t.getTamanho();
+        return (x == 0 || t.get(x - 1, y) == cor) && (x == tam - 1 || t.get(x + 1, y) == cor)
+                && (y == 0 || t.get(x, y - 1) == cor) && (y == tam - 1 || t.get(x, y + 1) == cor);
+    }
+
+    private static long bytesAlocados() {
+        java.lang.management.ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        if (mx instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) mx).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+}
@@ -0,0 +1,67 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mede a leitura tática em paralelo: nós por segundo e acertos na tabela de
+ * transposição, com 1, 2, 4... threads (até o número de núcleos).
+ *
+ * Monta posições 19x19 com lances aleatórios (mesma semente em toda rodada) e
+ * lê todos os grupos com até 3 liberdades de cada uma ('lerGruposFracos').
+ * Cada rodada começa com uma tabela vazia.
+ *
+ * Uso: java -cp bin modelo.BenchmarkTatico [posicoes] [lances por posição]
+ */
+public class BenchmarkTatico {
+
+    public static void main(String[] args) {
+        int posicoes = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int lances = args.length > 1 ? Integer.parseInt(args[1]) : 120;
+        List<Tabuleiro> tabuleiros = new ArrayList<>();
+        Random rnd = new Random(42);
+        for (int i = 0; i < posicoes; i++) tabuleiros.add(posicaoAleatoria(19, lances, rnd));
+
+        // Aquecimento (JIT), depois a medição de verdade.
+        rodar(tabuleiros, 1, false);
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        System.out.println("Posições: " + posicoes + " (19x19, " + lances + " lances cada), núcleos: " + nucleos);
+        System.out.println("threads   leituras   nós/s (total)   nós/s por thread   acertos na tabela   mortos  em perigo");
+        for (int threads = 1; ; threads *= 2) {
+            rodar(tabuleiros, Math.min(threads, nucleos), true);
+            if (threads >= nucleos) break;
+        }
+    }
+
+    private static void rodar(List<Tabuleiro> tabuleiros, int threads, boolean imprimir) {
+        LeitorTatico leitor = new LeitorTatico(20, threads);
+        int mortos = 0, emPerigo = 0;
+        long t0 = System.nanoTime();
+        for (Tabuleiro t : tabuleiros) {
+            for (LeitorTatico.Leitura l : leitor.lerGruposFracos(t, 3)) {
+                if (l.isMorto()) mortos++;
+                if (l.isEmPerigo()) emPerigo++;
+            }
+        }
+        double segundos = (System.nanoTime() - t0) / 1e9;
+        leitor.encerrar();
+        if (!imprimir) return;
+        System.out.printf("%7d  %9d  %14.0f  %17.0f  %17.1f%%  %7d  %9d%n", threads, leitor.getLeituras(),
+                leitor.getNos() / segundos, leitor.getNosPorSegundoPorThread(), 100 * leitor.getTaxaAcertos(),
+                mortos, emPerigo);
+    }
+
+    // Lances aleatórios legais, alternando as cores.
+    private static Tabuleiro posicaoAleatoria(int n, int lances, Random rnd) {
+        Tabuleiro t = new Tabuleiro(n);
+        int cor = Tabuleiro.PRETO;
+        for (int i = 0; i < lances; i++) {
+            for (int tentativa = 0; tentativa < 20; tentativa++) {
+                if (t.jogarBusca(rnd.nextInt(n), rnd.nextInt(n), cor) >= 0) break;
+            }
+            cor = cor == Tabuleiro.PRETO ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+        }
+        return t.copiar(); // Sem a pilha de desfazer da montagem.
+    }
+}
@@ -18,9 +18,13 @@ public class EstadoJogo implements Serializable {
     private final long tempoPretasMs;
     private final long tempoBrancasMs;
 
+    // Identificam a "foto": qual partida e em qual versão (nº de comandos aceitos) ela estava.
+    private final long idPartida;
+    private final long versao;
+
     public EstadoJogo(Tabuleiro tabuleiro, int jogadorAtual, int pontPretas, int pontBrancas,
                       int lastX, int lastY, String lastInfo, List<int[]> ultimasCapturas, boolean gameOver,
-                      long tempoPretasMs, long tempoBrancasMs) {
+                      long tempoPretasMs, long tempoBrancasMs, long idPartida, long versao) {
         this.tabuleiro = tabuleiro;
         this.jogadorAtual = jogadorAtual;
         this.pontuacaoPretas = pontPretas;
@@ -31,6 +35,21 @@ public class EstadoJogo implements Serializable {
         this.gameOver = gameOver;
         this.tempoPretasMs = tempoPretasMs;
         this.tempoBrancasMs = tempoBrancasMs;
+        this.idPartida = idPartida;
+        this.versao = versao;
+    }
+
+    // Cria uma cópia desta "foto" usando outro tabuleiro (ex: a cópia local do cliente
+    // depois de aplicar os lances de uma atualização incremental).
+    public EstadoJogo comTabuleiro(Tabuleiro t) {
+        return new EstadoJogo(t, jogadorAtual, pontuacaoPretas, pontuacaoBrancas, lastX, lastY, lastInfo,
+                ultimasCapturas, gameOver, tempoPretasMs, tempoBrancasMs, idPartida, versao);
+    }
+
+    // Cópia desta "foto" com outra leitura dos relógios (ex: o relógio andou desde que ela foi tirada).
+    public EstadoJogo comRelogios(long tempoPretasMs, long tempoBrancasMs) {
+        return new EstadoJogo(tabuleiro, jogadorAtual, pontuacaoPretas, pontuacaoBrancas, lastX, lastY, lastInfo,
+                ultimasCapturas, gameOver, tempoPretasMs, tempoBrancasMs, idPartida, versao);
     }
 
     public Tabuleiro getTabuleiro(){ return tabuleiro; }
@@ -44,4 +63,6 @@ public class EstadoJogo implements Serializable {
     public boolean isGameOver(){ return gameOver; }
     public long getTempoPretasMs(){ return tempoPretasMs; }
     public long getTempoBrancasMs(){ return tempoBrancasMs; }
+    public long getIdPartida(){ return idPartida; }
+    public long getVersao(){ return versao; }
 }
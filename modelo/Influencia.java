@@ -0,0 +1,91 @@
+package modelo;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Estimativa rápida de "quem domina" cada interseção (influência/território).
+ *
+ * Cada pedra irradia influência para os pontos em volta, caindo com a
+ * distância (1 / (1 + d²), até RAIO interseções). Pedras com poucas
+ * liberdades irradiam menos (um grupo em atari quase não conta). A soma
+ * de cada ponto é comprimida para [-1, 1]: positivo = Pretas, negativo = Brancas.
+ *
+ * Não é uma contagem de pontos: é só uma boa aproximação visual, barata o
+ * bastante para ser refeita a cada lance.
+ */
+public final class Influencia {
+
+    /** Até quantas interseções de distância uma pedra influencia. */
+    public static final int RAIO = 6;
+
+    private Influencia() { }
+
+    /**
+     * Calcula o mapa de influência (índice x*n + y) do tabuleiro.
+     *
+     * @param cancelado consultado periodicamente; se devolver true, o cálculo
+     *                  para e lança CancellationException (uma posição mais nova chegou).
+     */
+    public static float[] calcular(Tabuleiro t, BooleanSupplier cancelado) {
+        int n = t.getTamanho();
+        float[] soma = new float[n * n];
+        int[] liberdades = contarLiberdades(t);
+
+        for (int x = 0; x < n; x++) {
+            if (cancelado.getAsBoolean()) throw new CancellationException();
+            for (int y = 0; y < n; y++) {
+                int cor = t.get(x, y);
+                if (cor == Tabuleiro.VAZIO) continue;
+                // Força da pedra: 1 com 3+ liberdades, menos com 2, quase nada em atari.
+                float forca = Math.min(liberdades[x * n + y], 3) / 3f;
+                if (cor == Tabuleiro.BRANCO) forca = -forca;
+                for (int i = Math.max(0, x - RAIO); i <= Math.min(n - 1, x + RAIO); i++) {
+                    for (int j = Math.max(0, y - RAIO); j <= Math.min(n - 1, y + RAIO); j++) {
+                        int d2 = (i - x) * (i - x) + (j - y) * (j - y);
+                        if (d2 <= RAIO * RAIO) soma[i * n + j] += forca / (1 + d2);
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < soma.length; k++) soma[k] = (float) Math.tanh(soma[k] * 1.5);
+        return soma;
+    }
+
+    // Liberdades do grupo de cada pedra (0 para pontos vazios), numa varredura por grupo.
+    private static int[] contarLiberdades(Tabuleiro t) {
+        int n = t.getTamanho();
+        int[] lib = new int[n * n];
+        int[] grupo = new int[n * n];
+        int[] visto = new int[n * n]; // Marca de liberdade já contada (pelo nº do grupo).
+        int[] pilha = new int[n * n];
+        int[] lista = new int[n * n]; // Pedras do grupo atual.
+        int proximoGrupo = 1;
+        for (int inicio = 0; inicio < n * n; inicio++) {
+            int cor = t.get(inicio / n, inicio % n);
+            if (cor == Tabuleiro.VAZIO || grupo[inicio] != 0) continue;
+            int g = proximoGrupo++, topo = 0, membros = 0, liberdades = 0;
+            pilha[topo++] = inicio;
+            grupo[inicio] = g;
+            while (topo > 0) {
+                int p = pilha[--topo];
+                lista[membros++] = p;
+                int px = p / n, py = p % n;
+                for (int d = 0; d < 4; d++) {
+                    int vx = px + (d == 0 ? 1 : d == 1 ? -1 : 0), vy = py + (d == 2 ? 1 : d == 3 ? -1 : 0);
+                    if (vx < 0 || vx >= n || vy < 0 || vy >= n) continue;
+                    int q = vx * n + vy;
+                    int c = t.get(vx, vy);
+                    if (c == Tabuleiro.VAZIO) {
+                        if (visto[q] != g) { visto[q] = g; liberdades++; }
+                    } else if (c == cor && grupo[q] == 0) {
+                        grupo[q] = g;
+                        pilha[topo++] = q;
+                    }
+                }
+            }
+            for (int k = 0; k < membros; k++) lib[lista[k]] = liberdades;
+        }
+        return lib;
+    }
+}
@@ -2,10 +2,22 @@ package modelo;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import metricas.EventoSnapshot;
+import metricas.HistogramaLatencia;
+import metricas.Metricas;
 
 // Esta classe é o "gerente" do jogo. Ela controla as regras,
 // quem joga, o tempo, e o placar, usando o Tabuleiro para mover as peças.
+//
+// NÃO é thread-safe: uma única thread por vez deve mexer no Jogo. No servidor,
+// quem garante isso é o 'LacoJogo' (todos os comandos passam pela fila dele).
 public class Jogo {
+    // Tempo de cada jogada, publicado via JMX (ver 'metricas.Metricas').
+    private static final HistogramaLatencia LATENCIA_JOGADA = Metricas.latencia("jogo.fazerJogada");
     // Guarda a instância do tabuleiro (a grade) e de quem é a vez de jogar.
     private final Tabuleiro tabuleiro;
     private int jogadorAtual;
@@ -34,6 +46,25 @@ public class Jogo {
     private long tempoBrancasRestanteMs;
     private long turnoIniciadoEmMs;
 
+    // Versionamento (para a ressincronização dos clientes): cada comando aceito
+    // incrementa a 'versao' e é guardado no 'historico' da partida atual.
+    // 'idPartida' muda a cada processo/servidor novo, para o cliente saber que
+    // suas versões antigas não valem mais.
+    private final long idPartida;
+    private long versao = 0;
+    private long versaoInicioHistorico = 0; // Versão do último reinício (o histórico começa depois dele).
+    private final List<Lance> historico = new ArrayList<>();
+
+    // Quem quer ser avisado dos comandos aceitos (ex: o diário em disco).
+    private final List<OuvinteJogo> ouvintes = new CopyOnWriteArrayList<>();
+    // Última vez que os relógios foram repassados aos ouvintes (ver 'snapshotEstado').
+    private long relogioAvisadoEmMs = 0;
+    // Ligado durante 'reproduzir': o relógio não anda e os ouvintes não são avisados.
+    private boolean reproduzindo = false;
+    // Desligado em partidas que não são do servidor (torneio, importação de SGF):
+    // as jogadas delas não entram nos contadores do JMX nem nos eventos do JFR.
+    private boolean medido = true;
+
     // Construtor "atalho": se chamar só com o tamanho,
     // ele chama o outro construtor definindo 5 minutos (5 * 60_000L ms) como tempo padrão.
     public Jogo(int tamanhoTabuleiro) {
@@ -42,6 +73,13 @@ public class Jogo {
 
     // Construtor "principal": inicializa todas as variáveis de estado do jogo.
     public Jogo(int tamanhoTabuleiro, long tempoInicialMs) {
+        this(tamanhoTabuleiro, tempoInicialMs, ThreadLocalRandom.current().nextLong());
+    }
+
+    // Construtor usado na recuperação: mantém o id da partida gravado no diário,
+    // para os clientes continuarem recebendo atualizações incrementais.
+    public Jogo(int tamanhoTabuleiro, long tempoInicialMs, long idPartida) {
+        this.idPartida = idPartida;
         this.tabuleiro = new Tabuleiro(tamanhoTabuleiro); // Cria o tabuleiro.
         this.jogadorAtual = Tabuleiro.PRETO; // Define o Preto como o primeiro a jogar.
         this.tempoInicialMs = tempoInicialMs; // Guarda o tempo total (para reiniciar).
@@ -53,7 +91,7 @@ public class Jogo {
     
     // Método-chave do relógio. É chamado antes de QUALQUER ação (jogar, passar, etc).
     private void descontarTempoAteAgora() {
-        if (gameOver) return; // Se o jogo acabou, não faz nada.
+        if (gameOver || reproduzindo) return; // Se o jogo acabou (ou está sendo recuperado), não faz nada.
 
         long agora = System.currentTimeMillis(); // Pega o tempo atual.
         // Calcula quanto tempo passou desde o início do turno.
@@ -63,10 +101,10 @@ public class Jogo {
         if (jogadorAtual == Tabuleiro.PRETO) {
             tempoPretasRestanteMs = Math.max(0, tempoPretasRestanteMs - decorrido);
             // Se o tempo acabar (chegar a 0), encerra o jogo.
-            if (tempoPretasRestanteMs == 0) { gameOver = true; lastInfo = "Tempo esgotado para Pretas."; }
+            if (tempoPretasRestanteMs == 0) esgotarTempo(Tabuleiro.PRETO);
         } else {
             tempoBrancasRestanteMs = Math.max(0, tempoBrancasRestanteMs - decorrido);
-            if (tempoBrancasRestanteMs == 0) { gameOver = true; lastInfo = "Tempo esgotado para Brancas."; }
+            if (tempoBrancasRestanteMs == 0) esgotarTempo(Tabuleiro.BRANCO);
         }
         
         // "Reancora" o tempo. Se o método for chamado de novo daqui a 1ms,
@@ -82,9 +120,61 @@ public class Jogo {
         turnoIniciadoEmMs = System.currentTimeMillis();
     }
 
+    // Encerra o jogo porque o relógio de 'cor' chegou a zero.
+    private void esgotarTempo(int cor) {
+        gameOver = true;
+        lastInfo = "Tempo esgotado para " + (cor == Tabuleiro.PRETO ? "Pretas." : "Brancas.");
+        registrarLance(Lance.TEMPO_ESGOTADO, cor, -1, -1);
+        avisarFimDePartida();
+    }
+
+    // Registra um comando aceito: aumenta a versão, guarda o lance no histórico
+    // e avisa os ouvintes (junto com a leitura atual dos relógios).
+    private void registrarLance(int tipo, int cor, int x, int y) {
+        versao++;
+        Lance l = new Lance(tipo, cor, x, y, versao, tempoPretasRestanteMs, tempoBrancasRestanteMs);
+        historico.add(l);
+        avisarOuvintes(l);
+    }
+
+    private void avisarOuvintes(Lance l) {
+        if (reproduzindo) return;
+        for (OuvinteJogo o : ouvintes) o.lanceRegistrado(l);
+    }
+
+    // Entrega o histórico completo aos ouvintes quando a partida termina (ex: arquivo de partidas).
+    private void avisarFimDePartida() {
+        if (reproduzindo || ouvintes.isEmpty()) return;
+        List<Lance> copia = new ArrayList<>(historico);
+        for (OuvinteJogo o : ouvintes) o.partidaEncerrada(tabuleiro.getTamanho(), copia);
+    }
+
+    public void adicionarOuvinte(OuvinteJogo o){ ouvintes.add(o); }
+
+    // Completa quando todos os ouvintes guardaram os comandos aceitos até agora
+    // (ver 'OuvinteJogo.gravado'); null se não há o que esperar.
+    public CompletableFuture<Void> gravacaoDosOuvintes(){
+        CompletableFuture<Void> todos = null;
+        for (OuvinteJogo o : ouvintes) {
+            CompletableFuture<Void> f = o.gravado();
+            if (f == null) continue;
+            todos = todos == null ? f : CompletableFuture.allOf(todos, f);
+        }
+        return todos;
+    }
+
     // Ação principal: Tentar fazer uma jogada.
-    // "synchronized" impede que dois jogadores mexam no jogo ao mesmo tempo (segurança).
-    public synchronized boolean fazerJogada(int x, int y, int corJogador){
+    // Mede só a jogada em si (a espera na fila do 'LacoJogo' aparece em "remoto.fazerJogada").
+    public boolean fazerJogada(int x, int y, int corJogador){
+        if (!medido) return jogar(x, y, corJogador);
+        long t0 = System.nanoTime();
+        boolean aceita = jogar(x, y, corJogador);
+        LATENCIA_JOGADA.registrarDesde(t0);
+        if (!aceita) Metricas.jogadaRecusada(lastInfo);
+        return aceita;
+    }
+
+    private boolean jogar(int x, int y, int corJogador){
         // 1. Validação: Se o jogo acabou, avisa e não faz nada.
         if (gameOver) { lastInfo = "Jogo encerrado."; return false; }
         
@@ -99,7 +189,10 @@ public class Jogo {
 
         // 5. Tentativa: Pede ao Tabuleiro para TENTAR a jogada.
         // O Tabuleiro vai validar as regras (Ko, Suicídio, Ocupado).
-        Tabuleiro.MoveResult r = tabuleiro.tentarJogada(x,y,corJogador, ultimoHash);
+        // (Reproduzindo o diário, ou fora do servidor, sem medir: não é uma jogada ao vivo.)
+        Tabuleiro.MoveResult r = reproduzindo || !medido
+                ? tabuleiro.reproduzirJogada(x, y, corJogador, ultimoHash)
+                : tabuleiro.tentarJogada(x, y, corJogador, ultimoHash);
         
         // 6. Validação: Se o Tabuleiro disse que é ilegal, avisa e não faz nada.
         if (!r.legal) { lastInfo = r.reason; return false; }
@@ -118,6 +211,8 @@ public class Jogo {
         ultimasCapturas = r.removed != null ? r.removed : new ArrayList<>();
         consecutivePasses = 0; // Zera o contador de "passar", já que foi uma jogada.
         lastInfo = null; // Limpa a mensagem de status.
+        registrarLance(Lance.JOGADA, corJogador, x, y);
+        if (!reproduzindo && medido) Metricas.jogadaAceita(r.capturadas);
 
         // 8. Passa a vez para o oponente.
         iniciarTurnoDoOponente();
@@ -125,7 +220,7 @@ public class Jogo {
     }
 
     // Ação: Jogador decide "Passar" a vez.
-    public synchronized void passar(int corJogador){
+    public void passar(int corJogador){
         // Validações: Jogo acabou?
         if (gameOver) return;
         // Atualiza o relógio.
@@ -139,11 +234,13 @@ public class Jogo {
         consecutivePasses++; // Aumenta o contador de "passar".
         lastInfo = "Jogador passou."; // Define a mensagem.
         ultimasCapturas = List.of(); // Limpa as capturas (para a animação parar).
+        registrarLance(Lance.PASSE, corJogador, -1, -1);
 
         // Se 2 jogadores passaram em sequência, o jogo acaba.
         if (consecutivePasses >= 2) {
             gameOver = true;
             lastInfo = "Dois passes consecutivos. Jogo encerrado.";
+            avisarFimDePartida();
         } else {
             // Se não, só passa a vez.
             iniciarTurnoDoOponente();
@@ -151,17 +248,19 @@ public class Jogo {
     }
 
     // Ação: Jogador decide "Desistir" do jogo.
-    public synchronized void desistir(int corJogador){
+    public void desistir(int corJogador){
         if (gameOver) return; // Não pode desistir se já acabou.
         
         descontarTempoAteAgora(); // Atualiza o relógio (para a contagem final).
         gameOver = true; // Encerra o jogo imediatamente.
         // Define a mensagem de quem desistiu.
         lastInfo = (corJogador==Tabuleiro.PRETO? "Pretas" : "Brancas") + " desistiram.";
+        registrarLance(Lance.DESISTENCIA, corJogador, -1, -1);
+        avisarFimDePartida();
     }
 
     // Ação: Reinicia o jogo para o estado inicial.
-    public synchronized void reiniciar(){
+    public void reiniciar(){
         int n = tabuleiro.getTamanho();
         // Limpa o tabuleiro (copia um array vazio para ele).
         tabuleiro.copiarDe(new int[n][n]);
@@ -183,19 +282,71 @@ public class Jogo {
         tempoBrancasRestanteMs = tempoInicialMs;
         // E "dispara" o relógio do Preto novamente.
         turnoIniciadoEmMs = System.currentTimeMillis();
+
+        // O histórico recomeça: quem estava numa versão anterior recebe o tabuleiro inteiro.
+        historico.clear();
+        versao++;
+        versaoInicioHistorico = versao;
+        avisarOuvintes(new Lance(Lance.REINICIO, Tabuleiro.VAZIO, -1, -1, versao, tempoPretasRestanteMs, tempoBrancasRestanteMs));
+    }
+
+    /**
+     * Reaplica um lance gravado (ex: lido do diário depois de uma queda do servidor).
+     * O relógio não anda durante a reprodução: os tempos vêm da leitura gravada no lance.
+     * Ao terminar de reproduzir tudo, chame 'retomarRelogio'.
+     */
+    public void reproduzir(Lance l){
+        reproduzindo = true;
+        try {
+            switch (l.tipo) {
+                case Lance.JOGADA:         jogar(l.x, l.y, l.cor); break; // Sem as métricas de 'fazerJogada'.
+                case Lance.PASSE:          passar(l.cor); break;
+                case Lance.DESISTENCIA:    desistir(l.cor); break;
+                case Lance.REINICIO:       reiniciar(); break;
+                case Lance.TEMPO_ESGOTADO: if (!gameOver) esgotarTempo(l.cor); break;
+                default: break;
+            }
+            tempoPretasRestanteMs  = l.tempoPretasMs;
+            tempoBrancasRestanteMs = l.tempoBrancasMs;
+        } finally {
+            reproduzindo = false;
+        }
+    }
+
+    // Aplica uma leitura de relógio gravada (sem comando associado).
+    public void reproduzirRelogio(long tempoPretasMs, long tempoBrancasMs){
+        tempoPretasRestanteMs  = tempoPretasMs;
+        tempoBrancasRestanteMs = tempoBrancasMs;
+    }
+
+    // Depois da recuperação, o turno atual volta a contar a partir de AGORA
+    // (o tempo em que o servidor ficou fora do ar não é cobrado de ninguém).
+    public void retomarRelogio(){
+        turnoIniciadoEmMs = System.currentTimeMillis();
     }
 
     // O método mais importante para a rede (RMI).
     // Tira uma "foto" (snapshot) de todo o estado atual do jogo.
-    public synchronized EstadoJogo snapshotEstado(){
+    public EstadoJogo snapshotEstado(){
+        EventoSnapshot evento = new EventoSnapshot(); // Evento do Flight Recorder (JFR).
+        evento.begin();
         // ATENÇÃO: Sempre atualiza o relógio ANTES de tirar a foto.
         // Isso faz com que a interface (que chama isso de 500 em 500ms)
         // receba o tempo "ao vivo" sendo descontado.
         descontarTempoAteAgora();
+
+        // De vez em quando (no máximo 1x por segundo) repassa os relógios aos ouvintes,
+        // para o diário não perder o tempo de um turno longo se o servidor cair.
+        long agora = System.currentTimeMillis();
+        if (!gameOver && agora - relogioAvisadoEmMs >= 1000) {
+            relogioAvisadoEmMs = agora;
+            for (OuvinteJogo o : ouvintes) o.relogioLido(tempoPretasRestanteMs, tempoBrancasRestanteMs);
+        }
         
         // Cria e envia o "pacote" de dados (EstadoJogo) com todas as infos.
-        return new EstadoJogo(
-            tabuleiro,
+        // O tabuleiro vai congelado: a foto não muda com as próximas jogadas (e não custa uma cópia).
+        EstadoJogo estado = new EstadoJogo(
+            tabuleiro.congelar(),
             jogadorAtual,
             prisioneirosPretas,
             prisioneirosBrancas,
@@ -205,11 +356,22 @@ public class Jogo {
             ultimasCapturas,
             gameOver,
             tempoPretasRestanteMs,
-            tempoBrancasRestanteMs
+            tempoBrancasRestanteMs,
+            idPartida,
+            versao
         );
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.versao = versao;
+            evento.commit();
+        }
+        return estado;
     }
 
     // Getters simples: Funções que só retornam um valor.
+    /** Liga/desliga as métricas das jogadas (ver 'medido'); o padrão é ligado. */
+    public void setMedido(boolean medido){ this.medido = medido; }
+
     public Tabuleiro getTabuleiro(){ return this.tabuleiro; }
     public int getJogadorAtual(){ return this.jogadorAtual; }
     public int getPontuacaoPretas(){ return this.prisioneirosPretas; }
@@ -221,4 +383,12 @@ public class Jogo {
     public boolean isGameOver(){ return gameOver; }
     public long getTempoPretasRestanteMs(){ return tempoPretasRestanteMs; }
     public long getTempoBrancasRestanteMs(){ return tempoBrancasRestanteMs; }
+    public long getIdPartida(){ return idPartida; }
+    public long getTempoInicialMs(){ return tempoInicialMs; }
+    // Quando o relógio do turno atual foi "ancorado" pela última vez (os tempos restantes valem para esse instante).
+    public long getTurnoIniciadoEmMs(){ return turnoIniciadoEmMs; }
+    // Versão do último reinício: o histórico tem os lances a partir da versão seguinte.
+    public long getVersaoInicioHistorico(){ return versaoInicioHistorico; }
+    public long getVersao(){ return versao; }
+    public List<Lance> getHistorico(){ return new ArrayList<>(historico); }
 }
\ No newline at end of file
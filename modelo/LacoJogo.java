@@ -0,0 +1,285 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import metricas.EventoEsperaFila;
+
+/**
+ * O "dono" de um 'Jogo' no servidor: um laço de comandos com um único escritor.
+ *
+ * Em vez de 'synchronized' em cada método do Jogo (onde toda consulta de
+ * estado disputava o mesmo monitor com as jogadas):
+ * - os comandos (jogar, passar, desistir, reiniciar) entram numa fila sem
+ *   locks e são executados EM ORDEM, um de cada vez, por uma só thread;
+ * - depois de cada lote de comandos, o laço publica uma "foto" imutável
+ *   (estado com o tabuleiro congelado, e o histórico);
+ * - as consultas ('estadoAtual', 'atualizacoesDesde', 'getHistorico') só
+ *   leem a última foto publicada: nunca esperam por ninguém.
+ *
+ * Quem executa o laço é quem o encontra parado: a thread que enviou o comando
+ * (a do RMI) roda a fila ela mesma, sem trocar de thread, que é o caso comum de
+ * uma jogada por vez. Se chegam comandos enquanto ela roda, o resto da fila vai
+ * para as "portadoras": poucas threads compartilhadas por todas as partidas do
+ * processo, que uma partida só ocupa enquanto tem comandos na fila. Um servidor
+ * com centenas de partidas usa o mesmo punhado de threads.
+ *
+ * Um ouvinte que promete guardar os comandos (o diário no modo GRUPO, ver
+ * 'OuvinteJogo.gravado') atrasa só a RESPOSTA: o laço publica a foto e segue
+ * para o próximo lote, e os comandos são concluídos quando a gravação termina.
+ *
+ * O relógio anda sozinho: as consultas descontam o tempo passado desde a foto,
+ * e uma vez por segundo o laço "bate" (atualiza os relógios no Jogo, avisa os
+ * ouvintes como o diário e encerra a partida se o tempo de alguém acabou).
+ *
+ * Falhas: os comandos do Jogo não lançam exceção numa partida normal (um lance
+ * ilegal só devolve false). Uma exceção no laço vem de um ouvinte, tipicamente
+ * o diário que não consegue mais gravar, e chega DEPOIS de o comando ter sido
+ * aplicado na memória: o Jogo ficou à frente do diário. Quem vale é o diário.
+ * A partida PARA: o comando que falhou, os outros do mesmo lote e todos os
+ * seguintes terminam com IllegalStateException (o lote pode ou não estar no
+ * diário: o resultado é incerto, como numa queda de rede), as consultas
+ * continuam vendo a última foto publicada e o tique para. Reiniciar o servidor
+ * recupera a partida do diário.
+ */
+public class LacoJogo {
+
+    // Portadoras compartilhadas por todas as partidas (e o "tique" de 1 s de cada uma).
+    private static final AtomicInteger numeroPortadora = new AtomicInteger();
+    private static final ScheduledThreadPoolExecutor PORTADORAS = new ScheduledThreadPoolExecutor(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+                Thread t = new Thread(r, "LacoJogo-" + numeroPortadora.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+    // Máximo de comandos por vez antes de publicar e devolver a thread (para as outras partidas).
+    private static final int LOTE = 64;
+
+    private final Jogo jogo;
+    private final Queue<Comando<?>> fila = new ConcurrentLinkedQueue<>();
+    // true enquanto o laço está agendado ou rodando numa portadora.
+    private final AtomicBoolean agendado = new AtomicBoolean();
+    // true enquanto há um comando "relogio" de tempo esgotado na fila (ver 'estadoComRelogio').
+    private final AtomicBoolean tempoEsgotadoNaFila = new AtomicBoolean();
+    private volatile Foto foto;
+    private final ScheduledFuture<?> tique;
+    // A exceção que parou a partida (ver "Falhas" acima); null enquanto ela anda.
+    // Escrita pelo laço ou pela thread do ouvinte que falhou ao gravar ('parar').
+    private volatile RuntimeException parada;
+
+    // A última "foto" publicada: nada aqui muda depois de criado.
+    private static final class Foto {
+        final EstadoJogo estado;          // Com o tabuleiro congelado ('Tabuleiro.congelar').
+        final long relogioLidoEmMs;       // Instante em que os tempos do 'estado' foram lidos.
+        final List<Lance> historico;      // Imutável.
+        final long versaoInicioHistorico;
+
+        Foto(EstadoJogo estado, long relogioLidoEmMs, List<Lance> historico, long versaoInicioHistorico) {
+            this.estado = estado;
+            this.relogioLidoEmMs = relogioLidoEmMs;
+            this.historico = historico;
+            this.versaoInicioHistorico = versaoInicioHistorico;
+        }
+    }
+
+    // Um comando na fila, com o resultado que a thread que o enviou vai esperar.
+    private static final class Comando<T> {
+        final Supplier<T> acao;
+        final CompletableFuture<T> resultado = new CompletableFuture<>();
+        final EventoEsperaFila espera;
+        private T valor;
+        private RuntimeException erro;
+
+        Comando(String nome, Supplier<T> acao) {
+            this.acao = acao;
+            this.espera = EventoEsperaFila.iniciar(nome);
+        }
+        // Devolve a exceção do comando (null se correu bem).
+        RuntimeException executar() {
+            espera.comecou();
+            try { valor = acao.get(); } catch (RuntimeException e) { erro = e; }
+            return erro;
+        }
+        // Só depois da publicação: quem esperava pelo comando já enxerga o efeito dele.
+        // Com a partida parada, nenhum comando do lote tem resultado garantido.
+        void concluir(RuntimeException parada) {
+            if (parada != null) resultado.completeExceptionally(partidaParada(parada));
+            else if (erro != null) resultado.completeExceptionally(erro);
+            else resultado.complete(valor);
+        }
+    }
+
+    /**
+     * Assume o jogo: daqui para frente, só o laço pode mexer nele.
+     * (Ex: um Jogo recuperado do diário, depois de 'recuperarJogo'.)
+     */
+    public LacoJogo(Jogo jogo) {
+        this.jogo = jogo;
+        publicar(); // Ainda na thread de quem criou: o laço não começou.
+        this.tique = PORTADORAS.scheduleAtFixedRate(() -> enviar("relogio", () -> null), 1, 1, TimeUnit.SECONDS);
+    }
+
+    // ---- Comandos (esperam o laço executar) ----
+
+    public boolean fazerJogada(int x, int y, int cor) {
+        return esperar(enviar("fazerJogada", () -> jogo.fazerJogada(x, y, cor)));
+    }
+    public void passar(int cor) {
+        esperar(enviar("passar", () -> { jogo.passar(cor); return null; }));
+    }
+    public void desistir(int cor) {
+        esperar(enviar("desistir", () -> { jogo.desistir(cor); return null; }));
+    }
+    public void reiniciar() {
+        esperar(enviar("reiniciar", () -> { jogo.reiniciar(); return null; }));
+    }
+    public void adicionarOuvinte(OuvinteJogo o) {
+        esperar(enviar("adicionarOuvinte", () -> { jogo.adicionarOuvinte(o); return null; }));
+    }
+
+    // ---- Consultas (só leem a última foto; nunca bloqueiam) ----
+
+    /** O estado atual, com os relógios andando desde a última foto. */
+    public EstadoJogo estadoAtual() {
+        return estadoComRelogio(foto);
+    }
+
+    /**
+     * O que o cliente (na partida 'idPartidaCliente', versão 'versaoCliente') precisa
+     * para ficar em dia: só os lances que ele perdeu ou, se não der, a foto completa.
+     */
+    public AtualizacaoJogo atualizacoesDesde(long idPartidaCliente, long versaoCliente) {
+        Foto f = foto;
+        EstadoJogo completo = estadoComRelogio(f);
+        boolean coberto = idPartidaCliente == completo.getIdPartida()
+                && versaoCliente >= f.versaoInicioHistorico
+                && versaoCliente <= completo.getVersao();
+        if (!coberto) return new AtualizacaoJogo(completo, null);
+
+        // O lance de índice i no histórico tem versão (versaoInicioHistorico + i + 1).
+        int de = (int) (versaoCliente - f.versaoInicioHistorico);
+        List<Lance> perdidos = new ArrayList<>(f.historico.subList(de, f.historico.size()));
+        return new AtualizacaoJogo(completo.comTabuleiro(null), perdidos);
+    }
+
+    /** Lances da partida atual (desde o último reinício). */
+    public List<Lance> getHistorico() {
+        return new ArrayList<>(foto.historico);
+    }
+
+    // ---- O laço ----
+
+    // Enfileira e, se o laço estava parado, roda a fila aqui mesmo.
+    private <T> CompletableFuture<T> enviar(String nome, Supplier<T> acao) {
+        Comando<T> c = new Comando<>(nome, acao);
+        fila.offer(c);
+        if (agendado.compareAndSet(false, true)) drenar();
+        return c.resultado;
+    }
+
+    // Executa até LOTE comandos, publica a foto nova e só então libera quem esperava.
+    // Aconteça o que acontecer, o laço é liberado e todo comando retirado da fila é
+    // concluído: senão 'agendado' ficaria true para sempre e quem espera, travado.
+    private void drenar() {
+        List<Comando<?>> feitos = new ArrayList<>();
+        CompletableFuture<Void> gravado = null;
+        try {
+            Comando<?> c;
+            while (feitos.size() < LOTE && (c = fila.poll()) != null) {
+                feitos.add(c);
+                if (parada != null) continue; // Parada: só esvazia a fila.
+                RuntimeException erro = c.executar();
+                if (erro != null) parar(erro);
+            }
+            if (parada == null) {
+                publicar();
+                gravado = jogo.gravacaoDosOuvintes();
+            }
+        } catch (RuntimeException e) {
+            parar(e); // Da publicação ('snapshotEstado' avisa os ouvintes do relógio).
+        } finally {
+            agendado.set(false);
+            if (gravado == null || parada != null) {
+                RuntimeException p = parada;
+                for (Comando<?> f : feitos) f.concluir(p);
+            } else {
+                // A resposta espera a gravação, mas o laço não: a thread fica livre para o próximo lote.
+                gravado.whenComplete((v, erro) -> {
+                    if (erro != null) parar(causa(erro));
+                    RuntimeException p = parada;
+                    for (Comando<?> f : feitos) f.concluir(p);
+                });
+            }
+        }
+        // Sobrou fila (lote cheio, ou um comando entrou depois do último 'poll' e antes do
+        // 'set(false)', e quem o enviou viu o laço ocupado): vai para uma portadora, para
+        // não prender aqui a thread de quem só queria a própria jogada.
+        if (!fila.isEmpty() && agendado.compareAndSet(false, true)) PORTADORAS.execute(this::drenar);
+    }
+
+    private synchronized void parar(RuntimeException causa) {
+        if (parada != null) return;
+        parada = causa;
+        tique.cancel(false);
+        System.err.println("Partida parada: " + causa);
+    }
+
+    private static RuntimeException causa(Throwable erro) {
+        Throwable c = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+        return c instanceof RuntimeException ? (RuntimeException) c : new IllegalStateException(c);
+    }
+
+    private static IllegalStateException partidaParada(RuntimeException causa) {
+        return new IllegalStateException("Partida parada depois de uma falha (o diário é quem vale): " + causa.getMessage(), causa);
+    }
+
+    private void publicar() {
+        // 'snapshotEstado' também desconta o relógio e avisa os ouvintes (no máximo 1x por segundo).
+        EstadoJogo e = jogo.snapshotEstado();
+        Foto anterior = foto;
+        // O histórico só muda com a versão: sem comando novo, reaproveita a cópia.
+        // (O tabuleiro já vem congelado, e 'congelar' sem jogadas devolve a mesma versão.)
+        boolean mesmaVersao = anterior != null && anterior.estado.getVersao() == e.getVersao();
+        List<Lance> historico = mesmaVersao ? anterior.historico : Collections.unmodifiableList(jogo.getHistorico());
+        foto = new Foto(e, jogo.getTurnoIniciadoEmMs(), historico, jogo.getVersaoInicioHistorico());
+    }
+
+    private EstadoJogo estadoComRelogio(Foto f) {
+        EstadoJogo e = f.estado;
+        if (e.isGameOver()) return e;
+        long decorrido = System.currentTimeMillis() - f.relogioLidoEmMs;
+        if (decorrido <= 0) return e;
+        long pretas = e.getTempoPretasMs(), brancas = e.getTempoBrancasMs();
+        if (e.getJogadorAtual() == Tabuleiro.PRETO) pretas = Math.max(0, pretas - decorrido);
+        else brancas = Math.max(0, brancas - decorrido);
+        // O tempo acabou entre dois tiques: pede a uma portadora para encerrar a partida já
+        // (quem só está consultando não roda comando nenhum). Até a foto nova sair, todas
+        // as consultas caem aqui: só a primeira enfileira o comando.
+        if ((pretas == 0 || brancas == 0) && parada == null && tempoEsgotadoNaFila.compareAndSet(false, true)) {
+            fila.offer(new Comando<>("relogio", () -> { tempoEsgotadoNaFila.set(false); return null; }));
+            if (agendado.compareAndSet(false, true)) PORTADORAS.execute(this::drenar);
+        }
+        return e.comRelogios(pretas, brancas);
+    }
+
+    // Espera o comando; um erro dentro do laço é relançado aqui, na thread de quem pediu.
+    private static <T> T esperar(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+}
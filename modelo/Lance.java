@@ -0,0 +1,55 @@
+package modelo;
+
+import java.io.Serializable;
+
+/**
+ * Registro de um comando ACEITO pelo 'Jogo' (jogada, passe, desistência ou reinício).
+ *
+ * Cada lance carrega a 'versao' do jogo que ele produziu. Assim, um cliente que
+ * conhece a versão N só precisa receber os lances com versão maior que N para
+ * reconstruir o tabuleiro localmente (ressincronização incremental).
+ */
+public class Lance implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // Tipos de comando registrados.
+    public static final int JOGADA      = 0;
+    public static final int PASSE       = 1;
+    public static final int DESISTENCIA = 2;
+    public static final int REINICIO    = 3;
+    public static final int TEMPO_ESGOTADO = 4; // O relógio de 'cor' chegou a zero.
+
+    public final int tipo;     // Um dos tipos acima.
+    public final int cor;      // Quem executou o comando (PRETO/BRANCO, ou VAZIO no reinício).
+    public final int x, y;     // Coordenadas da jogada (-1 se não for JOGADA).
+    public final long versao;  // Versão do jogo APÓS este comando.
+
+    // Leitura dos relógios logo APÓS o comando (para recuperar o tempo depois de uma queda).
+    public final long tempoPretasMs;
+    public final long tempoBrancasMs;
+
+    public Lance(int tipo, int cor, int x, int y, long versao, long tempoPretasMs, long tempoBrancasMs) {
+        this.tipo = tipo;
+        this.cor = cor;
+        this.x = x;
+        this.y = y;
+        this.versao = versao;
+        this.tempoPretasMs = tempoPretasMs;
+        this.tempoBrancasMs = tempoBrancasMs;
+    }
+
+    /**
+     * Reaplica este lance em um tabuleiro local (ex: a cópia do cliente).
+     * O servidor já validou o lance, então não há verificação de Ko aqui
+     * (nem métricas: não é uma jogada ao vivo).
+     */
+    public void aplicarEm(Tabuleiro t) {
+        if (tipo == JOGADA) {
+            t.reproduzirJogada(x, y, cor, null);
+        } else if (tipo == REINICIO) {
+            int n = t.getTamanho();
+            t.copiarDe(new int[n][n]);
+        }
+        // PASSE, DESISTENCIA e TEMPO_ESGOTADO não mexem no tabuleiro.
+    }
+}
@@ -0,0 +1,368 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Leitura tática: "este grupo pode ser capturado?" (escadas, redes e
+ * vida-e-morte simples de grupos pequenos).
+ *
+ * Busca em profundidade limitada sobre 'Tabuleiro.jogarBusca/desfazerBusca'
+ * (sem alocar por nó):
+ * - o atacante tenta as liberdades do grupo e, com 2 liberdades nos primeiros
+ *   lances da leitura, também os pontos vizinhos delas (a "rede", ou geta);
+ * - o defensor tenta estender nas liberdades, capturar um vizinho em atari
+ *   ou simplesmente não responder (jogar em outro lugar);
+ * - com LIBERDADES_SEGURAS liberdades o grupo é dado como salvo (3, depois dos
+ *   primeiros lances: é o que decide uma escada).
+ * O Ko é ignorado. Passando do limite de profundidade ou de nós, a resposta
+ * é DESCONHECIDO.
+ *
+ * Várias leituras rodam em paralelo (uma por thread, cada uma com a sua cópia
+ * do tabuleiro) e dividem uma tabela de transposição sem locks, indexada
+ * pelo hash de Zobrist da posição: um grupo lido numa thread já vem pronto
+ * para as outras. As estatísticas (nós, nós/s, acertos na tabela) ficam em
+ * contadores sem locks.
+ */
+public class LeitorTatico {
+
+    public enum Resultado { CAPTURA, ESCAPA, DESCONHECIDO }
+
+    /** Com esta quantidade de liberdades (ou mais), o grupo é dado como salvo. */
+    public static final int LIBERDADES_SEGURAS = 4;
+    /** Lances por leitura (uma escada atravessa o tabuleiro: ~2 lances por casa). */
+    public static final int PROFUNDIDADE_PADRAO = 48;
+    /** Nós por leitura antes de desistir (DESCONHECIDO). */
+    public static final int LIMITE_NOS_PADRAO = 200_000;
+    // Só nos primeiros lances da leitura o atacante tenta a rede e ataca grupos com 3
+    // liberdades: mais fundo, isso multiplicaria a busca (cada atari de uma escada viraria
+    // uma dezena de candidatos) sem achar nada que a escada já não ache.
+    private static final int LANCES_INICIAIS = 3;
+
+    /** O resultado das duas leituras de um grupo: com o atacante e com o defensor jogando primeiro. */
+    public static final class Leitura {
+        public final int x, y;          // Uma pedra do grupo.
+        public final int cor;
+        public final int liberdades;
+        public final Resultado atacanteJoga;
+        public final Resultado defensorJoga;
+
+        Leitura(int x, int y, int cor, int liberdades, Resultado atacanteJoga, Resultado defensorJoga) {
+            this.x = x; this.y = y; this.cor = cor; this.liberdades = liberdades;
+            this.atacanteJoga = atacanteJoga; this.defensorJoga = defensorJoga;
+        }
+
+        /** Capturado mesmo que o dono jogue primeiro. */
+        public boolean isMorto(){ return defensorJoga == Resultado.CAPTURA; }
+        /** Capturado se o oponente jogar primeiro, salvo se o dono responder. */
+        public boolean isEmPerigo(){ return atacanteJoga == Resultado.CAPTURA && defensorJoga == Resultado.ESCAPA; }
+    }
+
+    // Tabela de transposição: duas posições de long por entrada, [chave ^ dado, dado].
+    // Quem lê confere o XOR: uma entrada "rasgada" (escrita por outra thread no meio
+    // da leitura) não confere e vale como ausente. Sem locks e sem CAS.
+    private final AtomicLongArray tabela;
+    private final int mascara;
+    private final int profundidade;
+    private final int limiteNos;
+    private final ExecutorService executor;
+
+    private final LongAdder nos = new LongAdder();
+    private final LongAdder leituras = new LongAdder();
+    private final LongAdder consultas = new LongAdder();
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /** Tabela com 2^16 entradas (1 MB) e uma thread por núcleo. */
+    public LeitorTatico() {
+        this(16, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param bitsTabela a tabela terá 2^bitsTabela entradas (16 bytes cada)
+     * @param threads    quantas leituras rodam ao mesmo tempo em 'lerGruposFracos'
+     */
+    public LeitorTatico(int bitsTabela, int threads) {
+        this(bitsTabela, threads, PROFUNDIDADE_PADRAO, LIMITE_NOS_PADRAO);
+    }
+
+    public LeitorTatico(int bitsTabela, int threads, int profundidade, int limiteNos) {
+        this.tabela = new AtomicLongArray(2 << bitsTabela);
+        this.mascara = (1 << bitsTabela) - 1;
+        this.profundidade = profundidade;
+        this.limiteNos = limiteNos;
+        AtomicInteger numero = new AtomicInteger();
+        ThreadPoolExecutor e = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "LeitorTatico-" + numero.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        e.allowCoreThreadTimeOut(true); // Parado, não segura threads.
+        this.executor = e;
+    }
+
+    /**
+     * Lê o grupo da pedra em (x, y): ele pode ser capturado?
+     * Roda nesta thread, numa cópia de 't' (chame da thread dona de 't', ou passe uma versão congelada).
+     *
+     * @param atacanteJoga true se é a vez do oponente do grupo
+     */
+    public Resultado ler(Tabuleiro t, int x, int y, boolean atacanteJoga) {
+        if (t.get(x, y) == Tabuleiro.VAZIO) throw new IllegalArgumentException("Não há pedra em " + x + "," + y);
+        return new Busca(t.copiar(), x, y).ler(atacanteJoga);
+    }
+
+    /**
+     * Lê, em paralelo, todos os grupos com até 'maxLiberdades' liberdades: para
+     * cada um, com o atacante e com o defensor jogando primeiro.
+     * Chame da thread dona de 't' (ou passe uma versão congelada).
+     */
+    public List<Leitura> lerGruposFracos(Tabuleiro t, int maxLiberdades) {
+        Tabuleiro base = t.congelar(); // As threads copiam desta versão (copiar uma versão congelada não a altera).
+        Tabuleiro trabalho = base.copiar();
+        int n = t.getTamanho();
+        boolean[] visto = new boolean[n * n];
+        int[] pedras = new int[n * n];
+        List<int[]> alvos = new ArrayList<>();
+        for (int p = 0; p < n * n; p++) {
+            if (visto[p] || trabalho.get(p / n, p % n) == Tabuleiro.VAZIO) continue;
+            int k = trabalho.pedras(p / n, p % n, pedras);
+            for (int i = 0; i < k; i++) visto[pedras[i]] = true;
+            int libs = trabalho.contarLiberdades(p / n, p % n, maxLiberdades + 1);
+            if (libs <= maxLiberdades) alvos.add(new int[]{p / n, p % n, libs}); // 'p' é a menor pedra do grupo.
+        }
+
+        List<CompletableFuture<Resultado>> ataques = new ArrayList<>(), defesas = new ArrayList<>();
+        for (int[] a : alvos) {
+            ataques.add(CompletableFuture.supplyAsync(() -> new Busca(base.copiar(), a[0], a[1]).ler(true), executor));
+            defesas.add(CompletableFuture.supplyAsync(() -> new Busca(base.copiar(), a[0], a[1]).ler(false), executor));
+        }
+        List<Leitura> resultado = new ArrayList<>(alvos.size());
+        for (int i = 0; i < alvos.size(); i++) {
+            int[] a = alvos.get(i);
+            resultado.add(new Leitura(a[0], a[1], base.get(a[0], a[1]), a[2], ataques.get(i).join(), defesas.get(i).join()));
+        }
+        return resultado;
+    }
+
+    // ---- Estatísticas ----
+
+    public long getNos(){ return nos.sum(); }
+    public long getLeituras(){ return leituras.sum(); }
+    public long getConsultasTabela(){ return consultas.sum(); }
+    public long getAcertosTabela(){ return acertos.sum(); }
+    public double getTaxaAcertos(){ long c = consultas.sum(); return c == 0 ? 0 : (double) acertos.sum() / c; }
+    /** Nós por segundo de UMA thread buscando (o total do processo é isto vezes as threads ocupadas). */
+    public double getNosPorSegundoPorThread(){ long ns = nanos.sum(); return ns == 0 ? 0 : nos.sum() * 1e9 / ns; }
+
+    public String resumo() {
+        return String.format("%d leituras, %d nós (%.0f nós/s por thread), tabela: %.1f%% de acertos em %d consultas",
+                getLeituras(), getNos(), getNosPorSegundoPorThread(), 100 * getTaxaAcertos(), getConsultasTabela());
+    }
+
+    public void zerarEstatisticas() {
+        nos.reset(); leituras.reset(); consultas.reset(); acertos.reset(); nanos.reset();
+    }
+
+    /** Libera as threads (o leitor não deve mais ser usado). */
+    public void encerrar() {
+        executor.shutdown();
+    }
+
+    // ---- Tabela de transposição ----
+
+    // Dado guardado: bit 0-1 = resultado, bits 2-9 = profundidade restante, bit 10 = entrada ocupada.
+    private static final long OCUPADA = 1L << 10;
+    private static final Resultado[] RESULTADOS = Resultado.values(); // values() copia o array a cada chamada.
+
+    private long chave(long hashPosicao, int alvo, boolean atacanteJoga) {
+        long h = hashPosicao ^ ((alvo + 1) * 0x9E3779B97F4A7C15L) ^ (atacanteJoga ? 0x6A09E667F3BCC909L : 0L);
+        // Mistura final (do MurmurHash3), para os bits baixos, que escolhem a entrada, dependerem de todos.
+        h ^= h >>> 33; h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33; h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    // O dado guardado para 'chave', ou 0 se não há.
+    private long sondar(long chave) {
+        int i = ((int) chave & mascara) << 1;
+        long dado = tabela.get(i + 1);
+        return (dado & OCUPADA) != 0 && (tabela.get(i) ^ dado) == chave ? dado : 0;
+    }
+
+    private void guardar(long chave, Resultado r, int prof) {
+        int i = ((int) chave & mascara) << 1;
+        long dado = r.ordinal() | ((long) Math.min(prof, 255) << 2) | OCUPADA;
+        tabela.lazySet(i, chave ^ dado);
+        tabela.lazySet(i + 1, dado);
+    }
+
+    // ---- Busca (uma por leitura, numa thread só) ----
+
+    private final class Busca {
+        private final Tabuleiro t;
+        private final int tam, x, y, alvo;
+        private final int defensor, atacante;
+        private final int[][] candidatos;  // Um vetor por nível (a recursão não sobrescreve o do pai).
+        private final int[] pedras, umaLiberdade = new int[1];
+        private int orcamento;
+        private boolean estourou;           // Passou do limite de nós: nada mais é guardado na tabela.
+        private long nosLocais, consultasLocais, acertosLocais;
+
+        Busca(Tabuleiro t, int x, int y) {
+            this.t = t;
+            this.tam = t.getTamanho();
+            this.x = x; this.y = y;
+            this.alvo = x * tam + y;
+            this.defensor = t.get(x, y);
+            this.atacante = defensor == Tabuleiro.PRETO ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+            this.candidatos = new int[profundidade + 1][];
+            this.pedras = new int[tam * tam];
+            this.orcamento = limiteNos;
+        }
+
+        Resultado ler(boolean atacanteJoga) {
+            long t0 = System.nanoTime();
+            Resultado r = atacanteJoga ? atacar(profundidade) : defender(profundidade);
+            nanos.add(System.nanoTime() - t0);
+            nos.add(nosLocais);
+            consultas.add(consultasLocais);
+            acertos.add(acertosLocais);
+            leituras.increment();
+            return r;
+        }
+
+        // Vez do atacante: algum lance captura o grupo?
+        private Resultado atacar(int prof) {
+            nosLocais++;
+            if (t.get(x, y) != defensor) return Resultado.CAPTURA;
+            int seguras = inicio(prof) ? LIBERDADES_SEGURAS : 3;
+            int libs = t.contarLiberdades(x, y, seguras);
+            if (libs >= seguras) return Resultado.ESCAPA;
+            if (prof == 0 || --orcamento < 0) { estourou |= orcamento < 0; return Resultado.DESCONHECIDO; }
+            long chave = chave(t.getHashZobrist(), alvo, true);
+            Resultado salvo = consultar(chave, prof);
+            if (salvo != null) return salvo;
+
+            int[] cand = nivel(prof);
+            int n = t.liberdades(x, y, cand);
+            if (libs == 2 && inicio(prof)) n = acrescentarVizinhosDasLiberdades(cand, n); // Rede (geta).
+            Resultado melhor = Resultado.ESCAPA;
+            for (int i = 0; i < n; i++) {
+                if (t.jogarBusca(cand[i] / tam, cand[i] % tam, atacante) < 0) continue;
+                Resultado r = defender(prof - 1);
+                t.desfazerBusca();
+                if (r == Resultado.CAPTURA) { melhor = r; break; }
+                if (r == Resultado.DESCONHECIDO) melhor = r;
+            }
+            if (!estourou) guardar(chave, melhor, prof);
+            return melhor;
+        }
+
+        // Vez do defensor: algum lance (ou nenhum) salva o grupo?
+        private Resultado defender(int prof) {
+            nosLocais++;
+            if (t.get(x, y) != defensor) return Resultado.CAPTURA;
+            int seguras = inicio(prof) ? LIBERDADES_SEGURAS : 3;
+            int libs = t.contarLiberdades(x, y, seguras);
+            if (libs >= seguras) return Resultado.ESCAPA;
+            if (prof == 0 || --orcamento < 0) { estourou |= orcamento < 0; return Resultado.DESCONHECIDO; }
+            long chave = chave(t.getHashZobrist(), alvo, false);
+            Resultado salvo = consultar(chave, prof);
+            if (salvo != null) return salvo;
+
+            Resultado melhor = Resultado.CAPTURA;
+            // Fora de atari, não responder também é uma defesa (o atacante joga de novo).
+            if (libs >= 2) {
+                Resultado r = atacar(prof - 1);
+                if (r != Resultado.CAPTURA) melhor = r;
+            }
+            if (melhor != Resultado.ESCAPA) {
+                int[] cand = nivel(prof);
+                int n = t.liberdades(x, y, cand);
+                n = acrescentarCapturas(cand, n);
+                for (int i = 0; i < n; i++) {
+                    if (t.jogarBusca(cand[i] / tam, cand[i] % tam, defensor) < 0) continue;
+                    Resultado r = atacar(prof - 1);
+                    t.desfazerBusca();
+                    if (r == Resultado.ESCAPA) { melhor = r; break; }
+                    if (r == Resultado.DESCONHECIDO) melhor = r;
+                }
+            }
+            if (!estourou) guardar(chave, melhor, prof);
+            return melhor;
+        }
+
+        // Um resultado definitivo vale para qualquer profundidade; um DESCONHECIDO, só se
+        // foi lido com pelo menos a profundidade que ainda temos.
+        private Resultado consultar(long chave, int prof) {
+            consultasLocais++;
+            long dado = sondar(chave);
+            if (dado == 0) return null;
+            Resultado r = RESULTADOS[(int) (dado & 3)];
+            if (r == Resultado.DESCONHECIDO && ((dado >>> 2) & 255) < prof) return null;
+            acertosLocais++;
+            return r;
+        }
+
+        private boolean inicio(int prof){ return profundidade - prof < LANCES_INICIAIS; }
+
+        private int[] nivel(int prof) {
+            if (candidatos[prof] == null) candidatos[prof] = new int[tam * tam];
+            return candidatos[prof];
+        }
+
+        // Pontos vazios vizinhos das liberdades (onde costuma estar o lance de rede).
+        private int acrescentarVizinhosDasLiberdades(int[] cand, int n) {
+            int libs = n;
+            for (int i = 0; i < libs; i++) {
+                int lx = cand[i] / tam, ly = cand[i] % tam;
+                n = acrescentarSeVazio(cand, n, lx + 1, ly);
+                n = acrescentarSeVazio(cand, n, lx - 1, ly);
+                n = acrescentarSeVazio(cand, n, lx, ly + 1);
+                n = acrescentarSeVazio(cand, n, lx, ly - 1);
+            }
+            return n;
+        }
+
+        // A liberdade de cada grupo do atacante, vizinho do alvo, que está em atari (capturar = ganhar liberdades).
+        private int acrescentarCapturas(int[] cand, int n) {
+            int k = t.pedras(x, y, pedras);
+            for (int i = 0; i < k; i++) {
+                int px = pedras[i] / tam, py = pedras[i] % tam;
+                n = acrescentarCaptura(cand, n, px + 1, py);
+                n = acrescentarCaptura(cand, n, px - 1, py);
+                n = acrescentarCaptura(cand, n, px, py + 1);
+                n = acrescentarCaptura(cand, n, px, py - 1);
+            }
+            return n;
+        }
+
+        private int acrescentarCaptura(int[] cand, int n, int qx, int qy) {
+            if (!t.posicaoValida(qx, qy) || t.get(qx, qy) != atacante) return n;
+            if (t.contarLiberdades(qx, qy, 2) != 1) return n;
+            t.liberdades(qx, qy, umaLiberdade);
+            return acrescentar(cand, n, umaLiberdade[0]);
+        }
+
+        private int acrescentarSeVazio(int[] cand, int n, int qx, int qy) {
+            if (!t.posicaoValida(qx, qy) || t.get(qx, qy) != Tabuleiro.VAZIO) return n;
+            return acrescentar(cand, n, qx * tam + qy);
+        }
+
+        private int acrescentar(int[] cand, int n, int p) {
+            for (int i = 0; i < n; i++) if (cand[i] == p) return n;
+            if (n < cand.length) cand[n++] = p;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package modelo;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * "Ouvinte" dos comandos aceitos por um 'Jogo' (ex: o diário em disco).
+ *
+ * Os métodos são chamados na thread que está rodando o Jogo (no servidor, o
+ * escritor único do 'LacoJogo', que pode estar servindo outras partidas),
+ * logo depois de o comando ser aplicado e na mesma ordem em que foram aceitos.
+ * Por isso devem ser rápidos: nada de I/O bloqueante aqui. Uma exceção aqui
+ * para a partida (ver 'LacoJogo').
+ */
+public interface OuvinteJogo {
+    // Um comando foi aceito (jogada, passe, desistência, reinício, tempo esgotado).
+    void lanceRegistrado(Lance lance);
+
+    // Leitura periódica dos relógios, mesmo sem comandos (no máximo uma vez por segundo).
+    default void relogioLido(long tempoPretasMs, long tempoBrancasMs) {}
+
+    // A partida terminou (dois passes, desistência ou tempo). 'lances' é uma cópia
+    // do histórico completo da partida, que o ouvinte pode guardar.
+    default void partidaEncerrada(int tamanho, List<Lance> lances) {}
+
+    // Completa quando tudo o que o ouvinte recebeu até agora estiver seguro (ex: no
+    // disco); null se já está, ou se o ouvinte não promete nada. O 'LacoJogo' só
+    // responde aos comandos depois disso, sem prender a thread do laço esperando.
+    default CompletableFuture<Void> gravado() { return null; }
+}
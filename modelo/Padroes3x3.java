@@ -0,0 +1,127 @@
+package modelo;
+
+/**
+ * Padrões 3x3: a vizinhança de um ponto vazio resumida num código de 16 bits,
+ * e uma tabela pré-calculada de pesos por código (para escolher lances de playout).
+ *
+ * Cada um dos 8 vizinhos ocupa 2 bits, na ordem de DX/DY (linha a linha, sem o
+ * centro): VAZIO (0), BRANCO (1), PRETO (2) ou FORA do tabuleiro (3). Os valores
+ * são as próprias constantes do 'Tabuleiro', e a direção oposta à de índice k é
+ * a de índice 7-k: quando uma peça muda, o 'Tabuleiro' acerta os 8 códigos em
+ * volta com um XOR cada, sem recalcular nada.
+ *
+ * Os pesos saem de regras simples de Go, avaliadas uma vez só para os 65536
+ * códigos e as duas cores (128 KB): consultar o peso de um lance é ler um byte.
+ */
+public final class Padroes3x3 {
+
+    /** Deslocamento do vizinho k (0..7); o oposto de k é 7-k. */
+    public static final int[] DX = {-1, -1, -1, 0, 0, 1, 1, 1};
+    public static final int[] DY = {-1, 0, 1, -1, 1, -1, 0, 1};
+    /** Valor de um vizinho fora do tabuleiro. */
+    public static final int FORA = 3;
+    /** Número de códigos possíveis. */
+    public static final int CODIGOS = 1 << 16;
+
+    // Vizinhos laterais (N, O, L, S) e diagonais.
+    private static final int[] LATERAIS = {1, 3, 4, 6};
+    private static final int[] DIAGONAIS = {0, 2, 5, 7};
+    // Cada par de laterais vizinhas e a diagonal entre elas: N-O/NO, N-L/NE, S-O/SO, S-L/SE.
+    private static final int[][] CANTOS = {{1, 3, 0}, {1, 4, 2}, {6, 3, 5}, {6, 4, 7}};
+
+    // Pesos das regras (a base é a de um ponto qualquer).
+    private static final int BASE = 10;
+    private static final int PRIMEIRA_LINHA_VAZIA = 4;
+    private static final int CONTATO = 15;
+    private static final int HANE = 10;
+    private static final int CORTE = 15;
+    private static final int LIGACAO = 10;
+    private static final int AUTO_ATARI = 2;
+    private static final int OLHO_DO_OPONENTE = 1;
+
+    // PESOS[(cor == PRETO ? 0 : CODIGOS) + codigo], sem sinal.
+    private static final byte[] PESOS = new byte[2 * CODIGOS];
+    /** O maior peso da tabela (para a amostragem por rejeição). */
+    public static final int PESO_MAXIMO;
+
+    static {
+        int maior = 1;
+        for (int codigo = 0; codigo < CODIGOS; codigo++) {
+            int pretas = calcular(codigo, Tabuleiro.PRETO);
+            int brancas = calcular(codigo, Tabuleiro.BRANCO);
+            PESOS[codigo] = (byte) pretas;
+            PESOS[CODIGOS + codigo] = (byte) brancas;
+            maior = Math.max(maior, Math.max(pretas, brancas));
+        }
+        PESO_MAXIMO = maior;
+    }
+
+    private Padroes3x3() {}
+
+    /** O que há no vizinho k (0..7) do código: VAZIO, BRANCO, PRETO ou FORA. */
+    public static int vizinho(int codigo, int k) {
+        return (codigo >>> (2 * k)) & 3;
+    }
+
+    /** Peso (0 a PESO_MAXIMO) de 'cor' jogar num ponto com esta vizinhança; 0 = nunca. */
+    public static int peso(int codigo, int cor) {
+        return PESOS[(cor == Tabuleiro.PRETO ? 0 : CODIGOS) + codigo] & 0xFF;
+    }
+
+    /**
+     * Se o ponto vazio é "olho" de alguém: as 4 laterais da mesma cor (ou fora).
+     * @return a cor dona do olho, ou VAZIO.
+     */
+    public static int donoOlho(int codigo) {
+        int dono = Tabuleiro.VAZIO;
+        for (int k : LATERAIS) {
+            int v = vizinho(codigo, k);
+            if (v == FORA) continue;
+            if (v == Tabuleiro.VAZIO || (dono != Tabuleiro.VAZIO && v != dono)) return Tabuleiro.VAZIO;
+            dono = v;
+        }
+        return dono;
+    }
+
+    private static int calcular(int codigo, int cor) {
+        int oponente = (cor == Tabuleiro.PRETO) ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+        int meus = 0, deles = 0, fora = 0;
+        for (int k : LATERAIS) {
+            int v = vizinho(codigo, k);
+            if (v == cor) meus++;
+            else if (v == oponente) deles++;
+            else if (v == FORA) fora++;
+        }
+        int diagonaisDeles = 0, diagonaisFora = 0, diagonaisOcupadas = 0;
+        for (int k : DIAGONAIS) {
+            int v = vizinho(codigo, k);
+            if (v == oponente) diagonaisDeles++;
+            else if (v == FORA) diagonaisFora++;
+            if (v == cor || v == oponente) diagonaisOcupadas++;
+        }
+        int vazias = 4 - meus - deles - fora;
+
+        // Olho próprio: preencher é jogar fora uma vida. Na borda, qualquer diagonal
+        // do oponente já o torna falso; no meio, só a segunda.
+        if (meus + fora == 4) {
+            int tolerancia = (fora + diagonaisFora > 0) ? 0 : 1;
+            if (diagonaisDeles <= tolerancia) return 0;
+        }
+        // Olho do oponente: só é legal se capturar, e o sorteio descobre isso jogando.
+        if (deles + fora == 4) return OLHO_DO_OPONENTE;
+        // Pedra sozinha com uma liberdade: quase sempre auto-atari.
+        if (meus == 0 && vazias == 1) return AUTO_ATARI;
+
+        int peso = (fora > 0 && meus + deles + diagonaisOcupadas == 0) ? PRIMEIRA_LINHA_VAZIA : BASE;
+        if (deles > 0) peso += CONTATO;
+        if (deles > 0 && meus > 0) peso += HANE;
+        for (int[] c : CANTOS) {
+            int a = vizinho(codigo, c[0]), b = vizinho(codigo, c[1]), d = vizinho(codigo, c[2]);
+            // Duas pedras do oponente que só se ligam por aqui: corta.
+            if (a == oponente && b == oponente && d != oponente) peso += CORTE;
+            // Duas minhas que o oponente cortaria aqui: liga.
+            if (a == cor && b == cor && d != cor) peso += LIGACAO;
+        }
+        return peso;
+    }
+}
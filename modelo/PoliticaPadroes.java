@@ -0,0 +1,98 @@
+package modelo;
+
+import java.util.SplittableRandom;
+
+/**
+ * Política de playout pelos padrões 3x3: sorteia lances com probabilidade
+ * proporcional ao peso da vizinhança de cada ponto ('Padroes3x3').
+ *
+ * Nada é recalculado a cada lance: o 'Tabuleiro' já mantém o código 3x3 de
+ * cada ponto e a lista de pontos vazios. Para sortear, escolhe um vazio
+ * qualquer e o aceita com chance peso/PESO_MAXIMO (amostragem por rejeição):
+ * custo esperado O(1), sem alocar nada. Só quando quase todo vazio tem peso 0
+ * (o fim da partida, com os olhos de cada lado) é que percorre a lista.
+ *
+ * Como as jogadas de busca, usa o estado do próprio tabuleiro: um tabuleiro
+ * (uma cópia) por thread.
+ */
+public final class PoliticaPadroes {
+
+    /** Sorteios antes de desistir da rejeição e percorrer os vazios. */
+    private static final int TENTATIVAS = 32;
+    /** Jogadas ilegais (suicídio) seguidas antes de passar a vez. */
+    private static final int ILEGAIS_ANTES_DE_PASSAR = 8;
+
+    private PoliticaPadroes() {}
+
+    /**
+     * Sorteia um lance de 'cor' proporcional ao peso dos padrões.
+     * @return o ponto (x*tam + y), ou -1 se nenhum vazio tem peso (passar).
+     *         O ponto ainda pode ser suicídio: 'jogarBusca' diz.
+     */
+    public static int escolher(Tabuleiro t, int cor, SplittableRandom rnd) {
+        int n = t.getNumVazios();
+        if (n == 0) return -1;
+        for (int i = 0; i < TENTATIVAS; i++) {
+            int p = t.getVazio(rnd.nextInt(n));
+            if (rnd.nextInt(Padroes3x3.PESO_MAXIMO) < Padroes3x3.peso(t.getPadrao3x3(p), cor)) return p;
+        }
+        // Poucos vazios com peso: um sorteio exato entre eles (O(vazios), raro).
+        int soma = 0;
+        for (int i = 0; i < n; i++) soma += Padroes3x3.peso(t.getPadrao3x3(t.getVazio(i)), cor);
+        if (soma == 0) return -1;
+        int alvo = rnd.nextInt(soma);
+        for (int i = 0; i < n; i++) {
+            int p = t.getVazio(i);
+            alvo -= Padroes3x3.peso(t.getPadrao3x3(p), cor);
+            if (alvo < 0) return p;
+        }
+        return -1;
+    }
+
+    /**
+     * Joga a partida até o fim (dois passes seguidos) a partir de 't', com 'cor' na
+     * vez, conta os pontos por área e devolve o tabuleiro como o recebeu (desfazendo
+     * os lances). Sem Ko: uma briga de Ko só dura até o limite de 3*N*N lances.
+     * @return pontos das pretas menos os das brancas (sem komi).
+     */
+    public static int playout(Tabuleiro t, int cor, SplittableRandom rnd) {
+        int tam = t.getTamanho();
+        int limite = 3 * tam * tam;
+        int jogados = 0, passesSeguidos = 0;
+        for (int lance = 0; lance < limite && passesSeguidos < 2; lance++) {
+            int jogou = -1;
+            for (int tentativa = 0; tentativa < ILEGAIS_ANTES_DE_PASSAR && jogou < 0; tentativa++) {
+                int p = escolher(t, cor, rnd);
+                if (p < 0) break;
+                if (t.jogarBusca(p / tam, p % tam, cor) >= 0) jogou = p;
+            }
+            if (jogou >= 0) { jogados++; passesSeguidos = 0; }
+            else passesSeguidos++;
+            cor = (cor == Tabuleiro.PRETO) ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+        }
+        int placar = pontuarFimDePlayout(t);
+        for (int i = 0; i < jogados; i++) t.desfazerBusca();
+        return placar;
+    }
+
+    /**
+     * Contagem rápida do fim de um playout: pedras mais os vazios cujos vizinhos
+     * (dentro do tabuleiro) são todos da mesma cor: olhos de um ponto só. Não é uma regra de contagem:
+     * só acerta quando todo vazio que sobrou é um olho assim, como no fim de um
+     * playout. Para contar uma partida de verdade, use 'Tabuleiro.pontuarArea'.
+     * @return pontos das pretas menos os das brancas.
+     */
+    static int pontuarFimDePlayout(Tabuleiro t) {
+        int tam = t.getTamanho();
+        int placar = 0;
+        for (int x = 0; x < tam; x++) {
+            for (int y = 0; y < tam; y++) {
+                int dono = t.get(x, y);
+                if (dono == Tabuleiro.VAZIO) dono = Padroes3x3.donoOlho(t.getPadrao3x3(x, y));
+                if (dono == Tabuleiro.PRETO) placar++;
+                else if (dono == Tabuleiro.BRANCO) placar--;
+            }
+        }
+        return placar;
+    }
+}
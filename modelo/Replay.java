@@ -0,0 +1,127 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modelo de revisão de uma partida: permite "pular" para qualquer lance.
+ *
+ * Em vez de reproduzir a partida desde o início a cada salto (chamando
+ * 'reproduzirJogada' lance a lance), guarda:
+ * - um "quadro-chave" (keyframe) compacto do tabuleiro a cada INTERVALO lances
+ *   (2 bits por interseção: 91 bytes num 19x19);
+ * - um "delta" por lance: onde a peça entrou e quais peças saíram.
+ *
+ * Com isso, ir para o lance N custa no máximo restaurar um quadro-chave e
+ * aplicar menos de INTERVALO deltas; andar um lance para frente ou para trás
+ * custa um único delta (aplicado ou desfeito).
+ */
+public class Replay {
+
+    /** De quantos em quantos lances é guardado um quadro-chave. */
+    public static final int INTERVALO = 16;
+
+    private final int tam;
+    private final Tabuleiro tabuleiro;   // O tabuleiro exibido (posição após 'atual' lances).
+    private int atual = 0;
+
+    // Delta de cada lance: cor, ponto jogado (-1 = passe) e pontos capturados (x*tam + y).
+    private final int[] cores;
+    private final int[] pontos;
+    private final short[][] capturas;
+    // quadros[k] = posição após k*INTERVALO lances.
+    private final byte[][] quadros;
+
+    /** Monta a revisão a partir do histórico (só jogadas e passes contam como lances). */
+    public Replay(int tamanho, List<Lance> historico) {
+        this.tam = tamanho;
+        List<Lance> lances = new ArrayList<>();
+        for (Lance l : historico) if (l.tipo == Lance.JOGADA || l.tipo == Lance.PASSE) lances.add(l);
+
+        int n = lances.size();
+        cores = new int[n];
+        pontos = new int[n];
+        capturas = new short[n][];
+        quadros = new byte[n / INTERVALO + 1][];
+
+        // Uma única reprodução "de verdade" (com as regras, sem as métricas), guardando os deltas.
+        Tabuleiro t = new Tabuleiro(tamanho);
+        quadros[0] = compactar(t);
+        for (int i = 0; i < n; i++) {
+            Lance l = lances.get(i);
+            cores[i] = l.cor;
+            pontos[i] = -1;
+            capturas[i] = new short[0];
+            if (l.tipo == Lance.JOGADA) {
+                Tabuleiro.MoveResult r = t.reproduzirJogada(l.x, l.y, l.cor, null);
+                if (r.legal) {
+                    pontos[i] = l.x * tam + l.y;
+                    capturas[i] = new short[r.removed.size()];
+                    for (int k = 0; k < r.removed.size(); k++) {
+                        int[] p = r.removed.get(k);
+                        capturas[i][k] = (short) (p[0] * tam + p[1]);
+                    }
+                }
+            }
+            if ((i + 1) % INTERVALO == 0) quadros[(i + 1) / INTERVALO] = compactar(t);
+        }
+        tabuleiro = new Tabuleiro(tamanho);
+    }
+
+    public Tabuleiro getTabuleiro(){ return tabuleiro; }
+    /** Quantos lances estão aplicados no tabuleiro exibido. */
+    public int getLanceAtual(){ return atual; }
+    public int getTotalLances(){ return cores.length; }
+
+    /** Coordenadas [x, y] do último lance aplicado, ou [-1, -1] (início ou passe). */
+    public int[] getUltimaJogada(){
+        if (atual == 0 || pontos[atual - 1] < 0) return new int[]{-1, -1};
+        int p = pontos[atual - 1];
+        return new int[]{p / tam, p % tam};
+    }
+
+    /** Coloca o tabuleiro na posição após 'n' lances (limitado a [0, total]). */
+    public void irPara(int n) {
+        n = Math.max(0, Math.min(n, cores.length));
+        int k = n / INTERVALO;
+        // Restaurar um quadro-chave custa ~ uma varredura do tabuleiro; compara com andar delta a delta.
+        int custoDireto = Math.abs(n - atual);
+        int custoQuadro = (n - k * INTERVALO) + 4;
+        if (custoQuadro < custoDireto) {
+            restaurar(quadros[k]);
+            atual = k * INTERVALO;
+        }
+        while (atual < n) aplicar(atual++);
+        while (atual > n) desfazer(--atual);
+    }
+
+    public void avancar(){ irPara(atual + 1); }
+    public void voltar(){ irPara(atual - 1); }
+
+    private void aplicar(int i) {
+        if (pontos[i] < 0) return; // Passe.
+        tabuleiro.definir(pontos[i] / tam, pontos[i] % tam, cores[i]);
+        for (short c : capturas[i]) tabuleiro.definir(c / tam, c % tam, Tabuleiro.VAZIO);
+    }
+
+    private void desfazer(int i) {
+        if (pontos[i] < 0) return;
+        int oponente = cores[i] == Tabuleiro.PRETO ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+        for (short c : capturas[i]) tabuleiro.definir(c / tam, c % tam, oponente);
+        tabuleiro.definir(pontos[i] / tam, pontos[i] % tam, Tabuleiro.VAZIO);
+    }
+
+    // ---- Quadros-chave: 2 bits por interseção ----
+
+    private byte[] compactar(Tabuleiro t) {
+        byte[] q = new byte[(tam * tam + 3) / 4];
+        for (int i = 0; i < tam * tam; i++)
+            q[i >> 2] |= (byte) (t.get(i / tam, i % tam) << ((i & 3) * 2));
+        return q;
+    }
+
+    private void restaurar(byte[] q) {
+        for (int i = 0; i < tam * tam; i++)
+            tabuleiro.definir(i / tam, i % tam, (q[i >> 2] >> ((i & 3) * 2)) & 3);
+    }
+}
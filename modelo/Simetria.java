@@ -0,0 +1,31 @@
+package modelo;
+
+/**
+ * As 8 simetrias do tabuleiro quadrado (4 rotações, cada uma com ou sem espelho).
+ *
+ * A simetria s (0..7) troca x e y se o bit 4 estiver ligado e, depois, espelha
+ * x (bit 1) e y (bit 2). A 0 é a identidade. Usadas para que posições que são
+ * a mesma a menos de rotação ou reflexão tenham um só hash "canônico"
+ * ('Tabuleiro.getHashCanonico'), como no livro de aberturas.
+ */
+public final class Simetria {
+
+    public static final int TOTAL = 8;
+    // INVERSA[s] desfaz s: só as que trocam x e y com um espelho só não são a própria inversa.
+    private static final int[] INVERSA = {0, 1, 2, 3, 4, 6, 5, 7};
+
+    private Simetria() {}
+
+    /** O ponto (x, y) de um tabuleiro n x n levado pela simetria s, como índice x*n + y. */
+    public static int aplicar(int s, int x, int y, int n) {
+        if ((s & 4) != 0) { int t = x; x = y; y = t; }
+        if ((s & 1) != 0) x = n - 1 - x;
+        if ((s & 2) != 0) y = n - 1 - y;
+        return x * n + y;
+    }
+
+    /** A simetria que desfaz s. */
+    public static int inversa(int s) {
+        return INVERSA[s];
+    }
+}
@@ -1,7 +1,13 @@
 package modelo;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
+import metricas.EventoJogada;
+import metricas.HistogramaLatencia;
+import metricas.Metricas;
+
 /**
  * A classe Tabuleiro representa a grade do jogo de Go.
  * Ela é 'Serializable' para poder ser enviada pela rede (RMI) como parte
@@ -10,11 +16,45 @@ import java.util.*;
  * Esta classe NÃO sabe sobre turnos, tempo ou placar total.
  * Ela APENAS gerencia a grade, a colocação de peças, as capturas, e as
  * regras de posição (como suicídio e Ko). É a "calculadora" de física do jogo.
+ *
+ * Versões: 'congelar()' devolve uma versão só de leitura da posição atual sem
+ * copiar a grade. As linhas são compartilhadas entre as versões e o tabuleiro
+ * "vivo" (copy-on-write): a primeira escrita numa linha compartilhada copia só
+ * aquela linha. Uma jogada típica copia 1 a 3 linhas, não as N*N casas, e cada
+ * foto do jogo (EstadoJogo) fica imutável e segura para ler de qualquer thread.
  */
 public class Tabuleiro implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final HistogramaLatencia LATENCIA_JOGADA = Metricas.latencia("tabuleiro.tentarJogada");
     private final int tam;
+    // As linhas (posicoes[x]) podem ser compartilhadas com versões congeladas: só 'escrever' as altera.
     private final int[][] posicoes;
+    // Hash de Zobrist da posição atual, atualizado a cada peça colocada/removida.
+    private long hashZobrist;
+    // linhaCompartilhada[x]: a linha x também é de outra versão e precisa ser copiada antes de mudar.
+    // (null nas versões congeladas, que nunca escrevem.)
+    private transient boolean[] linhaCompartilhada;
+    private transient boolean congelado;
+    // A última versão congelada, enquanto nada mudou desde ela (assim, sem jogadas, 'congelar' é de graça).
+    private transient Tabuleiro ultimaVersao;
+
+    // Área de trabalho das jogadas de busca ('jogarBusca'), criada no primeiro uso (cada cópia tem a sua).
+    private transient int[] marca;       // marca[p] == geracao: p já foi visto na varredura atual.
+    private transient int geracao;
+    private transient int[] varridas;    // Pedras do grupo da última varredura.
+    private transient int liberdadesVarridas;
+    private transient int[] pilhaDesfazer;
+    private transient int topoDesfazer;
+
+    // Padrões 3x3 (ver 'Padroes3x3') e lista de pontos vazios: montados no primeiro uso e,
+    // daí em diante, mantidos por 'escrever' (O(1) por peça colocada ou removida).
+    private transient char[] padroes;        // padroes[p]: código de 16 bits da vizinhança de p.
+    private transient int[] vazios;          // Os pontos vazios, em qualquer ordem...
+    private transient int[] posicaoVazio;    // ...e onde cada um está em 'vazios' (-1: ocupado).
+    private transient int numVazios;
+    // Hash de Zobrist da posição vista por cada uma das 8 simetrias ('Simetria'): montado
+    // no primeiro 'getHashCanonico' e mantido por 'escrever' (8 XORs por peça).
+    private transient long[] hashesSimetria;
 
     // Constantes públicas para identificar o conteúdo da grade
     public static final int VAZIO = 0;
@@ -23,7 +63,24 @@ public class Tabuleiro implements Serializable {
 
     public Tabuleiro(int tamanho){
         this.tam = tamanho;
+        if (tam > Zobrist.TAMANHO_MAXIMO)
+            throw new IllegalArgumentException("Tabuleiro maior que " + Zobrist.TAMANHO_MAXIMO + "x" + Zobrist.TAMANHO_MAXIMO);
         this.posicoes = new int[tam][tam];
+        this.hashZobrist = Zobrist.vazio(tam);
+        this.linhaCompartilhada = new boolean[tam];
+    }
+
+    // Nova versão que compartilha todas as linhas de 'origem' (O(tamanho), sem copiar casas).
+    private Tabuleiro(Tabuleiro origem, boolean congelado){
+        this.tam = origem.tam;
+        this.posicoes = origem.posicoes.clone();
+        this.hashZobrist = origem.hashZobrist;
+        this.congelado = congelado;
+        if (!congelado) {
+            this.linhaCompartilhada = new boolean[tam];
+            Arrays.fill(linhaCompartilhada, true);
+        }
+        if (!origem.congelado) Arrays.fill(origem.linhaCompartilhada, true);
     }
 
     public int getTamanho(){ return tam; }
@@ -31,9 +88,43 @@ public class Tabuleiro implements Serializable {
 
     public int get(int x, int y){ return posicoes[x][y]; }
 
+    /** Hash de Zobrist da posição (O(1): mantido a cada jogada). */
+    public long getHashZobrist(){ return hashZobrist; }
+
+    // ÚNICO ponto que altera a grade: mantém o hash de Zobrist em dia.
+    // Também é quem copia uma linha compartilhada com outra versão antes de alterá-la.
+    private void escrever(int x, int y, int cor){
+        if (congelado) throw new IllegalStateException("Tabuleiro congelado: esta versão é só de leitura");
+        int antes = posicoes[x][y];
+        if (antes == cor) return;
+        if (linhaCompartilhada[x]) {
+            posicoes[x] = posicoes[x].clone();
+            linhaCompartilhada[x] = false;
+        }
+        hashZobrist ^= Zobrist.chave(x, y, antes) ^ Zobrist.chave(x, y, cor);
+        posicoes[x][y] = cor;
+        ultimaVersao = null;
+        if (padroes != null) atualizarPadroes(x, y, antes, cor);
+        if (hashesSimetria != null) {
+            for (int s = 0; s < Simetria.TOTAL; s++) {
+                int q = Simetria.aplicar(s, x, y, tam);
+                hashesSimetria[s] ^= Zobrist.chave(q / tam, q % tam, antes) ^ Zobrist.chave(q / tam, q % tam, cor);
+            }
+        }
+    }
+
 
     public boolean posicaoValida(int x, int y){ return x>=0 && x<tam && y>=0 && y<tam; }
 
+    /**
+     * Coloca (ou remove, com VAZIO) uma peça diretamente, SEM aplicar regras.
+     * Usado para montar posições (ex: peças de handicap de um arquivo SGF).
+     */
+    public void definir(int x, int y, int cor){
+        if (!posicaoValida(x,y)) throw new IllegalArgumentException("Fora do tabuleiro: " + x + "," + y);
+        escrever(x, y, cor);
+    }
+
     /**
      * Retorna uma lista de coordenadas [x, y] dos vizinhos diretos (não-diagonais)
      * de um ponto que estão DENTRO do tabuleiro.
@@ -104,7 +195,7 @@ public class Tabuleiro implements Serializable {
         int count = 0;
         for (Point p: grupo){
             if (posicoes[p.x][p.y] != VAZIO){
-                posicoes[p.x][p.y] = VAZIO; // Remove a peça
+                escrever(p.x, p.y, VAZIO); // Remove a peça
                 count++;
                 if (removed != null) removed.add(new int[]{p.x,p.y});
             }
@@ -124,7 +215,7 @@ public class Tabuleiro implements Serializable {
      * @return O número total de peças oponentes capturadas nesta jogada.
      */
     private int aplicarJogadaComCaptura(int x, int y, int cor, List<int[]> removed){
-        posicoes[x][y] = cor; // Coloca a peça
+        escrever(x, y, cor); // Coloca a peça
         int oponente = (cor == PRETO) ? BRANCO : PRETO;
         int capturadas = 0;
 
@@ -162,27 +253,55 @@ public class Tabuleiro implements Serializable {
      * 'ilegal', e por quê.
      */
     public MoveResult tentarJogada(int x, int y, int cor, String ultimoHashKo){
+        long t0 = System.nanoTime();
+        // Evento do Flight Recorder; as fases só são cronometradas se ele estiver ligado.
+        EventoJogada evento = new EventoJogada();
+        evento.begin();
+        MoveResult r = avaliarJogada(x, y, cor, ultimoHashKo, evento.isEnabled() ? evento : null);
+        LATENCIA_JOGADA.registrarDesde(t0);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.x = x; evento.y = y; evento.cor = cor;
+            evento.legal = r.legal;
+            evento.motivo = r.reason;
+            evento.capturadas = r.capturadas;
+            evento.commit();
+        }
+        return r;
+    }
+
+    // A mesma jogada, sem histograma nem evento do JFR: para tudo o que não é uma jogada
+    // ao vivo no servidor (recuperar o diário, ressincronizar o cliente, revisão, SGF, análise).
+    public MoveResult reproduzirJogada(int x, int y, int cor, String ultimoHashKo){
+        return avaliarJogada(x, y, cor, ultimoHashKo, null);
+    }
+
+    private MoveResult avaliarJogada(int x, int y, int cor, String ultimoHashKo, EventoJogada fases){
         // Verificação 1: Jogada em local válido e vazio
         if (!posicaoValida(x,y)) return MoveResult.illegal("Fora do tabuleiro");
         if (get(x,y) != VAZIO)   return MoveResult.illegal("Interseção ocupada");
 
         // Preparação: Salva o estado anterior
+        long t = fases != null ? System.nanoTime() : 0;
         String antes = hashTabuleiro(); // "Foto" do tabuleiro ANTES da jogada (para Ko/Suicídio)
+        if (fases != null) t = fases.hash(t);
         List<int[]> removed = new ArrayList<>();
         int capturadas;
 
         // Execução: Coloca a peça e tenta capturar
         // (Este método é temporário, pode ser desfeito)
-        posicoes[x][y] = cor;
+        escrever(x, y, cor);
         capturadas = aplicarJogadaComCaptura(x,y,cor, removed);
 
         // Verificação 2: Suicídio
         // Após colocar a peça e capturar oponentes, verificamos o *nosso* grupo.
         GroupInfo meu = grupoELiberdades(x,y);
+        if (fases != null) t = fases.grupos(t);
         if (meu.liberdades.isEmpty() && capturadas == 0){
             // Se o nosso grupo não tem liberdades E não capturamos ninguém,
             // é suicídio.
             setFromHash(antes); // Desfaz a jogada
+            if (fases != null) fases.hash(t);
             return MoveResult.illegal("Suicídio não permitido");
         }
 
@@ -193,8 +312,10 @@ public class Tabuleiro implements Serializable {
             // ao estado que estava *antes* da última jogada do meu oponente,
             // é uma violação do Ko.
             setFromHash(antes); // Desfaz a jogada
+            if (fases != null) fases.hash(t);
             return MoveResult.illegal("Ko: repetir posição anterior é proibido");
         }
+        if (fases != null) fases.hash(t);
 
         // A jogada é legal!
         return MoveResult.ok(capturadas, antes, depois, x, y, removed);
@@ -240,9 +361,342 @@ public class Tabuleiro implements Serializable {
      */
     public void copiarDe(int[][] m){
         for (int i=0;i<tam;i++)
-            System.arraycopy(m[i], 0, posicoes[i], 0, tam);
+            for (int j=0;j<tam;j++)
+                escrever(i, j, m[i][j]);
+    }
+
+
+    /**
+     * Cópia independente deste tabuleiro (mesmas peças, mesmo hash), que pode ser
+     * alterada. Compartilha as linhas até a primeira escrita em cada uma.
+     */
+    public Tabuleiro copiar(){
+        return new Tabuleiro(this, false);
+    }
+
+    /**
+     * Versão só de leitura da posição atual (qualquer escrita nela lança
+     * IllegalStateException). Custa O(tamanho): as linhas são compartilhadas e
+     * este tabuleiro copia cada uma só na próxima vez que for alterá-la. Sem
+     * alterações entre duas chamadas, devolve a mesma versão.
+     *
+     * Não é thread-safe no tabuleiro vivo (chame da thread que o altera), mas a
+     * versão devolvida pode ser lida por qualquer thread.
+     */
+    public Tabuleiro congelar(){
+        if (congelado) return this;
+        if (ultimaVersao == null) ultimaVersao = new Tabuleiro(this, true);
+        return ultimaVersao;
+    }
+
+    // Uma versão recebida pela rede pode ser alterada (ex: o espelho do cliente aplica os lances).
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        // As linhas podem ter vindo compartilhadas com outro objeto do mesmo fluxo.
+        linhaCompartilhada = new boolean[tam];
+        Arrays.fill(linhaCompartilhada, true);
+    }
+
+    // ---- Jogadas de busca ----
+    // Para quem joga e desfaz milhares de lances por segundo (leitura tática, playouts):
+    // sem alocar, sem Ko, sem métricas nem eventos. Os pontos são índices p = x*tam + y.
+
+    /**
+     * Joga SEM verificar Ko e guarda o necessário para 'desfazerBusca'.
+     * @return quantas peças capturou, ou -1 se a jogada é ilegal (ocupada ou suicídio;
+     *         nesse caso nada muda e não há o que desfazer).
+     */
+    public int jogarBusca(int x, int y, int cor){
+        prepararBusca();
+        if (posicoes[x][y] != VAZIO) return -1;
+        int p = x * tam + y;
+        int oponente = (cor == PRETO) ? BRANCO : PRETO;
+        escrever(x, y, cor);
+        int capturadas = 0;
+        for (int d = 0; d < 4; d++) {
+            int q = vizinho(p, d);
+            if (q < 0 || posicoes[q / tam][q % tam] != oponente) continue;
+            int n = varrer(q, 1);
+            if (liberdadesVarridas > 0) continue;
+            for (int i = 0; i < n; i++) {
+                empilhar(varridas[i]);
+                escrever(varridas[i] / tam, varridas[i] % tam, VAZIO);
+            }
+            capturadas += n;
+        }
+        if (capturadas == 0) {
+            varrer(p, 1);
+            if (liberdadesVarridas == 0) { escrever(x, y, VAZIO); return -1; } // Suicídio.
+        }
+        empilhar(capturadas);
+        empilhar(p);
+        return capturadas;
+    }
+
+    /**
+     * Como 'jogarBusca', mas também recusa o Ko: a jogada não pode recriar a posição
+     * de hash de Zobrist 'hashKo' (a de antes do lance anterior; 0 se não há Ko, ex:
+     * depois de um passe). Para reproduzir partidas gravadas em massa (índice, livro
+     * de aberturas) sem as Strings, listas, métricas e eventos de 'tentarJogada'.
+     * @return quantas peças capturou, ou -1 se a jogada é ilegal (nada muda).
+     */
+    public int jogarComKo(int x, int y, int cor, long hashKo){
+        int capturadas = jogarBusca(x, y, cor);
+        // Só uma captura de exatamente uma peça pode repetir a posição anterior.
+        if (capturadas == 1 && hashKo != 0 && hashZobrist == hashKo) {
+            desfazerBusca();
+            return -1;
+        }
+        return capturadas;
+    }
+
+    /** Desfaz a última 'jogarBusca' legal (devolve as peças capturadas). */
+    public void desfazerBusca(){
+        int p = pilhaDesfazer[--topoDesfazer];
+        int capturadas = pilhaDesfazer[--topoDesfazer];
+        int oponente = (posicoes[p / tam][p % tam] == PRETO) ? BRANCO : PRETO;
+        for (int i = 0; i < capturadas; i++) {
+            int q = pilhaDesfazer[--topoDesfazer];
+            escrever(q / tam, q % tam, oponente);
+        }
+        escrever(p / tam, p % tam, VAZIO);
+    }
+
+    /** Liberdades do grupo em (x, y), contando só até 'limite' (para parar cedo). */
+    public int contarLiberdades(int x, int y, int limite){
+        prepararBusca();
+        varrer(x * tam + y, limite);
+        return liberdadesVarridas;
+    }
+
+    /** Guarda em 'saida' as liberdades (índices) do grupo em (x, y); devolve quantas guardou. */
+    public int liberdades(int x, int y, int[] saida){
+        prepararBusca();
+        int n = varrer(x * tam + y, Integer.MAX_VALUE);
+        int g = novaGeracao(), k = 0;
+        for (int i = 0; i < n && k < saida.length; i++) {
+            for (int d = 0; d < 4 && k < saida.length; d++) {
+                int q = vizinho(varridas[i], d);
+                if (q >= 0 && posicoes[q / tam][q % tam] == VAZIO && marca[q] != g) { marca[q] = g; saida[k++] = q; }
+            }
+        }
+        return k;
+    }
+
+    /** Guarda em 'saida' as pedras (índices) do grupo em (x, y); devolve quantas guardou. */
+    public int pedras(int x, int y, int[] saida){
+        prepararBusca();
+        int n = Math.min(varrer(x * tam + y, Integer.MAX_VALUE), saida.length);
+        System.arraycopy(varridas, 0, saida, 0, n);
+        return n;
+    }
+
+    // Vizinho de p na direção d (0..3), ou -1 fora do tabuleiro.
+    private int vizinho(int p, int d){
+        int x = p / tam, y = p % tam;
+        switch (d) {
+            case 0: return x + 1 < tam ? p + tam : -1;
+            case 1: return x > 0 ? p - tam : -1;
+            case 2: return y + 1 < tam ? p + 1 : -1;
+            default: return y > 0 ? p - 1 : -1;
+        }
+    }
+
+    // Varre o grupo de p (flood-fill sem alocar): as pedras ficam em 'varridas[0..n)' e as
+    // liberdades distintas em 'liberdadesVarridas'. Para ao chegar a 'limite' liberdades
+    // (aí o grupo pode ter ficado incompleto).
+    private int varrer(int p, int limite){
+        int cor = posicoes[p / tam][p % tam];
+        int g = novaGeracao();
+        int n = 0, libs = 0;
+        varridas[n++] = p;
+        marca[p] = g;
+        for (int i = 0; i < n; i++) {
+            for (int d = 0; d < 4; d++) {
+                int q = vizinho(varridas[i], d);
+                if (q < 0 || marca[q] == g) continue;
+                int c = posicoes[q / tam][q % tam];
+                if (c == VAZIO) {
+                    marca[q] = g;
+                    if (++libs >= limite) { liberdadesVarridas = libs; return n; }
+                } else if (c == cor) {
+                    marca[q] = g;
+                    varridas[n++] = q;
+                }
+            }
+        }
+        liberdadesVarridas = libs;
+        return n;
+    }
+
+    private int novaGeracao(){
+        if (++geracao == Integer.MAX_VALUE) { Arrays.fill(marca, 0); geracao = 1; }
+        return geracao;
     }
 
+    private void prepararBusca(){
+        if (marca == null) {
+            marca = new int[tam * tam];
+            varridas = new int[tam * tam];
+            pilhaDesfazer = new int[64];
+        }
+    }
+
+    private void empilhar(int v){
+        if (topoDesfazer == pilhaDesfazer.length) pilhaDesfazer = Arrays.copyOf(pilhaDesfazer, topoDesfazer * 2);
+        pilhaDesfazer[topoDesfazer++] = v;
+    }
+
+    // ---- Contagem de pontos ----
+
+    /**
+     * Contagem por área, regra Tromp-Taylor: cada cor ganha as suas pedras mais
+     * as regiões vazias que só alcançam pedras dela (uma região que toca as duas
+     * cores não conta para ninguém). É a contagem de fim de partida; os playouts
+     * usam uma aproximação mais barata ('PoliticaPadroes').
+     * @return pontos das pretas menos os das brancas (sem komi).
+     */
+    public int pontuarArea(){
+        int n = tam;
+        int[] regiao = new int[n * n];
+        boolean[] visto = new boolean[n * n];
+        int placar = 0;
+        for (int p = 0; p < n * n; p++) {
+            int cor = posicoes[p / n][p % n];
+            if (cor == PRETO) { placar++; continue; }
+            if (cor == BRANCO) { placar--; continue; }
+            if (visto[p]) continue;
+            // Uma região vazia inteira, e quais cores ela toca.
+            int tamanhoRegiao = 0, topo = 0;
+            boolean tocaPretas = false, tocaBrancas = false;
+            regiao[topo++] = p;
+            visto[p] = true;
+            while (topo > 0) {
+                int q = regiao[--topo];
+                tamanhoRegiao++;
+                int qx = q / n, qy = q % n;
+                for (int d = 0; d < 4; d++) {
+                    int vx = qx + (d == 0 ? 1 : d == 1 ? -1 : 0), vy = qy + (d == 2 ? 1 : d == 3 ? -1 : 0);
+                    if (vx < 0 || vx >= n || vy < 0 || vy >= n) continue;
+                    int v = vx * n + vy, c = posicoes[vx][vy];
+                    if (c == PRETO) tocaPretas = true;
+                    else if (c == BRANCO) tocaBrancas = true;
+                    else if (!visto[v]) { visto[v] = true; regiao[topo++] = v; }
+                }
+            }
+            if (tocaPretas && !tocaBrancas) placar += tamanhoRegiao;
+            else if (tocaBrancas && !tocaPretas) placar -= tamanhoRegiao;
+        }
+        return placar;
+    }
+
+    // ---- Padrões 3x3 e pontos vazios (para playouts) ----
+    // Como as jogadas de busca, usam estado do próprio tabuleiro: uma thread por vez.
+
+    /** Código de 16 bits da vizinhança 3x3 de (x, y) (ver 'Padroes3x3'). */
+    public int getPadrao3x3(int x, int y){
+        prepararPadroes();
+        return padroes[x * tam + y];
+    }
+
+    /** Código da vizinhança 3x3 do ponto de índice p = x*tam + y. */
+    public int getPadrao3x3(int p){
+        prepararPadroes();
+        return padroes[p];
+    }
+
+    /** Quantos pontos vazios há (O(1)). */
+    public int getNumVazios(){
+        prepararPadroes();
+        return numVazios;
+    }
+
+    /** O i-ésimo ponto vazio (índice x*tam + y), 0 <= i < getNumVazios(); a ordem muda a cada jogada. */
+    public int getVazio(int i){
+        return vazios[i];
+    }
+
+    // A peça em (x, y) mudou de 'antes' para 'cor': cada um dos 8 vizinhos tem 2 bits
+    // (a "casa" na direção oposta) que mudam, e a lista de vazios ganha ou perde p.
+    private void atualizarPadroes(int x, int y, int antes, int cor){
+        int mudanca = antes ^ cor;
+        for (int k = 0; k < 8; k++) {
+            int nx = x + Padroes3x3.DX[k], ny = y + Padroes3x3.DY[k];
+            if (nx < 0 || nx >= tam || ny < 0 || ny >= tam) continue;
+            padroes[nx * tam + ny] ^= (char) (mudanca << (2 * (7 - k)));
+        }
+        int p = x * tam + y;
+        if (antes == VAZIO) {
+            // Sai da lista: o último vazio ocupa o lugar dele.
+            int i = posicaoVazio[p], ultimo = vazios[--numVazios];
+            vazios[i] = ultimo;
+            posicaoVazio[ultimo] = i;
+            posicaoVazio[p] = -1;
+        } else if (cor == VAZIO) {
+            vazios[numVazios] = p;
+            posicaoVazio[p] = numVazios++;
+        }
+    }
+
+    private void prepararPadroes(){
+        if (padroes != null) return;
+        char[] c = new char[tam * tam];
+        vazios = new int[tam * tam];
+        posicaoVazio = new int[tam * tam];
+        numVazios = 0;
+        for (int x = 0; x < tam; x++) {
+            for (int y = 0; y < tam; y++) {
+                int codigo = 0;
+                for (int k = 0; k < 8; k++) {
+                    int nx = x + Padroes3x3.DX[k], ny = y + Padroes3x3.DY[k];
+                    int v = (nx < 0 || nx >= tam || ny < 0 || ny >= tam) ? Padroes3x3.FORA : posicoes[nx][ny];
+                    codigo |= v << (2 * k);
+                }
+                int p = x * tam + y;
+                c[p] = (char) codigo;
+                posicaoVazio[p] = -1;
+                if (posicoes[x][y] == VAZIO) { vazios[numVazios] = p; posicaoVazio[p] = numVazios++; }
+            }
+        }
+        padroes = c;
+    }
+
+    // ---- Hash canônico (a posição a menos de rotação e reflexão) ----
+
+    /**
+     * O menor entre os hashes de Zobrist das 8 simetrias da posição: posições que só
+     * diferem por rotação ou reflexão têm o mesmo hash canônico.
+     */
+    public long getHashCanonico(){
+        long[] h = hashesSimetria();
+        long menor = h[0];
+        for (int s = 1; s < Simetria.TOTAL; s++) if (h[s] < menor) menor = h[s];
+        return menor;
+    }
+
+    /** Guarda em 'saida[s]' o hash da posição levada pela simetria s (s = 0..7). */
+    public void getHashesSimetria(long[] saida){
+        System.arraycopy(hashesSimetria(), 0, saida, 0, Simetria.TOTAL);
+    }
+
+    // Numa versão congelada (lida por várias threads, nunca escrita), calcula sem guardar.
+    private long[] hashesSimetria(){
+        if (hashesSimetria != null) return hashesSimetria;
+        long[] h = new long[Simetria.TOTAL];
+        Arrays.fill(h, Zobrist.vazio(tam));
+        for (int x = 0; x < tam; x++) {
+            for (int y = 0; y < tam; y++) {
+                int cor = posicoes[x][y];
+                if (cor == VAZIO) continue;
+                for (int s = 0; s < Simetria.TOTAL; s++) {
+                    int q = Simetria.aplicar(s, x, y, tam);
+                    h[s] ^= Zobrist.chave(q / tam, q % tam, cor);
+                }
+            }
+        }
+        if (!congelado) hashesSimetria = h;
+        return h;
+    }
 
     /**
      * Classe interna de conveniência para representar uma coordenada (x, y).
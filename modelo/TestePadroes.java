@@ -0,0 +1,172 @@
+package modelo;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Autoteste dos padrões 3x3 incrementais ('Tabuleiro' + 'Padroes3x3').
+ *
+ * O 'Tabuleiro' acerta os códigos 3x3 e a lista de vazios com um XOR a cada
+ * peça que muda; aqui eles são conferidos contra o código recalculado do zero,
+ * depois de cada operação de uma sequência sorteada (jogadas de busca com
+ * capturas, desfazer, peças montadas). Também confere que um playout
+ * devolve o tabuleiro exatamente como o recebeu e que a tabela de pesos nunca
+ * manda preencher um olho verdadeiro próprio.
+ *
+ * Sai com código 1 se alguma verificação falhar.
+ *
+ * Uso: java -cp bin modelo.TestePadroes [operações por tamanho]
+ */
+public class TestePadroes {
+
+    private static int falhas = 0;
+
+    public static void main(String[] args) {
+        int operacoes = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        conferirTabela();
+        for (int tam : new int[]{5, 9, 13, 19}) {
+            conferirSequencia(tam, operacoes, new Random(tam));
+            conferirPlayouts(tam, new SplittableRandom(tam));
+        }
+        if (falhas > 0) {
+            System.out.println(falhas + " verificação(ões) falharam");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    // Pesos dentro de [0, PESO_MAXIMO]; peso 0 no olho verdadeiro (sem diagonal do oponente) de quem joga.
+    private static void conferirTabela() {
+        for (int codigo = 0; codigo < Padroes3x3.CODIGOS; codigo++) {
+            for (int cor : new int[]{Tabuleiro.PRETO, Tabuleiro.BRANCO}) {
+                int peso = Padroes3x3.peso(codigo, cor);
+                verificar(peso >= 0 && peso <= Padroes3x3.PESO_MAXIMO, "peso " + peso + " do código " + codigo);
+                if (olhoVerdadeiro(codigo, cor))
+                    verificar(peso == 0, "o olho verdadeiro " + codigo + " de " + cor + " tem peso " + peso);
+            }
+        }
+    }
+
+    private static boolean olhoVerdadeiro(int codigo, int cor) {
+        int oponente = (cor == Tabuleiro.PRETO) ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+        boolean algumaMinha = false;
+        for (int k = 0; k < 8; k++) {
+            int v = Padroes3x3.vizinho(codigo, k);
+            boolean lateral = Padroes3x3.DX[k] == 0 || Padroes3x3.DY[k] == 0;
+            if (lateral && v != cor && v != Padroes3x3.FORA) return false;
+            if (!lateral && v == oponente) return false;
+            if (v == cor) algumaMinha = true;
+        }
+        return algumaMinha;
+    }
+
+    // Operações sorteadas, conferindo códigos e vazios depois de cada uma.
+    private static void conferirSequencia(int tam, int operacoes, Random rnd) {
+        Tabuleiro t = new Tabuleiro(tam);
+        t.getNumVazios(); // Liga os padrões antes da primeira peça: daqui em diante, só incremental.
+        int desfazer = 0;
+        for (int i = 0; i < operacoes && falhas == 0; i++) {
+            int x = rnd.nextInt(tam), y = rnd.nextInt(tam);
+            int cor = rnd.nextBoolean() ? Tabuleiro.PRETO : Tabuleiro.BRANCO;
+            int op = rnd.nextInt(10);
+            String feito;
+            if (op < 6) {
+                if (t.jogarBusca(x, y, cor) >= 0) desfazer++;
+                feito = "jogarBusca";
+            } else if (op < 8 && desfazer > 0) {
+                t.desfazerBusca();
+                desfazer--;
+                feito = "desfazerBusca";
+            } else if (desfazer == 0) {
+                // Montagem e jogadas "de verdade" só com a pilha de desfazer vazia.
+                if (op == 8) t.definir(x, y, rnd.nextInt(3));
+                else t.tentarJogada(x, y, cor, null);
+                feito = op == 8 ? "definir" : "tentarJogada";
+            } else {
+                continue;
+            }
+            conferir(t, tam + "x" + tam + ", operação " + i + " (" + feito + ")");
+        }
+        conferir(t.copiar(), tam + "x" + tam + ", cópia");
+        while (desfazer-- > 0) t.desfazerBusca();
+        conferir(t, tam + "x" + tam + ", depois de desfazer tudo");
+    }
+
+    // Playouts a partir de posições de meio de partida: o tabuleiro volta igual.
+    private static void conferirPlayouts(int tam, SplittableRandom rnd) {
+        for (int i = 0; i < 200 && falhas == 0; i++) {
+            // Uma posição nova: alguns lances legais a partir do tabuleiro vazio.
+            Tabuleiro t = new Tabuleiro(tam);
+            int cor = Tabuleiro.PRETO;
+            for (int k = rnd.nextInt(tam * tam / 2); k > 0; k--) {
+                int p = PoliticaPadroes.escolher(t, cor, rnd);
+                if (p >= 0) t.jogarComKo(p / tam, p % tam, cor, 0);
+                cor = (cor == Tabuleiro.PRETO) ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+            }
+            long hash = t.getHashZobrist();
+            int[] pecas = pecas(t), codigos = codigos(t);
+            int vazios = t.getNumVazios();
+            PoliticaPadroes.playout(t, cor, rnd);
+            verificar(t.getHashZobrist() == hash && Arrays.equals(pecas(t), pecas)
+                    && Arrays.equals(codigos(t), codigos) && t.getNumVazios() == vazios,
+                    tam + "x" + tam + ": o playout " + i + " não devolveu o tabuleiro como recebeu");
+            conferir(t, tam + "x" + tam + ", depois do playout " + i);
+        }
+    }
+
+    // Cada código igual ao recalculado; a lista de vazios tem cada vazio uma vez, e só eles.
+    private static void conferir(Tabuleiro t, String onde) {
+        int tam = t.getTamanho();
+        for (int x = 0; x < tam; x++) {
+            for (int y = 0; y < tam; y++) {
+                int esperado = 0;
+                for (int k = 0; k < 8; k++) {
+                    int nx = x + Padroes3x3.DX[k], ny = y + Padroes3x3.DY[k];
+                    int v = t.posicaoValida(nx, ny) ? t.get(nx, ny) : Padroes3x3.FORA;
+                    esperado |= v << (2 * k);
+                }
+                if (t.getPadrao3x3(x, y) != esperado) {
+                    verificar(false, onde + ": código de (" + x + ", " + y + ") = " + t.getPadrao3x3(x, y)
+                            + ", recalculado = " + esperado);
+                    return;
+                }
+            }
+        }
+        boolean[] naLista = new boolean[tam * tam];
+        int vazios = 0;
+        for (int x = 0; x < tam; x++)
+            for (int y = 0; y < tam; y++)
+                if (t.get(x, y) == Tabuleiro.VAZIO) vazios++;
+        verificar(t.getNumVazios() == vazios, onde + ": " + t.getNumVazios() + " vazios na lista, "
+                + vazios + " no tabuleiro");
+        for (int i = 0; i < Math.min(t.getNumVazios(), vazios); i++) {
+            int p = t.getVazio(i);
+            if (naLista[p] || t.get(p / tam, p % tam) != Tabuleiro.VAZIO) {
+                verificar(false, onde + ": o ponto " + p + " está na lista de vazios "
+                        + (naLista[p] ? "duas vezes" : "mas está ocupado"));
+                return;
+            }
+            naLista[p] = true;
+        }
+    }
+
+    private static int[] pecas(Tabuleiro t) {
+        int tam = t.getTamanho();
+        int[] v = new int[tam * tam];
+        for (int p = 0; p < v.length; p++) v[p] = t.get(p / tam, p % tam);
+        return v;
+    }
+
+    private static int[] codigos(Tabuleiro t) {
+        int[] v = new int[t.getTamanho() * t.getTamanho()];
+        for (int p = 0; p < v.length; p++) v[p] = t.getPadrao3x3(p);
+        return v;
+    }
+
+    private static void verificar(boolean ok, String mensagem) {
+        if (ok) return;
+        falhas++;
+        System.out.println("FALHOU: " + mensagem);
+    }
+}
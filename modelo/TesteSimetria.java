@@ -0,0 +1,124 @@
+package modelo;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Autoteste das simetrias e do hash canônico ('Simetria', 'Tabuleiro').
+ *
+ * Confere que cada simetria é uma permutação dos pontos e que 'inversa' a
+ * desfaz; que o hash da simetria s é o hash de Zobrist do tabuleiro girado/
+ * espelhado por s; que as 8 versões de uma posição têm o mesmo hash canônico;
+ * e que os hashes mantidos a cada jogada (inclusive desfazendo jogadas de
+ * busca) são os mesmos de uma versão congelada e de um tabuleiro montado do zero.
+ *
+ * Sai com código 1 se alguma verificação falhar.
+ *
+ * Uso: java -cp bin modelo.TesteSimetria [posições por tamanho]
+ */
+public class TesteSimetria {
+
+    private static int falhas = 0;
+
+    public static void main(String[] args) {
+        int posicoes = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        for (int tam : new int[]{2, 5, 9, 13, 19}) {
+            conferirPermutacoes(tam);
+            Random rnd = new Random(tam);
+            for (int i = 0; i < posicoes && falhas == 0; i++)
+                conferirPosicao(sortear(tam, rnd), tam + "x" + tam + ", posição " + i);
+            conferirIncremental(tam, rnd);
+        }
+        if (falhas > 0) {
+            System.out.println(falhas + " verificação(ões) falharam");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    // Cada simetria leva os n*n pontos em n*n pontos distintos, e a inversa os traz de volta.
+    private static void conferirPermutacoes(int n) {
+        for (int s = 0; s < Simetria.TOTAL; s++) {
+            boolean[] atingido = new boolean[n * n];
+            int inv = Simetria.inversa(s);
+            for (int x = 0; x < n; x++) {
+                for (int y = 0; y < n; y++) {
+                    int q = Simetria.aplicar(s, x, y, n);
+                    verificar(q >= 0 && q < n * n && !atingido[q], n + "x" + n + ": a simetria " + s
+                            + " leva dois pontos em " + q);
+                    if (q < 0 || q >= n * n) return;
+                    atingido[q] = true;
+                    verificar(Simetria.aplicar(inv, q / n, q % n, n) == x * n + y, n + "x" + n + ": a inversa de "
+                            + s + " não devolve (" + x + ", " + y + ")");
+                }
+            }
+        }
+        verificar(Simetria.inversa(0) == 0 && Simetria.aplicar(0, 1, 0, n) == n, "a simetria 0 não é a identidade");
+    }
+
+    private static void conferirPosicao(Tabuleiro t, String onde) {
+        long[] hashes = new long[Simetria.TOTAL];
+        t.getHashesSimetria(hashes);
+        verificar(hashes[0] == t.getHashZobrist(), onde + ": o hash da identidade não é o de Zobrist");
+        long canonico = t.getHashCanonico();
+        for (int s = 0; s < Simetria.TOTAL; s++) {
+            Tabuleiro girado = transformar(t, s);
+            verificar(girado.getHashZobrist() == hashes[s], onde + ": o hash da simetria " + s
+                    + " não é o do tabuleiro transformado");
+            verificar(girado.getHashCanonico() == canonico, onde + ": a simetria " + s + " muda o hash canônico");
+        }
+        // A versão congelada calcula sem guardar; tem de dar o mesmo.
+        long[] congelados = new long[Simetria.TOTAL];
+        t.congelar().getHashesSimetria(congelados);
+        verificar(Arrays.equals(congelados, hashes), onde + ": a versão congelada tem outros hashes de simetria");
+        verificar(t.congelar().getHashCanonico() == canonico, onde + ": a versão congelada tem outro hash canônico");
+    }
+
+    // Hashes mantidos a cada jogada (e desfeitos) contra os de um tabuleiro montado do zero.
+    private static void conferirIncremental(int tam, Random rnd) {
+        Tabuleiro t = new Tabuleiro(tam);
+        t.getHashCanonico(); // Liga os hashes de simetria: daqui em diante, só incremental.
+        int desfazer = 0;
+        for (int i = 0; i < 5000 && falhas == 0; i++) {
+            int cor = rnd.nextBoolean() ? Tabuleiro.PRETO : Tabuleiro.BRANCO;
+            if (desfazer > 0 && rnd.nextInt(3) == 0) { t.desfazerBusca(); desfazer--; }
+            else if (t.jogarBusca(rnd.nextInt(tam), rnd.nextInt(tam), cor) >= 0) desfazer++;
+            Tabuleiro zero = new Tabuleiro(tam);
+            for (int x = 0; x < tam; x++)
+                for (int y = 0; y < tam; y++)
+                    if (t.get(x, y) != Tabuleiro.VAZIO) zero.definir(x, y, t.get(x, y));
+            long[] mantidos = new long[Simetria.TOTAL], recalculados = new long[Simetria.TOTAL];
+            t.getHashesSimetria(mantidos);
+            zero.getHashesSimetria(recalculados);
+            verificar(Arrays.equals(mantidos, recalculados) && t.getHashZobrist() == zero.getHashZobrist(),
+                    tam + "x" + tam + ", passo " + i + ": os hashes mantidos não batem com os recalculados");
+        }
+    }
+
+    // Uma posição qualquer, com peças montadas (sem regras: só os hashes interessam aqui).
+    private static Tabuleiro sortear(int tam, Random rnd) {
+        Tabuleiro t = new Tabuleiro(tam);
+        for (int k = rnd.nextInt(tam * tam + 1); k > 0; k--)
+            t.definir(rnd.nextInt(tam), rnd.nextInt(tam), rnd.nextInt(3));
+        return t;
+    }
+
+    // O tabuleiro levado pela simetria s: a peça de (x, y) vai para aplicar(s, x, y).
+    private static Tabuleiro transformar(Tabuleiro t, int s) {
+        int n = t.getTamanho();
+        Tabuleiro r = new Tabuleiro(n);
+        for (int x = 0; x < n; x++) {
+            for (int y = 0; y < n; y++) {
+                int q = Simetria.aplicar(s, x, y, n);
+                r.definir(q / n, q % n, t.get(x, y));
+            }
+        }
+        return r;
+    }
+
+    private static void verificar(boolean ok, String mensagem) {
+        if (ok) return;
+        falhas++;
+        System.out.println("FALHOU: " + mensagem);
+    }
+}
@@ -0,0 +1,51 @@
+package modelo;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chaves de "hash de Zobrist" para posições do tabuleiro.
+ *
+ * Cada (interseção, cor) tem um número aleatório de 64 bits; o hash de uma
+ * posição é o XOR das chaves de todas as peças. Colocar ou tirar uma peça
+ * custa um único XOR, então o 'Tabuleiro' mantém o hash atualizado a cada
+ * jogada. A semente é FIXA: os hashes são gravados em disco (índices,
+ * livros de abertura) e precisam ser os mesmos em toda execução.
+ */
+public final class Zobrist {
+    /** Maior tamanho de tabuleiro suportado pelas chaves. */
+    public static final int TAMANHO_MAXIMO = 25;
+
+    private static final long SEMENTE = 0x5EED_601D_2025L;
+    private static final long[] CHAVES = new long[TAMANHO_MAXIMO * TAMANHO_MAXIMO * 2];
+    private static final long[] CHAVES_TAMANHO = new long[TAMANHO_MAXIMO + 1];
+    private static final long VEZ_BRANCAS;
+
+    static {
+        SplittableRandom rnd = new SplittableRandom(SEMENTE);
+        for (int i = 0; i < CHAVES.length; i++) CHAVES[i] = rnd.nextLong();
+        for (int i = 0; i < CHAVES_TAMANHO.length; i++) CHAVES_TAMANHO[i] = rnd.nextLong();
+        // Sorteada depois das outras: as chaves que já estão em disco não mudam.
+        VEZ_BRANCAS = rnd.nextLong();
+    }
+
+    private Zobrist() { }
+
+    /** Chave da peça 'cor' (BRANCO ou PRETO) em (x, y); zero para VAZIO. */
+    public static long chave(int x, int y, int cor) {
+        if (cor == Tabuleiro.VAZIO) return 0L;
+        return CHAVES[((x * TAMANHO_MAXIMO) + y) * 2 + (cor - 1)];
+    }
+
+    /** Hash do tabuleiro vazio de tamanho 'n' (tamanhos diferentes nunca se confundem). */
+    public static long vazio(int n) {
+        return CHAVES_TAMANHO[n];
+    }
+
+    /**
+     * Chave de quem tem a vez (zero para as pretas): para quem precisa distinguir a
+     * mesma posição com jogadores diferentes na vez (ex: o livro de aberturas).
+     */
+    public static long vez(int cor) {
+        return cor == Tabuleiro.BRANCO ? VEZ_BRANCAS : 0L;
+    }
+}
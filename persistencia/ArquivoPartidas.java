@@ -0,0 +1,260 @@
+package persistencia;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import modelo.Lance;
+import modelo.Tabuleiro;
+import modelo.Zobrist;
+
+/**
+ * Formato binário compacto do arquivo de partidas (a "base de dados" de jogos).
+ *
+ * Layout (big-endian):
+ *   Cabeçalho do arquivo (8 bytes): magic "GOA1", versão do formato.
+ *   Blocos, um atrás do outro:
+ *     cabeçalho (16 bytes): magic "BLOC", nº de partidas, bytes do conteúdo, CRC32 do conteúdo;
+ *     conteúdo: para cada partida, tamanho (1 byte), resultado (1 byte),
+ *               nº de lances (2 bytes) e 2 bytes por lance.
+ *
+ * Lance em 2 bytes: bit 15 = cor (1 = Brancas), bit 14 = passe,
+ * bits 9..5 = x, bits 4..0 = y.
+ *
+ * As partidas não guardam id: o id é a ordem da partida no arquivo (0, 1, 2...).
+ * Cada bloco é independente e tem CRC, então vários blocos podem ser lidos em
+ * paralelo e um bloco corrompido não compromete os outros.
+ */
+public final class ArquivoPartidas {
+
+    static final int MAGIC_ARQUIVO = 0x474F4131; // "GOA1"
+    static final int MAGIC_BLOCO   = 0x424C4F43; // "BLOC"
+    static final int VERSAO_FORMATO = 1;
+    static final int TAM_CABECALHO_ARQUIVO = 8;
+    static final int TAM_CABECALHO_BLOCO = 16;
+    /** Tamanho alvo do conteúdo de um bloco (um bloco fecha quando passaria disso). */
+    static final int TAM_BLOCO = 64 * 1024;
+
+    public static final int RESULTADO_DESCONHECIDO = 0;
+    public static final int VITORIA_PRETAS = 1;
+    public static final int VITORIA_BRANCAS = 2;
+
+    private static final int BIT_BRANCO = 1 << 15;
+    private static final int BIT_PASSE  = 1 << 14;
+
+    private ArquivoPartidas() { }
+
+    // ---- Codificação dos lances ----
+
+    /** Codifica um lance em 2 bytes; x < 0 significa passe. */
+    public static short codificarLance(int cor, int x, int y) {
+        int v = (cor == Tabuleiro.BRANCO) ? BIT_BRANCO : 0;
+        if (x < 0) v |= BIT_PASSE;
+        else v |= (x << 5) | y;
+        return (short) v;
+    }
+    public static int corDe(short l){ return (l & BIT_BRANCO) != 0 ? Tabuleiro.BRANCO : Tabuleiro.PRETO; }
+    public static boolean ehPasse(short l){ return (l & BIT_PASSE) != 0; }
+    public static int xDe(short l){ return (l >> 5) & 0x1F; }
+    public static int yDe(short l){ return l & 0x1F; }
+
+    /** Só as jogadas e passes do histórico, já codificados. */
+    public static short[] codificar(List<Lance> historico) {
+        short[] v = new short[historico.size()];
+        int n = 0;
+        for (Lance l : historico) {
+            if (l.tipo == Lance.JOGADA) v[n++] = codificarLance(l.cor, l.x, l.y);
+            else if (l.tipo == Lance.PASSE) v[n++] = codificarLance(l.cor, -1, -1);
+        }
+        return Arrays.copyOf(v, n);
+    }
+
+    /** Quem venceu, pelo último lance (desistência ou tempo); senão, desconhecido. */
+    public static int resultado(List<Lance> historico) {
+        if (historico.isEmpty()) return RESULTADO_DESCONHECIDO;
+        Lance fim = historico.get(historico.size() - 1);
+        if (fim.tipo != Lance.DESISTENCIA && fim.tipo != Lance.TEMPO_ESGOTADO) return RESULTADO_DESCONHECIDO;
+        return fim.cor == Tabuleiro.PRETO ? VITORIA_BRANCAS : VITORIA_PRETAS;
+    }
+
+    // ---- Leitura ----
+
+    /** Uma partida lida do arquivo. */
+    public static class Partida {
+        public final long id;
+        public final int tamanho;
+        public final int resultado;
+        public final short[] lances;
+        Partida(long id, int tamanho, int resultado, short[] lances) {
+            this.id = id; this.tamanho = tamanho; this.resultado = resultado; this.lances = lances;
+        }
+    }
+
+    /** Onde fica um bloco no arquivo e qual o id da primeira partida dele. */
+    public static class Bloco {
+        public final long posicao;
+        public final long primeiraPartida;
+        public final int partidas;
+        final int bytes;
+        final int crc;
+        Bloco(long posicao, long primeiraPartida, int partidas, int bytes, int crc) {
+            this.posicao = posicao; this.primeiraPartida = primeiraPartida;
+            this.partidas = partidas; this.bytes = bytes; this.crc = crc;
+        }
+        /** Posição logo depois do fim deste bloco. */
+        public long fim(){ return posicao + TAM_CABECALHO_BLOCO + bytes; }
+    }
+
+    /**
+     * Percorre só os cabeçalhos dos blocos (sem ler o conteúdo) e devolve a lista.
+     * Um bloco incompleto no fim do arquivo (gravação interrompida) ou com um
+     * cabeçalho impossível (contagens negativas) encerra a lista.
+     */
+    public static List<Bloco> listarBlocos(FileChannel canal) throws IOException {
+        ByteBuffer cab = ByteBuffer.allocate(TAM_CABECALHO_ARQUIVO);
+        if (canal.read(cab, 0) < TAM_CABECALHO_ARQUIVO || cab.getInt(0) != MAGIC_ARQUIVO || cab.getInt(4) != VERSAO_FORMATO)
+            throw new IOException("Não é um arquivo de partidas válido");
+        List<Bloco> blocos = new ArrayList<>();
+        long pos = TAM_CABECALHO_ARQUIVO, tamanho = canal.size(), id = 0;
+        ByteBuffer b = ByteBuffer.allocate(TAM_CABECALHO_BLOCO);
+        while (pos + TAM_CABECALHO_BLOCO <= tamanho) {
+            b.clear();
+            canal.read(b, pos);
+            if (b.getInt(0) != MAGIC_BLOCO) break;
+            Bloco bl = new Bloco(pos, id, b.getInt(4), b.getInt(8), b.getInt(12));
+            // O cabeçalho não tem CRC: contagens impossíveis também marcam o fim (senão
+            // um 'bytes' negativo faria o laço andar para trás, ou ficar parado, para sempre).
+            if (bl.bytes < 0 || bl.partidas < 0) break;
+            if (bl.fim() > tamanho) break;
+            blocos.add(bl);
+            id += bl.partidas;
+            pos = bl.fim();
+        }
+        return blocos;
+    }
+
+    /** Lê e decodifica um bloco, conferindo o CRC. */
+    public static List<Partida> lerBloco(FileChannel canal, Bloco bl) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(bl.bytes);
+        long pos = bl.posicao + TAM_CABECALHO_BLOCO;
+        while (buf.hasRemaining()) {
+            int n = canal.read(buf, pos);
+            if (n < 0) throw new IOException("Bloco incompleto em " + bl.posicao);
+            pos += n;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, bl.bytes);
+        if ((int) crc.getValue() != bl.crc) throw new IOException("Bloco corrompido em " + bl.posicao);
+
+        buf.flip();
+        List<Partida> partidas = new ArrayList<>(bl.partidas);
+        for (int i = 0; i < bl.partidas; i++) {
+            int tam = buf.get() & 0xFF, res = buf.get() & 0xFF, n = buf.getShort() & 0xFFFF;
+            short[] lances = new short[n];
+            buf.asShortBuffer().get(lances);
+            buf.position(buf.position() + 2 * n);
+            partidas.add(new Partida(bl.primeiraPartida + i, tam, res, lances));
+        }
+        return partidas;
+    }
+
+    /** Percorre todas as partidas do arquivo, bloco a bloco (memória proporcional a um bloco). */
+    public static void percorrer(Path arquivo, Consumer<Partida> acao) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            for (Bloco bl : listarBlocos(canal))
+                for (Partida p : lerBloco(canal, bl)) acao.accept(p);
+        }
+    }
+
+    // ---- Ferramenta de linha de comando ----
+
+    /**
+     * Uso:
+     *   java -cp bin persistencia.ArquivoPartidas importar <saida.goa> <arquivo-ou-pasta-sgf>...
+     *   java -cp bin persistencia.ArquivoPartidas listar <arquivo.goa>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("importar")) {
+            importarSgf(Paths.get(args[1]), args);
+        } else if (args.length == 2 && args[0].equals("listar")) {
+            long[] tot = new long[2];
+            percorrer(Paths.get(args[1]), p -> { tot[0]++; tot[1] += p.lances.length; });
+            System.out.println("Partidas: " + tot[0] + " | Lances: " + tot[1]);
+        } else {
+            System.err.println("Uso: ArquivoPartidas importar <saida.goa> <sgf>... | listar <arquivo.goa>");
+        }
+    }
+
+    // Converte coleções de SGF (só partidas sem peças de montagem) para o formato binário.
+    private static void importarSgf(Path saida, String[] args) throws IOException {
+        long[] importadas = {0}, puladas = {0};
+        try (GravadorArquivo gravador = GravadorArquivo.abrir(saida)) {
+            ColetorSgf coletor = new ColetorSgf();
+            for (int i = 2; i < args.length; i++) {
+                try (Stream<Path> caminhos = Files.walk(Paths.get(args[i]))) {
+                    for (Path p : (Iterable<Path>) caminhos.filter(c -> Files.isRegularFile(c)
+                            && c.toString().toLowerCase().endsWith(".sgf"))::iterator) {
+                        try (BufferedReader in = Files.newBufferedReader(p, StandardCharsets.ISO_8859_1)) {
+                            LeitorSgf leitor = new LeitorSgf(in);
+                            while (leitor.proximaPartida(coletor)) {
+                                if (coletor.valida()) {
+                                    gravador.acrescentar(coletor.tamanho, coletor.resultado, coletor.lances());
+                                    importadas[0]++;
+                                } else {
+                                    puladas[0]++;
+                                }
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            puladas[0]++;
+                        }
+                    }
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+        }
+        System.out.println("Importadas: " + importadas[0] + " | Puladas: " + puladas[0]);
+    }
+
+    // Junta os lances da linha principal de uma partida SGF.
+    private static class ColetorSgf implements LeitorSgf.Ouvinte {
+        int tamanho, resultado, n;
+        boolean montagem;
+        short[] buf = new short[512];
+
+        @Override public void inicioPartida() { tamanho = 19; resultado = RESULTADO_DESCONHECIDO; n = 0; montagem = false; }
+        @Override public void inicioNo() { }
+        @Override public void fimPartida() { }
+        @Override public void propriedade(String id, List<String> valores) {
+            String v = valores.isEmpty() ? "" : valores.get(0);
+            switch (id) {
+                case "SZ": tamanho = Integer.parseInt(v.split(":")[0].trim()); break;
+                case "RE": resultado = v.startsWith("B+") ? VITORIA_PRETAS
+                                     : v.startsWith("W+") ? VITORIA_BRANCAS : RESULTADO_DESCONHECIDO; break;
+                case "AB": case "AW": case "AE": montagem = true; break;
+                case "B": case "W":
+                    int cor = id.equals("B") ? Tabuleiro.PRETO : Tabuleiro.BRANCO;
+                    int[] p = Sgf.ponto(v, tamanho);
+                    if (n == buf.length) buf = Arrays.copyOf(buf, n * 2);
+                    buf[n++] = codificarLance(cor, p == null ? -1 : p[0], p == null ? -1 : p[1]);
+                    break;
+                default: break;
+            }
+        }
+        boolean valida(){ return !montagem && tamanho <= Zobrist.TAMANHO_MAXIMO && n <= 0xFFFF; }
+        short[] lances(){ return Arrays.copyOf(buf, n); }
+    }
+}
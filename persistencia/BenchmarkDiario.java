@@ -0,0 +1,90 @@
+package persistencia;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import modelo.Jogo;
+
+/**
+ * Mede quanto o diário acrescenta ao custo de uma jogada.
+ *
+ * Joga a mesma sequência de lances aleatórios (mesma semente) num 'Jogo' sem
+ * diário e em outro com diário, cronometrando cada 'fazerJogada' aceita, e
+ * imprime média e percentis das duas rodadas. No modo GRUPO, o tempo vai até a
+ * jogada estar no disco (quando o servidor responderia ao jogador).
+ *
+ * Uso: java -cp bin persistencia.BenchmarkDiario [lances] [ASSINCRONA|GRUPO]
+ */
+public class BenchmarkDiario {
+
+    public static void main(String[] args) throws Exception {
+        int lances = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        DiarioJogo.Durabilidade modo = args.length > 1
+                ? DiarioJogo.Durabilidade.valueOf(args[1]) : DiarioJogo.Durabilidade.ASSINCRONA;
+
+        // Aquecimento (JIT) nas duas configurações, depois a medição de verdade.
+        rodar(new Jogo(9, Long.MAX_VALUE / 4), null, lances / 10);
+        comDiario(lances / 10, modo);
+
+        long[] sem = rodar(new Jogo(9, Long.MAX_VALUE / 4), null, lances);
+        long[] com = comDiario(lances, modo);
+
+        System.out.println("Lances medidos: " + sem.length + " (diário " + modo + ")");
+        imprimir("sem diário", sem);
+        imprimir("com diário", com);
+        System.out.printf("Custo do diário por lance (média): %.2f µs%n", (media(com) - media(sem)) / 1000.0);
+    }
+
+    private static long[] comDiario(int lances, DiarioJogo.Durabilidade modo) throws Exception {
+        Path arq = Files.createTempFile("diario-bench", ".log");
+        try (DiarioJogo diario = DiarioJogo.abrir(arq, 9, Long.MAX_VALUE / 4, modo)) {
+            return rodar(diario.recuperarJogo(), diario, lances);
+        } finally {
+            Files.deleteIfExists(arq);
+        }
+    }
+
+    // Joga lances aleatórios até medir 'lances' jogadas aceitas; devolve a duração (ns) de cada uma.
+    private static long[] rodar(Jogo jogo, DiarioJogo diario, int lances) {
+        Random rnd = new Random(42);
+        long[] tempos = new long[lances];
+        int medidos = 0, falhasSeguidas = 0;
+        while (medidos < lances) {
+            int cor = jogo.getJogadorAtual();
+            int x = rnd.nextInt(9), y = rnd.nextInt(9);
+            long t0 = System.nanoTime();
+            boolean ok = jogo.fazerJogada(x, y, cor);
+            CompletableFuture<Void> gravado = diario != null ? diario.gravado() : null;
+            if (gravado != null) gravado.join();
+            long dt = System.nanoTime() - t0;
+            if (ok) {
+                tempos[medidos++] = dt;
+                falhasSeguidas = 0;
+            } else if (++falhasSeguidas > 50 || jogo.isGameOver()) {
+                // Tabuleiro "cheio": começa outra partida.
+                jogo.reiniciar();
+                falhasSeguidas = 0;
+            }
+            // De vez em quando um passe, para o diário também ver esse tipo de comando.
+            if (ok && rnd.nextInt(40) == 0) jogo.passar(jogo.getJogadorAtual());
+        }
+        return tempos;
+    }
+
+    private static double media(long[] v) {
+        long soma = 0;
+        for (long t : v) soma += t;
+        return (double) soma / v.length;
+    }
+
+    private static void imprimir(String nome, long[] v) {
+        long[] o = v.clone();
+        Arrays.sort(o);
+        System.out.printf("%-11s média %.2f µs | p50 %.2f µs | p99 %.2f µs | p99.9 %.2f µs%n", nome,
+                media(o) / 1000.0, o[o.length / 2] / 1000.0,
+                o[(int) (o.length * 0.99)] / 1000.0, o[(int) (o.length * 0.999)] / 1000.0);
+    }
+}
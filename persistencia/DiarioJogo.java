@@ -0,0 +1,307 @@
+package persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+import modelo.Jogo;
+import modelo.Lance;
+import modelo.OuvinteJogo;
+
+/**
+ * Diário (write-ahead log) de uma partida, só de acréscimo ("append-only").
+ *
+ * Cada comando aceito pelo 'Jogo' vira um registro de tamanho fixo no fim do
+ * arquivo. Ao reiniciar o servidor, 'recuperarJogo' relê o arquivo e reproduz
+ * os comandos, reconstruindo a partida (tabuleiro, placar, turno e relógios).
+ *
+ * Para não atrasar as jogadas, a gravação é feita em "group commit":
+ * quem registra só copia os bytes para um buffer em memória (microssegundos);
+ * uma thread própria troca o buffer, grava tudo no 'FileChannel' e faz UM
+ * 'force' para o lote inteiro. No modo GRUPO, 'gravado' devolve um future que
+ * a thread de gravação completa quando o lote com o registro está no disco: o
+ * 'LacoJogo' só responde ao comando depois disso, sem bloquear a thread do laço
+ * (que serve outras partidas). Os outros jogadores podem ver o lance na foto
+ * publicada alguns milissegundos antes de ele estar no disco; quem o jogou só
+ * recebe a confirmação depois.
+ *
+ * Formato (big-endian, o padrão do ByteBuffer):
+ *   Cabeçalho (32 bytes): magic, versão do formato, tamanho do tabuleiro,
+ *                         reservado, tempo inicial (ms), id da partida.
+ *   Registro  (32 bytes): tipo, cor, x, y (1 byte cada), versão do jogo,
+ *                         tempo das Pretas, tempo das Brancas, CRC32 dos 28 bytes anteriores.
+ * Um registro com CRC inválido (gravação interrompida no meio) marca o fim do diário.
+ */
+public class DiarioJogo implements OuvinteJogo, Closeable {
+
+    private static final int MAGIC = 0x474F4A31; // "GOJ1"
+    private static final int VERSAO_FORMATO = 1;
+    static final int TAM_CABECALHO = 32;
+    static final int TAM_REGISTRO = 32;
+
+    // Tipo de registro só do diário: uma leitura de relógio sem comando.
+    private static final int REGISTRO_RELOGIO = 100;
+
+    // De quanto em quanto tempo a thread de gravação acorda, no máximo.
+    private static final long INTERVALO_GRUPO_MS = 2;
+
+    /** Quando 'lanceRegistrado' devolve o controle ao Jogo. */
+    public enum Durabilidade {
+        /** Devolve logo; o lote vai para o disco em até alguns milissegundos. */
+        ASSINCRONA,
+        /** A resposta ao comando espera o 'force' do lote (vários lances dividem um 'force'). */
+        GRUPO
+    }
+
+    private final FileChannel canal;
+    private final int tamanho;
+    private final long tempoInicialMs;
+    private final long idPartida;
+    private final Durabilidade durabilidade;
+
+    // Buffer que recebe os registros (protegido por 'trava') e o que está sendo gravado.
+    private final Object trava = new Object();
+    private ByteBuffer pendente = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer gravando = ByteBuffer.allocate(64 * 1024);
+    private long registrosAceitos = 0;  // Quantos registros já entraram no buffer.
+    private long registrosDuraveis = 0; // Quantos já passaram pelo 'force'.
+    private IOException falha;          // Erro da thread de gravação (repassado a quem registrar depois).
+    private boolean fechado = false;
+    // Quem espera um registro chegar ao disco (modo GRUPO), em ordem de sequência.
+    private final ArrayDeque<Espera> esperas = new ArrayDeque<>();
+
+    private final Thread gravador;
+    private final CRC32 crc = new CRC32();
+
+    private static final class Espera {
+        final long seq;
+        final CompletableFuture<Void> futuro = new CompletableFuture<>();
+        Espera(long seq) { this.seq = seq; }
+    }
+
+    private DiarioJogo(FileChannel canal, int tamanho, long tempoInicialMs, long idPartida, Durabilidade durabilidade) {
+        this.canal = canal;
+        this.tamanho = tamanho;
+        this.tempoInicialMs = tempoInicialMs;
+        this.idPartida = idPartida;
+        this.durabilidade = durabilidade;
+        this.gravador = new Thread(this::lacoGravacao, "diario-jogo");
+        this.gravador.setDaemon(true);
+    }
+
+    /**
+     * Abre (ou cria) o diário em 'arquivo'. Se o arquivo já existe, o tamanho e o
+     * tempo inicial gravados no cabeçalho prevalecem sobre os parâmetros.
+     * Depois de abrir, chame 'recuperarJogo' para obter a partida.
+     */
+    public static DiarioJogo abrir(Path arquivo, int tamanho, long tempoInicialMs, Durabilidade durabilidade) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (canal.size() >= TAM_CABECALHO) {
+                ByteBuffer cab = ByteBuffer.allocate(TAM_CABECALHO);
+                lerTudo(canal, cab, 0);
+                cab.flip();
+                if (cab.getInt() != MAGIC || cab.getInt() != VERSAO_FORMATO)
+                    throw new IOException("Arquivo não é um diário de jogo válido: " + arquivo);
+                int tam = cab.getInt();
+                cab.getInt(); // reservado
+                long tempo = cab.getLong();
+                long id = cab.getLong();
+                return new DiarioJogo(canal, tam, tempo, id, durabilidade);
+            }
+            // Arquivo novo: grava o cabeçalho com um id de partida novo.
+            long id = ThreadLocalRandom.current().nextLong();
+            ByteBuffer cab = ByteBuffer.allocate(TAM_CABECALHO);
+            cab.putInt(MAGIC).putInt(VERSAO_FORMATO).putInt(tamanho).putInt(0)
+               .putLong(tempoInicialMs).putLong(id).flip();
+            canal.truncate(0);
+            escreverTudo(canal, cab, 0);
+            canal.force(true);
+            return new DiarioJogo(canal, tamanho, tempoInicialMs, id, durabilidade);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reconstrói a partida reproduzindo todos os registros válidos do diário,
+     * corta um eventual registro incompleto no fim e passa a gravar os próximos
+     * comandos do Jogo devolvido (o diário já fica registrado como ouvinte).
+     */
+    public Jogo recuperarJogo() throws IOException {
+        Jogo jogo = new Jogo(tamanho, tempoInicialMs, idPartida);
+        long pos = TAM_CABECALHO;
+        long fim = canal.size();
+        ByteBuffer reg = ByteBuffer.allocate(TAM_REGISTRO);
+        while (pos + TAM_REGISTRO <= fim) {
+            reg.clear();
+            lerTudo(canal, reg, pos);
+            reg.flip();
+            if (!crcConfere(reg)) break; // Gravação interrompida: o diário termina aqui.
+            int tipo = reg.get(0), cor = reg.get(1), x = reg.get(2), y = reg.get(3);
+            long versao = reg.getLong(4), tPretas = reg.getLong(12), tBrancas = reg.getLong(20);
+            if (tipo == REGISTRO_RELOGIO) jogo.reproduzirRelogio(tPretas, tBrancas);
+            else jogo.reproduzir(new Lance(tipo, cor, x, y, versao, tPretas, tBrancas));
+            pos += TAM_REGISTRO;
+        }
+        canal.truncate(pos);
+        canal.position(pos);
+        jogo.retomarRelogio();
+
+        gravador.start();
+        jogo.adicionarOuvinte(this);
+        return jogo;
+    }
+
+    // ---- OuvinteJogo: chamados pelo escritor único da partida, só copiam para o buffer ----
+
+    @Override public void lanceRegistrado(Lance l) {
+        acrescentar(l.tipo, l.cor, l.x, l.y, l.versao, l.tempoPretasMs, l.tempoBrancasMs);
+    }
+
+    // No modo GRUPO: quando os registros aceitos até agora estiverem no disco.
+    @Override public CompletableFuture<Void> gravado() {
+        if (durabilidade != Durabilidade.GRUPO) return null;
+        synchronized (trava) {
+            return registrosDuraveis >= registrosAceitos ? null : quandoDuravel(registrosAceitos);
+        }
+    }
+
+    @Override public void relogioLido(long tempoPretasMs, long tempoBrancasMs) {
+        acrescentar(REGISTRO_RELOGIO, 0, -1, -1, 0, tempoPretasMs, tempoBrancasMs);
+    }
+
+    // Copia um registro para o buffer pendente e devolve o seu número de sequência.
+    private long acrescentar(int tipo, int cor, int x, int y, long versao, long tPretas, long tBrancas) {
+        synchronized (trava) {
+            if (falha != null) throw new UncheckedIOException("Falha ao gravar o diário", falha);
+            if (fechado) throw new IllegalStateException("Diário fechado");
+            if (pendente.remaining() < TAM_REGISTRO) {
+                // Lote grande demais para o buffer: dobra a capacidade.
+                ByteBuffer maior = ByteBuffer.allocate(pendente.capacity() * 2);
+                pendente.flip();
+                maior.put(pendente);
+                pendente = maior;
+            }
+            int ini = pendente.position();
+            pendente.put((byte) tipo).put((byte) cor).put((byte) x).put((byte) y)
+                    .putLong(versao).putLong(tPretas).putLong(tBrancas);
+            crc.reset();
+            crc.update(pendente.array(), ini, TAM_REGISTRO - 4);
+            pendente.putInt((int) crc.getValue());
+            registrosAceitos++;
+            if (registrosAceitos - registrosDuraveis == 1) trava.notifyAll(); // Acorda o gravador.
+            return registrosAceitos;
+        }
+    }
+
+    /**
+     * Completa quando o registro de número 'seq' (e todos os anteriores) estiver no
+     * disco, ou com UncheckedIOException se a gravação falhar.
+     */
+    public CompletableFuture<Void> quandoDuravel(long seq) {
+        synchronized (trava) {
+            if (registrosDuraveis >= seq) return CompletableFuture.completedFuture(null);
+            if (falha != null) return CompletableFuture.failedFuture(new UncheckedIOException("Falha ao gravar o diário", falha));
+            Espera e = new Espera(seq);
+            esperas.add(e);
+            return e.futuro;
+        }
+    }
+
+    // Libera quem esperava registros que já estão no disco (ou todos, com 'erro').
+    // Os futures são completados fora da trava: quem espera pode continuar ali mesmo.
+    private void liberarEsperas(RuntimeException erro) {
+        List<Espera> prontas = new ArrayList<>();
+        synchronized (trava) {
+            while (!esperas.isEmpty() && (erro != null || esperas.peek().seq <= registrosDuraveis))
+                prontas.add(esperas.poll());
+        }
+        for (Espera e : prontas) {
+            if (erro == null) e.futuro.complete(null);
+            else e.futuro.completeExceptionally(erro);
+        }
+    }
+
+    // Thread de gravação: a cada lote, troca os buffers, grava e faz um único 'force'.
+    private void lacoGravacao() {
+        while (true) {
+            long lote;
+            synchronized (trava) {
+                while (registrosAceitos == registrosDuraveis && !fechado) {
+                    try { trava.wait(INTERVALO_GRUPO_MS * 50); }
+                    catch (InterruptedException e) { return; }
+                }
+                if (registrosAceitos == registrosDuraveis && fechado) return;
+                ByteBuffer t = pendente; pendente = gravando; gravando = t;
+                lote = registrosAceitos;
+            }
+            try {
+                gravando.flip();
+                while (gravando.hasRemaining()) canal.write(gravando);
+                canal.force(false);
+                gravando.clear();
+            } catch (IOException e) {
+                synchronized (trava) { falha = e; trava.notifyAll(); }
+                liberarEsperas(new UncheckedIOException("Falha ao gravar o diário", e));
+                return;
+            }
+            synchronized (trava) {
+                registrosDuraveis = lote;
+                trava.notifyAll();
+            }
+            liberarEsperas(null);
+            // Dá uma pequena janela para os próximos registros se juntarem ao lote.
+            try { Thread.sleep(INTERVALO_GRUPO_MS); } catch (InterruptedException e) { return; }
+        }
+    }
+
+    /** Grava o que estiver pendente e fecha o arquivo. */
+    @Override public void close() throws IOException {
+        synchronized (trava) {
+            fechado = true;
+            trava.notifyAll();
+        }
+        if (gravador.isAlive()) {
+            try { gravador.join(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        liberarEsperas(null);
+        liberarEsperas(new IllegalStateException("Diário fechado antes de gravar"));
+        canal.close();
+        if (falha != null) throw falha;
+    }
+
+    public long getIdPartida(){ return idPartida; }
+
+    // ---- Ajudantes de I/O ----
+
+    private static boolean crcConfere(ByteBuffer reg) {
+        CRC32 c = new CRC32();
+        c.update(reg.array(), 0, TAM_REGISTRO - 4);
+        return (int) c.getValue() == reg.getInt(TAM_REGISTRO - 4);
+    }
+
+    private static void lerTudo(FileChannel canal, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) {
+            int n = canal.read(buf, pos);
+            if (n < 0) throw new IOException("Fim inesperado do diário");
+            pos += n;
+        }
+    }
+
+    private static void escreverTudo(FileChannel canal, ByteBuffer buf, long pos) throws IOException {
+        while (buf.hasRemaining()) pos += canal.write(buf, pos);
+    }
+}
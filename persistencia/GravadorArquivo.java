@@ -0,0 +1,173 @@
+package persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import modelo.Lance;
+import modelo.OuvinteJogo;
+
+/**
+ * Grava partidas no arquivo binário (ver 'ArquivoPartidas').
+ *
+ * Como ouvinte de um 'Jogo', recebe o histórico quando a partida termina e o
+ * grava na hora, num bloco só dele: partidas ao vivo terminam de minutos em
+ * minutos, e esperar o bloco de 64 KB encher (centenas de partidas) perderia
+ * todas elas numa queda do servidor. O bloco selado (CRC) vai para uma thread
+ * de gravação que escreve e faz 'force', então o 'Jogo' nunca espera por disco
+ * e a partida está no disco poucos milissegundos depois de terminar.
+ *
+ * Quem acrescenta muitas partidas de uma vez (ex: o 'Torneio', a importação)
+ * chama 'acrescentar' direto: as partidas se juntam em blocos de 64 KB, que
+ * são gravados quando enchem, em 'descarregar' ou em 'close'.
+ *
+ * Se uma gravação falhar, o arquivo é cortado de volta no início do bloco (um
+ * bloco pela metade esconderia da leitura todos os que viessem depois) e o
+ * gravador para: 'acrescentar' e 'close' lançam o erro. As partidas ao vivo
+ * continuam (só não vão mais para o arquivo); o erro aparece uma vez no stderr.
+ */
+public class GravadorArquivo implements OuvinteJogo, Closeable {
+
+    private final FileChannel canal;
+    private final ExecutorService escritor;
+    // Onde começa o próximo bloco (só a thread de gravação mexe, depois do construtor).
+    private long fimGravado;
+    // Primeira falha de gravação: daí em diante, nada mais é gravado.
+    private volatile IOException falha;
+
+    // Bloco em montagem (protegido por 'this').
+    private ByteBuffer bloco = ByteBuffer.allocate(ArquivoPartidas.TAM_BLOCO);
+    private int partidasNoBloco = 0;
+
+    private GravadorArquivo(FileChannel canal, long fimGravado) {
+        this.canal = canal;
+        this.fimGravado = fimGravado;
+        this.escritor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "gravador-arquivo");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Abre o arquivo para acrescentar partidas (criando-o, se preciso).
+     * Um bloco incompleto no fim (gravação interrompida) é descartado.
+     */
+    public static GravadorArquivo abrir(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long fim;
+            if (canal.size() == 0) {
+                ByteBuffer cab = ByteBuffer.allocate(ArquivoPartidas.TAM_CABECALHO_ARQUIVO);
+                cab.putInt(ArquivoPartidas.MAGIC_ARQUIVO).putInt(ArquivoPartidas.VERSAO_FORMATO).flip();
+                while (cab.hasRemaining()) canal.write(cab);
+                fim = ArquivoPartidas.TAM_CABECALHO_ARQUIVO;
+            } else {
+                List<ArquivoPartidas.Bloco> blocos = ArquivoPartidas.listarBlocos(canal);
+                fim = blocos.isEmpty() ? ArquivoPartidas.TAM_CABECALHO_ARQUIVO
+                                       : blocos.get(blocos.size() - 1).fim();
+                canal.truncate(fim);
+            }
+            return new GravadorArquivo(canal, fim);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    @Override public void lanceRegistrado(Lance lance) { }
+
+    @Override public void partidaEncerrada(int tamanho, List<Lance> lances) {
+        // 'synchronized': com várias partidas no mesmo arquivo, a partida e o seu bloco não se separam.
+        synchronized (this) {
+            if (falha != null) return; // Já avisado: a partida ao vivo segue, só não é arquivada.
+            acrescentar(tamanho, ArquivoPartidas.resultado(lances), ArquivoPartidas.codificar(lances));
+            descarregar();
+        }
+    }
+
+    /** Acrescenta uma partida ao bloco atual (e sela o bloco, se ele encheu). */
+    public synchronized void acrescentar(int tamanho, int resultado, short[] lances) {
+        if (falha != null) throw new UncheckedIOException("Falha ao gravar o arquivo de partidas", falha);
+        int bytes = 4 + 2 * lances.length;
+        if (partidasNoBloco > 0 && bloco.position() + bytes > ArquivoPartidas.TAM_BLOCO) selarBloco();
+        if (bloco.remaining() < bytes) {
+            // Partida maior que um bloco inteiro: ganha um bloco só dela.
+            ByteBuffer maior = ByteBuffer.allocate(bloco.position() + bytes);
+            bloco.flip();
+            maior.put(bloco);
+            bloco = maior;
+        }
+        bloco.put((byte) tamanho).put((byte) resultado).putShort((short) lances.length);
+        for (short l : lances) bloco.putShort(l);
+        partidasNoBloco++;
+    }
+
+    /** Sela o bloco atual (mesmo incompleto) e o manda para gravação. */
+    public synchronized void descarregar() {
+        if (partidasNoBloco > 0) selarBloco();
+    }
+
+    private void selarBloco() {
+        CRC32 crc = new CRC32();
+        crc.update(bloco.array(), 0, bloco.position());
+        ByteBuffer saida = ByteBuffer.allocate(ArquivoPartidas.TAM_CABECALHO_BLOCO + bloco.position());
+        saida.putInt(ArquivoPartidas.MAGIC_BLOCO).putInt(partidasNoBloco)
+             .putInt(bloco.position()).putInt((int) crc.getValue())
+             .put(bloco.array(), 0, bloco.position())
+             .flip();
+        escritor.execute(() -> gravar(saida));
+        bloco = ByteBuffer.allocate(ArquivoPartidas.TAM_BLOCO);
+        partidasNoBloco = 0;
+    }
+
+    // Na thread de gravação: o bloco inteiro e um 'force', ou nada (o arquivo volta ao fim do bloco anterior).
+    private void gravar(ByteBuffer saida) {
+        if (falha != null) return; // Depois de uma falha, os blocos seguintes são descartados.
+        long inicio = fimGravado;
+        try {
+            long pos = inicio;
+            while (saida.hasRemaining()) pos += canal.write(saida, pos);
+            canal.force(false);
+            fimGravado = pos;
+        } catch (IOException e) {
+            try {
+                canal.truncate(inicio);
+            } catch (IOException e2) {
+                e.addSuppressed(e2);
+            }
+            falha = e;
+            System.err.println("Arquivo de partidas: falha ao gravar (o gravador parou): " + e);
+        }
+    }
+
+    /**
+     * Grava o bloco pendente, espera a gravação terminar e fecha o arquivo.
+     * @throws IOException a falha de gravação que parou o gravador, se houve uma.
+     */
+    @Override public void close() throws IOException {
+        if (falha == null) descarregar();
+        escritor.shutdown();
+        try {
+            escritor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (falha == null) canal.force(true);
+        } finally {
+            canal.close();
+        }
+        if (falha != null) throw falha;
+    }
+}
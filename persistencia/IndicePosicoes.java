@@ -0,0 +1,300 @@
+package persistencia;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import modelo.Tabuleiro;
+
+/**
+ * Índice em disco: hash de Zobrist da posição -> (partida, nº do lance).
+ *
+ * Responde "quais partidas do arquivo passaram por esta posição?" sem ler o
+ * arquivo de partidas: o índice é dividido em 256 "fatias" pelos 8 bits mais
+ * altos do hash; cada fatia é um arquivo de entradas de 16 bytes (hash, partida,
+ * lance) ORDENADAS pelo hash. A consulta mapeia a fatia na memória (mmap) e faz
+ * uma busca binária: alguns acessos a página, mesmo com milhões de partidas.
+ *
+ * A construção é paralela em duas fases:
+ * 1. Cada thread pega blocos do arquivo de partidas, reproduz as partidas no
+ *    'Tabuleiro' ('jogarComKo': sem alocar por lance e sem entrar nas métricas
+ *    do servidor) e espalha as entradas nos arquivos temporários das fatias.
+ * 2. Cada fatia é carregada, ordenada e gravada (uma fatia por thread).
+ */
+public class IndicePosicoes {
+
+    static final int FATIAS = 256;
+    static final int TAM_ENTRADA = 16;
+    // Quantas entradas cada thread acumula por fatia antes de gravar no temporário.
+    private static final int BUFFER_POR_FATIA = 512;
+
+    private final Path pasta;
+    // Fatias já mapeadas na memória (carregadas na primeira consulta que precisar delas).
+    private final AtomicReferenceArray<MappedByteBuffer> mapas = new AtomicReferenceArray<>(FATIAS);
+
+    /** Uma ocorrência da posição procurada. */
+    public static class Ocorrencia {
+        public final long partida;
+        public final int lance;
+        Ocorrencia(long partida, int lance) { this.partida = partida; this.lance = lance; }
+    }
+
+    private IndicePosicoes(Path pasta) {
+        this.pasta = pasta;
+    }
+
+    /** Abre um índice já construído (as fatias só são mapeadas quando consultadas). */
+    public static IndicePosicoes abrir(Path pasta) {
+        return new IndicePosicoes(pasta);
+    }
+
+    private static Path arquivoFatia(Path pasta, int f) {
+        return pasta.resolve(String.format("fatia-%02x.idx", f));
+    }
+
+    private static Path arquivoTemporario(Path pasta, int f) {
+        return pasta.resolve(String.format("fatia-%02x.tmp", f));
+    }
+
+    private static int fatiaDe(long hash) {
+        return (int) (hash >>> 56);
+    }
+
+    // ---- Consulta ----
+
+    /** Devolve até 'limite' ocorrências da posição com este hash de Zobrist. */
+    public List<Ocorrencia> consultar(long hash, int limite) throws IOException {
+        MappedByteBuffer m = mapa(fatiaDe(hash));
+        List<Ocorrencia> res = new ArrayList<>();
+        if (m == null) return res;
+        int n = m.capacity() / TAM_ENTRADA;
+
+        // Busca binária pela PRIMEIRA entrada com esse hash.
+        int lo = 0, hi = n;
+        while (lo < hi) {
+            int meio = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(m.getLong(meio * TAM_ENTRADA), hash) < 0) lo = meio + 1;
+            else hi = meio;
+        }
+        for (int i = lo; i < n && res.size() < limite; i++) {
+            int p = i * TAM_ENTRADA;
+            if (m.getLong(p) != hash) break;
+            res.add(new Ocorrencia(m.getInt(p + 8) & 0xFFFFFFFFL, m.getInt(p + 12)));
+        }
+        return res;
+    }
+
+    private MappedByteBuffer mapa(int f) throws IOException {
+        MappedByteBuffer m = mapas.get(f);
+        if (m != null) return m;
+        Path arq = arquivoFatia(pasta, f);
+        if (!Files.exists(arq)) return null;
+        try (FileChannel c = FileChannel.open(arq, StandardOpenOption.READ)) {
+            m = c.map(FileChannel.MapMode.READ_ONLY, 0, c.size());
+        }
+        mapas.compareAndSet(f, null, m);
+        return mapas.get(f);
+    }
+
+    // ---- Construção ----
+
+    /**
+     * Constrói o índice do 'arquivo' de partidas na 'pasta', usando 'threads' threads.
+     * @return o número de entradas gravadas.
+     */
+    public static long construir(Path arquivo, Path pasta, int threads) throws Exception {
+        Files.createDirectories(pasta);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        FileChannel[] temporarios = new FileChannel[FATIAS];
+        try (FileChannel entrada = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            for (int f = 0; f < FATIAS; f++)
+                temporarios[f] = FileChannel.open(arquivoTemporario(pasta, f),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+            // Fase 1: espalhar as entradas nas fatias.
+            List<ArquivoPartidas.Bloco> blocos = ArquivoPartidas.listarBlocos(entrada);
+            AtomicInteger proximo = new AtomicInteger();
+            AtomicLong total = new AtomicLong();
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(pool.submit(() -> {
+                    Espalhador e = new Espalhador(temporarios);
+                    int i;
+                    while ((i = proximo.getAndIncrement()) < blocos.size())
+                        for (ArquivoPartidas.Partida p : ArquivoPartidas.lerBloco(entrada, blocos.get(i)))
+                            e.indexar(p);
+                    e.descarregarTudo();
+                    total.addAndGet(e.entradas);
+                    return null;
+                }));
+            }
+            for (Future<?> f : tarefas) f.get();
+            for (FileChannel c : temporarios) c.close();
+
+            // Fase 2: ordenar cada fatia.
+            tarefas.clear();
+            for (int f = 0; f < FATIAS; f++) {
+                final int fatia = f;
+                tarefas.add(pool.submit(() -> { ordenarFatia(pasta, fatia); return null; }));
+            }
+            for (Future<?> f : tarefas) f.get();
+            return total.get();
+        } finally {
+            for (FileChannel c : temporarios) if (c != null && c.isOpen()) c.close();
+            pool.shutdown();
+        }
+    }
+
+    // Estado de uma thread da fase 1: um pequeno buffer por fatia.
+    private static class Espalhador {
+        final FileChannel[] temporarios;
+        final ByteBuffer[] buffers = new ByteBuffer[FATIAS];
+        long entradas;
+
+        Espalhador(FileChannel[] temporarios) {
+            this.temporarios = temporarios;
+            for (int f = 0; f < FATIAS; f++) buffers[f] = ByteBuffer.allocate(BUFFER_POR_FATIA * TAM_ENTRADA);
+        }
+
+        // Reproduz a partida e gera uma entrada por posição (passes não mudam a posição).
+        void indexar(ArquivoPartidas.Partida p) throws IOException {
+            Tabuleiro t = new Tabuleiro(p.tamanho);
+            long hashKo = 0; // Hash da posição antes do lance anterior (0: sem Ko).
+            for (int i = 0; i < p.lances.length; i++) {
+                short l = p.lances[i];
+                if (ArquivoPartidas.ehPasse(l)) { hashKo = 0; continue; }
+                int x = ArquivoPartidas.xDe(l), y = ArquivoPartidas.yDe(l), cor = ArquivoPartidas.corDe(l);
+                if (!t.posicaoValida(x, y)) break;
+                long antes = t.getHashZobrist();
+                if (t.jogarComKo(x, y, cor, hashKo) >= 0) hashKo = antes;
+                else { t.definir(x, y, cor); hashKo = 0; } // Acompanha a partida gravada mesmo assim.
+                acrescentar(t.getHashZobrist(), p.id, i + 1);
+            }
+        }
+
+        void acrescentar(long hash, long partida, int lance) throws IOException {
+            int f = fatiaDe(hash);
+            ByteBuffer b = buffers[f];
+            b.putLong(hash).putInt((int) partida).putInt(lance);
+            entradas++;
+            if (!b.hasRemaining()) descarregar(f);
+        }
+
+        void descarregar(int f) throws IOException {
+            ByteBuffer b = buffers[f];
+            b.flip();
+            FileChannel c = temporarios[f];
+            synchronized (c) { while (b.hasRemaining()) c.write(b); }
+            b.clear();
+        }
+
+        void descarregarTudo() throws IOException {
+            for (int f = 0; f < FATIAS; f++) if (buffers[f].position() > 0) descarregar(f);
+        }
+    }
+
+    // Lê o temporário de uma fatia, ordena pelo hash e grava o arquivo final.
+    private static void ordenarFatia(Path pasta, int f) throws IOException {
+        Path destino = arquivoFatia(pasta, f);
+        Path tmp = arquivoTemporario(pasta, f);
+        long tamanho = Files.size(tmp);
+        if (tamanho == 0) { Files.delete(tmp); Files.deleteIfExists(destino); return; }
+        if (tamanho / TAM_ENTRADA > Integer.MAX_VALUE / TAM_ENTRADA)
+            throw new IOException("Fatia " + f + " grande demais para um único mapeamento");
+
+        int n = (int) (tamanho / TAM_ENTRADA);
+        long[] hashes = new long[n];
+        long[] valores = new long[n]; // partida (32 bits altos) | lance (32 bits baixos)
+        try (FileChannel c = FileChannel.open(tmp, StandardOpenOption.READ)) {
+            ByteBuffer b = c.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+            for (int i = 0; i < n; i++) { hashes[i] = b.getLong(); valores[i] = b.getLong(); }
+        }
+        ordenar(hashes, valores, 0, n - 1);
+
+        try (FileChannel c = FileChannel.open(destino, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer b = ByteBuffer.allocate(64 * 1024);
+            for (int i = 0; i < n; i++) {
+                b.putLong(hashes[i]).putLong(valores[i]);
+                if (!b.hasRemaining()) { b.flip(); while (b.hasRemaining()) c.write(b); b.clear(); }
+            }
+            b.flip();
+            while (b.hasRemaining()) c.write(b);
+        }
+        Files.delete(tmp);
+    }
+
+    // Quicksort nos dois vetores ao mesmo tempo (chave = hash sem sinal, desempate = valor).
+    private static void ordenar(long[] h, long[] v, int lo, int hi) {
+        while (hi - lo > 16) {
+            int meio = (lo + hi) >>> 1;
+            long ph = h[meio], pv = v[meio];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (menor(h[i], v[i], ph, pv)) i++;
+                while (menor(ph, pv, h[j], v[j])) j--;
+                if (i <= j) { trocar(h, v, i, j); i++; j--; }
+            }
+            // Recursão na parte menor, laço na maior (pilha limitada a log n).
+            if (j - lo < hi - i) { ordenar(h, v, lo, j); lo = i; }
+            else { ordenar(h, v, i, hi); hi = j; }
+        }
+        for (int i = lo + 1; i <= hi; i++)
+            for (int j = i; j > lo && menor(h[j], v[j], h[j - 1], v[j - 1]); j--) trocar(h, v, j, j - 1);
+    }
+
+    private static boolean menor(long h1, long v1, long h2, long v2) {
+        int c = Long.compareUnsigned(h1, h2);
+        return c < 0 || (c == 0 && v1 < v2);
+    }
+
+    private static void trocar(long[] h, long[] v, int i, int j) {
+        long t = h[i]; h[i] = h[j]; h[j] = t;
+        t = v[i]; v[i] = v[j]; v[j] = t;
+    }
+
+    // ---- Ferramenta de linha de comando ----
+
+    /**
+     * Uso:
+     *   java -cp bin persistencia.IndicePosicoes construir <arquivo.goa> <pasta-indice> [threads]
+     *   java -cp bin persistencia.IndicePosicoes consultar <pasta-indice> <posicao.sgf> [lance]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 3 && args[0].equals("construir")) {
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            long t0 = System.nanoTime();
+            long n = construir(Paths.get(args[1]), Paths.get(args[2]), threads);
+            System.out.printf("%d entradas indexadas em %.1f s (%d threads)%n", n, (System.nanoTime() - t0) / 1e9, threads);
+        } else if (args.length >= 3 && args[0].equals("consultar")) {
+            // A posição vem de um SGF (até o lance pedido, ou até o fim).
+            ReprodutorSgf r = new ReprodutorSgf(args.length > 3 ? Integer.parseInt(args[3]) : -1, false);
+            try (BufferedReader in = Files.newBufferedReader(Paths.get(args[2]), StandardCharsets.ISO_8859_1)) {
+                if (!new LeitorSgf(in).proximaPartida(r)) throw new IOException("SGF sem partidas");
+            }
+            IndicePosicoes indice = abrir(Paths.get(args[1]));
+            long t0 = System.nanoTime();
+            List<Ocorrencia> res = indice.consultar(r.getTabuleiro().getHashZobrist(), 1000);
+            double ms = (System.nanoTime() - t0) / 1e6;
+            for (Ocorrencia o : res) System.out.println("partida " + o.partida + ", lance " + o.lance);
+            System.out.printf("%d ocorrências em %.2f ms%n", res.size(), ms);
+        } else {
+            System.err.println("Uso: IndicePosicoes construir <arquivo.goa> <pasta> [threads] | consultar <pasta> <posicao.sgf> [lance]");
+        }
+    }
+}
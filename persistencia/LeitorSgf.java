@@ -0,0 +1,144 @@
+package persistencia;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de SGF ("Smart Game Format") em fluxo (streaming).
+ *
+ * Lê um caractere por vez de um 'Reader' e vai avisando um 'Ouvinte' a cada
+ * nó e propriedade encontrados, sem nunca montar a árvore na memória. Por isso
+ * serve tanto para um arquivo pequeno quanto para um "arquivão" com milhares de
+ * partidas concatenadas: a memória usada não depende do tamanho da entrada.
+ *
+ * Só a linha PRINCIPAL de cada partida é repassada (a primeira variação de cada
+ * ramificação); as demais variações são puladas.
+ */
+public class LeitorSgf {
+
+    /** Quem recebe os eventos do leitor. */
+    public interface Ouvinte {
+        void inicioPartida();
+        void inicioNo();
+        void propriedade(String id, List<String> valores);
+        void fimPartida();
+    }
+
+    private final Reader in;
+    private int devolvido = -2; // Um caractere "devolvido" (lookahead), ou -2 se não houver.
+
+    // Reaproveitados entre propriedades para não alocar a cada uma.
+    private final StringBuilder sbId = new StringBuilder();
+    private final StringBuilder sbValor = new StringBuilder();
+
+    /** O 'Reader' deve ser bufferizado (ex: BufferedReader): ele é lido caractere a caractere. */
+    public LeitorSgf(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Lê a próxima partida (uma árvore "( ... )" de nível mais alto) e repassa
+     * os eventos ao ouvinte.
+     * @return false se a entrada acabou antes de começar outra partida.
+     */
+    public boolean proximaPartida(Ouvinte o) throws IOException {
+        // Pula qualquer lixo entre partidas (cabeçalhos de e-mail, espaços...).
+        int c;
+        do { c = ler(); } while (c != '(' && c != -1);
+        if (c == -1) return false;
+
+        o.inicioPartida();
+        int profundidade = 1;
+        boolean linhaPrincipalTerminou = false;
+        while (profundidade > 0) {
+            c = ler();
+            if (c == -1) throw new IOException("SGF terminou no meio de uma partida");
+            if (c == '[') {
+                pularValor(); // Valor solto (sem id), ou dentro de uma variação pulada.
+            } else if (c == '(') {
+                // A primeira variação de cada nível continua a linha principal;
+                // depois que a linha principal fechou, tudo o que vier é variação.
+                if (linhaPrincipalTerminou) pularArvore();
+                else profundidade++;
+            } else if (c == ')') {
+                // A primeira ')' fecha a variação mais funda da linha principal:
+                // daí em diante só sobram variações alternativas.
+                profundidade--;
+                linhaPrincipalTerminou = true;
+            } else if (c == ';') {
+                if (!linhaPrincipalTerminou) o.inicioNo();
+            } else if (Character.isLetter(c)) {
+                devolver(c);
+                lerPropriedade(o, !linhaPrincipalTerminou);
+            }
+            // Espaços e quebras de linha são ignorados.
+        }
+        o.fimPartida();
+        return true;
+    }
+
+    // Lê "ID[v1][v2]..." e repassa ao ouvinte (se 'repassar').
+    private void lerPropriedade(Ouvinte o, boolean repassar) throws IOException {
+        sbId.setLength(0);
+        int c = ler();
+        while (c != -1 && Character.isLetter(c)) {
+            // Letras minúsculas são de uma versão antiga do formato (ex: "AddBlack"): ignoradas.
+            if (Character.isUpperCase(c)) sbId.append((char) c);
+            c = ler();
+        }
+        List<String> valores = repassar ? new ArrayList<>(1) : null;
+        while (true) {
+            while (c != -1 && Character.isWhitespace(c)) c = ler();
+            if (c != '[') { devolver(c); break; }
+            if (repassar) valores.add(lerValor());
+            else pularValor();
+            c = ler();
+        }
+        if (repassar) o.propriedade(sbId.toString(), valores);
+    }
+
+    // Lê o conteúdo entre '[' e ']' (o '[' já foi consumido), tratando escapes com '\'.
+    private String lerValor() throws IOException {
+        sbValor.setLength(0);
+        int c;
+        while ((c = ler()) != ']') {
+            if (c == -1) throw new IOException("SGF terminou dentro de um valor");
+            if (c == '\\') {
+                c = ler();
+                if (c == -1) throw new IOException("SGF terminou dentro de um valor");
+                if (c == '\n' || c == '\r') continue; // Quebra de linha "escapada" é removida.
+            }
+            sbValor.append((char) c);
+        }
+        return sbValor.toString();
+    }
+
+    private void pularValor() throws IOException {
+        int c;
+        while ((c = ler()) != ']') {
+            if (c == -1) throw new IOException("SGF terminou dentro de um valor");
+            if (c == '\\') ler();
+        }
+    }
+
+    // Pula uma árvore inteira (o '(' já foi consumido), respeitando colchetes.
+    private void pularArvore() throws IOException {
+        int profundidade = 1;
+        while (profundidade > 0) {
+            int c = ler();
+            if (c == -1) throw new IOException("SGF terminou no meio de uma variação");
+            if (c == '[') pularValor();
+            else if (c == '(') profundidade++;
+            else if (c == ')') profundidade--;
+        }
+    }
+
+    private int ler() throws IOException {
+        if (devolvido != -2) { int c = devolvido; devolvido = -2; return c; }
+        return in.read();
+    }
+
+    private void devolver(int c) { devolvido = c; }
+}
@@ -0,0 +1,339 @@
+package persistencia;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import modelo.Simetria;
+import modelo.Tabuleiro;
+import modelo.Zobrist;
+
+/**
+ * Livro de aberturas: posição -> lances recomendados, tirado do arquivo de partidas.
+ *
+ * A posição é identificada pelo hash CANÔNICO ('Tabuleiro.getHashCanonico': o
+ * menor entre as 8 simetrias) mais quem tem a vez. Os lances são guardados na
+ * orientação canônica e, na consulta, levados de volta para a do tabuleiro:
+ * uma abertura jogada em qualquer canto conta para todas as outras.
+ *
+ * Layout do arquivo (big-endian), mapeado inteiro na memória (mmap):
+ *   Cabeçalho (16 bytes): magic "GOB1", versão, nº de posições na tabela (potência de 2),
+ *                         nº de lances.
+ *   Tabela de posições, 16 bytes cada: chave (8), índice do primeiro lance (4),
+ *                         quantos lances (2, 0 = posição livre), reservado (2).
+ *   Lances, 8 bytes cada: x << 5 | y (2), vitórias de quem joga em milésimos (2, -1 se
+ *                         nenhuma das partidas tem resultado), vezes jogado (4).
+ *                         Os de cada posição vêm juntos, do mais jogado ao menos.
+ *
+ * A tabela é um hash aberto (sondagem linear) com no máximo metade ocupada: a
+ * consulta lê 1 ou 2 entradas, quase sempre, e não depende do tamanho do livro.
+ *
+ * A construção é paralela: cada thread pega blocos do arquivo de partidas (como
+ * no 'IndicePosicoes'), reproduz os primeiros lances de cada partida e conta
+ * (posição, lance) na sua própria tabela; no fim, as tabelas são somadas.
+ */
+public class LivroAberturas {
+
+    static final int MAGIC = 0x474F4231; // "GOB1"
+    static final int VERSAO_FORMATO = 1;
+    static final int TAM_CABECALHO = 16;
+    static final int TAM_POSICAO = 16;
+    static final int TAM_LANCE = 8;
+    private static final short SEM_RESULTADO = -1;
+
+    private final MappedByteBuffer mapa;
+    private final int mascara;      // Posições na tabela - 1.
+    private final int inicioLances; // Onde começam os lances no arquivo.
+
+    /** Um lance do livro, já na orientação do tabuleiro consultado. */
+    public static class Sugestao {
+        public final int x, y;
+        /** Em quantas partidas do arquivo este lance foi jogado nesta posição. */
+        public final int vezes;
+        /** Fração de vitórias de quem jogou (0 a 1), ou NaN se nenhuma partida tem resultado. */
+        public final double taxaVitoria;
+        Sugestao(int x, int y, int vezes, double taxaVitoria) {
+            this.x = x; this.y = y; this.vezes = vezes; this.taxaVitoria = taxaVitoria;
+        }
+    }
+
+    private LivroAberturas(MappedByteBuffer mapa) throws IOException {
+        if (mapa.capacity() < TAM_CABECALHO || mapa.getInt(0) != MAGIC || mapa.getInt(4) != VERSAO_FORMATO)
+            throw new IOException("Não é um livro de aberturas válido");
+        int posicoes = mapa.getInt(8);
+        if (Integer.bitCount(posicoes) != 1) throw new IOException("Livro corrompido");
+        this.mapa = mapa;
+        this.mascara = posicoes - 1;
+        this.inicioLances = TAM_CABECALHO + posicoes * TAM_POSICAO;
+        if ((long) inicioLances + (long) mapa.getInt(12) * TAM_LANCE > mapa.capacity())
+            throw new IOException("Livro incompleto");
+    }
+
+    /** Abre (mapeia na memória) um livro já construído. */
+    public static LivroAberturas abrir(Path arquivo) throws IOException {
+        try (FileChannel c = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (c.size() > Integer.MAX_VALUE) throw new IOException("Livro grande demais para um único mapeamento");
+            return new LivroAberturas(c.map(FileChannel.MapMode.READ_ONLY, 0, c.size()));
+        }
+    }
+
+    // ---- Consulta ----
+
+    /** Os lances do livro para 'cor' jogar em 't', do mais jogado ao menos (vazia fora do livro). */
+    public List<Sugestao> sugestoes(Tabuleiro t, int cor) {
+        List<Sugestao> res = new ArrayList<>();
+        long[] h = new long[Simetria.TOTAL];
+        t.getHashesSimetria(h);
+        int s = simetriaCanonica(h);
+        int p = procurar(h[s] ^ Zobrist.vez(cor));
+        if (p < 0) return res;
+
+        // A posição canônica é a nossa levada por 's': a volta é pela inversa.
+        int n = t.getTamanho(), volta = Simetria.inversa(s);
+        int primeiro = mapa.getInt(p + 8), quantos = mapa.getShort(p + 12) & 0xFFFF;
+        for (int i = 0; i < quantos; i++) {
+            int l = inicioLances + (primeiro + i) * TAM_LANCE;
+            int canonico = mapa.getShort(l);
+            int cx = (canonico >> 5) & 0x1F, cy = canonico & 0x1F;
+            if (cx >= n || cy >= n) continue; // Colisão de hash (outro tamanho): ignora.
+            int q = Simetria.aplicar(volta, cx, cy, n);
+            int x = q / n, y = q % n;
+            if (t.get(x, y) != Tabuleiro.VAZIO) continue;
+            short milesimos = mapa.getShort(l + 2);
+            res.add(new Sugestao(x, y, mapa.getInt(l + 4), milesimos == SEM_RESULTADO ? Double.NaN : milesimos / 1000.0));
+        }
+        return res;
+    }
+
+    /** O lance mais jogado nesta posição, ou null fora do livro. */
+    public Sugestao melhor(Tabuleiro t, int cor) {
+        List<Sugestao> s = sugestoes(t, cor);
+        return s.isEmpty() ? null : s.get(0);
+    }
+
+    /** Sorteia um lance do livro com chance proporcional às vezes em que foi jogado (null fora do livro). */
+    public Sugestao sortear(Tabuleiro t, int cor, Random rnd) {
+        List<Sugestao> s = sugestoes(t, cor);
+        long total = 0;
+        for (Sugestao x : s) total += x.vezes;
+        if (total == 0) return null;
+        long alvo = (long) (rnd.nextDouble() * total);
+        for (Sugestao x : s) {
+            alvo -= x.vezes;
+            if (alvo < 0) return x;
+        }
+        return s.get(s.size() - 1);
+    }
+
+    // Posição da entrada com esta chave na tabela, ou -1.
+    private int procurar(long chave) {
+        for (int i = (int) chave & mascara; ; i = (i + 1) & mascara) {
+            int p = TAM_CABECALHO + i * TAM_POSICAO;
+            if (mapa.getShort(p + 12) == 0) return -1;
+            if (mapa.getLong(p) == chave) return p;
+        }
+    }
+
+    // A simetria que dá o hash canônico (a de menor número, se mais de uma dá).
+    private static int simetriaCanonica(long[] h) {
+        int s = 0;
+        for (int i = 1; i < Simetria.TOTAL; i++) if (h[i] < h[s]) s = i;
+        return s;
+    }
+
+    // O lance (x, y) na orientação canônica, como x << 5 | y. Numa posição simétrica,
+    // várias simetrias dão o hash canônico: fica o menor lance entre elas, para que
+    // lances equivalentes (ex: os 4 pontos 4-4 do tabuleiro vazio) contem juntos.
+    private static int lanceCanonico(long[] h, int x, int y, int n) {
+        long menor = h[simetriaCanonica(h)];
+        int melhor = Integer.MAX_VALUE;
+        for (int s = 0; s < Simetria.TOTAL; s++) {
+            if (h[s] != menor) continue;
+            int q = Simetria.aplicar(s, x, y, n);
+            melhor = Math.min(melhor, (q / n) << 5 | (q % n));
+        }
+        return melhor;
+    }
+
+    // ---- Construção ----
+
+    // Contagem de um (posição, lance) durante a construção.
+    private static class Contagem {
+        int vezes, comResultado, vitorias;
+        void somar(Contagem c) { vezes += c.vezes; comResultado += c.comResultado; vitorias += c.vitorias; }
+    }
+
+    /**
+     * Constrói o livro a partir do 'arquivo' de partidas: os 'lances' primeiros lances de
+     * cada partida, guardando só os lances jogados em pelo menos 'minimo' partidas.
+     * @return o número de posições do livro.
+     */
+    public static int construir(Path arquivo, Path livro, int lances, int minimo, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Map<Long, Map<Integer, Contagem>> total;
+        try (FileChannel entrada = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            List<ArquivoPartidas.Bloco> blocos = ArquivoPartidas.listarBlocos(entrada);
+            AtomicInteger proximo = new AtomicInteger();
+            List<Future<Map<Long, Map<Integer, Contagem>>>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(pool.submit(() -> {
+                    Map<Long, Map<Integer, Contagem>> parcial = new HashMap<>();
+                    int i;
+                    while ((i = proximo.getAndIncrement()) < blocos.size())
+                        for (ArquivoPartidas.Partida p : ArquivoPartidas.lerBloco(entrada, blocos.get(i)))
+                            contar(p, lances, parcial);
+                    return parcial;
+                }));
+            }
+            total = tarefas.get(0).get();
+            for (int t = 1; t < tarefas.size(); t++) {
+                for (Map.Entry<Long, Map<Integer, Contagem>> e : tarefas.get(t).get().entrySet()) {
+                    Map<Integer, Contagem> destino = total.computeIfAbsent(e.getKey(), k -> new HashMap<>());
+                    for (Map.Entry<Integer, Contagem> l : e.getValue().entrySet())
+                        destino.computeIfAbsent(l.getKey(), k -> new Contagem()).somar(l.getValue());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return gravar(total, livro, minimo);
+    }
+
+    // Reproduz a abertura da partida, contando (posição antes do lance, lance).
+    private static void contar(ArquivoPartidas.Partida p, int lances, Map<Long, Map<Integer, Contagem>> contagens) {
+        if (p.tamanho > Zobrist.TAMANHO_MAXIMO) return;
+        Tabuleiro t = new Tabuleiro(p.tamanho);
+        long[] h = new long[Simetria.TOTAL];
+        long hashKo = 0; // Hash da posição antes do lance anterior (0: sem Ko).
+        for (int i = 0; i < p.lances.length && i < lances; i++) {
+            short l = p.lances[i];
+            if (ArquivoPartidas.ehPasse(l)) { hashKo = 0; continue; }
+            int x = ArquivoPartidas.xDe(l), y = ArquivoPartidas.yDe(l), cor = ArquivoPartidas.corDe(l);
+            if (!t.posicaoValida(x, y)) return;
+
+            t.getHashesSimetria(h);
+            long chave = h[simetriaCanonica(h)] ^ Zobrist.vez(cor);
+            Contagem c = contagens.computeIfAbsent(chave, k -> new HashMap<>())
+                    .computeIfAbsent(lanceCanonico(h, x, y, p.tamanho), k -> new Contagem());
+            c.vezes++;
+            if (p.resultado != ArquivoPartidas.RESULTADO_DESCONHECIDO) {
+                c.comResultado++;
+                boolean venceu = (cor == Tabuleiro.PRETO) == (p.resultado == ArquivoPartidas.VITORIA_PRETAS);
+                if (venceu) c.vitorias++;
+            }
+
+            // Sem alocar nem entrar nas métricas do servidor (ver 'Tabuleiro.jogarComKo').
+            long antes = t.getHashZobrist();
+            if (t.jogarComKo(x, y, cor, hashKo) < 0) return; // Daqui em diante a partida gravada não é uma abertura confiável.
+            hashKo = antes;
+        }
+    }
+
+    private static int gravar(Map<Long, Map<Integer, Contagem>> contagens, Path livro, int minimo) throws IOException {
+        // Só as posições com algum lance frequente o bastante; os lances, do mais jogado ao menos.
+        List<Long> chaves = new ArrayList<>();
+        List<List<Map.Entry<Integer, Contagem>>> lancesPorPosicao = new ArrayList<>();
+        int totalLances = 0;
+        for (Map.Entry<Long, Map<Integer, Contagem>> e : contagens.entrySet()) {
+            List<Map.Entry<Integer, Contagem>> ls = new ArrayList<>();
+            for (Map.Entry<Integer, Contagem> l : e.getValue().entrySet()) if (l.getValue().vezes >= minimo) ls.add(l);
+            if (ls.isEmpty()) continue;
+            ls.sort((a, b) -> b.getValue().vezes != a.getValue().vezes
+                    ? Integer.compare(b.getValue().vezes, a.getValue().vezes) : Integer.compare(a.getKey(), b.getKey()));
+            if (ls.size() > 0xFFFF) ls = ls.subList(0, 0xFFFF);
+            chaves.add(e.getKey());
+            lancesPorPosicao.add(ls);
+            totalLances += ls.size();
+        }
+
+        // Tabela com pelo menos o dobro de entradas (e ao menos uma livre: a consulta para nela).
+        int posicoes = Integer.highestOneBit(Math.max(8, chaves.size() * 2 - 1)) << 1;
+        if ((long) TAM_CABECALHO + (long) posicoes * TAM_POSICAO + (long) totalLances * TAM_LANCE > Integer.MAX_VALUE)
+            throw new IOException("Livro grande demais para um único mapeamento");
+        ByteBuffer tabela = ByteBuffer.allocate(posicoes * TAM_POSICAO);
+        ByteBuffer dados = ByteBuffer.allocate(totalLances * TAM_LANCE);
+        int mascara = posicoes - 1, indice = 0;
+        for (int k = 0; k < chaves.size(); k++) {
+            long chave = chaves.get(k);
+            int i = (int) chave & mascara;
+            while (tabela.getShort(i * TAM_POSICAO + 12) != 0) i = (i + 1) & mascara;
+            List<Map.Entry<Integer, Contagem>> ls = lancesPorPosicao.get(k);
+            tabela.putLong(i * TAM_POSICAO, chave)
+                  .putInt(i * TAM_POSICAO + 8, indice)
+                  .putShort(i * TAM_POSICAO + 12, (short) ls.size());
+            for (Map.Entry<Integer, Contagem> l : ls) {
+                Contagem c = l.getValue();
+                dados.putShort(l.getKey().shortValue())
+                     .putShort(c.comResultado == 0 ? SEM_RESULTADO : (short) (1000L * c.vitorias / c.comResultado))
+                     .putInt(c.vezes);
+            }
+            indice += ls.size();
+        }
+
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAM_CABECALHO);
+        cabecalho.putInt(MAGIC).putInt(VERSAO_FORMATO).putInt(posicoes).putInt(totalLances).flip();
+        tabela.clear();
+        dados.flip();
+        // Grava num temporário e troca no fim: quem tem o livro antigo aberto não vê um arquivo pela metade.
+        Path tmp = livro.resolveSibling(livro.getFileName() + ".tmp");
+        try (FileChannel c = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] partes = {cabecalho, tabela, dados};
+            while (dados.hasRemaining() || tabela.hasRemaining() || cabecalho.hasRemaining()) c.write(partes);
+        }
+        Files.move(tmp, livro, StandardCopyOption.REPLACE_EXISTING);
+        return chaves.size();
+    }
+
+    // ---- Ferramenta de linha de comando ----
+
+    /**
+     * Uso:
+     *   java -cp bin persistencia.LivroAberturas construir <arquivo.goa> <livro.gob> [lances] [minimo] [threads]
+     *   java -cp bin persistencia.LivroAberturas consultar <livro.gob> <posicao.sgf> [lance]
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length >= 3 && args[0].equals("construir")) {
+            int lances = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+            int minimo = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+            int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+            long t0 = System.nanoTime();
+            int n = construir(Paths.get(args[1]), Paths.get(args[2]), lances, minimo, threads);
+            System.out.printf("%d posições no livro em %.1f s (%d threads)%n", n, (System.nanoTime() - t0) / 1e9, threads);
+        } else if (args.length >= 3 && args[0].equals("consultar")) {
+            // A posição vem de um SGF (até o lance pedido, ou até o fim).
+            ReprodutorSgf r = new ReprodutorSgf(args.length > 3 ? Integer.parseInt(args[3]) : -1, false);
+            try (BufferedReader in = Files.newBufferedReader(Paths.get(args[2]), StandardCharsets.ISO_8859_1)) {
+                if (!new LeitorSgf(in).proximaPartida(r)) throw new IOException("SGF sem partidas");
+            }
+            LivroAberturas livro = abrir(Paths.get(args[1]));
+            long t0 = System.nanoTime();
+            List<Sugestao> res = livro.sugestoes(r.getTabuleiro(), r.getProximaCor());
+            double us = (System.nanoTime() - t0) / 1e3;
+            for (Sugestao s : res)
+                System.out.printf("(%d, %d): %d partidas, %s%n", s.x, s.y, s.vezes,
+                        Double.isNaN(s.taxaVitoria) ? "sem resultado" : String.format("%.1f%% de vitórias", 100 * s.taxaVitoria));
+            System.out.printf("%d lances em %.1f µs%n", res.size(), us);
+        } else {
+            System.err.println("Uso: LivroAberturas construir <arquivo.goa> <livro.gob> [lances] [minimo] [threads]"
+                    + " | consultar <livro.gob> <posicao.sgf> [lance]");
+        }
+    }
+}
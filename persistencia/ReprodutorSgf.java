@@ -0,0 +1,156 @@
+package persistencia;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import modelo.Tabuleiro;
+
+/**
+ * Ouvinte do 'LeitorSgf' que reproduz cada partida num 'Tabuleiro',
+ * aplicando as MESMAS regras do servidor (captura, suicídio, Ko).
+ *
+ * Serve para validar o motor de regras contra bases de partidas profissionais:
+ * toda jogada que o nosso 'Tabuleiro' recusar é contada (e pode ser impressa)
+ * como divergência. Também serve para carregar uma posição: depois de
+ * 'proximaPartida', 'getTabuleiro' tem a posição final (ou a do lance 'limiteLances').
+ */
+public class ReprodutorSgf implements LeitorSgf.Ouvinte {
+
+    // Tamanho usado quando o arquivo não traz a propriedade SZ (o padrão do formato).
+    private static final int TAMANHO_PADRAO = 19;
+
+    private final int limiteLances;   // Para de aplicar jogadas depois deste lance (-1 = todas).
+    private final boolean imprimirDivergencias;
+
+    private Tabuleiro tabuleiro;
+    private String ultimoHash;        // Para a regra do Ko, igual ao 'Jogo'.
+    private int lancesNaPartida;
+    private int proximaCor;           // De quem é a vez depois do último lance aplicado.
+    private int nosNaPartida;
+
+    // Peças de montagem do nó raiz: só são colocadas quando o nó termina, porque
+    // o SZ pode vir depois delas ("(;AB[dd]SZ[9]...") e trocaria o tabuleiro.
+    private final List<List<String>> montagemPendente = new ArrayList<>();
+    private final List<Integer> coresPendentes = new ArrayList<>();
+
+    // Totais acumulados em todas as partidas lidas.
+    private long partidas, lances, divergencias, partidasComDivergencia;
+    private boolean partidaDivergiu;
+
+    public ReprodutorSgf() { this(-1, false); }
+
+    public ReprodutorSgf(int limiteLances, boolean imprimirDivergencias) {
+        this.limiteLances = limiteLances;
+        this.imprimirDivergencias = imprimirDivergencias;
+    }
+
+    @Override public void inicioPartida() {
+        tabuleiro = null;
+        ultimoHash = null;
+        lancesNaPartida = 0;
+        proximaCor = Tabuleiro.PRETO;
+        nosNaPartida = 0;
+        montagemPendente.clear();
+        coresPendentes.clear();
+        partidaDivergiu = false;
+    }
+
+    @Override public void inicioNo() {
+        if (nosNaPartida++ == 1) aplicarMontagemPendente(); // Acabou o nó raiz.
+    }
+
+    @Override public void propriedade(String id, List<String> valores) {
+        switch (id) {
+            case "SZ":
+                // "SZ[19]" ou "SZ[19:19]" (só tabuleiros quadrados são aceitos).
+                String v = valores.isEmpty() ? "" : valores.get(0);
+                int dois = v.indexOf(':');
+                tabuleiro = new Tabuleiro(Integer.parseInt((dois >= 0 ? v.substring(0, dois) : v).trim()));
+                break;
+            case "AB": montarOuAdiar(valores, Tabuleiro.PRETO); break;
+            case "AW": montarOuAdiar(valores, Tabuleiro.BRANCO); break;
+            case "AE": montarOuAdiar(valores, Tabuleiro.VAZIO); break;
+            case "B":  jogar(valores, Tabuleiro.PRETO); break;
+            case "W":  jogar(valores, Tabuleiro.BRANCO); break;
+            case "PL": proximaCor = !valores.isEmpty() && valores.get(0).startsWith("W") ? Tabuleiro.BRANCO : Tabuleiro.PRETO; break;
+            default: break; // Comentários, nomes, resultado... não interessam às regras.
+        }
+    }
+
+    @Override public void fimPartida() {
+        aplicarMontagemPendente(); // Partida de um nó só (um problema, uma posição).
+        partidas++;
+        if (partidaDivergiu) partidasComDivergencia++;
+    }
+
+    private void montarOuAdiar(List<String> valores, int cor) {
+        if (nosNaPartida > 1) { montar(valores, cor); return; }
+        montagemPendente.add(valores);
+        coresPendentes.add(cor);
+    }
+
+    private void aplicarMontagemPendente() {
+        for (int i = 0; i < montagemPendente.size(); i++) montar(montagemPendente.get(i), coresPendentes.get(i));
+        montagemPendente.clear();
+        coresPendentes.clear();
+    }
+
+    // Peças de "montagem" (handicap, problemas): colocadas sem regras. Aceita listas "aa:cc".
+    private void montar(List<String> valores, int cor) {
+        Tabuleiro t = tab();
+        for (String v : valores) {
+            int dois = v.indexOf(':');
+            if (dois < 0) {
+                int[] p = Sgf.ponto(v, t.getTamanho());
+                if (p != null) t.definir(p[0], p[1], cor);
+            } else {
+                int[] a = Sgf.ponto(v.substring(0, dois), t.getTamanho());
+                int[] b = Sgf.ponto(v.substring(dois + 1), t.getTamanho());
+                if (a == null || b == null) continue;
+                for (int x = Math.min(a[0], b[0]); x <= Math.max(a[0], b[0]); x++)
+                    for (int y = Math.min(a[1], b[1]); y <= Math.max(a[1], b[1]); y++)
+                        t.definir(x, y, cor);
+            }
+        }
+        ultimoHash = null; // Montagem "quebra" o Ko.
+    }
+
+    private void jogar(List<String> valores, int cor) {
+        aplicarMontagemPendente(); // Lance no próprio nó raiz: a montagem vem antes.
+        Tabuleiro t = tab();
+        if (limiteLances >= 0 && lancesNaPartida >= limiteLances) return;
+        lancesNaPartida++;
+        lances++;
+        proximaCor = (cor == Tabuleiro.PRETO) ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+        int[] p = valores.isEmpty() ? null : Sgf.ponto(valores.get(0), t.getTamanho());
+        if (p == null) { ultimoHash = null; return; } // Passe.
+
+        Tabuleiro.MoveResult r = t.reproduzirJogada(p[0], p[1], cor, ultimoHash); // Partida gravada: sem métricas.
+        if (r.legal) {
+            ultimoHash = r.antesHash;
+        } else {
+            divergencias++;
+            partidaDivergiu = true;
+            if (imprimirDivergencias)
+                System.err.println("Partida " + (partidas + 1) + ", lance " + lancesNaPartida + " ("
+                        + valores.get(0) + "): " + r.reason);
+            // Força a jogada para continuar acompanhando a partida gravada.
+            t.definir(p[0], p[1], cor);
+            ultimoHash = null;
+        }
+    }
+
+    private Tabuleiro tab() {
+        if (tabuleiro == null) tabuleiro = new Tabuleiro(TAMANHO_PADRAO);
+        return tabuleiro;
+    }
+
+    public Tabuleiro getTabuleiro(){ return tabuleiro; }
+    public int getLancesNaPartida(){ return lancesNaPartida; }
+    /** Quem joga na posição de 'getTabuleiro()' (pelo último lance aplicado, ou PL). */
+    public int getProximaCor(){ return proximaCor; }
+    public long getPartidas(){ return partidas; }
+    public long getLances(){ return lances; }
+    public long getDivergencias(){ return divergencias; }
+    public long getPartidasComDivergencia(){ return partidasComDivergencia; }
+}
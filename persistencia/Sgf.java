@@ -0,0 +1,122 @@
+package persistencia;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import modelo.Jogo;
+import modelo.Lance;
+import modelo.Tabuleiro;
+
+/**
+ * Exportação e importação de partidas no formato SGF (FF[4]).
+ *
+ * As coordenadas do SGF são duas letras: coluna e linha, a partir de "a" no
+ * canto superior esquerdo. É exatamente o (x, y) do nosso 'Tabuleiro'.
+ */
+public class Sgf {
+
+    private Sgf() { }
+
+    /** Exporta a partida atual do 'Jogo' (desde o último reinício). */
+    public static void exportar(Jogo jogo, Writer out) throws IOException {
+        exportar(jogo.getHistorico(), jogo.getTabuleiro().getTamanho(), out);
+    }
+
+    /**
+     * Exporta uma lista de lances. Os relógios gravados em cada lance viram as
+     * propriedades BL/WL (tempo restante, em segundos) do nó da jogada.
+     */
+    public static void exportar(List<Lance> historico, int tamanho, Writer out) throws IOException {
+        out.write("(;FF[4]GM[1]CA[UTF-8]AP[JogoGoRMI]SZ[" + tamanho + "]");
+        String resultado = resultado(historico);
+        if (resultado != null) out.write("RE[" + resultado + "]");
+        out.write('\n');
+
+        for (Lance l : historico) {
+            if (l.tipo != Lance.JOGADA && l.tipo != Lance.PASSE) continue;
+            boolean pretas = l.cor == Tabuleiro.PRETO;
+            out.write(pretas ? ";B[" : ";W[");
+            if (l.tipo == Lance.JOGADA) {
+                out.write((char) ('a' + l.x));
+                out.write((char) ('a' + l.y));
+            }
+            out.write(']');
+            long restante = pretas ? l.tempoPretasMs : l.tempoBrancasMs;
+            out.write((pretas ? "BL[" : "WL[") + (restante / 1000) + "]");
+            out.write('\n');
+        }
+        out.write(")\n");
+        out.flush();
+    }
+
+    // "B+R" / "W+T" quando a partida acabou por desistência ou tempo; null caso contrário
+    // (dois passes exigem contagem de pontos, que o jogo ainda não faz).
+    private static String resultado(List<Lance> historico) {
+        if (historico.isEmpty()) return null;
+        Lance fim = historico.get(historico.size() - 1);
+        String vencedor = fim.cor == Tabuleiro.PRETO ? "W" : "B";
+        if (fim.tipo == Lance.DESISTENCIA) return vencedor + "+R";
+        if (fim.tipo == Lance.TEMPO_ESGOTADO) return vencedor + "+T";
+        return null;
+    }
+
+    /**
+     * Importa a primeira partida do SGF num 'Jogo' novo, jogando lance a lance
+     * (com as regras do servidor). Peças de montagem (AB/AW) não são suportadas
+     * pelo 'Jogo'; para analisar posições assim, use 'ReprodutorSgf'.
+     */
+    public static Jogo importar(Reader in, long tempoInicialMs) throws IOException {
+        List<String[]> lances = new ArrayList<>();
+        int[] tamanho = {19};
+        boolean[] montagem = {false};
+        boolean achou = new LeitorSgf(in).proximaPartida(new LeitorSgf.Ouvinte() {
+            @Override public void inicioPartida() { }
+            @Override public void inicioNo() { }
+            @Override public void fimPartida() { }
+            @Override public void propriedade(String id, List<String> valores) {
+                if (id.equals("SZ") && !valores.isEmpty()) tamanho[0] = Integer.parseInt(valores.get(0).split(":")[0].trim());
+                else if (id.equals("AB") || id.equals("AW")) montagem[0] = true;
+                else if (id.equals("B") || id.equals("W")) lances.add(new String[]{id, valores.isEmpty() ? "" : valores.get(0)});
+            }
+        });
+        if (!achou) throw new IOException("Nenhuma partida no SGF");
+        if (montagem[0]) throw new IOException("Partidas com peças de montagem (AB/AW) não podem ser importadas num Jogo");
+
+        Jogo jogo = new Jogo(tamanho[0], tempoInicialMs);
+        jogo.setMedido(false); // Importar não é jogar no servidor (religado no fim).
+        boolean passeAnterior = false;
+        for (String[] l : lances) {
+            int cor = l[0].equals("B") ? Tabuleiro.PRETO : Tabuleiro.BRANCO;
+            int[] p = ponto(l[1], tamanho[0]);
+            if (cor != jogo.getJogadorAtual()) {
+                // Passe fora de vez não muda nada: quem está na vez continua na vez.
+                if (p == null) continue;
+                // O SGF pode ter duas jogadas seguidas da mesma cor: o oponente "passa" entre elas.
+                // Depois de um passe de verdade não dá: seriam dois passes seguidos, e o Jogo acabaria.
+                if (passeAnterior)
+                    throw new IOException("Lance " + l[0] + "[" + l[1] + "] fora de vez logo depois de um passe");
+                jogo.passar(jogo.getJogadorAtual());
+            }
+            if (p == null) jogo.passar(cor);
+            else if (!jogo.fazerJogada(p[0], p[1], cor))
+                throw new IOException("Lance " + l[0] + "[" + l[1] + "] ilegal: " + jogo.getLastInfo());
+            passeAnterior = p == null;
+        }
+        jogo.setMedido(true);
+        return jogo;
+    }
+
+    /**
+     * Converte "dd" em {x, y}. Devolve null para passe ("" ou "tt" em tabuleiros até 19x19)
+     * ou para coordenadas fora do tabuleiro.
+     */
+    static int[] ponto(String v, int tamanho) {
+        if (v.length() < 2) return null;
+        int x = v.charAt(0) - 'a', y = v.charAt(1) - 'a';
+        if (x < 0 || y < 0 || x >= tamanho || y >= tamanho) return null;
+        return new int[]{x, y};
+    }
+}
@@ -0,0 +1,228 @@
+package persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import modelo.Jogo;
+import modelo.Tabuleiro;
+
+/**
+ * Autoteste do arquivo de partidas (.goa).
+ *
+ * Grava partidas sorteadas (de vários tamanhos, com passes, e uma maior que um
+ * bloco inteiro) e confere que voltam iguais, na mesma ordem e com os mesmos
+ * ids. Depois confere a recuperação: um bloco pela metade no fim é ignorado
+ * na leitura e cortado por quem volta a gravar; um bloco com o CRC errado é
+ * recusado sem atrapalhar os outros; um cabeçalho de bloco impossível encerra
+ * a lista; e uma partida ao vivo está no disco logo depois de terminar, sem
+ * fechar o gravador.
+ *
+ * Sai com código 1 se alguma verificação falhar.
+ *
+ * Uso: java -cp bin persistencia.TesteArquivo [partidas]
+ */
+public class TesteArquivo {
+
+    private static int falhas = 0;
+
+    public static void main(String[] args) throws Exception {
+        int quantas = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        conferirCodificacao();
+
+        Path arq = Files.createTempFile("arquivo-teste", ".goa");
+        Files.delete(arq); // O gravador cria o arquivo com o cabeçalho.
+        try {
+            // 1. Ida e volta: várias partidas, em vários blocos.
+            Random rnd = new Random(11);
+            List<ArquivoPartidas.Partida> gravadas = new ArrayList<>();
+            for (int i = 0; i < quantas; i++) gravadas.add(sortear(rnd, i, 1 + rnd.nextInt(300)));
+            gravadas.add(sortear(rnd, quantas, 40_000)); // Maior que um bloco: ganha um bloco só dela.
+            try (GravadorArquivo g = GravadorArquivo.abrir(arq)) {
+                for (ArquivoPartidas.Partida p : gravadas) g.acrescentar(p.tamanho, p.resultado, p.lances);
+            }
+            int blocos = blocos(arq).size();
+            verificar(blocos > 2, "esperava vários blocos, o arquivo tem " + blocos);
+            conferirLeitura(arq, gravadas, "ida e volta");
+
+            // 2. Bloco pela metade no fim (queda no meio da gravação): a leitura o ignora...
+            ArquivoPartidas.Bloco ultimo = ultimoBloco(arq);
+            long tamanhoIntegro = Files.size(arq);
+            copiarComeco(arq, ultimo.posicao, (int) (ultimo.fim() - ultimo.posicao) / 2);
+            conferirLeitura(arq, gravadas, "bloco incompleto no fim");
+            // ... e quem volta a gravar o corta antes de acrescentar.
+            List<ArquivoPartidas.Partida> mais = new ArrayList<>(gravadas);
+            try (GravadorArquivo g = GravadorArquivo.abrir(arq)) {
+                verificar(Files.size(arq) == tamanhoIntegro, "o bloco incompleto não foi cortado");
+                for (int i = 0; i < 10; i++) {
+                    ArquivoPartidas.Partida p = sortear(rnd, mais.size(), 1 + rnd.nextInt(100));
+                    mais.add(p);
+                    g.acrescentar(p.tamanho, p.resultado, p.lances);
+                }
+            }
+            conferirLeitura(arq, mais, "partidas gravadas depois do corte");
+
+            // 3. Um byte trocado no conteúdo de um bloco: só esse bloco é recusado.
+            List<ArquivoPartidas.Bloco> lista = blocos(arq);
+            ArquivoPartidas.Bloco alvo = lista.get(1);
+            corromperByte(arq, alvo.posicao + ArquivoPartidas.TAM_CABECALHO_BLOCO + 7);
+            try (FileChannel canal = FileChannel.open(arq, StandardOpenOption.READ)) {
+                int boas = 0, recusadas = 0;
+                for (ArquivoPartidas.Bloco bl : ArquivoPartidas.listarBlocos(canal)) {
+                    try {
+                        boas += ArquivoPartidas.lerBloco(canal, bl).size();
+                    } catch (IOException e) {
+                        recusadas++;
+                        verificar(bl.posicao == alvo.posicao, "recusou o bloco errado (em " + bl.posicao + ")");
+                    }
+                }
+                verificar(recusadas == 1, "esperava 1 bloco recusado, foram " + recusadas);
+                verificar(boas == mais.size() - alvo.partidas, "partidas legíveis: " + boas
+                        + ", esperava " + (mais.size() - alvo.partidas));
+            }
+
+            // 4. Cabeçalho de bloco com tamanho negativo (o CRC não cobre o cabeçalho): a lista
+            // termina antes dele, em vez de andar para trás sem fim.
+            ArquivoPartidas.Bloco terceiro = lista.get(2);
+            escreverInt(arq, terceiro.posicao + 8, -ArquivoPartidas.TAM_CABECALHO_BLOCO);
+            verificar(blocos(arq).size() == 2, "com o cabeçalho do 3º bloco corrompido, listou "
+                    + blocos(arq).size() + " blocos, esperava 2");
+        } finally {
+            Files.deleteIfExists(arq);
+        }
+
+        conferirPartidaAoVivo();
+
+        if (falhas > 0) {
+            System.out.println(falhas + " verificação(ões) falharam");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    // Todo lance que cabe em 2 bytes volta igual (cor, passe, x, y).
+    private static void conferirCodificacao() {
+        for (int cor : new int[]{Tabuleiro.PRETO, Tabuleiro.BRANCO}) {
+            short passe = ArquivoPartidas.codificarLance(cor, -1, -1);
+            verificar(ArquivoPartidas.ehPasse(passe) && ArquivoPartidas.corDe(passe) == cor, "passe de " + cor);
+            for (int x = 0; x < 25; x++) {
+                for (int y = 0; y < 25; y++) {
+                    short l = ArquivoPartidas.codificarLance(cor, x, y);
+                    verificar(!ArquivoPartidas.ehPasse(l) && ArquivoPartidas.corDe(l) == cor
+                            && ArquivoPartidas.xDe(l) == x && ArquivoPartidas.yDe(l) == y,
+                            "lance " + cor + " (" + x + ", " + y + ")");
+                }
+            }
+        }
+    }
+
+    // Uma partida qualquer: cores alternadas, um passe de vez em quando.
+    private static ArquivoPartidas.Partida sortear(Random rnd, long id, int lances) {
+        int[] tamanhos = {9, 13, 19};
+        int tam = tamanhos[rnd.nextInt(tamanhos.length)];
+        short[] v = new short[lances];
+        for (int i = 0; i < lances; i++) {
+            int cor = i % 2 == 0 ? Tabuleiro.PRETO : Tabuleiro.BRANCO;
+            v[i] = rnd.nextInt(15) == 0 ? ArquivoPartidas.codificarLance(cor, -1, -1)
+                                        : ArquivoPartidas.codificarLance(cor, rnd.nextInt(tam), rnd.nextInt(tam));
+        }
+        return new ArquivoPartidas.Partida(id, tam, rnd.nextInt(3), v);
+    }
+
+    private static void conferirLeitura(Path arq, List<ArquivoPartidas.Partida> esperadas, String caso) throws IOException {
+        List<ArquivoPartidas.Partida> lidas = new ArrayList<>();
+        ArquivoPartidas.percorrer(arq, lidas::add);
+        verificar(lidas.size() == esperadas.size(), caso + ": leu " + lidas.size() + " partidas, esperava " + esperadas.size());
+        for (int i = 0; i < Math.min(lidas.size(), esperadas.size()); i++) {
+            ArquivoPartidas.Partida a = lidas.get(i), b = esperadas.get(i);
+            if (a.id != b.id || a.tamanho != b.tamanho || a.resultado != b.resultado || !Arrays.equals(a.lances, b.lances)) {
+                verificar(false, caso + ": a partida " + i + " voltou diferente");
+                return;
+            }
+        }
+    }
+
+    // Termina uma partida de um 'Jogo' com o gravador como ouvinte e espera a partida
+    // aparecer no arquivo, SEM fechar o gravador (é o que sobrevive a uma queda).
+    private static void conferirPartidaAoVivo() throws Exception {
+        Path arq = Files.createTempFile("arquivo-teste", ".goa");
+        Files.delete(arq);
+        GravadorArquivo g = GravadorArquivo.abrir(arq);
+        try {
+            Jogo jogo = new Jogo(9, 60_000);
+            jogo.adicionarOuvinte(g);
+            jogo.fazerJogada(2, 2, Tabuleiro.PRETO);
+            jogo.fazerJogada(6, 6, Tabuleiro.BRANCO);
+            jogo.desistir(Tabuleiro.PRETO);
+            long limite = System.currentTimeMillis() + 5_000;
+            List<ArquivoPartidas.Partida> lidas = new ArrayList<>();
+            while (System.currentTimeMillis() < limite) {
+                lidas.clear();
+                ArquivoPartidas.percorrer(arq, lidas::add);
+                if (!lidas.isEmpty()) break;
+                Thread.sleep(10);
+            }
+            verificar(lidas.size() == 1, "a partida encerrada não chegou ao disco sem fechar o gravador");
+            if (lidas.size() == 1) {
+                ArquivoPartidas.Partida p = lidas.get(0);
+                verificar(p.lances.length == 2 && p.resultado == ArquivoPartidas.VITORIA_BRANCAS,
+                        "a partida ao vivo voltou com " + p.lances.length + " lances e resultado " + p.resultado);
+            }
+        } finally {
+            g.close();
+            Files.deleteIfExists(arq);
+        }
+    }
+
+    private static List<ArquivoPartidas.Bloco> blocos(Path arq) throws IOException {
+        try (FileChannel canal = FileChannel.open(arq, StandardOpenOption.READ)) {
+            return ArquivoPartidas.listarBlocos(canal);
+        }
+    }
+
+    private static ArquivoPartidas.Bloco ultimoBloco(Path arq) throws IOException {
+        List<ArquivoPartidas.Bloco> b = blocos(arq);
+        return b.get(b.size() - 1);
+    }
+
+    // Acrescenta no fim do arquivo os primeiros 'bytes' bytes a partir de 'pos' (um bloco "cortado").
+    private static void copiarComeco(Path arq, long pos, int bytes) throws IOException {
+        try (FileChannel c = FileChannel.open(arq, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(bytes);
+            while (b.hasRemaining()) c.read(b, pos + b.position());
+            b.flip();
+            long fim = c.size();
+            while (b.hasRemaining()) fim += c.write(b, fim);
+        }
+    }
+
+    private static void escreverInt(Path arq, long pos, int valor) throws IOException {
+        try (FileChannel c = FileChannel.open(arq, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(4).putInt(0, valor);
+            c.write(b, pos);
+        }
+    }
+
+    private static void corromperByte(Path arq, long pos) throws IOException {
+        try (FileChannel c = FileChannel.open(arq, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            c.read(b, pos);
+            b.put(0, (byte) (b.get(0) ^ 0x01));
+            b.rewind();
+            c.write(b, pos);
+        }
+    }
+
+    private static void verificar(boolean ok, String mensagem) {
+        if (ok) return;
+        falhas++;
+        System.out.println("FALHOU: " + mensagem);
+    }
+}
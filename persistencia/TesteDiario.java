@@ -0,0 +1,140 @@
+package persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import modelo.Jogo;
+
+/**
+ * Autoteste da recuperação do diário (sem servidor nem rede).
+ *
+ * Joga uma partida aleatória com diário, anotando o estado depois de cada
+ * comando, e confere que a recuperação reconstrói exatamente esse estado:
+ * com o arquivo íntegro, com um registro pela metade no fim (queda durante a
+ * gravação) e com o último registro corrompido (o CRC não confere). Depois de
+ * cortar a cauda, o diário tem de continuar aceitando lances.
+ *
+ * Sai com código 1 se alguma verificação falhar.
+ *
+ * Uso: java -cp bin persistencia.TesteDiario [lances]
+ */
+public class TesteDiario {
+
+    private static final long TEMPO = Long.MAX_VALUE / 4; // Ninguém perde no relógio.
+    private static int falhas = 0;
+
+    public static void main(String[] args) throws Exception {
+        int lances = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Path arq = Files.createTempFile("diario-teste", ".log");
+        try {
+            // fotos.get(v) = o estado depois do comando de versão v (fotos.get(0) = partida vazia).
+            List<String> fotos = new ArrayList<>();
+            try (DiarioJogo diario = DiarioJogo.abrir(arq, 9, TEMPO, DiarioJogo.Durabilidade.ASSINCRONA)) {
+                Jogo jogo = diario.recuperarJogo();
+                fotos.add(foto(jogo));
+                jogar(jogo, lances, new Random(7), fotos);
+            }
+            int comandos = fotos.size() - 1;
+            long tamanhoIntegro = DiarioJogo.TAM_CABECALHO + (long) comandos * DiarioJogo.TAM_REGISTRO;
+            verificar(Files.size(arq) == tamanhoIntegro, "o diário fechado tem " + Files.size(arq)
+                    + " bytes, esperava " + tamanhoIntegro);
+
+            // 1. Arquivo íntegro: a partida volta inteira.
+            conferirRecuperacao(arq, fotos.get(comandos), "diário íntegro");
+
+            // 2. Registro pela metade no fim: é descartado, o resto vale.
+            acrescentarLixo(arq, DiarioJogo.TAM_REGISTRO / 2);
+            conferirRecuperacao(arq, fotos.get(comandos), "registro incompleto no fim");
+            verificar(Files.size(arq) == tamanhoIntegro, "o registro incompleto não foi cortado");
+
+            // 3. Último registro com um byte trocado: a partida volta um comando antes.
+            corromperByte(arq, tamanhoIntegro - DiarioJogo.TAM_REGISTRO + 5);
+            conferirRecuperacao(arq, fotos.get(comandos - 1), "último registro corrompido");
+            verificar(Files.size(arq) == tamanhoIntegro - DiarioJogo.TAM_REGISTRO, "o registro corrompido não foi cortado");
+
+            // 4. Depois do corte, os lances novos entram no lugar do registro perdido.
+            String depois;
+            try (DiarioJogo diario = DiarioJogo.abrir(arq, 9, TEMPO, DiarioJogo.Durabilidade.ASSINCRONA)) {
+                Jogo jogo = diario.recuperarJogo();
+                List<String> mais = new ArrayList<>();
+                jogar(jogo, 5, new Random(8), mais);
+                depois = foto(jogo);
+            }
+            conferirRecuperacao(arq, depois, "lances gravados depois do corte");
+
+            System.out.println("Comandos no diário: " + comandos);
+        } finally {
+            Files.deleteIfExists(arq);
+        }
+        if (falhas > 0) {
+            System.out.println(falhas + " verificação(ões) falharam");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    // Lances aleatórios (com um passe de vez em quando), anotando o estado depois de cada comando aceito.
+    // Nunca dois passes seguidos: encerrariam a partida no meio do teste.
+    private static void jogar(Jogo jogo, int lances, Random rnd, List<String> fotos) {
+        boolean passou = false;
+        for (int i = 0; i < lances && !jogo.isGameOver(); i++) {
+            int cor = jogo.getJogadorAtual();
+            if (!passou && rnd.nextInt(20) == 0) {
+                jogo.passar(cor);
+                passou = true;
+            } else if (jogo.fazerJogada(rnd.nextInt(9), rnd.nextInt(9), cor)) {
+                passou = false;
+            } else {
+                continue;
+            }
+            fotos.add(foto(jogo));
+        }
+    }
+
+    private static void conferirRecuperacao(Path arq, String esperado, String caso) throws IOException {
+        try (DiarioJogo diario = DiarioJogo.abrir(arq, 9, TEMPO, DiarioJogo.Durabilidade.ASSINCRONA)) {
+            String obtido = foto(diario.recuperarJogo());
+            verificar(obtido.equals(esperado), caso + ": recuperou " + obtido + ", esperava " + esperado);
+        }
+    }
+
+    // Tudo o que a recuperação tem de reconstruir, numa linha comparável.
+    private static String foto(Jogo jogo) {
+        return "versão " + jogo.getVersao() + ", vez " + jogo.getJogadorAtual()
+                + ", prisioneiros " + jogo.getPontuacaoPretas() + "/" + jogo.getPontuacaoBrancas()
+                + ", fim " + jogo.isGameOver() + ", histórico " + jogo.getHistorico().size()
+                + ", tabuleiro " + jogo.getTabuleiro().hashTabuleiro();
+    }
+
+    private static void acrescentarLixo(Path arq, int bytes) throws IOException {
+        try (FileChannel c = FileChannel.open(arq, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer b = ByteBuffer.allocate(bytes);
+            while (b.hasRemaining()) b.put((byte) 0x5A);
+            b.flip();
+            while (b.hasRemaining()) c.write(b);
+        }
+    }
+
+    private static void corromperByte(Path arq, long pos) throws IOException {
+        try (FileChannel c = FileChannel.open(arq, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            c.read(b, pos);
+            b.put(0, (byte) (b.get(0) ^ 0x01));
+            b.rewind();
+            c.write(b, pos);
+        }
+    }
+
+    private static void verificar(boolean ok, String mensagem) {
+        if (ok) return;
+        falhas++;
+        System.out.println("FALHOU: " + mensagem);
+    }
+}
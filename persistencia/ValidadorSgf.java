@@ -0,0 +1,79 @@
+package persistencia;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Ferramenta de linha de comando: reproduz coleções de SGF inteiras no
+ * 'Tabuleiro' e conta as jogadas que as nossas regras recusam.
+ *
+ * Aceita arquivos e pastas (percorridas recursivamente, de forma preguiçosa).
+ * Cada arquivo é lido em fluxo, então tanto milhares de arquivos pequenos
+ * quanto um único arquivo com todas as partidas concatenadas funcionam sem
+ * carregar nada inteiro na memória.
+ *
+ * Uso: java -cp bin persistencia.ValidadorSgf [-v] <arquivo-ou-pasta>...
+ */
+public class ValidadorSgf {
+
+    public static void main(String[] args) throws IOException {
+        // As opções valem para todos os caminhos, estejam antes ou depois deles.
+        boolean verboso = false;
+        List<String> caminhosPedidos = new ArrayList<>();
+        for (String a : args) {
+            if (a.equals("-v")) verboso = true;
+            else caminhosPedidos.add(a);
+        }
+        if (caminhosPedidos.isEmpty()) {
+            System.err.println("Uso: java -cp bin persistencia.ValidadorSgf [-v] <arquivo-ou-pasta>...");
+            return;
+        }
+
+        ReprodutorSgf reprodutor = new ReprodutorSgf(-1, verboso);
+        long arquivos = 0, arquivosComErro = 0;
+        long t0 = System.nanoTime();
+
+        for (String a : caminhosPedidos) {
+            try (Stream<Path> caminhos = Files.walk(Paths.get(a))) {
+                for (Path p : (Iterable<Path>) caminhos.filter(ValidadorSgf::ehSgf)::iterator) {
+                    arquivos++;
+                    try {
+                        reproduzirArquivo(p, reprodutor);
+                    } catch (IOException | RuntimeException e) {
+                        arquivosComErro++;
+                        if (verboso) System.err.println(p + ": " + e.getMessage());
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        double s = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("Arquivos: %d (%d ilegíveis)%n", arquivos, arquivosComErro);
+        System.out.printf("Partidas: %d | Lances: %d | %.0f lances/s%n",
+                reprodutor.getPartidas(), reprodutor.getLances(), reprodutor.getLances() / Math.max(s, 1e-9));
+        System.out.printf("Lances recusados pelas regras: %d (em %d partidas)%n",
+                reprodutor.getDivergencias(), reprodutor.getPartidasComDivergencia());
+    }
+
+    private static boolean ehSgf(Path p) {
+        return Files.isRegularFile(p) && p.getFileName().toString().toLowerCase().endsWith(".sgf");
+    }
+
+    // ISO-8859-1 lê qualquer byte sem erro; a estrutura do SGF é toda ASCII.
+    private static void reproduzirArquivo(Path p, ReprodutorSgf reprodutor) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(p, StandardCharsets.ISO_8859_1)) {
+            LeitorSgf leitor = new LeitorSgf(in);
+            while (leitor.proximaPartida(reprodutor)) { }
+        }
+    }
+}
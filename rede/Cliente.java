@@ -1,16 +1,27 @@
 package rede;
 
-import java.rmi.Naming;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import javax.swing.SwingUtilities;
+import modelo.Tabuleiro;
+import persistencia.LivroAberturas;
 import visao.JanelaJogo;
 
 public class Cliente {
     public static void main(String args[]){
         try {
-            InterfaceJogoRemoto jogoRemoto = (InterfaceJogoRemoto) Naming.lookup("rmi://localhost/JogoGo");
+            // "--partida <N>": entra na N-ésima partida de um servidor com várias (padrão: a primeira).
+            int iPartida = Arrays.asList(args).indexOf("--partida");
+            int partida = iPartida >= 0 && iPartida + 1 < args.length ? Integer.parseInt(args[iPartida + 1]) : 1;
+            // "--livro <arquivo.gob>": liga a dica do livro de aberturas.
+            int iLivro = Arrays.asList(args).indexOf("--livro");
+            LivroAberturas livro = iLivro >= 0 && iLivro + 1 < args.length ? LivroAberturas.abrir(Paths.get(args[iLivro + 1])) : null;
+            ConexaoJogo conexao = new ConexaoJogo("rmi://localhost/" + Servidor.nomePartida(partida), Tabuleiro.BRANCO);
+            conexao.conectar();
 
             SwingUtilities.invokeLater(() -> {
-                JanelaJogo janela = new JanelaJogo(jogoRemoto, false);
+                JanelaJogo janela = new JanelaJogo(conexao, false);
+                janela.setLivroAberturas(livro);
                 janela.setVisible(true);
             });
         } catch (Exception e) {
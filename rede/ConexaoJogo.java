@@ -0,0 +1,120 @@
+package rede;
+
+import java.net.MalformedURLException;
+import java.rmi.Naming;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import metricas.HistogramaLatencia;
+import metricas.TamanhoSerializado;
+import modelo.AtualizacaoJogo;
+import modelo.EstadoJogo;
+import modelo.Lance;
+import modelo.Tabuleiro;
+
+/**
+ * O "lado cliente" da conexão com o servidor.
+ *
+ * Guarda o stub RMI, o token de sessão (para voltar com a mesma cor depois de
+ * uma queda) e um "espelho" local do último estado recebido. Com o espelho,
+ * cada sincronização pede ao servidor só os lances que faltam desde a
+ * última versão conhecida, em vez do tabuleiro inteiro.
+ *
+ * Também mede o tempo de ida e volta (RTT) das chamadas, para o painel de
+ * diagnóstico do cliente.
+ */
+public class ConexaoJogo {
+    private final String url;
+    // A cor pedida na primeira conexão; depois, sempre a que o servidor diz ser a da sessão.
+    private volatile int cor;
+
+    private volatile InterfaceJogoRemoto remoto;
+    private volatile String token;
+
+    // Última "foto" conhecida, com o tabuleiro LOCAL (que recebe os lances incrementais).
+    private EstadoJogo espelho;
+
+    // Diagnóstico: RTT de cada chamada (o último e o histograma desde a conexão)
+    // e o tamanho da última atualização, medido só quando pedido.
+    private final HistogramaLatencia rttAtualizacao = new HistogramaLatencia("cliente.getAtualizacoes");
+    private final HistogramaLatencia rttJogada = new HistogramaLatencia("cliente.fazerJogada");
+    private volatile long ultimoRttAtualizacaoNanos = -1, ultimoRttJogadaNanos = -1;
+    private volatile boolean medirTamanho;
+    private volatile long bytesUltimaAtualizacao = -1;
+
+    public ConexaoJogo(String url, int cor) {
+        this.url = url;
+        this.cor = cor;
+    }
+
+    // Primeira conexão: procura o serviço no registro e abre uma sessão.
+    public void conectar() throws RemoteException, NotBoundException, MalformedURLException, SessaoInvalidaException {
+        remoto = (InterfaceJogoRemoto) Naming.lookup(url);
+        token = remoto.abrirSessao(cor);
+    }
+
+    // Uma tentativa de reconexão: procura o serviço de novo (o servidor pode ter
+    // reiniciado) e apresenta o token; a cor passa a ser a que o servidor guardou
+    // para ele. Se o servidor não conhece mais o token, abre uma sessão nova com a
+    // mesma cor (recusada com SessaoInvalidaException se outro jogador a tomou).
+    public void reconectar() throws RemoteException, NotBoundException, MalformedURLException, SessaoInvalidaException {
+        InterfaceJogoRemoto novo = (InterfaceJogoRemoto) Naming.lookup(url);
+        int corSessao = novo.retomarSessao(token);
+        if (corSessao == Tabuleiro.VAZIO) token = novo.abrirSessao(cor);
+        else cor = corSessao;
+        remoto = novo;
+    }
+
+    public InterfaceJogoRemoto getRemoto(){ return remoto; }
+    public int getCor(){ return cor; }
+
+    /** Joga com a cor da sessão, medindo o tempo de ida e volta. */
+    public boolean fazerJogada(int x, int y) throws RemoteException, SessaoInvalidaException {
+        long t0 = System.nanoTime();
+        boolean ok = remoto.fazerJogada(token, x, y);
+        ultimoRttJogadaNanos = System.nanoTime() - t0;
+        rttJogada.registrar(ultimoRttJogadaNanos);
+        return ok;
+    }
+
+    public void passar() throws RemoteException, SessaoInvalidaException { remoto.passar(token); }
+    public void desistir() throws RemoteException, SessaoInvalidaException { remoto.desistir(token); }
+    public void reiniciar() throws RemoteException, SessaoInvalidaException { remoto.reiniciar(token); }
+
+    public HistogramaLatencia getRttAtualizacao(){ return rttAtualizacao; }
+    public HistogramaLatencia getRttJogada(){ return rttJogada; }
+    /** RTT da última sincronização / jogada em ns, ou -1 se ainda não houve. */
+    public long getUltimoRttAtualizacaoNanos(){ return ultimoRttAtualizacaoNanos; }
+    public long getUltimoRttJogadaNanos(){ return ultimoRttJogadaNanos; }
+
+    /**
+     * Liga a medida do tamanho de cada atualização recebida. Custa uma
+     * serialização extra por sincronização: só fica ligada com o diagnóstico na tela.
+     */
+    public void setMedirTamanho(boolean medir){ this.medirTamanho = medir; }
+    /** Bytes (serializados) da última atualização, ou -1 se não foi medida. */
+    public long getBytesUltimaAtualizacao(){ return bytesUltimaAtualizacao; }
+
+    /**
+     * Traz o espelho local para a versão atual do servidor.
+     * Se a resposta for incremental, aplica os lances perdidos no tabuleiro local;
+     * se for completa, troca o espelho pela foto recebida.
+     */
+    public synchronized EstadoJogo sincronizar() throws RemoteException, SessaoInvalidaException {
+        long id = espelho != null ? espelho.getIdPartida() : 0L;
+        long versao = espelho != null ? espelho.getVersao() : -1L;
+
+        long t0 = System.nanoTime();
+        AtualizacaoJogo at = remoto.getAtualizacoes(token, id, versao);
+        ultimoRttAtualizacaoNanos = System.nanoTime() - t0;
+        rttAtualizacao.registrar(ultimoRttAtualizacaoNanos);
+        bytesUltimaAtualizacao = medirTamanho ? TamanhoSerializado.de(at) : -1;
+        if (at.isCompleta()) {
+            espelho = at.getEstado();
+        } else {
+            Tabuleiro local = espelho.getTabuleiro();
+            for (Lance l : at.getLances()) l.aplicarEm(local);
+            espelho = at.getEstado().comTabuleiro(local);
+        }
+        return espelho;
+    }
+}
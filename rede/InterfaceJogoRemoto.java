@@ -2,13 +2,33 @@ package rede;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
+import modelo.AtualizacaoJogo;
 import modelo.EstadoJogo;
+import modelo.Lance;
 
 public interface InterfaceJogoRemoto extends Remote {
-    boolean fazerJogada(int x, int y, int corJogador) throws RemoteException;
-    void passar(int corJogador) throws RemoteException;
-    void desistir(int corJogador) throws RemoteException;
-    void reiniciar() throws RemoteException;
+    // Comandos de um jogador: a cor é a da sessão do token (ver 'abrirSessao'), nunca
+    // uma cor dita pelo cliente. Token desconhecido: SessaoInvalidaException.
+    // Reiniciar também exige uma sessão: quem só assiste não apaga a partida.
+    boolean fazerJogada(String token, int x, int y) throws RemoteException, SessaoInvalidaException;
+    void passar(String token) throws RemoteException, SessaoInvalidaException;
+    void desistir(String token) throws RemoteException, SessaoInvalidaException;
+    void reiniciar(String token) throws RemoteException, SessaoInvalidaException;
 
     EstadoJogo getEstadoJogo() throws RemoteException;
+
+    // Ressincronização: só os lances posteriores à versão que o cliente já tem.
+    // A consulta com o token (ou null, só para assistir) mantém a sessão viva.
+    AtualizacaoJogo getAtualizacoes(String token, long idPartida, long desdeVersao) throws RemoteException, SessaoInvalidaException;
+
+    // Lances da partida atual (desde o último reinício), ex: para salvar em SGF.
+    List<Lance> getHistorico() throws RemoteException;
+
+    // Sessões: o token permite que um cliente que caiu volte com a MESMA cor.
+    // Só uma sessão por cor: 'abrirSessao' recusa (SessaoInvalidaException) uma cor
+    // cujo jogador deu sinal de vida há pouco. 'retomarSessao' devolve a cor do
+    // token, ou VAZIO se ele não vale mais.
+    String abrirSessao(int corJogador) throws RemoteException, SessaoInvalidaException;
+    int retomarSessao(String token) throws RemoteException;
 }
@@ -1,27 +1,182 @@
 package rede;
 
+import java.io.IOException;
 import java.rmi.server.UnicastRemoteObject;
 import java.rmi.RemoteException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import metricas.EventoSerializacao;
+import metricas.HistogramaLatencia;
+import metricas.Metricas;
+import modelo.AtualizacaoJogo;
 import modelo.Jogo;
+import modelo.LacoJogo;
 import modelo.EstadoJogo;
+import modelo.Lance;
+import modelo.OuvinteJogo;
+import modelo.Tabuleiro;
+import persistencia.DiarioJogo;
 
 public class JogoRemotoImpl extends UnicastRemoteObject implements InterfaceJogoRemoto {
-    private final Jogo jogo;
+    // Latência de cada método remoto, do lado do servidor (inclui a espera na fila do laço
+    // da partida, mas não a rede nem a serialização). Compartilhadas por todas as partidas do processo.
+    private static final HistogramaLatencia FAZER_JOGADA = Metricas.latencia("remoto.fazerJogada");
+    private static final HistogramaLatencia PASSAR = Metricas.latencia("remoto.passar");
+    private static final HistogramaLatencia DESISTIR = Metricas.latencia("remoto.desistir");
+    private static final HistogramaLatencia REINICIAR = Metricas.latencia("remoto.reiniciar");
+    private static final HistogramaLatencia ESTADO = Metricas.latencia("remoto.getEstadoJogo");
+    private static final HistogramaLatencia ATUALIZACOES = Metricas.latencia("remoto.getAtualizacoes");
+    private static final HistogramaLatencia HISTORICO = Metricas.latencia("remoto.getHistorico");
+    private static final HistogramaLatencia ABRIR_SESSAO = Metricas.latencia("remoto.abrirSessao");
+    private static final HistogramaLatencia RETOMAR_SESSAO = Metricas.latencia("remoto.retomarSessao");
+
+    // Uma sessão sem nenhuma chamada por este tempo fica "ociosa": outro cliente pode
+    // abrir uma sessão com a mesma cor (e o token antigo deixa de valer). Enquanto
+    // ninguém toma a cor, o dono ainda pode voltar com o token, mesmo depois disso.
+    // A janela consulta 2x por segundo, então 15 s sem sinal é um cliente que caiu.
+    static final long SESSAO_OCIOSA_MS = 15_000;
+
+    // Uma sessão: a cor e o último sinal de vida do dono.
+    private static final class Sessao {
+        final int cor;
+        volatile long contatoMs;
+        Sessao(int cor, long contatoMs) { this.cor = cor; this.contatoMs = contatoMs; }
+    }
+
+    // Só o laço mexe no Jogo: as jogadas entram na fila dele, e as consultas
+    // leem o último estado publicado sem esperar ninguém.
+    private final LacoJogo laco;
+    // token da sessão -> sessão. No máximo uma por cor: abrir uma sessão apaga a
+    // anterior (ociosa) da mesma cor, então o mapa nunca passa de 2 entradas.
+    private final Map<String, Sessao> sessoes = new ConcurrentHashMap<>();
 
     public JogoRemotoImpl() throws RemoteException {
         super();
         // o 5 significa os minutos
-        this.jogo = new Jogo(9, 5 * 60_000L);
+        this.laco = new LacoJogo(new Jogo(9, 5 * 60_000L));
     }
 
-    @Override public boolean fazerJogada(int x, int y, int corJogador) throws RemoteException {
-        return jogo.fazerJogada(x, y, corJogador);
+    // Versão com diário: a partida é recuperada do arquivo (se existir) e
+    // todo comando aceito daqui para frente é gravado nele.
+    public JogoRemotoImpl(DiarioJogo diario) throws RemoteException, IOException {
+        super();
+        this.laco = new LacoJogo(diario.recuperarJogo());
+    }
+
+    // Acopla um ouvinte ao jogo (ex: o gravador do arquivo de partidas). Não é remoto.
+    public void adicionarOuvinte(OuvinteJogo o) {
+        laco.adicionarOuvinte(o);
+    }
+
+    @Override public boolean fazerJogada(String token, int x, int y) throws RemoteException, SessaoInvalidaException {
+        long t0 = System.nanoTime();
+        try {
+            return laco.fazerJogada(x, y, corDaSessao(token));
+        } finally {
+            FAZER_JOGADA.registrarDesde(t0);
+        }
+    }
+    @Override public void passar(String token) throws RemoteException, SessaoInvalidaException {
+        long t0 = System.nanoTime();
+        try {
+            laco.passar(corDaSessao(token));
+        } finally {
+            PASSAR.registrarDesde(t0);
+        }
+    }
+    @Override public void desistir(String token) throws RemoteException, SessaoInvalidaException {
+        long t0 = System.nanoTime();
+        try {
+            laco.desistir(corDaSessao(token));
+        } finally {
+            DESISTIR.registrarDesde(t0);
+        }
+    }
+    @Override public void reiniciar(String token) throws RemoteException, SessaoInvalidaException {
+        long t0 = System.nanoTime();
+        try {
+            corDaSessao(token); // Qualquer uma das cores pode reiniciar; quem não tem sessão, não.
+            laco.reiniciar();
+        } finally {
+            REINICIAR.registrarDesde(t0);
+        }
     }
-    @Override public void passar(int corJogador) throws RemoteException { jogo.passar(corJogador); }
-    @Override public void desistir(int corJogador) throws RemoteException { jogo.desistir(corJogador); }
-    @Override public void reiniciar() throws RemoteException { jogo.reiniciar(); }
 
     @Override public EstadoJogo getEstadoJogo() throws RemoteException {
-        return jogo.snapshotEstado();
+        long t0 = System.nanoTime();
+        EstadoJogo estado;
+        try {
+            estado = laco.estadoAtual();
+        } finally {
+            ESTADO.registrarDesde(t0);
+        }
+        EventoSerializacao.registrar("getEstadoJogo", estado);
+        return estado;
+    }
+
+    @Override public AtualizacaoJogo getAtualizacoes(String token, long idPartida, long desdeVersao) throws RemoteException, SessaoInvalidaException {
+        long t0 = System.nanoTime();
+        AtualizacaoJogo atualizacao;
+        try {
+            if (token != null) corDaSessao(token);
+            atualizacao = laco.atualizacoesDesde(idPartida, desdeVersao);
+        } finally {
+            ATUALIZACOES.registrarDesde(t0);
+        }
+        EventoSerializacao.registrar("getAtualizacoes", atualizacao);
+        return atualizacao;
+    }
+
+    @Override public List<Lance> getHistorico() throws RemoteException {
+        long t0 = System.nanoTime();
+        try { return laco.getHistorico(); } finally { HISTORICO.registrarDesde(t0); }
+    }
+
+    // 'synchronized': duas aberturas ao mesmo tempo não podem levar a mesma cor.
+    @Override public synchronized String abrirSessao(int corJogador) throws RemoteException, SessaoInvalidaException {
+        long t0 = System.nanoTime();
+        try {
+            if (corJogador != Tabuleiro.PRETO && corJogador != Tabuleiro.BRANCO)
+                throw new IllegalArgumentException("Cor inválida: " + corJogador);
+            long agora = System.currentTimeMillis();
+            for (Iterator<Sessao> it = sessoes.values().iterator(); it.hasNext(); ) {
+                Sessao s = it.next();
+                if (s.cor != corJogador) continue;
+                if (agora - s.contatoMs < SESSAO_OCIOSA_MS)
+                    throw new SessaoInvalidaException("Já há um jogador conectado com as "
+                            + (corJogador == Tabuleiro.PRETO ? "pretas" : "brancas"));
+                it.remove(); // O dono sumiu: a cor fica com quem chegou.
+            }
+            String token = UUID.randomUUID().toString();
+            sessoes.put(token, new Sessao(corJogador, agora));
+            return token;
+        } finally {
+            ABRIR_SESSAO.registrarDesde(t0);
+        }
+    }
+
+    // Devolve a cor da sessão, ou VAZIO se o token é desconhecido (ex: servidor
+    // reiniciado, ou a cor foi tomada depois de o dono ficar ocioso).
+    @Override public int retomarSessao(String token) throws RemoteException {
+        long t0 = System.nanoTime();
+        try {
+            Sessao s = (token != null) ? sessoes.get(token) : null;
+            if (s == null) return Tabuleiro.VAZIO;
+            s.contatoMs = System.currentTimeMillis();
+            return s.cor;
+        } finally {
+            RETOMAR_SESSAO.registrarDesde(t0);
+        }
+    }
+
+    // A cor do dono do token (e marca o sinal de vida dele).
+    private int corDaSessao(String token) throws SessaoInvalidaException {
+        Sessao s = (token != null) ? sessoes.get(token) : null;
+        if (s == null) throw new SessaoInvalidaException("Sessão desconhecida: conecte de novo");
+        s.contatoMs = System.currentTimeMillis();
+        return s.cor;
     }
 }
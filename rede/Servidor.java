@@ -1,35 +1,130 @@
 package rede;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.rmi.Naming;
 import java.rmi.registry.LocateRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
-import javax.swing.SwingUtilities;
-
-import modelo.Jogo;
-import visao.JanelaJogo;
+import metricas.Metricas;
+import modelo.Tabuleiro;
+import persistencia.DiarioJogo;
+import persistencia.GravadorArquivo;
+import persistencia.LivroAberturas;
 
+/**
+ * Sobe o registro RMI (porta 1099) e publica as partidas.
+ *
+ * Opções:
+ *   --diario <arquivo>     grava cada partida em disco e a recupera ao reiniciar;
+ *   --durabilidade <modo>  com --diario: ASSINCRONA (padrão; o lance vai para o disco
+ *                          em até alguns ms e pode se perder numa queda) ou GRUPO (o
+ *                          jogador só recebe a resposta depois do 'force' do lote);
+ *   --arquivo <arq.goa>    acrescenta toda partida encerrada ao arquivo de partidas;
+ *   --partidas <N>         publica N partidas: "JogoGo", "JogoGo-2", ..., "JogoGo-N";
+ *   --headless             só o servidor, sem janela (nem Swing) do Jogador Preto.
+ */
 public class Servidor {
+
+    /** Nome RMI da partida 'i' (a partir de 1); a primeira mantém o nome de sempre. */
+    public static String nomePartida(int i) {
+        return i == 1 ? "JogoGo" : "JogoGo-" + i;
+    }
+
     public static void main(String args[]){
         try{
-            JogoRemotoImpl servico = new JogoRemotoImpl();
+            List<String> opcoes = Arrays.asList(args);
+            boolean headless = opcoes.contains("--headless");
+            if (headless) System.setProperty("java.awt.headless", "true");
+            int partidas = Math.max(1, Integer.parseInt(valorOpcao(args, "--partidas", "1")));
+            String caminhoDiario = valorOpcao(args, "--diario", null);
+            DiarioJogo.Durabilidade durabilidade = durabilidade(valorOpcao(args, "--durabilidade", "ASSINCRONA"));
+            String caminhoArquivo = valorOpcao(args, "--arquivo", null);
+            String caminhoLivro = valorOpcao(args, "--livro", null);
+
+            // "--arquivo <arquivo.goa>": toda partida encerrada é acrescentada ao arquivo de partidas.
+            // Um só gravador para todas as partidas ('acrescentar' é sincronizado).
+            GravadorArquivo gravador = null;
+            if (caminhoArquivo != null) {
+                GravadorArquivo g = GravadorArquivo.abrir(Paths.get(caminhoArquivo));
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try { g.close(); } catch (Exception e) { e.printStackTrace(); }
+                }));
+                gravador = g;
+            }
+
+            // Latências e contadores ficam visíveis via JMX (ex: jconsole <pid>, em "jogogo").
+            Metricas.publicarJmx();
 
             LocateRegistry.createRegistry(1099);
 
-            Naming.rebind("rmi://localhost/JogoGo", servico);
+            for (int i = 1; i <= partidas; i++) {
+                JogoRemotoImpl servico;
+                // "--diario <arquivo>": grava a partida em disco e a recupera ao reiniciar o servidor.
+                if (caminhoDiario != null) {
+                    DiarioJogo diario = DiarioJogo.abrir(arquivoDiario(caminhoDiario, i), 9, 5 * 60_000L, durabilidade);
+                    servico = new JogoRemotoImpl(diario);
+                    // Ao encerrar o processo, grava o que estiver pendente.
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        try { diario.close(); } catch (Exception e) { e.printStackTrace(); }
+                    }));
+                } else {
+                    servico = new JogoRemotoImpl();
+                }
+                if (gravador != null) servico.adicionarOuvinte(gravador);
+                Naming.rebind("rmi://localhost/" + nomePartida(i), servico);
+            }
 
-            System.out.println("Servidor pronto");
+            System.out.println("Servidor pronto" + (partidas > 1 ? " (" + partidas + " partidas)" : ""));
 
-            InterfaceJogoRemoto jogoRemoto = (InterfaceJogoRemoto) Naming.lookup("rmi://localhost/JogoGo");
+            // Sem janela, o processo continua vivo pelas threads do RMI (os objetos exportados).
+            if (headless) return;
 
-             SwingUtilities.invokeLater(() -> {
-                JanelaJogo janela = new JanelaJogo(jogoRemoto, true);
-                janela.setTitle("Jogo do servidor");
-                janela.setVisible(true);
-            });
+            ConexaoJogo conexao = new ConexaoJogo("rmi://localhost/" + nomePartida(1), Tabuleiro.PRETO);
+            conexao.conectar();
+            // "--livro <arquivo.gob>": liga a dica do livro de aberturas na janela.
+            JanelaLocal.abrir(conexao, caminhoLivro != null ? LivroAberturas.abrir(Paths.get(caminhoLivro)) : null);
         }
         catch (Exception e){
             System.err.println("Erro no servidor: " + e.getMessage());
             e.printStackTrace();
         }
     }
+
+    // Valor da opção "--nome <valor>", ou 'padrao' se ela não foi passada.
+    private static String valorOpcao(String[] args, String nome, String padrao) {
+        int i = Arrays.asList(args).indexOf(nome);
+        return i >= 0 && i + 1 < args.length ? args[i + 1] : padrao;
+    }
+
+    private static DiarioJogo.Durabilidade durabilidade(String nome) {
+        try {
+            return DiarioJogo.Durabilidade.valueOf(nome.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("--durabilidade deve ser ASSINCRONA ou GRUPO, não " + nome);
+        }
+    }
+
+    // Com várias partidas, cada uma tem o seu diário: partida.log, partida-2.log, ...
+    private static Path arquivoDiario(String caminho, int i) {
+        if (i == 1) return Paths.get(caminho);
+        int ponto = caminho.lastIndexOf('.');
+        if (ponto <= Math.max(caminho.lastIndexOf('/'), caminho.lastIndexOf('\\'))) return Paths.get(caminho + "-" + i);
+        return Paths.get(caminho.substring(0, ponto) + "-" + i + caminho.substring(ponto));
+    }
+
+    // A janela do Jogador Preto fica numa classe à parte: só quando ela é usada
+    // a JVM carrega o Swing e o pacote 'visao'. Com --headless, nunca são carregados.
+    private static final class JanelaLocal {
+        static void abrir(ConexaoJogo conexao, LivroAberturas livro) {
+            javax.swing.SwingUtilities.invokeLater(() -> {
+                visao.JanelaJogo janela = new visao.JanelaJogo(conexao, true);
+                janela.setLivroAberturas(livro);
+                janela.setTitle("Jogo do servidor");
+                janela.setVisible(true);
+            });
+        }
+    }
 }
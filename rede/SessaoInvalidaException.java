@@ -0,0 +1,16 @@
+package rede;
+
+/**
+ * O servidor recusou a sessão: o token não vale (servidor reiniciado, ou a cor
+ * foi tomada por outro jogador depois de muito tempo sem contato) ou a cor
+ * pedida já tem um jogador conectado.
+ *
+ * Não é uma 'RemoteException' (o RMI embrulharia numa ServerException), mas o
+ * cliente a trata do mesmo jeito: perder a sessão é como perder a conexão, e o
+ * ciclo de reconexão tenta recuperá-la.
+ */
+public class SessaoInvalidaException extends Exception {
+    public SessaoInvalidaException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,275 @@
+package rede;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.rmi.Naming;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import metricas.HistogramaLatencia;
+import modelo.EstadoJogo;
+import modelo.Tabuleiro;
+import persistencia.LivroAberturas;
+
+/**
+ * Teste de carga: quantos jogadores simultâneos um 'Servidor' aguenta?
+ *
+ * Cria N clientes simulados ("bots"), cada um com o seu stub RMI de verdade.
+ * Cada bot consulta 'getEstadoJogo' na taxa pedida (a janela do jogo faz 2x
+ * por segundo) e, quando é a vez da sua cor, joga num ponto vazio sorteado.
+ * Os bots são distribuídos pelas partidas do servidor (--partidas do
+ * Servidor), alternando as cores; os bots da mesma cor numa partida dividem
+ * uma sessão (o servidor só aceita uma por cor). Se a cor já tem dono (ex: a
+ * janela do servidor), esses bots só consultam. Com --livro, enquanto a posição está no livro
+ * de aberturas, o bot joga um lance do livro (sorteado pelas vezes jogado).
+ *
+ * A carga sobe em etapas (--clientes, depois +--passo a cada etapa, até
+ * --max), depois de alguns segundos de aquecimento que não entram na conta
+ * (JIT e conexões, nos dois lados). Em cada etapa imprime chamadas por
+ * segundo, percentis de latência, erros e, com --jmx, a CPU e o heap do
+ * servidor. Para quando o p99 do 'getEstadoJogo' passa do SLO.
+ *
+ * A latência é contada a partir do instante em que a chamada DEVERIA ter
+ * saído (e não de quando saiu): se o gerador atrasa porque o servidor está
+ * lento, a espera entra na conta, como entraria para um jogador real.
+ *
+ * Uso (servidor em outro terminal, de preferência em outra máquina):
+ *   java -Dcom.sun.management.jmxremote.port=9010 -Dcom.sun.management.jmxremote.authenticate=false
+ *        -Dcom.sun.management.jmxremote.ssl=false -cp bin rede.Servidor --headless --partidas 8
+ *   java -cp bin rede.TesteCarga --partidas 8 --clientes 50 --passo 50 --max 2000 --slo 20 --jmx localhost:9010
+ */
+public class TesteCarga {
+
+    // As medidas de uma etapa; trocadas (por inteiro) a cada etapa.
+    private static final class Etapa {
+        final HistogramaLatencia estado = new HistogramaLatencia("carga.getEstadoJogo");
+        final HistogramaLatencia jogada = new HistogramaLatencia("carga.fazerJogada");
+        final LongAdder chamadas = new LongAdder();
+        final LongAdder erros = new LongAdder();
+    }
+
+    private static volatile Etapa etapa = new Etapa();
+
+    public static void main(String[] args) throws Exception {
+        String host = valorOpcao(args, "--host", "localhost");
+        int partidas = Integer.parseInt(valorOpcao(args, "--partidas", "1"));
+        int clientes = Integer.parseInt(valorOpcao(args, "--clientes", "10"));
+        int passo = Integer.parseInt(valorOpcao(args, "--passo", "10"));
+        int max = Integer.parseInt(valorOpcao(args, "--max", String.valueOf(clientes)));
+        double taxa = Double.parseDouble(valorOpcao(args, "--taxa", "2"));
+        int segundosEtapa = Integer.parseInt(valorOpcao(args, "--etapa", "10"));
+        int aquecimento = Integer.parseInt(valorOpcao(args, "--aquecimento", "5"));
+        double sloMs = Double.parseDouble(valorOpcao(args, "--slo", "50"));
+        int threads = Integer.parseInt(valorOpcao(args, "--threads", "64"));
+        String jmx = valorOpcao(args, "--jmx", null);
+        String caminhoLivro = valorOpcao(args, "--livro", null);
+        LivroAberturas livro = caminhoLivro != null ? LivroAberturas.abrir(Paths.get(caminhoLivro)) : null;
+
+        MBeanServerConnection servidor = null;
+        if (jmx != null) {
+            JMXConnector c = JMXConnectorFactory.connect(new JMXServiceURL("service:jmx:rmi:///jndi/rmi://" + jmx + "/jmxrmi"));
+            servidor = c.getMBeanServerConnection();
+        }
+
+        // As chamadas RMI bloqueiam: cada thread faz uma por vez. Com threads de menos,
+        // o próprio gerador vira o gargalo (o que aparece como latência, e é avisado no fim).
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, r -> {
+            Thread t = new Thread(r, "TesteCarga-bot");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodoNanos = (long) (1e9 / taxa);
+        List<Bot> bots = new ArrayList<>();
+        // "url cor" -> token da sessão dividida pelos bots dessa cor (null: cor ocupada).
+        Map<String, String> sessoes = new HashMap<>();
+
+        System.out.printf("Alvo: %s, %d partida(s), %.1f consultas/s por cliente, SLO p99 %.1f ms, etapas de %d s%n",
+                host, partidas, taxa, sloMs, segundosEtapa);
+        System.out.println("clientes  chamadas/s  estado p50/p99/p99.9 (ms)  jogada p50/p99 (ms)  erros  CPU serv.  heap serv.  CPU gerador");
+
+        int n = clientes;
+        boolean aquecido = aquecimento <= 0;
+        cpuDoProcesso(); // A primeira leitura só marca o início da medida.
+        while (true) {
+            // Sobe a carga até n clientes (os anteriores continuam rodando).
+            while (bots.size() < n) {
+                int i = bots.size();
+                String url = "rmi://" + host + "/" + Servidor.nomePartida(1 + (i / 2) % partidas);
+                int cor = i % 2 == 0 ? Tabuleiro.PRETO : Tabuleiro.BRANCO;
+                InterfaceJogoRemoto remoto = (InterfaceJogoRemoto) Naming.lookup(url);
+                String chave = url + " " + cor;
+                if (!sessoes.containsKey(chave)) {
+                    String token = null;
+                    try {
+                        token = remoto.abrirSessao(cor);
+                    } catch (SessaoInvalidaException ex) {
+                        System.out.println("Aviso: " + url + ": " + ex.getMessage() + "; esses bots só consultam.");
+                    }
+                    sessoes.put(chave, token);
+                }
+                Bot b = new Bot(remoto, cor, sessoes.get(chave), periodoNanos, i, livro);
+                bots.add(b);
+                // Começos espalhados no período, para os bots não baterem todos juntos.
+                executor.scheduleAtFixedRate(b::rodar, b.deslocamentoNanos, periodoNanos, TimeUnit.NANOSECONDS);
+            }
+
+            if (!aquecido) {
+                Thread.sleep(aquecimento * 1000L);
+                cpuDoProcesso();
+                aquecido = true;
+            }
+
+            Etapa e = new Etapa();
+            etapa = e;
+            long inicio = System.nanoTime();
+            double somaCpu = 0;
+            long maiorHeap = -1;
+            int amostras = 0;
+            for (int s = 0; s < segundosEtapa; s++) {
+                Thread.sleep(1000);
+                if (servidor != null) {
+                    somaCpu += (Double) servidor.getAttribute(new ObjectName("java.lang:type=OperatingSystem"), "ProcessCpuLoad");
+                    CompositeData heap = (CompositeData) servidor.getAttribute(new ObjectName("java.lang:type=Memory"), "HeapMemoryUsage");
+                    maiorHeap = Math.max(maiorHeap, (Long) heap.get("used"));
+                    amostras++;
+                }
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            double cpuGerador = cpuDoProcesso();
+
+            System.out.printf("%8d  %10.0f  %7.2f/%7.2f/%7.2f  %8.2f/%7.2f  %5d  %8s  %10s  %10.0f%%%n",
+                    n, e.chamadas.sum() / segundos,
+                    ms(e.estado.percentil(0.5)), ms(e.estado.percentil(0.99)), ms(e.estado.percentil(0.999)),
+                    ms(e.jogada.percentil(0.5)), ms(e.jogada.percentil(0.99)),
+                    e.erros.sum(),
+                    amostras > 0 ? String.format("%.0f%%", 100 * somaCpu / amostras) : "-",
+                    maiorHeap >= 0 ? (maiorHeap >> 20) + " MB" : "-",
+                    100 * cpuGerador);
+
+            double p99 = ms(e.estado.percentil(0.99));
+            if (p99 > sloMs) {
+                System.out.printf("SLO estourado com %d clientes (p99 %.2f ms > %.1f ms).%n", n, p99, sloMs);
+                if (cpuGerador > 0.9) System.out.println("Atenção: o gerador estava com a CPU no limite; o gargalo pode ser ele.");
+                break;
+            }
+            if (n >= max || passo <= 0) {
+                System.out.printf("SLO mantido até %d clientes.%n", n);
+                break;
+            }
+            n = Math.min(max, n + passo);
+        }
+        executor.shutdownNow();
+        System.exit(0);
+    }
+
+    /** Um jogador simulado: consulta o estado e, na sua vez, joga num ponto vazio. */
+    private static final class Bot {
+        private final InterfaceJogoRemoto remoto;
+        private final int cor;
+        private final String token; // null: a cor tem outro dono, o bot só consulta.
+        private final long periodoNanos;
+        final long deslocamentoNanos;
+        private final Random rnd;
+        private final LivroAberturas livro; // Pode ser null.
+        private long proximaNanos; // Quando a próxima consulta deveria sair.
+        private int recusasSeguidas;
+
+        Bot(InterfaceJogoRemoto remoto, int cor, String token, long periodoNanos, int semente, LivroAberturas livro) {
+            this.remoto = remoto;
+            this.token = token;
+            this.livro = livro;
+            this.cor = cor;
+            this.periodoNanos = periodoNanos;
+            this.rnd = new Random(semente);
+            this.deslocamentoNanos = (long) (rnd.nextDouble() * periodoNanos);
+            this.proximaNanos = System.nanoTime() + deslocamentoNanos;
+        }
+
+        // Uma "batida" do bot (nunca roda em paralelo consigo mesma: scheduleAtFixedRate).
+        void rodar() {
+            Etapa e = etapa;
+            long previsto = proximaNanos;
+            proximaNanos += periodoNanos;
+            try {
+                EstadoJogo est = remoto.getEstadoJogo();
+                e.estado.registrarDesde(previsto);
+                e.chamadas.increment();
+
+                if (est.isGameOver()) {
+                    // Só as pretas (com a sessão delas) recomeçam, para a partida não ser reiniciada duas vezes.
+                    if (cor == Tabuleiro.PRETO && token != null) { remoto.reiniciar(token); e.chamadas.increment(); }
+                    return;
+                }
+                if (est.getJogadorAtual() != cor || token == null) return;
+
+                // Depois de algumas recusas seguidas (tabuleiro cheio, Ko...), passa a vez.
+                if (recusasSeguidas >= 3) {
+                    remoto.passar(token);
+                    e.chamadas.increment();
+                    recusasSeguidas = 0;
+                    return;
+                }
+                int[] ponto = recusasSeguidas == 0 ? pontoDoLivro(est.getTabuleiro()) : null;
+                if (ponto == null) ponto = pontoVazio(est.getTabuleiro());
+                if (ponto == null) { remoto.passar(token); e.chamadas.increment(); return; }
+                long t0 = System.nanoTime();
+                boolean ok = remoto.fazerJogada(token, ponto[0], ponto[1]);
+                e.jogada.registrarDesde(t0);
+                e.chamadas.increment();
+                recusasSeguidas = ok ? 0 : recusasSeguidas + 1;
+            } catch (Exception ex) {
+                e.erros.increment();
+            }
+        }
+
+        // Um lance do livro para esta posição (O(1)), ou null fora dele.
+        private int[] pontoDoLivro(Tabuleiro t) {
+            if (livro == null) return null;
+            LivroAberturas.Sugestao s = livro.sortear(t, cor, rnd);
+            return s == null ? null : new int[]{s.x, s.y};
+        }
+
+        private int[] pontoVazio(Tabuleiro t) {
+            int n = t.getTamanho();
+            int vazios = 0;
+            for (int x = 0; x < n; x++)
+                for (int y = 0; y < n; y++)
+                    if (t.get(x, y) == Tabuleiro.VAZIO) vazios++;
+            if (vazios == 0) return null;
+            int k = rnd.nextInt(vazios);
+            for (int x = 0; x < n; x++)
+                for (int y = 0; y < n; y++)
+                    if (t.get(x, y) == Tabuleiro.VAZIO && k-- == 0) return new int[]{x, y};
+            return null;
+        }
+    }
+
+    private static double ms(long nanos){ return nanos / 1e6; }
+
+    // CPU do próprio gerador (0 a 1), para saber se ele é o gargalo.
+    private static double cpuDoProcesso() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean)
+            return Math.max(0, ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuLoad());
+        return 0;
+    }
+
+    // Valor da opção "--nome <valor>", ou 'padrao' se ela não foi passada.
+    private static String valorOpcao(String[] args, String nome, String padrao) {
+        int i = Arrays.asList(args).indexOf(nome);
+        return i >= 0 && i + 1 < args.length ? args[i + 1] : padrao;
+    }
+}
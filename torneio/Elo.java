@@ -0,0 +1,111 @@
+package torneio;
+
+import java.util.Arrays;
+
+/**
+ * Estimativas de Elo a partir de resultados de partidas.
+ *
+ * - Um confronto (A x B): a pontuação média de A vira diferença de Elo pela
+ *   curva logística, e o intervalo de 95% sai do erro padrão da pontuação
+ *   (com a variância medida nas próprias partidas, empates incluídos).
+ * - Vários jogadores (rodízio): o modelo de Bradley-Terry, ajustado por
+ *   máxima verossimilhança (algoritmo MM de Hunter), com a média dos ratings
+ *   em 0 e o erro de cada um pela informação de Fisher.
+ */
+public final class Elo {
+
+    private static final double Z_95 = 1.959964;
+    // Elo por unidade de log-força (400 / ln 10).
+    private static final double ESCALA = 400 / Math.log(10);
+
+    private Elo() {}
+
+    /** Diferença de Elo que dá, em média, esta pontuação (0 a 1) por partida. */
+    public static double diferenca(double pontuacao) {
+        return -400 * Math.log10(1 / pontuacao - 1);
+    }
+
+    /**
+     * Diferença de Elo de um confronto e o intervalo de 95%: {elo, minimo, maximo}.
+     * Com 100% ou 0% dos pontos, o limite aberto é infinito.
+     */
+    public static double[] confronto(int vitorias, int empates, int derrotas) {
+        int n = vitorias + empates + derrotas;
+        if (n == 0) return new double[]{0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double s = (vitorias + 0.5 * empates) / n;
+        double variancia = (vitorias * (1 - s) * (1 - s) + empates * (0.5 - s) * (0.5 - s) + derrotas * s * s) / n;
+        double erro = Math.sqrt(variancia / n);
+        return new double[]{diferenca(s), diferencaLimitada(s - Z_95 * erro), diferencaLimitada(s + Z_95 * erro)};
+    }
+
+    private static double diferencaLimitada(double s) {
+        if (s <= 0) return Double.NEGATIVE_INFINITY;
+        if (s >= 1) return Double.POSITIVE_INFINITY;
+        return diferenca(s);
+    }
+
+    /**
+     * Ratings de todos os jogadores, ajustados a todos os confrontos.
+     * @param pontos pontos[i][j]: pontos de i contra j (vitória 1, empate 0.5).
+     * @param partidas partidas[i][j]: partidas entre i e j (simétrica).
+     * @return {ratings, erros padrão}, em Elo, com média 0.
+     */
+    public static double[][] ratings(double[][] pontos, int[][] partidas) {
+        int n = pontos.length;
+        // Um empate "virtual" em cada confronto jogado: quem venceu todas não vai ao infinito.
+        double[][] w = new double[n][n];
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j || partidas[i][j] == 0) continue;
+                w[i][j] = pontos[i][j] + 0.5;
+                m[i][j] = partidas[i][j] + 1;
+            }
+        }
+        double[] forca = new double[n];
+        Arrays.fill(forca, 1);
+        for (int iteracao = 0; iteracao < 10_000; iteracao++) {
+            double mudanca = 0;
+            for (int i = 0; i < n; i++) {
+                double vitorias = 0, denominador = 0;
+                for (int j = 0; j < n; j++) {
+                    if (m[i][j] == 0) continue;
+                    vitorias += w[i][j];
+                    denominador += m[i][j] / (forca[i] + forca[j]);
+                }
+                if (denominador == 0) continue;
+                double nova = vitorias / denominador;
+                mudanca = Math.max(mudanca, Math.abs(Math.log(nova / forca[i])));
+                forca[i] = nova;
+            }
+            normalizar(forca);
+            if (mudanca < 1e-9) break;
+        }
+
+        double[] elo = new double[n], erro = new double[n];
+        for (int i = 0; i < n; i++) {
+            elo[i] = ESCALA * Math.log(forca[i]);
+            double informacao = 0;
+            for (int j = 0; j < n; j++) {
+                if (m[i][j] == 0) continue;
+                double p = forca[i] / (forca[i] + forca[j]);
+                informacao += m[i][j] * p * (1 - p);
+            }
+            erro[i] = informacao > 0 ? ESCALA / Math.sqrt(informacao) : Double.POSITIVE_INFINITY;
+        }
+        return new double[][]{elo, erro};
+    }
+
+    /** Meia largura do intervalo de 95% para um erro padrão. */
+    public static double intervalo95(double erroPadrao) {
+        return Z_95 * erroPadrao;
+    }
+
+    // Média geométrica 1 (média 0 em Elo).
+    private static void normalizar(double[] forca) {
+        double soma = 0;
+        for (double f : forca) soma += Math.log(f);
+        double fator = Math.exp(-soma / forca.length);
+        for (int i = 0; i < forca.length; i++) forca[i] *= fator;
+    }
+}
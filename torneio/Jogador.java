@@ -0,0 +1,27 @@
+package torneio;
+
+import modelo.Tabuleiro;
+
+/**
+ * Um jogador "de máquina" para o 'Torneio': recebe a posição e devolve um lance.
+ *
+ * Cada partida cria as suas próprias instâncias (ver 'Jogadores.fabrica'), e uma
+ * partida roda numa thread só: um jogador não precisa ser thread-safe.
+ */
+public interface Jogador {
+
+    /** Nome para as tabelas de resultado (ex: "mc:1000"). */
+    String getNome();
+
+    /** Chamado uma vez, antes do primeiro lance. 'semente' torna a partida reproduzível. */
+    default void iniciarPartida(int tamanho, double komi, long semente) {}
+
+    /**
+     * Escolhe o lance de 'cor'.
+     * @param t uma cópia da posição, só deste jogador (pode jogar e desfazer nela à vontade).
+     * @param pontoKo ponto (x*tam + y) proibido pelo Ko neste lance, ou -1.
+     * @param tempoRestanteMs quanto ainda resta no relógio de 'cor'; se acabar, perde a partida.
+     * @return {x, y}, ou null para passar.
+     */
+    int[] escolherLance(Tabuleiro t, int cor, int pontoKo, long tempoRestanteMs);
+}
@@ -0,0 +1,41 @@
+package torneio;
+
+import java.util.SplittableRandom;
+
+import modelo.Padroes3x3;
+import modelo.Tabuleiro;
+
+/**
+ * Joga num ponto vazio sorteado (com chances iguais) que seja legal e não seja
+ * olho próprio; passa quando não sobra nenhum. A referência mais fraca do torneio.
+ */
+public class JogadorAleatorio implements Jogador {
+
+    private SplittableRandom rnd = new SplittableRandom();
+    private int[] candidatos = new int[0];
+
+    @Override public String getNome() { return "aleatorio"; }
+
+    @Override public void iniciarPartida(int tamanho, double komi, long semente) {
+        rnd = new SplittableRandom(semente);
+        candidatos = new int[tamanho * tamanho];
+    }
+
+    @Override public int[] escolherLance(Tabuleiro t, int cor, int pontoKo, long tempoRestanteMs) {
+        int tam = t.getTamanho();
+        if (candidatos.length < tam * tam) candidatos = new int[tam * tam];
+        int n = t.getNumVazios();
+        for (int i = 0; i < n; i++) candidatos[i] = t.getVazio(i);
+        // Sorteio sem reposição (Fisher-Yates parcial): para no primeiro que serve.
+        while (n > 0) {
+            int i = rnd.nextInt(n);
+            int p = candidatos[i];
+            candidatos[i] = candidatos[--n];
+            if (p == pontoKo || Padroes3x3.donoOlho(t.getPadrao3x3(p)) == cor) continue;
+            if (t.jogarBusca(p / tam, p % tam, cor) < 0) continue;
+            t.desfazerBusca();
+            return new int[]{p / tam, p % tam};
+        }
+        return null;
+    }
+}
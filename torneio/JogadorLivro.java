@@ -0,0 +1,38 @@
+package torneio;
+
+import java.util.Random;
+
+import modelo.Tabuleiro;
+import persistencia.LivroAberturas;
+
+/**
+ * Joga pelo livro de aberturas enquanto a posição está nele (uma consulta O(1),
+ * sem gastar relógio) e, depois, deixa o jogador 'base' decidir.
+ * O livro é compartilhado por todas as partidas: só leitura.
+ */
+public class JogadorLivro implements Jogador {
+
+    private final LivroAberturas livro;
+    private final String nomeLivro;
+    private final Jogador base;
+    private Random rnd = new Random();
+
+    public JogadorLivro(LivroAberturas livro, String nomeLivro, Jogador base) {
+        this.livro = livro;
+        this.nomeLivro = nomeLivro;
+        this.base = base;
+    }
+
+    @Override public String getNome() { return "livro:" + nomeLivro + ":" + base.getNome(); }
+
+    @Override public void iniciarPartida(int tamanho, double komi, long semente) {
+        rnd = new Random(semente);
+        base.iniciarPartida(tamanho, komi, semente);
+    }
+
+    @Override public int[] escolherLance(Tabuleiro t, int cor, int pontoKo, long tempoRestanteMs) {
+        LivroAberturas.Sugestao s = livro.sortear(t, cor, rnd);
+        if (s != null && s.x * t.getTamanho() + s.y != pontoKo) return new int[]{s.x, s.y};
+        return base.escolherLance(t, cor, pontoKo, tempoRestanteMs);
+    }
+}
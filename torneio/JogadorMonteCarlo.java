@@ -0,0 +1,93 @@
+package torneio;
+
+import java.util.SplittableRandom;
+
+import modelo.Padroes3x3;
+import modelo.PoliticaPadroes;
+import modelo.Tabuleiro;
+
+/**
+ * Monte Carlo "plano": para cada lance candidato, joga partidas até o fim com a
+ * política de padrões ('PoliticaPadroes.playout') e escolhe o que mais venceu.
+ *
+ * Os playouts se revezam entre os candidatos até 'playouts' no total ou até o
+ * orçamento de tempo do lance: uma fração do relógio que resta, dividida pelos
+ * lances que ainda devem vir. O relógio do 'Jogo' é quem manda: passar do tempo
+ * perde a partida, então o orçamento é conservador.
+ */
+public class JogadorMonteCarlo implements Jogador {
+
+    // Lances que ainda devem vir, no mínimo (para dividir o relógio).
+    private static final int LANCES_MINIMOS = 20;
+    // Olha o relógio a cada tantos playouts.
+    private static final int PLAYOUTS_POR_CONSULTA = 16;
+    // Abaixo disto (chance de vencer com o melhor lance), passa: se o oponente também
+    // passar, a contagem encerra a partida em vez de jogar lances sem sentido até o fim.
+    private static final double PASSAR_ABAIXO = 0.05;
+
+    private final int playouts;
+    private SplittableRandom rnd = new SplittableRandom();
+    private double komi;
+    private int[] candidatos = new int[0];
+    private int[] vitorias = new int[0], visitas = new int[0];
+
+    public JogadorMonteCarlo(int playouts) {
+        this.playouts = playouts;
+    }
+
+    @Override public String getNome() { return "mc:" + playouts; }
+
+    @Override public void iniciarPartida(int tamanho, double komi, long semente) {
+        this.rnd = new SplittableRandom(semente);
+        this.komi = komi;
+        int n = tamanho * tamanho;
+        candidatos = new int[n];
+        vitorias = new int[n];
+        visitas = new int[n];
+    }
+
+    @Override public int[] escolherLance(Tabuleiro t, int cor, int pontoKo, long tempoRestanteMs) {
+        long inicio = System.nanoTime();
+        int tam = t.getTamanho();
+        int oponente = (cor == Tabuleiro.PRETO) ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+
+        // Candidatos: vazios legais que não são olho próprio nem o ponto de Ko.
+        // (Copiados antes: jogar e desfazer muda a ordem da lista de vazios.)
+        int n = t.getNumVazios(), k = 0;
+        for (int i = 0; i < n; i++) candidatos[i] = t.getVazio(i);
+        for (int i = 0; i < n; i++) {
+            int p = candidatos[i];
+            if (p == pontoKo || Padroes3x3.donoOlho(t.getPadrao3x3(p)) == cor) continue;
+            if (t.jogarBusca(p / tam, p % tam, cor) < 0) continue;
+            t.desfazerBusca();
+            candidatos[k] = p;
+            vitorias[k] = visitas[k] = 0;
+            k++;
+        }
+        if (k == 0) return null;
+
+        long orcamentoNanos = tempoRestanteMs * 1_000_000L / Math.max(LANCES_MINIMOS, t.getNumVazios() / 2);
+        for (int i = 0; i < playouts; i++) {
+            if (i % PLAYOUTS_POR_CONSULTA == 0 && i > 0 && System.nanoTime() - inicio > orcamentoNanos) break;
+            int c = i % k;
+            int p = candidatos[c];
+            t.jogarBusca(p / tam, p % tam, cor);
+            int placar = PoliticaPadroes.playout(t, oponente, rnd);
+            t.desfazerBusca();
+            boolean pretasVencem = placar > komi;
+            if (pretasVencem == (cor == Tabuleiro.PRETO)) vitorias[c]++;
+            visitas[c]++;
+        }
+
+        int melhor = -1;
+        double melhorTaxa = -1;
+        for (int c = 0; c < k; c++) {
+            if (visitas[c] == 0) continue;
+            double taxa = (double) vitorias[c] / visitas[c];
+            if (taxa > melhorTaxa) { melhorTaxa = taxa; melhor = c; }
+        }
+        if (melhor < 0) melhor = 0; // Sem tempo nem para um playout: o primeiro legal.
+        if (melhorTaxa >= 0 && melhorTaxa < PASSAR_ABAIXO && visitas[melhor] >= 10) return null;
+        return new int[]{candidatos[melhor] / tam, candidatos[melhor] % tam};
+    }
+}
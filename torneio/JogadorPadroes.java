@@ -0,0 +1,36 @@
+package torneio;
+
+import java.util.SplittableRandom;
+
+import modelo.PoliticaPadroes;
+import modelo.Tabuleiro;
+
+/**
+ * Joga um lance da política de playout ('PoliticaPadroes'): um sorteio pelos
+ * pesos dos padrões 3x3, sem nenhuma leitura. Mede o quanto os padrões valem sozinhos.
+ */
+public class JogadorPadroes implements Jogador {
+
+    // Sorteios antes de desistir e passar (ilegais ou no ponto de Ko).
+    private static final int TENTATIVAS = 16;
+
+    private SplittableRandom rnd = new SplittableRandom();
+
+    @Override public String getNome() { return "padroes"; }
+
+    @Override public void iniciarPartida(int tamanho, double komi, long semente) {
+        rnd = new SplittableRandom(semente);
+    }
+
+    @Override public int[] escolherLance(Tabuleiro t, int cor, int pontoKo, long tempoRestanteMs) {
+        int tam = t.getTamanho();
+        for (int i = 0; i < TENTATIVAS; i++) {
+            int p = PoliticaPadroes.escolher(t, cor, rnd);
+            if (p < 0) return null;
+            if (p == pontoKo || t.jogarBusca(p / tam, p % tam, cor) < 0) continue;
+            t.desfazerBusca();
+            return new int[]{p / tam, p % tam};
+        }
+        return null;
+    }
+}
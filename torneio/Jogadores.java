@@ -0,0 +1,52 @@
+package torneio;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+import persistencia.LivroAberturas;
+
+/**
+ * Cria jogadores a partir de uma descrição de texto (a linha de comando do 'Torneio'):
+ *   aleatorio                 - 'JogadorAleatorio'
+ *   padroes                   - 'JogadorPadroes'
+ *   mc:N                      - 'JogadorMonteCarlo' com até N playouts por lance
+ *   livro:arquivo.gob:OUTRO   - 'JogadorLivro' na frente de OUTRO (qualquer um acima)
+ *
+ * Para um novo tipo de jogador, basta implementar 'Jogador' e acrescentar um caso aqui.
+ */
+public final class Jogadores {
+
+    private Jogadores() {}
+
+    /**
+     * Uma fábrica: cada partida pede os seus jogadores novos a ela.
+     * O que é caro e só de leitura (ex: o livro mapeado) é aberto uma vez só, aqui.
+     * @throws IllegalArgumentException se a descrição não é de nenhum jogador conhecido.
+     */
+    public static Supplier<Jogador> fabrica(String descricao) {
+        if (descricao.equals("aleatorio")) return JogadorAleatorio::new;
+        if (descricao.equals("padroes")) return JogadorPadroes::new;
+        if (descricao.startsWith("mc:")) {
+            int playouts = Integer.parseInt(descricao.substring(3));
+            return () -> new JogadorMonteCarlo(playouts);
+        }
+        if (descricao.startsWith("livro:")) {
+            int fim = descricao.indexOf(':', 6);
+            if (fim < 0) throw new IllegalArgumentException("Uso: livro:arquivo.gob:jogador");
+            Path arquivo = Paths.get(descricao.substring(6, fim));
+            LivroAberturas livro;
+            try {
+                livro = LivroAberturas.abrir(arquivo);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            String nome = arquivo.getFileName().toString();
+            Supplier<Jogador> base = fabrica(descricao.substring(fim + 1));
+            return () -> new JogadorLivro(livro, nome, base.get());
+        }
+        throw new IllegalArgumentException("Jogador desconhecido: " + descricao);
+    }
+}
@@ -0,0 +1,316 @@
+package torneio;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import modelo.Jogo;
+import modelo.Lance;
+import modelo.Tabuleiro;
+import persistencia.ArquivoPartidas;
+import persistencia.GravadorArquivo;
+
+/**
+ * Torneio entre jogadores de máquina ('Jogador'), em paralelo.
+ *
+ * Cada partida é um 'Jogo' de verdade: as regras (Ko, suicídio) e os relógios são
+ * os do servidor. Um lance recusado vira passe; quem estoura o relógio perde (o
+ * 'Jogo' desconta o tempo de cada lance); uma exceção do jogador conta como
+ * desistência. Depois de dois passes (ou de 4*N*N lances, contra ciclos de Ko),
+ * a contagem é por área (Tromp-Taylor) com komi.
+ *
+ * Modos:
+ * - rodizio: todos contra todos;
+ * - desafio: o primeiro jogador contra cada um dos outros.
+ * Cada confronto tem --partidas partidas, alternando as cores.
+ *
+ * As partidas são divididas entre --threads threads (padrão: uma por núcleo);
+ * cada partida roda inteira numa thread, então os relógios medem tempo de CPU
+ * de verdade enquanto houver um núcleo por thread. No fim: tabela de confrontos
+ * com Elo e intervalo de 95%, ratings de todos (Bradley-Terry), partidas por
+ * hora e a ocupação dos núcleos. Com --saida, grava uma linha CSV por partida;
+ * com --arquivo, acrescenta as partidas a um arquivo .goa (ex: para o livro de aberturas).
+ *
+ * Uso:
+ *   java -cp bin torneio.Torneio --jogadores aleatorio,padroes,mc:500 --modo rodizio
+ *        --partidas 20 --tamanho 9 --tempo 60 --komi 7.5 --saida resultados.csv
+ */
+public class Torneio {
+
+    // Uma partida a jogar: quem é quem e a semente.
+    private static final class Partida {
+        final int id, pretas, brancas;
+        Partida(int id, int pretas, int brancas) { this.id = id; this.pretas = pretas; this.brancas = brancas; }
+    }
+
+    // O resultado de uma partida.
+    private static final class Resultado {
+        final Partida partida;
+        int vencedor;        // PRETO ou BRANCO.
+        String motivo;       // "pontos", "tempo", "desistencia" ou "limite".
+        int lances;
+        double placar;       // Pretas - brancas - komi (NaN se não houve contagem).
+        int recusadosPretas, recusadosBrancas;
+        long cpuNanos;
+        long duracaoMs;
+        List<Lance> historico;
+        Resultado(Partida partida) { this.partida = partida; }
+    }
+
+    private final String[] nomes;
+    private final List<Supplier<Jogador>> fabricas;
+    private final int tamanho;
+    private final long tempoMs;
+    private final double komi;
+    private final long semente;
+
+    public Torneio(String[] nomes, List<Supplier<Jogador>> fabricas, int tamanho, long tempoMs, double komi, long semente) {
+        this.nomes = nomes;
+        this.fabricas = fabricas;
+        this.tamanho = tamanho;
+        this.tempoMs = tempoMs;
+        this.komi = komi;
+        this.semente = semente;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] descricoes = valorOpcao(args, "--jogadores", "aleatorio,padroes").split(",");
+        String modo = valorOpcao(args, "--modo", "rodizio");
+        int porConfronto = Integer.parseInt(valorOpcao(args, "--partidas", "10"));
+        int tamanho = Integer.parseInt(valorOpcao(args, "--tamanho", "9"));
+        long tempoMs = (long) (Double.parseDouble(valorOpcao(args, "--tempo", "60")) * 1000);
+        double komi = Double.parseDouble(valorOpcao(args, "--komi", "7.5"));
+        int threads = Integer.parseInt(valorOpcao(args, "--threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long semente = Long.parseLong(valorOpcao(args, "--semente", "1"));
+        String saida = valorOpcao(args, "--saida", null);
+        String arquivo = valorOpcao(args, "--arquivo", null);
+        if (descricoes.length < 2) throw new IllegalArgumentException("O torneio precisa de pelo menos 2 jogadores");
+
+        List<Supplier<Jogador>> fabricas = new ArrayList<>();
+        for (String d : descricoes) fabricas.add(Jogadores.fabrica(d.trim()));
+        Torneio torneio = new Torneio(descricoes, fabricas, tamanho, tempoMs, komi, semente);
+
+        // Os confrontos; as partidas de cada um se intercalam com as dos outros, para um
+        // resultado parcial (ou interrompido) já cobrir todos os confrontos por igual.
+        List<int[]> confrontos = new ArrayList<>();
+        for (int i = 0; i < descricoes.length; i++) {
+            for (int j = i + 1; j < descricoes.length; j++) {
+                if (modo.equals("desafio") && i != 0) continue;
+                confrontos.add(new int[]{i, j});
+            }
+        }
+        if (!modo.equals("rodizio") && !modo.equals("desafio")) throw new IllegalArgumentException("Modo desconhecido: " + modo);
+        List<Partida> partidas = new ArrayList<>();
+        for (int k = 0; k < porConfronto; k++)
+            for (int[] c : confrontos)
+                partidas.add(new Partida(partidas.size() + 1, k % 2 == 0 ? c[0] : c[1], k % 2 == 0 ? c[1] : c[0]));
+
+        System.out.printf(Locale.ROOT, "Torneio (%s): %d jogadores, %d partidas %dx%d, %.0f s por jogador, komi %.1f, %d threads%n",
+                modo, descricoes.length, partidas.size(), tamanho, tamanho, tempoMs / 1000.0, komi, threads);
+        GravadorArquivo gravador = arquivo != null ? GravadorArquivo.abrir(Paths.get(arquivo)) : null;
+        try {
+            List<Resultado> resultados = torneio.jogar(partidas, threads, gravador);
+            torneio.relatorio(resultados);
+            if (saida != null) torneio.gravarCsv(resultados, saida);
+        } finally {
+            if (gravador != null) gravador.close();
+        }
+        System.exit(0);
+    }
+
+    // ---- Execução ----
+
+    private List<Resultado> jogar(List<Partida> partidas, int threads, GravadorArquivo gravador) throws Exception {
+        AtomicInteger numero = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Torneio-" + numero.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<Resultado> concluidas = new ExecutorCompletionService<>(pool);
+        for (Partida p : partidas) concluidas.submit(() -> jogar(p));
+
+        List<Resultado> resultados = new ArrayList<>();
+        long inicio = System.nanoTime(), ultimoAviso = inicio, cpuTotal = 0;
+        while (resultados.size() < partidas.size()) {
+            Future<Resultado> f = concluidas.poll(1, TimeUnit.SECONDS);
+            long agora = System.nanoTime();
+            if (f != null) {
+                Resultado r = f.get();
+                resultados.add(r);
+                cpuTotal += r.cpuNanos;
+                if (gravador != null) gravador.acrescentar(tamanho, resultadoArquivo(r), ArquivoPartidas.codificar(r.historico));
+                r.historico = null; // Não precisa mais: o torneio pode ter milhares de partidas.
+            }
+            if (agora - ultimoAviso >= 10_000_000_000L || resultados.size() == partidas.size()) {
+                ultimoAviso = agora;
+                double segundos = (agora - inicio) / 1e9;
+                System.out.printf(Locale.ROOT, "  %d/%d partidas, %.0f partidas/hora, núcleos ocupados %.0f%%%n",
+                        resultados.size(), partidas.size(), resultados.size() * 3600 / segundos,
+                        100 * cpuTotal / 1e9 / (segundos * threads));
+            }
+        }
+        pool.shutdown();
+        return resultados;
+    }
+
+    // Uma partida inteira, na thread de quem a chamou.
+    private Resultado jogar(Partida p) {
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        long cpu0 = mx.isCurrentThreadCpuTimeSupported() ? mx.getCurrentThreadCpuTime() : 0;
+        long t0 = System.currentTimeMillis();
+        Resultado r = new Resultado(p);
+
+        Jogador pretas = fabricas.get(p.pretas).get(), brancas = fabricas.get(p.brancas).get();
+        pretas.iniciarPartida(tamanho, komi, semente * 1_000_003L + 2L * p.id);
+        brancas.iniciarPartida(tamanho, komi, semente * 1_000_003L + 2L * p.id + 1);
+        Jogo jogo = new Jogo(tamanho, tempoMs, p.id); // O relógio das pretas começa agora.
+        jogo.setMedido(false); // As métricas do JMX são do servidor, não do torneio.
+        int limite = 4 * tamanho * tamanho;
+        while (!jogo.isGameOver() && r.lances < limite) {
+            int cor = jogo.getJogadorAtual();
+            Jogador j = cor == Tabuleiro.PRETO ? pretas : brancas;
+            long restante = (cor == Tabuleiro.PRETO ? jogo.getTempoPretasRestanteMs() : jogo.getTempoBrancasRestanteMs())
+                    - (System.currentTimeMillis() - jogo.getTurnoIniciadoEmMs());
+            int[] lance;
+            try {
+                lance = j.escolherLance(jogo.getTabuleiro().copiar(), cor, pontoKo(jogo), Math.max(0, restante));
+            } catch (RuntimeException e) {
+                System.err.println("Partida " + p.id + ": " + j.getNome() + " falhou (" + e + "); conta como desistência.");
+                jogo.desistir(cor);
+                break;
+            }
+            if (lance == null) {
+                jogo.passar(cor);
+            } else if (!jogo.fazerJogada(lance[0], lance[1], cor) && !jogo.isGameOver()) {
+                if (cor == Tabuleiro.PRETO) r.recusadosPretas++;
+                else r.recusadosBrancas++;
+                jogo.passar(cor);
+            }
+            r.lances++;
+        }
+
+        List<Lance> historico = jogo.getHistorico();
+        Lance fim = historico.isEmpty() ? null : historico.get(historico.size() - 1);
+        if (fim != null && (fim.tipo == Lance.TEMPO_ESGOTADO || fim.tipo == Lance.DESISTENCIA)) {
+            r.motivo = fim.tipo == Lance.TEMPO_ESGOTADO ? "tempo" : "desistencia";
+            r.vencedor = fim.cor == Tabuleiro.PRETO ? Tabuleiro.BRANCO : Tabuleiro.PRETO;
+            r.placar = Double.NaN;
+        } else {
+            r.motivo = jogo.isGameOver() ? "pontos" : "limite";
+            r.placar = jogo.getTabuleiro().pontuarArea() - komi;
+            r.vencedor = r.placar > 0 ? Tabuleiro.PRETO : Tabuleiro.BRANCO;
+        }
+        r.historico = historico;
+        r.duracaoMs = System.currentTimeMillis() - t0;
+        r.cpuNanos = mx.isCurrentThreadCpuTimeSupported() ? mx.getCurrentThreadCpuTime() - cpu0 : 0;
+        return r;
+    }
+
+    // O ponto proibido pelo Ko: o último lance capturou uma pedra só e ficou sozinho em atari.
+    private static int pontoKo(Jogo jogo) {
+        List<int[]> capturas = jogo.getUltimasCapturas();
+        int x = jogo.getLastX(), y = jogo.getLastY();
+        if (capturas == null || capturas.size() != 1 || x < 0) return -1;
+        Tabuleiro t = jogo.getTabuleiro();
+        int[] pedras = new int[2];
+        if (t.pedras(x, y, pedras) != 1 || t.contarLiberdades(x, y, 2) != 1) return -1;
+        return capturas.get(0)[0] * t.getTamanho() + capturas.get(0)[1];
+    }
+
+    private static int resultadoArquivo(Resultado r) {
+        return r.vencedor == Tabuleiro.PRETO ? ArquivoPartidas.VITORIA_PRETAS : ArquivoPartidas.VITORIA_BRANCAS;
+    }
+
+    // ---- Relatório ----
+
+    private void relatorio(List<Resultado> resultados) {
+        int n = nomes.length;
+        double[][] pontos = new double[n][n];
+        int[][] jogadas = new int[n][n];
+        int[] porTempo = new int[n], recusados = new int[n];
+        long cpu = 0, duracao = 0;
+        int vitoriasPretas = 0;
+        for (Resultado r : resultados) {
+            int venc = r.vencedor == Tabuleiro.PRETO ? r.partida.pretas : r.partida.brancas;
+            int perd = r.vencedor == Tabuleiro.PRETO ? r.partida.brancas : r.partida.pretas;
+            pontos[venc][perd] += 1;
+            jogadas[venc][perd]++;
+            jogadas[perd][venc]++;
+            if (r.motivo.equals("tempo")) porTempo[perd]++;
+            recusados[r.partida.pretas] += r.recusadosPretas;
+            recusados[r.partida.brancas] += r.recusadosBrancas;
+            if (r.vencedor == Tabuleiro.PRETO) vitoriasPretas++;
+            cpu += r.cpuNanos;
+            duracao += r.duracaoMs;
+        }
+
+        System.out.println();
+        System.out.println("Confronto                                  placar    pontos    Elo   [95%]");
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (jogadas[i][j] == 0) continue;
+                int v = (int) pontos[i][j], d = (int) pontos[j][i];
+                double[] e = Elo.confronto(v, 0, d);
+                System.out.printf(Locale.ROOT, "%-20s x %-20s %4d-%-4d %6.1f%%  %s  [%s, %s]%n", nomes[i], nomes[j], v, d,
+                        100.0 * v / jogadas[i][j], elo(e[0]), elo(e[1]), elo(e[2]));
+            }
+        }
+
+        double[][] ratings = Elo.ratings(pontos, jogadas);
+        Integer[] ordem = new Integer[n];
+        for (int i = 0; i < n; i++) ordem[i] = i;
+        Arrays.sort(ordem, (a, b) -> Double.compare(ratings[0][b], ratings[0][a]));
+        System.out.println();
+        System.out.println("Jogador                 Elo    ±95%  partidas  vitórias  perdeu no tempo  recusados");
+        for (int i : ordem) {
+            int partidas = 0, vitorias = 0;
+            for (int j = 0; j < n; j++) { partidas += jogadas[i][j]; vitorias += (int) pontos[i][j]; }
+            System.out.printf(Locale.ROOT, "%-20s %6.0f  %6.0f  %8d  %8d  %15d  %9d%n", nomes[i], ratings[0][i],
+                    Elo.intervalo95(ratings[1][i]), partidas, vitorias, porTempo[i], recusados[i]);
+        }
+        System.out.printf(Locale.ROOT, "%nVitórias das pretas: %.1f%% | Tempo médio por partida: %.1f s | CPU por partida: %.1f s%n",
+                100.0 * vitoriasPretas / Math.max(1, resultados.size()), duracao / 1000.0 / Math.max(1, resultados.size()),
+                cpu / 1e9 / Math.max(1, resultados.size()));
+    }
+
+    private static String elo(double v) {
+        if (Double.isInfinite(v)) return v > 0 ? "   +inf" : "   -inf";
+        return String.format(Locale.ROOT, "%+7.0f", v);
+    }
+
+    private void gravarCsv(List<Resultado> resultados, String caminho) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(caminho), StandardCharsets.UTF_8))) {
+            out.println("partida,pretas,brancas,vencedor,motivo,lances,placar,recusados_pretas,recusados_brancas,duracao_ms,cpu_ms");
+            for (Resultado r : resultados) {
+                out.printf(Locale.ROOT, "%d,%s,%s,%s,%s,%d,%s,%d,%d,%d,%d%n", r.partida.id, nomes[r.partida.pretas],
+                        nomes[r.partida.brancas], r.vencedor == Tabuleiro.PRETO ? "pretas" : "brancas", r.motivo, r.lances,
+                        Double.isNaN(r.placar) ? "" : String.format(Locale.ROOT, "%.1f", r.placar), r.recusadosPretas, r.recusadosBrancas,
+                        r.duracaoMs, r.cpuNanos / 1_000_000);
+            }
+        }
+        System.out.println("Resultados gravados em " + caminho);
+    }
+
+    // Valor da opção "--nome <valor>", ou 'padrao' se ela não foi passada.
+    private static String valorOpcao(String[] args, String nome, String padrao) {
+        int i = Arrays.asList(args).indexOf(nome);
+        return i >= 0 && i + 1 < args.length ? args[i + 1] : padrao;
+    }
+}
@@ -0,0 +1,81 @@
+package visao;
+
+import javax.swing.Timer;
+import java.awt.DisplayMode;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relógio único de todas as animações da interface.
+ *
+ * Um só 'javax.swing.Timer' (na EDT), que bate na frequência da tela (60 Hz,
+ * 120 Hz...), avança todas as animações ativas de uma vez e pede a cada uma
+ * que redesenhe só a sua área. Quando não há nenhuma animação, o timer para:
+ * parado, não gasta nada de CPU.
+ *
+ * Tudo aqui deve ser chamado na EDT.
+ */
+public final class AgendadorAnimacoes {
+
+    /**
+     * Uma animação com duração fixa. O progresso é calculado pelo relógio (e não
+     * contando quadros), então a animação dura o mesmo se algum quadro atrasar.
+     */
+    public abstract static class Animacao {
+        private final long inicioMs = System.currentTimeMillis();
+        private final long duracaoMs;
+
+        protected Animacao(long duracaoMs) { this.duracaoMs = Math.max(1, duracaoMs); }
+
+        /** De 0 (começo) a 1 (fim). */
+        public float progresso(long agoraMs) {
+            return Math.min(1f, Math.max(0f, (agoraMs - inicioMs) / (float) duracaoMs));
+        }
+        public boolean terminou(long agoraMs) { return agoraMs - inicioMs >= duracaoMs; }
+
+        /** Pede o 'repaint' só da área que a animação ocupa. */
+        protected abstract void repintar();
+    }
+
+    private static final List<Animacao> ativas = new ArrayList<>();
+    private static Timer timer;
+
+    private AgendadorAnimacoes() { }
+
+    /** Começa uma animação (e liga o timer, se estava parado). */
+    public static void agendar(Animacao a) {
+        ativas.add(a);
+        a.repintar();
+        if (timer == null) {
+            timer = new Timer(1000 / frequenciaTela(), e -> quadro());
+            timer.setCoalesce(true); // Se a EDT atrasar, junta os quadros em vez de enfileirar.
+        }
+        if (!timer.isRunning()) timer.start();
+    }
+
+    // Um quadro: cada animação redesenha a sua área; as que terminaram redesenham
+    // uma última vez (para sumir da tela) e saem da lista.
+    private static void quadro() {
+        long agora = System.currentTimeMillis();
+        for (int i = ativas.size() - 1; i >= 0; i--) {
+            Animacao a = ativas.get(i);
+            a.repintar();
+            if (a.terminou(agora)) ativas.remove(i);
+        }
+        if (ativas.isEmpty()) timer.stop();
+    }
+
+    // A maior taxa de atualização entre as telas; 60 Hz se não der para saber.
+    private static int frequenciaTela() {
+        int hz = 0;
+        if (!GraphicsEnvironment.isHeadless()) {
+            for (GraphicsDevice d : GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices()) {
+                DisplayMode m = d.getDisplayMode();
+                if (m != null && m.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN) hz = Math.max(hz, m.getRefreshRate());
+            }
+        }
+        return hz > 0 ? Math.min(hz, 240) : 60;
+    }
+}
@@ -0,0 +1,85 @@
+package visao;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.swing.SwingUtilities;
+
+import modelo.Influencia;
+import modelo.Tabuleiro;
+
+/**
+ * Calcula o mapa de influência ('modelo.Influencia') fora da EDT, para a
+ * camada de "território" do PainelTabuleiro.
+ *
+ * - Os mapas ficam num cache LRU pelo hash de Zobrist da posição: voltar a
+ *   uma posição já vista (ex: na revisão) é instantâneo.
+ * - Só existe um cálculo por vez. Quando chega uma posição nova, o cálculo
+ *   anterior é cancelado: o resultado dele já não serviria.
+ * - O resultado volta para a EDT e só é entregue se ainda for a posição atual,
+ *   então a camada nunca mostra o mapa de uma posição antiga.
+ *
+ * Os métodos públicos devem ser chamados na EDT.
+ */
+public class CalculoInfluencia {
+
+    private static final int MAX_CACHE = 256;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "CalculoInfluencia");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY); // Não disputa CPU com a interface.
+        return t;
+    });
+    private final Map<Long, float[]> cache = new LinkedHashMap<Long, float[]>(64, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<Long, float[]> e) { return size() > MAX_CACHE; }
+    };
+    private final Runnable aoConcluir;
+
+    private Future<?> calculo;
+    private long hashPedido;
+
+    /** 'aoConcluir' roda na EDT quando o mapa da posição pedida fica pronto. */
+    public CalculoInfluencia(Runnable aoConcluir) {
+        this.aoConcluir = aoConcluir;
+    }
+
+    /**
+     * Devolve o mapa da posição, se já estiver no cache. Senão, devolve null,
+     * cancela o cálculo em andamento (se for de outra posição) e começa um novo.
+     */
+    public float[] mapaPara(Tabuleiro t) {
+        long hash = t.getHashZobrist();
+        float[] pronto = cache.get(hash);
+        if (pronto != null) { cancelar(); return pronto; }
+        if (calculo != null && !calculo.isDone() && hashPedido == hash) return null; // Já está calculando esta.
+
+        cancelar();
+        hashPedido = hash;
+        Tabuleiro copia = t.copiar(); // O tabuleiro exibido pode mudar durante o cálculo.
+        calculo = executor.submit(() -> {
+            float[] mapa;
+            try {
+                mapa = Influencia.calcular(copia, () -> Thread.currentThread().isInterrupted());
+            } catch (CancellationException e) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                cache.put(hash, mapa);
+                if (hashPedido == hash) aoConcluir.run();
+            });
+        });
+        return null;
+    }
+
+    /** Cancela o cálculo em andamento (se houver). */
+    public void cancelar() {
+        if (calculo != null) {
+            calculo.cancel(true);
+            calculo = null;
+        }
+    }
+}
@@ -1,47 +1,115 @@
 package visao;
 
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.rmi.RemoteException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.swing.*;
 
+import modelo.ArvoreVariacoes;
 import modelo.EstadoJogo;
+import modelo.Lance;
+import modelo.Replay;
 import modelo.Tabuleiro;
-import rede.InterfaceJogoRemoto;
+import persistencia.LivroAberturas;
+import persistencia.Sgf;
+import rede.ConexaoJogo;
+import rede.SessaoInvalidaException;
 
 public class JanelaJogo extends JFrame {
+
+    // Limites da espera entre tentativas de reconexão (backoff exponencial).
+    private static final int RECONEXAO_ESPERA_INICIAL_MS = 250;
+    private static final int RECONEXAO_ESPERA_MAXIMA_MS = 8_000;
+    // Depois deste tempo sem conseguir voltar, desiste e avisa o usuário.
+    private static final long RECONEXAO_LIMITE_MS = 2 * 60_000L;
     
-    private final InterfaceJogoRemoto jogoRemoto;
+    private final ConexaoJogo conexao;
     
     private final PainelTabuleiro painelTabuleiro;
     
     private final PainelStatus painelStatus;
     
     private final Timer timer;
+
+    // Todas as chamadas RMI rodam nesta thread, nunca na EDT: uma rede lenta
+    // atrasa a resposta, mas a janela continua desenhando e respondendo.
+    // (Uma só thread: as ordens chegam ao servidor na ordem em que foram dadas.)
+    private final ExecutorService rede = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "JanelaJogo-rede");
+        t.setDaemon(true);
+        return t;
+    });
+    // true enquanto há uma atualização na fila que ainda não começou:
+    // pedidos repetidos nesse meio tempo viram uma só chamada ao servidor.
+    private final AtomicBoolean atualizacaoPendente = new AtomicBoolean();
+    // Última "foto" publicada na EDT (com o tabuleiro congelado).
+    private volatile EstadoJogo estadoExibido;
+
+    // Uma chamada ao servidor, feita fora da EDT.
+    private interface AcaoRemota { void executar() throws Exception; }
     
     private boolean gameOverDialogShown = false;
 
+    // Estado da reconexão: timer da próxima tentativa, espera atual e quando a queda começou.
+    private Timer timerReconexao;
+    private int esperaReconexaoMs = RECONEXAO_ESPERA_INICIAL_MS;
+    private long quedaIniciadaEmMs;
+
+    // Modo revisão: enquanto 'replay' != null, o tabuleiro mostra a partida
+    // na posição escolhida no 'sliderRevisao', e não o jogo ao vivo.
+    private Replay replay;
+    private List<Lance> historicoRevisao;
+    // Modo análise (dentro da revisão): um clique no tabuleiro joga uma variação a partir
+    // do lance exibido; as setas andam pela árvore. Mexer no slider volta para a partida.
+    private ArvoreVariacoes analise;
+    private final JLabel rotuloAnalise = new JLabel(" ", SwingConstants.CENTER);
+    private final JSlider sliderRevisao = new JSlider(0, 0, 0);
+    private JButton btnRevisar;
+    // Tamanho preferido da janela no último 'pack()'.
+    private Dimension tamanhoEmpacotado;
+    // Versão do último estado visto; o flash de captura só roda uma vez por lance.
+    private long versaoAnimada = -1;
+    // Painel de diagnóstico (RTT, bytes, tempo de pintura, quadros/s), ligado com F3.
+    private final PainelDiagnostico diagnostico;
+    // Livro de aberturas (opcional): o botão "Dica" só aparece com ele.
+    private LivroAberturas livro;
+    private JButton btnDica;
+
     // Este é o Construtor. É o "dia da construção" da janela.
     // Ele roda SÓ UMA VEZ, no início, para montar tudo.
-    public JanelaJogo(InterfaceJogoRemoto jogoRemoto, boolean isServidor) {
+    public JanelaJogo(ConexaoJogo conexao, boolean isServidor) {
         // Define o título da janela (Ex: "Go - Você: PRETO").
         super(isServidor ? "Go — Você: PRETO (Servidor)" : "Go — Você: BRANCO (Cliente)");
         
-        // Guarda o "telefone" RMI para ser usado por todos os métodos.
-        this.jogoRemoto = jogoRemoto;
+        // Guarda a conexão (o "telefone" RMI + sessão) para ser usada por todos os métodos.
+        this.conexao = conexao;
 
         // Pede o estado INICIAL do jogo ao servidor.
         // Isso é crucial para o tabuleiro não começar vazio se o cliente se conectar
         // no meio de um jogo.
+        // (Esta é a única chamada bloqueante: a janela ainda nem existe.)
         EstadoJogo estadoInicial;
         try {
-            estadoInicial = jogoRemoto.getEstadoJogo();
-        } catch (RemoteException e) {
+            estadoInicial = conexao.sincronizar();
+        } catch (RemoteException | SessaoInvalidaException e) {
             // Se não conseguir nem pegar o estado inicial, o jogo não pode abrir.
             throw new RuntimeException(e);
         }
+        estadoInicial = estadoInicial.comTabuleiro(estadoInicial.getTabuleiro().congelar());
+        estadoExibido = estadoInicial;
 
         // Cria os 3 componentes visuais principais da janela.
         this.painelTabuleiro = new PainelTabuleiro(estadoInicial.getTabuleiro());
@@ -56,6 +124,26 @@ public class JanelaJogo extends JFrame {
         // Chama a função "buildSidebar" para construir o painel de botões.
         add(buildSidebar(isServidor), BorderLayout.EAST);
 
+        // Diagnóstico: fica numa camada acima do conteúdo, no canto de cima da barra lateral.
+        diagnostico = new PainelDiagnostico(conexao, painelTabuleiro.getMedidorPintura(), painelStatus.getMedidorPintura());
+        getLayeredPane().add(diagnostico, JLayeredPane.PALETTE_LAYER);
+        getLayeredPane().addComponentListener(new ComponentAdapter() {
+            @Override public void componentResized(ComponentEvent e) { diagnostico.posicionar(getLayeredPane().getSize()); }
+        });
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW)
+                .put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "diagnostico");
+        getRootPane().getActionMap().put("diagnostico", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) {
+                diagnostico.posicionar(getLayeredPane().getSize());
+                diagnostico.setAtivo(!diagnostico.isAtivo());
+            }
+        });
+        // Na revisão: <- e -> voltam/avançam um lance; na análise, ↑ e ↓ trocam de variação.
+        ligarTecla(KeyEvent.VK_LEFT, "revisaoVoltar", () -> navegarRevisao(-1));
+        ligarTecla(KeyEvent.VK_RIGHT, "revisaoAvancar", () -> navegarRevisao(+1));
+        ligarTecla(KeyEvent.VK_UP, "variacaoAnterior", () -> trocarVariacao(-1));
+        ligarTecla(KeyEvent.VK_DOWN, "variacaoSeguinte", () -> trocarVariacao(+1));
+
         // ===== FLUXO DE AÇÃO (O Clique do Jogador) =====
         // "Instala a campainha" (o MouseListener) no tabuleiro.
         // Este código só roda QUANDO o usuário clicar no tabuleiro.
@@ -67,54 +155,49 @@ public class JanelaJogo extends JFrame {
                 int x = xy[0], y = xy[1];
                 // Se o clique foi fora da grade (retornou -1), ignora.
                 if (x < 0 || y < 0) return;
+                // Na revisão, o clique joga uma variação (modo análise), sem ir ao servidor.
+                if (replay != null) { jogarAnalise(x, y); return; }
 
-                try {
-                    // 2. Descobre quem EU sou (PRETO ou BRANCO).
-                    int minhaCor = isServidor ? Tabuleiro.PRETO : Tabuleiro.BRANCO;
-                    
-                    // 3. Pega o estado do jogo ANTES de jogar, para validar.
-                    EstadoJogo est = jogoRemoto.getEstadoJogo();
-                    
-                    // 4. Validações: O jogo já acabou?
-                    if (est.isGameOver()) { maybeShowGameOverDialog(); return; }
-                    // É a minha vez de jogar?
-                    if (est.getJogadorAtual() != minhaCor) {
-                        JOptionPane.showMessageDialog(JanelaJogo.this, "Aguarde sua vez.");
-                        return;
-                    }
-                    
-                    // 5. **A CHAMADA DE REDE (AÇÃO)**
-                    // Tenta fazer a jogada. O servidor (Jogo.java) vai validar
-                    // as regras (Ko, Suicídio, etc.).
-                    boolean ok = jogoRemoto.fazerJogada(x, y, minhaCor);
+                // 2. Descobre quem EU sou (PRETO ou BRANCO): a cor da sessão.
+                int minhaCor = conexao.getCor();
+                
+                // 3. Validações, com a última "foto" recebida: O jogo já acabou?
+                EstadoJogo est = estadoExibido;
+                if (est.isGameOver()) { maybeShowGameOverDialog(); return; }
+                // É a minha vez de jogar?
+                if (est.getJogadorAtual() != minhaCor) {
+                    JOptionPane.showMessageDialog(JanelaJogo.this, "Aguarde sua vez.");
+                    return;
+                }
+                
+                // 4. **A CHAMADA DE REDE (AÇÃO)**, fora da EDT.
+                // Tenta fazer a jogada. O servidor (Jogo.java) vai validar
+                // as regras (Ko, Suicídio, etc.), e também a vez, de novo.
+                executarRemoto("Erro de rede.", () -> {
+                    boolean ok = conexao.fazerJogada(x, y); // (O servidor usa a cor da sessão: 'minhaCor'.)
                     
-                    // 6. Se o servidor disse que a jogada foi ilegal (retornou 'false')...
+                    // 5. Se o servidor disse que a jogada foi ilegal (retornou 'false')...
                     if (!ok) {
                         // ...pega a mensagem de erro que o servidor guardou...
-                        EstadoJogo eAtual = jogoRemoto.getEstadoJogo();
+                        EstadoJogo eAtual = conexao.sincronizar();
                         String msg = eAtual.getLastInfo() != null ? eAtual.getLastInfo() : "Jogada ilegal.";
-                        // ...e mostra na tela.
-                        JOptionPane.showMessageDialog(JanelaJogo.this, msg);
+                        // ...e mostra na tela (de volta na EDT).
+                        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(JanelaJogo.this, msg));
                     }
-                    
-                    // 7. Força uma atualização IMEDIATA da tela.
-                    // (Não espera pelo timer de 500ms, para a jogada parecer instantânea).
-                    atualizarTela();
-                } catch (RemoteException ex) {
-                    JOptionPane.showMessageDialog(JanelaJogo.this, "Erro de rede.");
-                }
+                });
             }
         });
 
         // Cria o "motor" que vai rodar a cada 500ms.
-        // (e -> atualizarTela()) é um atalho (lambda) para "execute 'atualizarTela()'".
-        timer = new Timer(500, e -> atualizarTela());
+        // (e -> pedirAtualizacao()) é um atalho (lambda) para "execute 'pedirAtualizacao()'".
+        timer = new Timer(500, e -> pedirAtualizacao());
         timer.start(); // Liga o motor.
 
         // Configurações finais da janela.
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // Fecha o programa no "X".
         setResizable(true); // Permite ao usuário redimensionar.
         pack(); // Ajusta o tamanho da janela automaticamente ao conteúdo.
+        tamanhoEmpacotado = getPreferredSize();
         setLocationRelativeTo(null); // Centraliza a janela na tela.
     }
 
@@ -145,17 +228,16 @@ public class JanelaJogo extends JFrame {
         JButton btnPassar = createSidebarButton("Passar (P)");
         JButton btnDesistir = createSidebarButton("Desistir (R)");
         JButton btnNovo = createSidebarButton("Novo Jogo");
+        JButton btnSalvar = createSidebarButton("Salvar SGF");
+        btnRevisar = createSidebarButton("Revisar");
+        JButton btnTerritorio = createSidebarButton("Mostrar território");
+        btnDica = createSidebarButton("Dica (H)");
+        btnDica.setVisible(false); // Até ter um livro ('setLivroAberturas').
 
         // "Instala a campainha" (Listener) no botão "Passar".
         btnPassar.addActionListener(a -> {
-            try {
-                int minhaCor = isServidor ? Tabuleiro.PRETO : Tabuleiro.BRANCO;
-                // Manda a ordem "passar" para o servidor.
-                jogoRemoto.passar(minhaCor);
-                atualizarTela(); // Atualiza a tela imediatamente.
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro de rede ao passar.");
-            }
+            // Manda a ordem "passar" para o servidor (com o token da sessão).
+            executarRemoto("Erro de rede ao passar.", () -> conexao.passar());
         });
         
         // "Instala a campainha" no botão "Desistir".
@@ -164,29 +246,43 @@ public class JanelaJogo extends JFrame {
             int conf = JOptionPane.showConfirmDialog(this, "Confirmar desistência?", "Desistir", JOptionPane.YES_NO_OPTION);
             if (conf != JOptionPane.YES_OPTION) return; // Se clicou "Não", cancela.
             
-            try {
-                int minhaCor = isServidor ? Tabuleiro.PRETO : Tabuleiro.BRANCO;
-                // Manda a ordem "desistir" para o servidor.
-                jogoRemoto.desistir(minhaCor);
-                atualizarTela(); // Atualiza a tela imediatamente.
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro de rede ao desistir.");
-            }
+            // Manda a ordem "desistir" para o servidor (com o token da sessão).
+            executarRemoto("Erro de rede ao desistir.", () -> conexao.desistir());
         });
         
         // "Instala a campainha" no botão "Novo Jogo".
         btnNovo.addActionListener(a -> {
-            try {
-                // Manda a ordem "reiniciar" para o servidor.
-                jogoRemoto.reiniciar();
-                // Reseta o controle do pop-up (para o jogo não travar).
-                gameOverDialogShown = false;
-                atualizarTela(); // Atualiza a tela imediatamente.
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Erro de rede ao reiniciar.");
-            }
+            // Reseta o controle do pop-up (para o jogo não travar).
+            gameOverDialogShown = false;
+            // Manda a ordem "reiniciar" para o servidor.
+            executarRemoto("Erro de rede ao reiniciar.", () -> conexao.reiniciar());
         });
 
+        // "Instala a campainha" no botão "Salvar SGF".
+        btnSalvar.addActionListener(a -> salvarSgf());
+
+        // "Território" liga/desliga a camada de influência (calculada em segundo plano).
+        btnTerritorio.addActionListener(a -> {
+            boolean mostrar = !painelTabuleiro.isMostrarInfluencia();
+            painelTabuleiro.setMostrarInfluencia(mostrar);
+            btnTerritorio.setText(mostrar ? "Ocultar território" : "Mostrar território");
+        });
+
+        // "Dica" mostra o lance mais jogado do livro na posição exibida.
+        btnDica.addActionListener(a -> mostrarDica());
+
+        // "Revisar" liga/desliga o modo revisão; o slider escolhe o lance exibido.
+        btnRevisar.addActionListener(a -> alternarRevisao());
+        sliderRevisao.setOpaque(false);
+        sliderRevisao.setVisible(false);
+        sliderRevisao.setAlignmentX(Component.CENTER_ALIGNMENT);
+        sliderRevisao.setFocusable(false); // As setas são da janela (ver 'navegarRevisao').
+        sliderRevisao.addChangeListener(e -> mostrarLanceRevisao(sliderRevisao.getValue()));
+        rotuloAnalise.setAlignmentX(Component.CENTER_ALIGNMENT);
+        rotuloAnalise.setFont(rotuloAnalise.getFont().deriveFont(11f));
+        rotuloAnalise.setForeground(new Color(40, 40, 40));
+        rotuloAnalise.setVisible(false);
+
         // Adiciona os componentes na barra (Titulo, Botões)
         // com espaçadores (Glue e Strut) para centralizá-los verticalmente.
         side.add(Box.createVerticalGlue()); // Espaço flexível em cima.
@@ -197,11 +293,209 @@ public class JanelaJogo extends JFrame {
         side.add(btnDesistir);
         side.add(Box.createVerticalStrut(10));
         side.add(btnNovo);
+        side.add(Box.createVerticalStrut(10));
+        side.add(btnSalvar);
+        side.add(Box.createVerticalStrut(10));
+        side.add(btnTerritorio);
+        side.add(Box.createVerticalStrut(10));
+        side.add(btnDica);
+        side.add(Box.createVerticalStrut(10));
+        side.add(btnRevisar);
+        side.add(Box.createVerticalStrut(6));
+        side.add(sliderRevisao);
+        side.add(rotuloAnalise);
         side.add(Box.createVerticalGlue()); // Espaço flexível embaixo.
 
         return side; // Retorna o painel lateral pronto.
     }
 
+    /**
+     * Roda uma chamada ao servidor na thread de rede e, em seguida, pede uma
+     * atualização da tela (para a ação aparecer sem esperar o timer de 500ms).
+     * Se der erro, a mensagem é mostrada na EDT.
+     */
+    private void executarRemoto(String mensagemErro, AcaoRemota acao){
+        rede.execute(() -> {
+            try {
+                acao.executar();
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, mensagemErro));
+            }
+        });
+        pedirAtualizacao();
+    }
+
+    /**
+     * Pede uma atualização da tela. A chamada de rede roda fora da EDT e o
+     * resultado é publicado na EDT (em 'atualizarTela'). Se já existe uma
+     * atualização esperando na fila, o pedido é descartado: ela vai trazer
+     * o estado mais novo de qualquer jeito.
+     */
+    private void pedirAtualizacao(){
+        if (!atualizacaoPendente.compareAndSet(false, true)) return;
+        rede.execute(() -> {
+            // Libera ANTES da chamada: um pedido feito durante a chamada
+            // (ex: logo depois de uma jogada) agenda mais uma.
+            atualizacaoPendente.set(false);
+            try {
+                EstadoJogo e = conexao.sincronizar();
+                // 'sincronizar' altera o tabuleiro espelho nesta thread; a EDT
+                // recebe uma versão congelada (sem jogada nova, a mesma de antes).
+                EstadoJogo publicado = e.comTabuleiro(e.getTabuleiro().congelar());
+                SwingUtilities.invokeLater(() -> atualizarTela(publicado));
+            } catch (RemoteException | SessaoInvalidaException ex) {
+                // Se a rede cair (ou a sessão for perdida) no meio do jogo, para o polling e tenta reconectar.
+                SwingUtilities.invokeLater(this::iniciarReconexao);
+            }
+        });
+    }
+
+    // Entra no modo revisão (busca o histórico e monta o Replay) ou volta ao jogo ao vivo.
+    private void alternarRevisao(){
+        if (replay != null) {
+            replay = null;
+            historicoRevisao = null;
+            analise = null;
+            sliderRevisao.setVisible(false);
+            rotuloAnalise.setVisible(false);
+            btnRevisar.setText("Revisar");
+            atualizarTela(estadoExibido);
+            pedirAtualizacao();
+            return;
+        }
+        int n = painelTabuleiro.getTabuleiro().getTamanho();
+        btnRevisar.setEnabled(false); // Enquanto o histórico não chega.
+        executarRemoto("Erro de rede ao buscar o histórico.", () -> {
+            try {
+                List<Lance> historico = conexao.getRemoto().getHistorico();
+                Replay r = new Replay(n, historico); // Monta os quadros-chave aqui, fora da EDT.
+                SwingUtilities.invokeLater(() -> entrarRevisao(r, historico));
+            } finally {
+                SwingUtilities.invokeLater(() -> btnRevisar.setEnabled(true));
+            }
+        });
+    }
+
+    private void entrarRevisao(Replay r, List<Lance> historico){
+        replay = r;
+        historicoRevisao = historico;
+        btnRevisar.setText("Voltar ao jogo");
+        sliderRevisao.setMaximum(replay.getTotalLances());
+        sliderRevisao.setValue(replay.getTotalLances());
+        sliderRevisao.setVisible(true);
+        mostrarLanceRevisao(replay.getTotalLances());
+        getContentPane().validate();
+    }
+
+    // Arrastar o slider só aplica/desfaz deltas (ou restaura um quadro-chave): é instantâneo.
+    private void mostrarLanceRevisao(int lance){
+        if (replay == null) return;
+        if (analise != null) {
+            // Sai da análise: o tabuleiro volta a mostrar a partida.
+            analise = null;
+            rotuloAnalise.setVisible(false);
+            painelTabuleiro.setTurnoAtual(estadoExibido.getJogadorAtual());
+        }
+        replay.irPara(lance);
+        int[] ult = replay.getUltimaJogada();
+        painelTabuleiro.setTabuleiro(replay.getTabuleiro());
+        painelTabuleiro.setUltimaJogada(ult[0], ult[1]);
+        sliderRevisao.setToolTipText("Lance " + replay.getLanceAtual() + " de " + replay.getTotalLances());
+    }
+
+    // O primeiro clique na revisão monta a árvore com a partida até o lance exibido;
+    // os seguintes só acrescentam (ou revisitam) lances nela.
+    private void jogarAnalise(int x, int y){
+        if (analise == null) {
+            analise = ArvoreVariacoes.daPartida(painelTabuleiro.getTabuleiro().getTamanho(),
+                    historicoRevisao, replay.getLanceAtual());
+            rotuloAnalise.setVisible(true);
+            getContentPane().validate();
+        }
+        if (!analise.jogar(x, y)) {
+            JOptionPane.showMessageDialog(this, analise.getUltimaInfo());
+            return;
+        }
+        mostrarAnalise();
+    }
+
+    // <- / ->: na análise, desfaz ou refaz um lance da árvore; senão, move o slider da revisão.
+    private void navegarRevisao(int passo){
+        if (replay == null) return;
+        if (analise == null) {
+            sliderRevisao.setValue(replay.getLanceAtual() + passo);
+            return;
+        }
+        boolean andou = passo < 0 ? analise.voltar() : analise.avancar();
+        if (andou) mostrarAnalise();
+    }
+
+    // ↑ / ↓: vai para a variação irmã (outra resposta ao mesmo lance).
+    private void trocarVariacao(int passo){
+        if (analise == null) return;
+        ArvoreVariacoes.No atual = analise.getCursor();
+        if (atual.getPai() == null) return;
+        List<ArvoreVariacoes.No> irmaos = atual.getPai().getFilhos();
+        int i = irmaos.indexOf(atual) + passo;
+        if (i < 0 || i >= irmaos.size()) return;
+        analise.irPara(irmaos.get(i));
+        mostrarAnalise();
+    }
+
+    private void mostrarAnalise(){
+        ArvoreVariacoes.No no = analise.getCursor();
+        painelTabuleiro.setTabuleiro(analise.getTabuleiro());
+        painelTabuleiro.setUltimaJogada(no.getX(), no.getY());
+        painelTabuleiro.setTurnoAtual(analise.getProximaCor());
+        int variacoes = no.getPai() != null ? no.getPai().getFilhos().size() : 1;
+        rotuloAnalise.setText("Análise: lance " + no.getProfundidade()
+                + (variacoes > 1 ? " (" + (no.getPai().getFilhos().indexOf(no) + 1) + "/" + variacoes + ")" : ""));
+    }
+
+    /** Liga a dica (botão e tecla H) com este livro de aberturas. */
+    public void setLivroAberturas(LivroAberturas livro){
+        this.livro = livro;
+        btnDica.setVisible(livro != null);
+        if (livro != null) ligarTecla(KeyEvent.VK_H, "dica", this::mostrarDica);
+    }
+
+    // A consulta ao livro é uma leitura na memória (O(1)): roda na própria EDT, sem busca.
+    // Na análise, a dica é para a posição da variação; fora dela (mesmo na revisão), para a partida ao vivo.
+    private void mostrarDica(){
+        if (livro == null) return;
+        Tabuleiro t = analise != null ? analise.getTabuleiro() : estadoExibido.getTabuleiro();
+        int cor = analise != null ? analise.getProximaCor() : estadoExibido.getJogadorAtual();
+        LivroAberturas.Sugestao s = livro.melhor(t, cor);
+        String msg = s == null ? "Esta posição não está no livro de aberturas."
+                : String.format("Livro: %s (%d partidas%s)", painelTabuleiro.coordText(s.x, s.y), s.vezes,
+                        Double.isNaN(s.taxaVitoria) ? "" : String.format(", %.0f%% de vitórias", 100 * s.taxaVitoria));
+        JOptionPane.showMessageDialog(this, msg, "Dica", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void ligarTecla(int tecla, String nome, Runnable acao){
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(tecla, 0), nome);
+        getRootPane().getActionMap().put(nome, new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { acao.run(); }
+        });
+    }
+
+    // Pede ao servidor os lances da partida e grava num arquivo .sgf escolhido pelo usuário.
+    private void salvarSgf(){
+        JFileChooser escolha = new JFileChooser();
+        escolha.setSelectedFile(new java.io.File("partida.sgf"));
+        if (escolha.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        java.io.File arquivo = escolha.getSelectedFile();
+        int n = painelTabuleiro.getTabuleiro().getTamanho();
+        // A busca do histórico (e a gravação) roda na thread de rede.
+        rede.execute(() -> {
+            try (Writer out = Files.newBufferedWriter(arquivo.toPath(), StandardCharsets.UTF_8)) {
+                Sgf.exportar(conexao.getRemoto().getHistorico(), n, out);
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, "Erro ao salvar: " + e.getMessage()));
+            }
+        });
+    }
+
     // Função de fábrica: Recebe um texto e constrói um botão
     // com todo o estilo "madeira" customizado.
     private JButton createSidebarButton(String text){
@@ -252,50 +546,103 @@ public class JanelaJogo extends JFrame {
     }
 
     // Este é o "coração" do FLUXO DE VISUALIZAÇÃO (Polling).
-    // É chamado a cada 500ms pelo Timer E também após cada ação (clique/botão).
-    private void atualizarTela() {
-        try {
-            // ** A CHAMADA DE REDE (VISUALIZAÇÃO) **
-            // Pede ao servidor a "foto" (snapshot) mais recente do jogo.
-            EstadoJogo estadoAtual = jogoRemoto.getEstadoJogo();
+    // Roda na EDT com a "foto" que a thread de rede trouxe ('pedirAtualizacao'),
+    // a cada 500ms (pelo Timer) E também após cada ação (clique/botão).
+    private void atualizarTela(EstadoJogo estadoAtual) {
+        estadoExibido = estadoAtual;
 
-            // Agora, atualiza todos os componentes visuais com os dados da "foto".
-            
-            // 1. Manda o PainelTabuleiro usar o novo tabuleiro vindo do servidor.
-            painelTabuleiro.setTabuleiro(estadoAtual.getTabuleiro());
-            // 2. Avisa o PainelTabuleiro de quem é a vez (para a sombra/preview).
-            painelTabuleiro.setTurnoAtual(estadoAtual.getJogadorAtual());
-            // 3. Avisa o PainelTabuleiro onde foi a última jogada (para a marcação).
-            painelTabuleiro.setUltimaJogada(estadoAtual.getLastX(), estadoAtual.getLastY());
-            
-            // 4. Se a "foto" disse que houveram capturas...
-            List<int[]> caps = estadoAtual.getUltimasCapturas();
-            if (caps != null && !caps.isEmpty()) {
-                // ...avisa o PainelTabuleiro para fazer a animação de "flash".
-                painelTabuleiro.flashCaptures(caps);
-            }
+        // Agora, atualiza todos os componentes visuais com os dados da "foto".
+        
+        // 1. Manda o PainelTabuleiro usar o novo tabuleiro vindo do servidor
+        // (a não ser que o usuário esteja revisando a partida).
+        if (replay == null) painelTabuleiro.setTabuleiro(estadoAtual.getTabuleiro());
+        // 2. Avisa o PainelTabuleiro de quem é a vez (para a sombra/preview).
+        if (analise == null) painelTabuleiro.setTurnoAtual(estadoAtual.getJogadorAtual());
+        // 3. Avisa o PainelTabuleiro onde foi a última jogada (para a marcação).
+        if (replay == null) painelTabuleiro.setUltimaJogada(estadoAtual.getLastX(), estadoAtual.getLastY());
+        
+        // 4. Se a "foto" disse que houveram capturas (num lance que ainda não animamos)...
+        List<int[]> caps = estadoAtual.getUltimasCapturas();
+        boolean lanceNovo = estadoAtual.getVersao() != versaoAnimada;
+        versaoAnimada = estadoAtual.getVersao();
+        if (replay == null && lanceNovo && caps != null && !caps.isEmpty()) {
+            // ...avisa o PainelTabuleiro para fazer a animação de "flash".
+            painelTabuleiro.flashCaptures(caps);
+        }
 
-            // 5. Manda o PainelStatus atualizar (relógios, placar, turno).
-            painelStatus.atualizarStatus(estadoAtual);
-            
-            // 6. Manda o tabuleiro se redesenhar AGORA (com os novos dados).
-            painelTabuleiro.repaint();
-            // 7. Reajusta o tamanho da janela (caso algo tenha mudado de tamanho).
+        // 5. Manda o PainelStatus atualizar (relógios, placar, turno).
+        painelStatus.atualizarStatus(estadoAtual);
+        
+        // 6. (O PainelTabuleiro já pediu para redesenhar só as interseções que mudaram.)
+        // 7. Reajusta o tamanho da janela, mas só se o tamanho preferido mudou
+        // (ex: uma mensagem mais longa no status). Antes era um 'pack()' a cada
+        // atualização: um layout inteiro duas vezes por segundo.
+        Dimension preferido = getPreferredSize();
+        if (!preferido.equals(tamanhoEmpacotado)) {
             pack();
+            tamanhoEmpacotado = preferido;
+        }
+
+        // 8. Verifica se o jogo acabou (segundo o servidor).
+        if (estadoAtual.isGameOver()) {
+            // Se sim, chama o método que mostra o pop-up de fim de jogo.
+            maybeShowGameOverDialog();
+        } else {
+            // Se não, reseta o controle do pop-up (para o próximo fim de jogo).
+            gameOverDialogShown = false;
+        }
+    }
 
-            // 8. Verifica se o jogo acabou (segundo o servidor).
-            if (estadoAtual.isGameOver()) {
-                // Se sim, chama o método que mostra o pop-up de fim de jogo.
-                maybeShowGameOverDialog();
-            } else {
-                // Se não, reseta o controle do pop-up (para o próximo fim de jogo).
-                gameOverDialogShown = false;
+    // Começa o ciclo de reconexão (se ainda não estiver em andamento).
+    private void iniciarReconexao() {
+        if (timerReconexao != null) return;
+        timer.stop();
+        quedaIniciadaEmMs = System.currentTimeMillis();
+        esperaReconexaoMs = RECONEXAO_ESPERA_INICIAL_MS;
+        painelStatus.mostrarAviso("Conexão perdida. Reconectando...");
+        agendarTentativaReconexao();
+    }
+
+    // Agenda a próxima tentativa. Cada falha dobra a espera (até o máximo),
+    // com um pouco de "jitter" para vários clientes não baterem juntos no servidor.
+    private void agendarTentativaReconexao() {
+        int jitter = (int) (Math.random() * esperaReconexaoMs / 4);
+        timerReconexao = new Timer(esperaReconexaoMs + jitter, e -> tentarReconectar());
+        timerReconexao.setRepeats(false);
+        timerReconexao.start();
+    }
+
+    // A tentativa (lookup + token + sincronização) roda na thread de rede;
+    // o resultado volta para a EDT.
+    private void tentarReconectar() {
+        rede.execute(() -> {
+            try {
+                // Procura o servidor de novo, apresenta o token e ressincroniza.
+                conexao.reconectar();
+                conexao.sincronizar();
+                SwingUtilities.invokeLater(this::reconectou);
+            } catch (Exception e) {
+                SwingUtilities.invokeLater(this::reconexaoFalhou);
             }
-        } catch (RemoteException e) {
-            // Se a rede cair no meio do jogo, para o timer e avisa o usuário.
-            timer.stop();
+        });
+    }
+
+    // Voltou! Liga o polling de novo e redesenha tudo.
+    private void reconectou() {
+        timerReconexao = null;
+        timer.start();
+        pedirAtualizacao();
+    }
+
+    private void reconexaoFalhou() {
+        if (System.currentTimeMillis() - quedaIniciadaEmMs > RECONEXAO_LIMITE_MS) {
+            // Tentou por tempo demais: desiste e avisa o usuário.
+            timerReconexao = null;
             JOptionPane.showMessageDialog(this, "Conexão com o servidor perdida.", "Erro de Rede", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        esperaReconexaoMs = Math.min(esperaReconexaoMs * 2, RECONEXAO_ESPERA_MAXIMA_MS);
+        agendarTentativaReconexao();
     }
 
     // Método de conveniência para mostrar o pop-up de fim de jogo.
@@ -318,14 +665,9 @@ public class JanelaJogo extends JFrame {
         
         // Se o usuário escolheu "Novo jogo"...
         if (choice == JOptionPane.YES_OPTION) {
-            try {
-                // ...manda o servidor reiniciar o jogo.
-                jogoRemoto.reiniciar();
-                gameOverDialogShown = false; // Libera a trava do pop-up.
-                atualizarTela(); // Atualiza a tela para ver o novo tabuleiro.
-            } catch (RemoteException ex) {
-                JOptionPane.showMessageDialog(this, "Erro ao reiniciar.");
-            }
+            gameOverDialogShown = false; // Libera a trava do pop-up.
+            // ...manda o servidor reiniciar o jogo (e atualiza a tela para ver o novo tabuleiro).
+            executarRemoto("Erro ao reiniciar.", () -> conexao.reiniciar());
         } else {
             dispose();
         }
@@ -0,0 +1,33 @@
+package visao;
+
+/**
+ * Mede quanto tempo a EDT gasta pintando um componente, para o painel de
+ * diagnóstico: duração da última pintura, a maior desde a última leitura e
+ * quantas pinturas houve (o que dá os quadros por segundo).
+ *
+ * Só é usado na EDT, então não precisa de sincronização.
+ */
+public class MedidorPintura {
+    private long ultimaNanos = -1;
+    private long maiorNanos;
+    private long pinturas;
+
+    /** Chamado pelo componente ao fim de cada 'paint'. */
+    public void registrar(long nanos) {
+        ultimaNanos = nanos;
+        if (nanos > maiorNanos) maiorNanos = nanos;
+        pinturas++;
+    }
+
+    /** Duração da última pintura em ns (-1 se ainda não pintou). */
+    public long getUltimaNanos(){ return ultimaNanos; }
+    /** Total de pinturas desde a criação. */
+    public long getPinturas(){ return pinturas; }
+
+    /** A pintura mais lenta desde a chamada anterior (e recomeça a contagem). */
+    public long lerMaiorNanos() {
+        long m = maiorNanos;
+        maiorNanos = 0;
+        return m;
+    }
+}
@@ -0,0 +1,76 @@
+package visao;
+
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import modelo.Tabuleiro;
+
+/**
+ * Cache de miniaturas de tabuleiros (ex: o lobby com centenas de partidas).
+ *
+ * A chave é (hash de Zobrist da posição, lado da imagem): pedir de novo a
+ * miniatura de uma partida que não mudou devolve a MESMA imagem, sem
+ * desenhar nada. As entradas menos usadas saem quando o cache enche (LRU).
+ *
+ * Funciona sem tela (java.awt.headless=true) e pode ser chamado de várias
+ * threads: a consulta ao cache é sincronizada, mas o desenho em si roda fora
+ * do lock, com um 'RenderizadorTabuleiro' por thread.
+ *
+ * As imagens devolvidas são compartilhadas: não devem ser alteradas.
+ */
+public class MiniaturasTabuleiro {
+
+    private final int capacidade;
+    private final Map<Chave, BufferedImage> cache;
+    private final ThreadLocal<RenderizadorTabuleiro> renderizadores =
+            ThreadLocal.withInitial(RenderizadorTabuleiro::new);
+    private final AtomicLong acertos = new AtomicLong(), desenhos = new AtomicLong();
+
+    public MiniaturasTabuleiro(int capacidade) {
+        this.capacidade = capacidade;
+        this.cache = new LinkedHashMap<Chave, BufferedImage>(64, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<Chave, BufferedImage> e) {
+                return size() > MiniaturasTabuleiro.this.capacidade;
+            }
+        };
+    }
+
+    /**
+     * Miniatura quadrada de 'lado' pixels da posição atual do tabuleiro.
+     * O tabuleiro não deve ser alterado durante a chamada.
+     */
+    public BufferedImage miniatura(Tabuleiro t, int lado) {
+        Chave chave = new Chave(t.getHashZobrist(), lado);
+        synchronized (cache) {
+            BufferedImage img = cache.get(chave);
+            if (img != null) { acertos.incrementAndGet(); return img; }
+        }
+        // Duas threads podem desenhar a mesma posição ao mesmo tempo; a segunda
+        // só substitui a imagem por outra idêntica.
+        BufferedImage img = renderizadores.get().renderizar(t, lado);
+        desenhos.incrementAndGet();
+        synchronized (cache) {
+            cache.put(chave, img);
+        }
+        return img;
+    }
+
+    /** Quantas miniaturas foram servidas do cache. */
+    public long getAcertos(){ return acertos.get(); }
+    /** Quantas miniaturas precisaram ser desenhadas. */
+    public long getDesenhos(){ return desenhos.get(); }
+
+    private static final class Chave {
+        final long hash;
+        final int lado;
+        Chave(long hash, int lado) { this.hash = hash; this.lado = lado; }
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Chave)) return false;
+            Chave c = (Chave) o;
+            return c.hash == hash && c.lado == lado;
+        }
+        @Override public int hashCode() { return Long.hashCode(hash) * 31 + lado; }
+    }
+}
@@ -0,0 +1,123 @@
+package visao;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Locale;
+
+import metricas.HistogramaLatencia;
+import rede.ConexaoJogo;
+
+/**
+ * Painel de diagnóstico (liga/desliga com F3): separa "lag" de rede de
+ * lentidão de desenho na máquina do jogador.
+ *
+ * Mostra, uma vez por segundo:
+ * - RTT (ida e volta) da sincronização e da última jogada: último / p99;
+ * - tamanho da última atualização recebida;
+ * - tempo de pintura do tabuleiro e do status: última / maior no último segundo;
+ * - quadros por segundo do tabuleiro (com o tabuleiro parado, quase 0: só o que muda é redesenhado).
+ *
+ * Fica por cima da barra lateral, e não do tabuleiro: assim o próprio painel,
+ * ao se redesenhar, não entra na conta de pinturas do tabuleiro.
+ * Desligado, não mede nem redesenha nada.
+ */
+public class PainelDiagnostico extends JComponent {
+
+    private static final Color FUNDO = new Color(20, 20, 20, 190);
+    private static final Color TEXTO = new Color(230, 230, 230);
+    private static final int MARGEM = 8;
+
+    private final ConexaoJogo conexao;
+    private final MedidorPintura pinturaTabuleiro, pinturaStatus;
+    private final Timer timer = new Timer(1000, e -> amostrar());
+    private final Font fonte = new Font(Font.MONOSPACED, Font.PLAIN, 10);
+
+    private String[] linhas = {"Diagnóstico", "medindo..."};
+    private long pinturasAnteriores;
+    private long amostraAnteriorNanos;
+
+    public PainelDiagnostico(ConexaoJogo conexao, MedidorPintura pinturaTabuleiro, MedidorPintura pinturaStatus) {
+        this.conexao = conexao;
+        this.pinturaTabuleiro = pinturaTabuleiro;
+        this.pinturaStatus = pinturaStatus;
+        setOpaque(false);
+        setVisible(false);
+    }
+
+    public boolean isAtivo(){ return isVisible(); }
+
+    public void setAtivo(boolean ativo) {
+        if (ativo == isVisible()) return;
+        conexao.setMedirTamanho(ativo);
+        if (ativo) {
+            pinturasAnteriores = pinturaTabuleiro.getPinturas();
+            amostraAnteriorNanos = System.nanoTime();
+            pinturaTabuleiro.lerMaiorNanos();
+            pinturaStatus.lerMaiorNanos();
+            timer.start();
+        } else {
+            timer.stop();
+        }
+        setVisible(ativo);
+    }
+
+    /** Coloca o painel no canto superior direito de 'area' (a camada da janela). */
+    public void posicionar(Dimension area) {
+        Dimension d = getPreferredSize();
+        setBounds(area.width - d.width - MARGEM, MARGEM, d.width, d.height);
+    }
+
+    @Override public Dimension getPreferredSize() {
+        FontMetrics fm = getFontMetrics(fonte);
+        return new Dimension(fm.charWidth('0') * 26 + 16, fm.getHeight() * 7 + 12);
+    }
+
+    // Uma vez por segundo: lê as medidas e redesenha só este painel.
+    private void amostrar() {
+        long agora = System.nanoTime();
+        long pinturas = pinturaTabuleiro.getPinturas();
+        double quadros = (pinturas - pinturasAnteriores) * 1e9 / Math.max(1, agora - amostraAnteriorNanos);
+        pinturasAnteriores = pinturas;
+        amostraAnteriorNanos = agora;
+
+        long bytes = conexao.getBytesUltimaAtualizacao();
+        linhas = new String[]{
+            "Diagnóstico (F3)",
+            rtt("RTT estado", conexao.getUltimoRttAtualizacaoNanos(), conexao.getRttAtualizacao()),
+            rtt("RTT jogada", conexao.getUltimoRttJogadaNanos(), conexao.getRttJogada()),
+            bytes >= 0 ? String.format(Locale.ROOT, "Atualização %7d B", bytes) : "Atualização       -",
+            pintura("Tabuleiro", pinturaTabuleiro),
+            pintura("Status", pinturaStatus),
+            String.format(Locale.ROOT, "Quadros/s   %7.0f", quadros),
+        };
+        repaint();
+    }
+
+    private static String rtt(String nome, long ultimoNanos, HistogramaLatencia h) {
+        if (ultimoNanos < 0) return String.format(Locale.ROOT, "%-10s       -", nome);
+        return String.format(Locale.ROOT, "%-10s %5.1f/%5.1f ms", nome, ultimoNanos / 1e6, h.percentil(0.99) / 1e6);
+    }
+
+    private static String pintura(String nome, MedidorPintura m) {
+        long ultima = m.getUltimaNanos();
+        long maior = m.lerMaiorNanos();
+        if (ultima < 0) return String.format(Locale.ROOT, "%-10s       -", nome);
+        return String.format(Locale.ROOT, "%-10s %5.2f/%5.2f ms", nome, ultima / 1e6, maior / 1e6);
+    }
+
+    @Override protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(FUNDO);
+        g2.fillRoundRect(0, 0, getWidth(), getHeight(), 10, 10);
+        g2.setFont(fonte);
+        g2.setColor(TEXTO);
+        FontMetrics fm = g2.getFontMetrics();
+        int y = 6 + fm.getAscent();
+        for (String l : linhas) {
+            g2.drawString(l, 8, y);
+            y += fm.getHeight();
+        }
+        g2.dispose();
+    }
+}
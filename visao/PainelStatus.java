@@ -34,6 +34,20 @@ public class PainelStatus extends JPanel {
     // Mostra mensagens de texto (ex: "Fim de jogo", "Não é seu turno").
     private final JLabel infoLabel = new JLabel();
 
+    // ---- Cache de pintura ----
+    // Cores e ícones fixos são criados uma vez só; o gradiente do fundo só é
+    // refeito quando a altura do painel muda.
+    private static final Color FUNDO_CIMA = new Color(228, 200, 140);
+    private static final Color FUNDO_BAIXO = new Color(206, 178, 118);
+    private static final Color INFO_NORMAL = new Color(70, 70, 70);
+    private static final Color INFO_FIM = new Color(100, 70, 40);
+    private static final Color INFO_AVISO = new Color(160, 40, 40);
+    private static final Icon ICONE_PRETAS = new StoneIcon(Color.BLACK, 22);
+    private static final Icon ICONE_BRANCAS = new StoneIcon(Color.WHITE, 22);
+    private GradientPaint fundo;
+    // Tempo de cada pintura (para o painel de diagnóstico da janela).
+    private final MedidorPintura medidorPintura = new MedidorPintura();
+
     /**
      * Construtor: Roda UMA VEZ para montar o painel de status.
      * Ele organiza todos os componentes visuais (badges, relógios)
@@ -62,7 +76,7 @@ public class PainelStatus extends JPanel {
         GridBagConstraints c = new GridBagConstraints();
         c.gridy = 0; c.insets = new Insets(4, 10, 4, 10); // Espaçamento.
 
-        turnoIcon.setIcon(new StoneIcon(Color.BLACK, 22)); // Ícone inicial.
+        turnoIcon.setIcon(ICONE_PRETAS); // Ícone inicial.
         pretasBadge.setPreferredSize(new Dimension(70, 24));
         brancasBadge.setPreferredSize(new Dimension(70, 24));
 
@@ -76,7 +90,7 @@ public class PainelStatus extends JPanel {
         JPanel right = new JPanel(new FlowLayout(FlowLayout.RIGHT, 12, 6)) { @Override public boolean isOpaque(){ return false; } };
         right.add(minhaCor==Tabuleiro.PRETO ? clockBrancas : clockPretas);
         infoLabel.setFont(infoLabel.getFont().deriveFont(Font.PLAIN, 12f));
-        infoLabel.setForeground(new Color(70, 70, 70));
+        infoLabel.setForeground(INFO_NORMAL);
         right.add(infoLabel);
         add(right, BorderLayout.EAST);
         
@@ -88,11 +102,16 @@ public class PainelStatus extends JPanel {
      * O "Coração" do Painel: Atualiza todos os componentes visuais.
      * É chamado pela JanelaJogo (no 'atualizarTela') toda vez que
      * o Timer dispara ou uma jogada é feita.
+     *
+     * Cada componente compara o valor novo com o que já está exibindo e só
+     * se redesenha se algo visível mudou (ex: o relógio, só quando muda o
+     * segundo). Numa atualização sem novidades, nada é redesenhado.
      */
     public void atualizarStatus(EstadoJogo estado) {
         // 1. Atualiza o ÍCONE DE TURNO (pedra preta ou branca).
         boolean turnoPretas = (estado.getJogadorAtual() == Tabuleiro.PRETO);
-        turnoIcon.setIcon(new StoneIcon(turnoPretas ? Color.BLACK : Color.WHITE, 22));
+        Icon icone = turnoPretas ? ICONE_PRETAS : ICONE_BRANCAS;
+        if (turnoIcon.getIcon() != icone) turnoIcon.setIcon(icone);
 
         // 2. Atualiza os PLACARES de prisioneiros.
         pretasBadge.setCount(estado.getPontuacaoPretas());
@@ -112,16 +131,38 @@ public class PainelStatus extends JPanel {
         String info = estado.getLastInfo();
         if (estado.isGameOver()) {
             // Se o jogo acabou, mostra a mensagem de fim de jogo.
-            infoLabel.setText((info != null ? info + " " : "") + "Fim de jogo.");
-            infoLabel.setForeground(new Color(100, 70, 40)); // Cor diferente
+            mostrarInfo((info != null ? info + " " : "") + "Fim de jogo.", INFO_FIM); // Cor diferente
         } else {
             // Se o jogo está rolando, mostra a info da última jogada (ou nada).
-            infoLabel.setText(info != null ? info : "");
-            infoLabel.setForeground(new Color(70, 70, 70)); // Cor normal
+            mostrarInfo(info != null ? info : "", INFO_NORMAL); // Cor normal
         }
+        // (Sem 'repaint()' geral: cada componente já pediu o seu, se mudou.)
+    }
 
-        // Manda o painel se redesenhar com os novos dados.
-        repaint();
+    // Troca o texto/cor da mensagem só se mudou. Um texto novo pode mudar a
+    // largura do rótulo; aí o próprio JLabel pede um novo layout.
+    private void mostrarInfo(String texto, Color cor) {
+        if (!texto.equals(infoLabel.getText())) infoLabel.setText(texto);
+        if (!cor.equals(infoLabel.getForeground())) infoLabel.setForeground(cor);
+    }
+
+    /**
+     * Mostra um aviso temporário na área de mensagens (ex: "Reconectando...").
+     * A próxima chamada de 'atualizarStatus' substitui o aviso.
+     */
+    public void mostrarAviso(String aviso) {
+        mostrarInfo(aviso, INFO_AVISO);
+    }
+
+    public MedidorPintura getMedidorPintura(){ return medidorPintura; }
+
+    // Os badges são transparentes: quando um deles muda, o Swing repinta a partir
+    // deste painel (o ancestral opaco), então medir aqui cobre também os badges.
+    @Override
+    public void paint(Graphics g) {
+        long t0 = System.nanoTime();
+        super.paint(g);
+        medidorPintura.registrar(System.nanoTime() - t0);
     }
 
     /**
@@ -133,11 +174,10 @@ public class PainelStatus extends JPanel {
         super.paintComponent(g); // Limpa o painel.
         Graphics2D g2 = (Graphics2D) g.create();
         int w = getWidth(), h = getHeight();
-        // Define as cores (de cima para baixo).
-        Color c1 = new Color(228, 200, 140);
-        Color c2 = new Color(206, 178, 118);
+        // Gradiente de cima para baixo (refeito só se a altura mudou).
+        if (fundo == null || fundo.getPoint2().getY() != h) fundo = new GradientPaint(0, 0, FUNDO_CIMA, 0, h, FUNDO_BAIXO);
         // Pinta o gradiente.
-        g2.setPaint(new GradientPaint(0, 0, c1, 0, h, c2));
+        g2.setPaint(fundo);
         g2.fillRect(0, 0, w, h);
         g2.dispose();
     }
@@ -147,27 +187,49 @@ public class PainelStatus extends JPanel {
     // Estas classes são "ajudantes" que o PainelStatus usa.
     // ======================================================================
 
+    // Cores comuns aos badges.
+    private static final Color BORDA_PEDRA = new Color(0,0,0,140);
+    private static final Color TEXTO = new Color(60,60,60);
+
+    /**
+     * Guarda a fonte em negrito 12pt derivada da fonte do componente, e só
+     * deriva de novo se a fonte do componente mudar (ex: troca de Look&Feel).
+     */
+    static class FonteNegrito {
+        private Font base, derivada;
+        Font de(Component c) {
+            Font f = c.getFont();
+            if (f != base) { base = f; derivada = f.deriveFont(Font.BOLD, 12f); }
+            return derivada;
+        }
+    }
+
     /**
      * Classe ajudante que desenha um ÍCONE de pedra (preta ou branca)
      * com efeito de gradiente/luz.
      * Usada pelo ícone de turno.
      */
     static class StoneIcon implements Icon {
-        private final Color base; private final int d;
-        StoneIcon(Color base, int diameter){ this.base = base; this.d = diameter; }
+        private static final Color BORDA = new Color(0,0,0,150);
+        private final int d;
+        private final Paint brilho;
+        StoneIcon(Color base, int diameter){
+            this.d = diameter;
+            // Define a cor do "brilho" (cinza claro para preto, branco para branco).
+            Color hi = base.equals(Color.BLACK) ? new Color(80,80,80) : new Color(235,235,235);
+            this.brilho = new RadialGradientPaint(new Point(d/2 - 5, d/2 - 5), d*0.55f,
+                    new float[]{0f, 1f}, new Color[]{hi, base});
+        }
         @Override public int getIconWidth() { return d; }
         @Override public int getIconHeight() { return d; }
         @Override public void paintIcon(Component c, Graphics g, int x, int y) {
             Graphics2D g2 = (Graphics2D) g.create();
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            // Define a cor do "brilho" (cinza claro para preto, branco para branco).
-            Color hi = base.equals(Color.BLACK) ? new Color(80,80,80) : new Color(235,235,235);
-            // Desenha a pedra com o efeito de brilho (gradiente).
-            RadialGradientPaint rgp = new RadialGradientPaint(new Point(x + d/2 - 5, y + d/2 - 5), d*0.55f,
-                    new float[]{0f, 1f}, new Color[]{hi, base});
-            Paint old = g2.getPaint();
-            g2.setPaint(rgp); g2.fillOval(x, y, d, d);
-            g2.setPaint(old); g2.setColor(new Color(0,0,0,150)); g2.drawOval(x, y, d, d);
+            // Desenha a pedra com o efeito de brilho (gradiente), em coordenadas
+            // relativas ao ícone: o mesmo gradiente serve para qualquer posição.
+            g2.translate(x, y);
+            g2.setPaint(brilho); g2.fillOval(0, 0, d, d);
+            g2.setColor(BORDA); g2.drawOval(0, 0, d, d);
             g2.dispose();
         }
     }
@@ -178,25 +240,29 @@ public class PainelStatus extends JPanel {
      * é a vez desse jogador.
      */
     static class MyBadge extends JComponent {
+        private static final Color FUNDO_BADGE = new Color(255,255,255,90);
+        private static final Color BORDA_ATIVA = new Color(120,170,120);
+        private static final Stroke TRACO_ATIVO = new BasicStroke(2f);
         private final boolean pretas; private boolean active=false;
+        private final FonteNegrito fonte = new FonteNegrito();
         MyBadge(int cor){ this.pretas=(cor==Tabuleiro.PRETO); setOpaque(false); }
         // Método chamado por 'atualizarStatus' para ligar/desligar o destaque.
-        void setActive(boolean a){ this.active=a; repaint(); }
+        void setActive(boolean a){ if (a != active) { this.active=a; repaint(); } }
         @Override public Dimension getPreferredSize(){ return new Dimension(120, 36); }
         @Override protected void paintComponent(Graphics g) {
             Graphics2D g2 = (Graphics2D) g.create();
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             // Desenha o fundo transparente do crachá.
-            g2.setColor(new Color(255,255,255,90)); g2.fillRoundRect(0,4,getWidth(),getHeight()-8,14,14);
+            g2.setColor(FUNDO_BADGE); g2.fillRoundRect(0,4,getWidth(),getHeight()-8,14,14);
             // Se estiver "ativo" (é minha vez), desenha a borda VERDE.
-            if(active){ g2.setColor(new Color(120,170,120)); g2.setStroke(new BasicStroke(2f));
+            if(active){ g2.setColor(BORDA_ATIVA); g2.setStroke(TRACO_ATIVO);
                         g2.drawRoundRect(0,4,getWidth()-1,getHeight()-9,14,14); }
             // Desenha a pedra (minha cor).
             int d=18,cx=10,cy=(getHeight()-d)/2;
             g2.setColor(pretas?Color.BLACK:Color.WHITE); g2.fillOval(cx,cy,d,d);
-            g2.setColor(new Color(0,0,0,140)); g2.drawOval(cx,cy,d,d);
+            g2.setColor(BORDA_PEDRA); g2.drawOval(cx,cy,d,d);
             // Desenha o texto "VOCÊ".
-            g2.setFont(getFont().deriveFont(Font.BOLD,12f)); g2.setColor(new Color(60,60,60));
+            g2.setFont(fonte.de(this)); g2.setColor(TEXTO);
             g2.drawString("VOCÊ", cx+d+8, cy+d-4);
             g2.dispose();
         }
@@ -207,23 +273,28 @@ public class PainelStatus extends JPanel {
      * Mostra uma pedrinha (preta ou branca) e o texto "x 0" (o contador).
      */
     static class CountBadge extends JComponent {
-        private int count=0; private final boolean pretas;
+        private static final Color FUNDO_BADGE = new Color(255,255,255,80);
+        private int count=0; private String texto="x0"; private final boolean pretas;
+        private final FonteNegrito fonte = new FonteNegrito();
         CountBadge(boolean p){ this.pretas=p; setOpaque(false); }
         // Método chamado por 'atualizarStatus' para definir o novo placar.
-        void setCount(int c){ this.count=Math.max(0,c); repaint(); }
+        void setCount(int c){
+            c = Math.max(0,c);
+            if (c != count) { this.count=c; this.texto="x"+c; repaint(); }
+        }
         @Override public Dimension getPreferredSize(){ return new Dimension(70,24); }
         @Override protected void paintComponent(Graphics g){
             Graphics2D g2=(Graphics2D)g.create();
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
             // Desenha o fundo transparente.
-            g2.setColor(new Color(255,255,255,80)); g2.fillRoundRect(0,2,getWidth(),getHeight()-4,12,12);
+            g2.setColor(FUNDO_BADGE); g2.fillRoundRect(0,2,getWidth(),getHeight()-4,12,12);
             // Desenha a pedra.
             int d=14,cx=8,cy=(getHeight()-d)/2;
             g2.setColor(pretas?Color.BLACK:Color.WHITE); g2.fillOval(cx,cy,d,d);
-            g2.setColor(new Color(0,0,0,140)); g2.drawOval(cx,cy,d,d);
+            g2.setColor(BORDA_PEDRA); g2.drawOval(cx,cy,d,d);
             // Desenha o texto do placar (ex: "x5").
-            g2.setFont(getFont().deriveFont(Font.BOLD,12f)); g2.setColor(new Color(60,60,60));
-            g2.drawString("x"+count, cx+d+6, cy+d-2);
+            g2.setFont(fonte.de(this)); g2.setColor(TEXTO);
+            g2.drawString(texto, cx+d+6, cy+d-2);
             g2.dispose();
         }
     }
@@ -234,12 +305,33 @@ public class PainelStatus extends JPanel {
      * se estiver ativo ou com pouco tempo.
      */
     static class ClockBadge extends JComponent {
+        private static final Color FUNDO_NORMAL = new Color(255,255,255,80);
+        private static final Color FUNDO_POUCO_TEMPO = new Color(255, 220, 220, 180);
+        private static final Color BORDA_NORMAL = new Color(120,110,90);
+        private static final Color BORDA_ATIVO = new Color(90,120,90);
+        private static final Color TEXTO_POUCO_TEMPO = new Color(160,40,40);
         private long millis = 0;
+        private long segundosExibidos = -1; // O que está na tela (o texto só muda de segundo em segundo).
+        private String texto = "0:00";
         private boolean ativo = false;
         private final boolean pretas;
+        private final FonteNegrito fonte = new FonteNegrito();
         ClockBadge(boolean pretas){ this.pretas=pretas; setOpaque(false); }
         // Método chamado por 'atualizarStatus' para definir o novo tempo.
-        void setMillis(long ms, boolean ativo){ this.millis = Math.max(0, ms); this.ativo = ativo; repaint(); }
+        // Só redesenha se o texto (mm:ss), o destaque ou o alerta de pouco tempo mudou.
+        void setMillis(long ms, boolean ativo){
+            ms = Math.max(0, ms);
+            long total = ms/1000; // Converte ms para segundos.
+            boolean mudouAlerta = (ms <= 10_000) != (millis <= 10_000);
+            this.millis = ms;
+            if (total == segundosExibidos && ativo == this.ativo && !mudouAlerta) return;
+            if (total != segundosExibidos) {
+                segundosExibidos = total;
+                texto = String.format("%d:%02d", total/60, total%60); // Formata (ex: "5:03").
+            }
+            this.ativo = ativo;
+            repaint();
+        }
         @Override public Dimension getPreferredSize(){ return new Dimension(74, 26); }
         @Override protected void paintComponent(Graphics g) {
             Graphics2D g2=(Graphics2D)g.create();
@@ -247,10 +339,10 @@ public class PainelStatus extends JPanel {
 
             // ---- Lógica das Cores ----
             boolean low = millis <= 10_000; // Tempo está abaixo de 10s?
-            Color fill = new Color(255,255,255,80); // Fundo normal.
-            Color border = new Color(120,110,90); // Borda normal.
-            if (ativo) border = new Color(90,120,90); // Borda VERDE (ativo).
-            if (low && ativo) fill = new Color(255, 220, 220, 180); // Fundo VERMELHO (ativo e pouco tempo).
+            Color fill = FUNDO_NORMAL; // Fundo normal.
+            Color border = BORDA_NORMAL; // Borda normal.
+            if (ativo) border = BORDA_ATIVO; // Borda VERDE (ativo).
+            if (low && ativo) fill = FUNDO_POUCO_TEMPO; // Fundo VERMELHO (ativo e pouco tempo).
 
             // Desenha o fundo e a borda.
             g2.setColor(fill); g2.fillRoundRect(0,4,getWidth(),getHeight()-8,12,12);
@@ -259,19 +351,14 @@ public class PainelStatus extends JPanel {
             // Desenha a pedra pequena (preta ou branca).
             int d=12,cx=8,cy=(getHeight()-d)/2;
             g2.setColor(pretas?Color.BLACK:Color.WHITE); g2.fillOval(cx,cy,d,d);
-            g2.setColor(new Color(0,0,0,140)); g2.drawOval(cx,cy,d,d);
-
-            // ---- Lógica do Tempo (mm:ss) ----
-            long total = millis/1000; // Converte ms para segundos.
-            long mm = total/60; // Pega os minutos.
-            long ss = total%60; // Pega os segundos restantes.
-            String txt = String.format("%d:%02d", mm, ss); // Formata (ex: "5:03").
-            
+            g2.setColor(BORDA_PEDRA); g2.drawOval(cx,cy,d,d);
+
+            // ---- Tempo (mm:ss), já formatado em 'setMillis' ----
             // Define a cor do texto (vermelho se pouco tempo, senão normal).
-            g2.setFont(getFont().deriveFont(Font.BOLD, 12f));
-            g2.setColor(low ? new Color(160,40,40) : new Color(60,60,60));
+            g2.setFont(fonte.de(this));
+            g2.setColor(low ? TEXTO_POUCO_TEMPO : TEXTO);
             // Desenha o texto do relógio.
-            g2.drawString(txt, cx + d + 6, cy + d - 1);
+            g2.drawString(texto, cx + d + 6, cy + d - 1);
 
             g2.dispose();
         }
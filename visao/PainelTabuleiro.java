@@ -5,6 +5,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseMotionAdapter;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -31,9 +33,61 @@ public class PainelTabuleiro extends JPanel {
     private int turnoAtual = Tabuleiro.PRETO;
 
     // Variáveis para controlar a animação de 'flash' das capturas.
-    private long captureFlashUntil = 0L; // Timestamp de quando a animação deve parar.
+    private AgendadorAnimacoes.Animacao flash; // A animação em andamento (ou null).
     private final List<int[]> capturedStones = new ArrayList<>(); // Lista de peças a animar.
 
+    // Animações de peça entrando (cresce) ou saindo (some aos poucos), por interseção (x*n + y).
+    private AnimacaoPeca[] animacoesPecas = new AnimacaoPeca[0];
+    // Acima disso, a mudança é um "salto" (ex: revisão, novo jogo) e não é animada.
+    private static final int MAX_PECAS_ANIMADAS = 32;
+    private static final long DURACAO_ENTRADA_MS = 120, DURACAO_SAIDA_MS = 250, DURACAO_FLASH_MS = 350;
+
+    // Uma peça que acabou de entrar ou sair do tabuleiro.
+    private final class AnimacaoPeca extends AgendadorAnimacoes.Animacao {
+        final int x, y, cor;
+        final boolean entrando;
+        AnimacaoPeca(int x, int y, int cor, boolean entrando) {
+            super(entrando ? DURACAO_ENTRADA_MS : DURACAO_SAIDA_MS);
+            this.x = x; this.y = y; this.cor = cor; this.entrando = entrando;
+        }
+        @Override protected void repintar() { repaintCelula(x, y); }
+    }
+
+    // Camada fixa (madeira, grade, hoshi e coordenadas), desenhada uma vez numa imagem
+    // e só refeita quando muda o tamanho do painel, da célula, do tabuleiro ou a escala
+    // da tela (HiDPI). Cada repaint só "cola" a imagem e desenha peças e marcações.
+    private BufferedImage camadaFixa;
+    private int camadaLargura, camadaAltura, camadaN, camadaCelula;
+    private double camadaEscala;
+
+    // Desenha a madeira, a grade e as peças (com os "sprites" em cache). É o mesmo
+    // desenho usado nas miniaturas, que rodam sem tela ('RenderizadorTabuleiro').
+    private final RenderizadorTabuleiro renderizador = new RenderizadorTabuleiro();
+
+    // Camada opcional de "território": cada interseção é sombreada pela influência
+    // estimada (preto/branco), calculada fora da EDT por 'CalculoInfluencia'.
+    private boolean mostrarInfluencia = false;
+    private float[] mapaInfluencia; // null enquanto o mapa da posição atual não está pronto.
+    private final CalculoInfluencia calculoInfluencia = new CalculoInfluencia(this::atualizarInfluencia);
+    // Cores pré-criadas para a sombra, por nível de intensidade (evita criar Color na pintura).
+    private static final int NIVEIS_INFLUENCIA = 16;
+    private static final Color[] SOMBRA_PRETAS = new Color[NIVEIS_INFLUENCIA + 1];
+    private static final Color[] SOMBRA_BRANCAS = new Color[NIVEIS_INFLUENCIA + 1];
+    static {
+        for (int k = 0; k <= NIVEIS_INFLUENCIA; k++) {
+            SOMBRA_PRETAS[k] = new Color(0, 0, 0, 110 * k / NIVEIS_INFLUENCIA);
+            SOMBRA_BRANCAS[k] = new Color(255, 255, 255, 150 * k / NIVEIS_INFLUENCIA);
+        }
+    }
+
+    // Pixel da interseção [0][0], recalculado por 'calcularMedidas'.
+    private int origemX, origemY;
+    // Cópia das cores já entregues à pintura (x*n + y). Ao receber um tabuleiro novo,
+    // só as interseções que mudaram em relação a esta cópia são redesenhadas.
+    private int[] celulasPintadas = new int[0];
+    // Tempo de cada pintura (para o painel de diagnóstico da janela).
+    private final MedidorPintura medidorPintura = new MedidorPintura();
+
     /**
      * Construtor do painel. Roda uma vez para configurar o painel.
      */
@@ -48,14 +102,18 @@ public class PainelTabuleiro extends JPanel {
             @Override public void mouseMoved(MouseEvent e) {
                 // 1. Traduz o pixel (ex: 200,300) para a grade (ex: 4,5).
                 int[] xy = mouseToGrid(e.getX(), e.getY());
+                // Se o mouse continua perto da mesma interseção, nada muda na tela.
+                if (xy[0] == hoverX && xy[1] == hoverY) return;
+                int antigoX = hoverX, antigoY = hoverY;
                 hoverX = xy[0]; // Guarda a coordenada X.
                 hoverY = xy[1]; // Guarda a coordenada Y.
                 
                 // 2. Define o texto da "dica" (ex: "A1", "B2").
                 setToolTipText(coordText(hoverX, hoverY));
                 
-                // 3. Manda o painel se redesenhar (para a 'sombra' seguir o mouse).
-                repaint();
+                // 3. Redesenha só as duas interseções: onde a 'sombra' estava e onde está agora.
+                repaintCelula(antigoX, antigoY);
+                repaintCelula(hoverX, hoverY);
             }
         });
     }
@@ -66,20 +124,102 @@ public class PainelTabuleiro extends JPanel {
     public void setCellSize(int px){ this.tamanhoCelula = Math.max(20, px); revalidate(); repaint(); }
     
     // Recebe a nova 'foto' do tabuleiro para desenhar.
-    public void setTabuleiro(Tabuleiro t){ this.tabuleiro = t; revalidate(); repaint(); }
+    // Se o tamanho é o mesmo, redesenha só as interseções que mudaram.
+    public void setTabuleiro(Tabuleiro t){
+        this.tabuleiro = t;
+        atualizarInfluencia();
+        int n = t.getTamanho();
+        if (celulasPintadas.length != n*n) {
+            celulasPintadas = new int[n*n];
+            animacoesPecas = new AnimacaoPeca[n*n];
+            for (int i=0;i<n;i++) for (int j=0;j<n;j++) celulasPintadas[i*n+j] = t.get(i,j);
+            revalidate();
+            repaint();
+            return;
+        }
+        int mudancas = 0;
+        for (int k=0;k<n*n;k++) if (celulasPintadas[k] != t.get(k/n, k%n)) mudancas++;
+        boolean animar = mudancas <= MAX_PECAS_ANIMADAS;
+        for (int i=0;i<n;i++){
+            for (int j=0;j<n;j++){
+                int cor = t.get(i,j);
+                int antes = celulasPintadas[i*n+j];
+                if (antes != cor) {
+                    celulasPintadas[i*n+j] = cor;
+                    repaintCelula(i, j);
+                    animacoesPecas[i*n+j] = null;
+                    if (!animar) continue;
+                    // Peça nova cresce; peça removida some aos poucos.
+                    AnimacaoPeca a = (cor != Tabuleiro.VAZIO) ? new AnimacaoPeca(i, j, cor, true)
+                                                               : new AnimacaoPeca(i, j, antes, false);
+                    animacoesPecas[i*n+j] = a;
+                    AgendadorAnimacoes.agendar(a);
+                }
+            }
+        }
+    }
     
+    public Tabuleiro getTabuleiro(){ return tabuleiro; }
+
+    // Liga/desliga a camada de território (influência estimada).
+    public void setMostrarInfluencia(boolean mostrar){
+        if (mostrar == mostrarInfluencia) return;
+        mostrarInfluencia = mostrar;
+        mapaInfluencia = null;
+        if (mostrar) atualizarInfluencia(); else calculoInfluencia.cancelar();
+        repaint();
+    }
+    public boolean isMostrarInfluencia(){ return mostrarInfluencia; }
+
+    // Pega o mapa da posição atual (do cache, ou começa a calcular). Enquanto ele
+    // não fica pronto, a camada some: nunca mostra o território de outra posição.
+    private void atualizarInfluencia(){
+        if (!mostrarInfluencia) return;
+        float[] m = calculoInfluencia.mapaPara(tabuleiro);
+        if (m != mapaInfluencia) {
+            mapaInfluencia = m;
+            repaint();
+        }
+    }
+
     // Recebe as coordenadas da última jogada (para a marcação vermelha).
-    public void setUltimaJogada(int x, int y){ this.lastX=x; this.lastY=y; repaint(); }
+    public void setUltimaJogada(int x, int y){
+        if (x == lastX && y == lastY) return;
+        repaintCelula(lastX, lastY); // Apaga a marcação antiga...
+        this.lastX=x; this.lastY=y;
+        repaintCelula(lastX, lastY); // ...e desenha a nova.
+    }
     
     // Recebe a cor do turno atual (para a sombra).
-    public void setTurnoAtual(int cor){ this.turnoAtual = cor; repaint(); }
+    public void setTurnoAtual(int cor){
+        if (cor == turnoAtual) return;
+        this.turnoAtual = cor;
+        repaintCelula(hoverX, hoverY); // Só a sombra muda de cor.
+    }
+
+    /**
+     * Pede para redesenhar só o quadrado em volta de uma interseção
+     * (grande o bastante para a peça, a sombra, a marcação e o flash).
+     * Coordenadas fora da grade (ex: -1) são ignoradas.
+     */
+    private void repaintCelula(int x, int y){
+        if (x < 0 || y < 0 || tabuleiro == null || x >= tabuleiro.getTamanho() || y >= tabuleiro.getTamanho()) return;
+        calcularMedidas();
+        int r = (int)(tamanhoCelula*0.80)/2 + 2;
+        repaint(origemX + x*tamanhoCelula - r, origemY + y*tamanhoCelula - r, 2*r, 2*r);
+    }
+
+    // Redesenha as interseções do flash de captura.
+    private void repaintCapturas(){
+        for (int[] p : capturedStones) repaintCelula(p[0], p[1]);
+    }
 
     
     /**
      * Converte coordenadas da grade (ex: 0, 8) para texto (ex: "A1").
-     * Usado para a dica (tooltip) do mouse.
+     * Usado para a dica (tooltip) do mouse e pela dica do livro de aberturas.
      */
-    private String coordText(int x, int y){
+    public String coordText(int x, int y){
         if (x<0 || y<0 || x>=tabuleiro.getTamanho() || y>=tabuleiro.getTamanho()) return null;
         char letra = (char)('A' + x + (x >= 8 ? 1 : 0)); // Converte 0->A, 1->B (pula 'I').
         return letra + String.valueOf(tabuleiro.getTamanho()-y); // Converte 8->1, 7->2.
@@ -92,18 +232,9 @@ public class PainelTabuleiro extends JPanel {
     public int[] mouseToGrid(int px, int py){
         int n = tabuleiro.getTamanho(); // Tamanho (ex: 9).
 
-        // 1. Calcula o tamanho (em px) da célula que cabe na janela atual.
-        // Isso faz a grade se ajustar se a janela for redimensionada.
-        int maxCell = Math.max(20, Math.min((getWidth()  - PADDING) / Math.max(1,(n-1)),
-                                            (getHeight() - PADDING) / Math.max(1,(n-1))));
-        tamanhoCelula = Math.min(tamanhoCelula, maxCell); // Usa o tamanho definido (48) ou o menor, se não couber.
-
-        // 2. Calcula o tamanho total da grade em pixels (um tabuleiro 9x9 tem 8 células: n-1).
-        int boardPixels = (n - 1) * tamanhoCelula;
-        
-        // 3. Calcula o pixel exato do canto [0][0] (x0, y0), centralizando a grade.
-        int x0 = (getWidth()  - (boardPixels + PADDING)) / 2 + PADDING/2;
-        int y0 = (getHeight() - (boardPixels + PADDING)) / 2 + PADDING/2;
+        // 1 a 3. Calcula o tamanho da célula e o pixel do canto [0][0] (x0, y0).
+        calcularMedidas();
+        int x0 = origemX, y0 = origemY;
 
         // 4. Converte o pixel do mouse (px) em uma coordenada 'quebrada' (float).
         // Ex: (px=200 - x0=108) / 48 = 1.91...
@@ -121,6 +252,28 @@ public class PainelTabuleiro extends JPanel {
         return new int[]{x,y};
     }
 
+    /**
+     * Calcula as medidas da grade para o tamanho atual do painel.
+     * Usado pelo desenho, pelo clique e pelos 'repaint' de uma interseção,
+     * para que todos usem exatamente as mesmas medidas.
+     */
+    private void calcularMedidas(){
+        int n = tabuleiro.getTamanho();
+
+        // 1. Calcula o tamanho (em px) da célula que cabe na janela atual.
+        // Isso faz a grade se ajustar se a janela for redimensionada.
+        int maxCell = Math.max(20, Math.min((getWidth()  - PADDING) / Math.max(1,(n-1)),
+                                            (getHeight() - PADDING) / Math.max(1,(n-1))));
+        tamanhoCelula = Math.min(tamanhoCelula, maxCell); // Usa o tamanho definido (48) ou o menor, se não couber.
+
+        // 2. Calcula o tamanho total da grade em pixels (um tabuleiro 9x9 tem 8 células: n-1).
+        int boardPixels = (n - 1) * tamanhoCelula;
+        
+        // 3. Calcula o pixel exato do canto [0][0] (x0, y0), centralizando a grade.
+        origemX = (getWidth()  - (boardPixels + PADDING)) / 2 + PADDING/2;
+        origemY = (getHeight() - (boardPixels + PADDING)) / 2 + PADDING/2;
+    }
+
     /**
      * Define o tamanho preferido deste painel.
      * Usado pela JanelaJogo (no 'pack()') para ajustar o tamanho da janela.
@@ -139,9 +292,22 @@ public class PainelTabuleiro extends JPanel {
     public void flashCaptures(List<int[]> stones){
         capturedStones.clear(); // Limpa a animação anterior.
         if (stones != null) capturedStones.addAll(stones); // Adiciona as novas peças.
-        // Define o "cronômetro" da animação: 350 milissegundos a partir de agora.
-        captureFlashUntil = System.currentTimeMillis() + 350L;
-        repaint(); // Manda redesenhar para iniciar a animação.
+        // Começa a animação: 350 milissegundos, avançada pelo relógio de animações,
+        // que redesenha só essas peças a cada quadro da tela.
+        flash = new AgendadorAnimacoes.Animacao(DURACAO_FLASH_MS) {
+            @Override protected void repintar() { repaintCapturas(); }
+        };
+        AgendadorAnimacoes.agendar(flash);
+    }
+
+    public MedidorPintura getMedidorPintura(){ return medidorPintura; }
+
+    // Mede a pintura inteira (fundo, peças, animações e bordas).
+    @Override
+    public void paint(Graphics g) {
+        long t0 = System.nanoTime();
+        super.paint(g);
+        medidorPintura.registrar(System.nanoTime() - t0);
     }
 
     /**
@@ -150,7 +316,7 @@ public class PainelTabuleiro extends JPanel {
      */
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g); // Limpa o painel (obrigatório).
+        // (Sem 'super.paintComponent': a camada fixa já pinta o painel inteiro.)
         int n = tabuleiro.getTamanho();
         Graphics2D g2 = (Graphics2D) g; // Usa Graphics2D para desenho de alta qualidade.
         
@@ -159,92 +325,66 @@ public class PainelTabuleiro extends JPanel {
         g2.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
 
         // --- CAMADA 1: CALCULAR MEDIDAS ---
-        // (Repete o cálculo de 'mouseToGrid' para garantir que o DESENHO
+        // (O mesmo cálculo de 'mouseToGrid', para garantir que o DESENHO
         // e o CLIQUE usem as mesmas medidas exatas).
-        int maxCell = Math.max(20, Math.min((getWidth()  - PADDING) / Math.max(1,(n-1)),
-                                            (getHeight() - PADDING) / Math.max(1,(n-1))));
-        tamanhoCelula = Math.min(tamanhoCelula, maxCell);
+        calcularMedidas();
         int boardPixels = (n - 1) * tamanhoCelula;
-        int x0 = (getWidth()  - (boardPixels + PADDING)) / 2 + PADDING/2;
-        int y0 = (getHeight() - (boardPixels + PADDING)) / 2 + PADDING/2;
-
-        // --- CAMADA 2: FUNDO DE MADEIRA ---
-        g2.setColor(new Color(247, 220, 153));
-        g2.fillRect(x0 - PADDING/2, y0 - PADDING/2, boardPixels + PADDING, boardPixels + PADDING);
-
-        // --- CAMADA 3: GRADE ---
-        g2.setColor(new Color(70,70,70)); // Cor da linha (cinza escuro).
-        g2.setStroke(new BasicStroke(1.2f)); // Espessura da linha.
-        for (int i=0; i<n; i++){
-            int x = x0 + i * tamanhoCelula; // Posição X da linha vertical.
-            int y = y0 + i * tamanhoCelula; // Posição Y da linha horizontal.
-            g2.drawLine(x, y0, x, y0 + boardPixels); // Desenha linha vertical.
-            g2.drawLine(x0, y, x0 + boardPixels, y); // Desenha linha horizontal.
-        }
+        int x0 = origemX, y0 = origemY;
 
-        // --- CAMADA 4: HOSHI (PONTOS-ESTRELA) ---
-        // Define as coordenadas [x,y] dos pontos de estrela baseado no tamanho.
-        int[][] hoshi;
-        if (n == 9) hoshi = new int[][]{{2,2},{2,6},{6,2},{6,6},{4,4}};
-        else if (n == 13) hoshi = new int[][]{{3,3},{3,9},{9,3},{9,9},{6,6}};
-        else if (n == 19) hoshi = new int[][]{{3,3},{3,9},{3,15},{9,3},{9,9},{9,15},{15,3},{15,9},{15,15}};
-        else hoshi = new int[0][0]; // Nenhum, se for outro tamanho.
-        
-        // Desenha um pequeno círculo em cada coordenada hoshi.
-        g2.setColor(new Color(60,60,60));
-        for (int[] h : hoshi) {
-            int hx = x0 + h[0]*tamanhoCelula; // Converte grade (h[0]) para pixel.
-            int hy = y0 + h[1]*tamanhoCelula; // Converte grade (h[1]) para pixel.
-            g2.fillOval(hx-3, hy-3, 6, 6); // Desenha o círculo de 6x6px.
-        }
+        // Escala da tela (1.0 normal, 2.0 em telas "retina"/HiDPI): as imagens em cache
+        // são criadas com pixels reais da tela, senão ficariam borradas ao serem ampliadas.
+        AffineTransform tx = g2.getTransform();
+        double escala = Math.max(1.0, Math.max(Math.abs(tx.getScaleX()), Math.abs(tx.getScaleY())));
 
-        // --- CAMADA 5: COORDENADAS (A, B, C... 1, 2, 3...) ---
-        g2.setFont(getFont().deriveFont(Font.PLAIN, 12f));
-        g2.setColor(new Color(80,80,80));
-        for (int i=0;i<n;i++){
-            int x = x0 + i*tamanhoCelula;
-            int y = y0 + i*tamanhoCelula;
-            char letra = (char)('A' + i + (i >= 8 ? 1 : 0)); // A, B... (pula 'I').
-            g2.drawString(String.valueOf(letra), x-4, y0 - 8); // Desenha letras (em cima).
-            g2.drawString(String.valueOf(n-i), x0 - 20, y+4); // Desenha números (na esquerda).
+        // --- CAMADAS 2 a 5: PARTE FIXA (cacheada numa imagem) ---
+        desenharCamadaFixa(g2, n, x0, y0, boardPixels, escala);
+        renderizador.prepararSprites(tamanhoCelula, escala);
+
+        // Só as interseções dentro da área que o Swing pediu para redesenhar
+        // (com uma célula de folga, já que a peça passa um pouco da interseção).
+        Rectangle area = g2.getClipBounds();
+        if (area == null) area = new Rectangle(0, 0, getWidth(), getHeight());
+        int iIni = Math.max(0, Math.floorDiv(area.x - x0, tamanhoCelula));
+        int iFim = Math.min(n-1, Math.floorDiv(area.x + area.width - x0, tamanhoCelula) + 1);
+        int jIni = Math.max(0, Math.floorDiv(area.y - y0, tamanhoCelula));
+        int jFim = Math.min(n-1, Math.floorDiv(area.y + area.height - y0, tamanhoCelula) + 1);
+
+        // --- CAMADA 5b: TERRITÓRIO (OPCIONAL) ---
+        // Um quadrado por interseção, escuro onde as Pretas dominam e claro onde
+        // as Brancas dominam; a intensidade acompanha a influência.
+        float[] mapa = mapaInfluencia;
+        if (mostrarInfluencia && mapa != null && mapa.length == n*n){
+            int meia = tamanhoCelula/2;
+            for (int i=iIni;i<=iFim;i++){
+                for (int j=jIni;j<=jFim;j++){
+                    float v = mapa[i*n+j];
+                    int nivel = Math.round(Math.abs(v) * NIVEIS_INFLUENCIA);
+                    if (nivel < 2) continue; // Indefinido: sem sombra.
+                    g2.setColor(v > 0 ? SOMBRA_PRETAS[nivel] : SOMBRA_BRANCAS[nivel]);
+                    g2.fillRect(x0 + i*tamanhoCelula - meia, y0 + j*tamanhoCelula - meia, tamanhoCelula, tamanhoCelula);
+                }
+            }
         }
 
         // --- CAMADA 6: PEÇAS (PRETAs E BRANCAs) ---
-        // Loop por CADA interseção do tabuleiro.
-        for (int i=0;i<n;i++){
-            for (int j=0;j<n;j++){
+        long now = System.currentTimeMillis();
+        for (int i=iIni;i<=iFim;i++){
+            for (int j=jIni;j<=jFim;j++){
                 int cor = tabuleiro.get(i,j); // Pega a cor (0, 1 ou 2).
+                int cx = x0 + i * tamanhoCelula;
+                int cy = y0 + j * tamanhoCelula;
+
+                // Peça entrando ou saindo? Desenha o quadro atual da animação.
+                AnimacaoPeca a = (i*n+j < animacoesPecas.length) ? animacoesPecas[i*n+j] : null;
+                if (a != null && a.terminou(now)) { animacoesPecas[i*n+j] = null; a = null; }
+                if (a != null) {
+                    desenharPecaAnimada(g2, a, a.progresso(now), cx, cy);
+                    continue;
+                }
                 
-                // Se a casa NÃO ESTIVER VAZIA...
+                // Se a casa NÃO ESTIVER VAZIA, copia o sprite da peça centrado na interseção.
                 if (cor != Tabuleiro.VAZIO){
-                    // ...converte a grade (i, j) para o pixel central (cx, cy).
-                    int cx = x0 + i * tamanhoCelula;
-                    int cy = y0 + j * tamanhoCelula;
-                    
-                    // --- Efeito de "Relevo" (Gradiente) ---
-                    // Define as cores (Preto: cinza->preto, Branco: branco->cinza).
-                    Color base = (cor==Tabuleiro.PRETO) ? Color.BLACK : Color.WHITE;
-                    Color hi   = (cor==Tabuleiro.PRETO) ? new Color(80,80,80) : new Color(235,235,235);
-                    Paint old = g2.getPaint(); // Salva a "tinta" antiga.
-                    
-                    // Cria um efeito de luz (gradiente radial) vindo do canto.
-                    RadialGradientPaint rgp = new RadialGradientPaint(
-                       new Point(cx-6, cy-6), // Ponto de luz (levemente acima/esquerda).
-                       (float)(tamanhoCelula*0.45), // Raio do brilho.
-                       new float[]{0f, 1f}, // Posições (0=centro, 1=borda).
-                       new Color[]{hi, base}); // Cores (do "brilho" para a "base").
-                    
-                    g2.setPaint(rgp); // Usa o gradiente como "tinta".
-                    
-                    // Calcula o diâmetro da peça (72% do espaço da célula).
-                    int d = (int)(tamanhoCelula*0.72);
-                    // Desenha a peça com o gradiente.
-                    g2.fillOval(cx-d/2, cy-d/2, d, d);
-                    
-                    // Desenha uma borda escura sutil na peça.
-                    g2.setPaint(old); // Restaura a "tinta" normal (cor sólida).
-                    g2.setColor(new Color(0,0,0,130)); // Preto semi-transparente.
-                    g2.drawOval(cx-d/2, cy-d/2, d, d);
+                    renderizador.desenharPeca(g2, cor, cx, cy);
                 }
             }
         }
@@ -256,8 +396,7 @@ public class PainelTabuleiro extends JPanel {
             int cx = x0 + lastX*tamanhoCelula;
             int cy = y0 + lastY*tamanhoCelula;
             // ...desenha um pequeno círculo VERMELHO no centro da peça.
-            g2.setColor(new Color(220,20,60));
-            g2.fillOval(cx-4, cy-4, 8, 8);
+            renderizador.desenharMarcaUltimaJogada(g2, cx, cy);
         }
 
         // --- CAMADA 8: "SOMBRA" DO MOUSE (PREVIEW) ---
@@ -266,21 +405,15 @@ public class PainelTabuleiro extends JPanel {
             // ...converte a grade (hoverX, hoverY) para pixel (cx, cy).
             int cx = x0 + hoverX*tamanhoCelula;
             int cy = y0 + hoverY*tamanhoCelula;
-            // ...define a cor da sombra (cor do turno atual, mas transparente).
-            g2.setColor(turnoAtual==Tabuleiro.PRETO ? new Color(0,0,0,90) : new Color(255,255,255,130));
-            int d = (int)(tamanhoCelula*0.70); // Diâmetro (70%).
-            // ...desenha a sombra.
-            g2.fillOval(cx-d/2, cy-d/2, d, d);
-            g2.setColor(new Color(0,0,0,100)); // Borda sutil na sombra.
-            g2.drawOval(cx-d/2, cy-d/2, d, d);
+            // ...e copia a sombra na cor do turno atual.
+            renderizador.desenharSombra(g2, turnoAtual, cx, cy);
         }
 
         // --- CAMADA 9: ANIMAÇÃO DE CAPTURA (FLASH) ---
-        long now = System.currentTimeMillis();
-        // Se o "cronômetro" da animação (350ms) ainda estiver rodando...
-        if (now < captureFlashUntil){
+        // Se a animação (350ms) ainda estiver rodando...
+        if (flash != null && !flash.terminou(now)){
             // ...calcula a transparência (alpha) para o efeito de "fade out".
-            float alpha = (captureFlashUntil-now)/350f;
+            float alpha = 1f - flash.progresso(now);
             // ...define a cor (vermelho transparente, baseado no 'alpha').
             g2.setColor(new Color(255,80,80,(int)(140*alpha)));
             
@@ -293,9 +426,51 @@ public class PainelTabuleiro extends JPanel {
                 // ...desenha o círculo vermelho do flash.
                 g2.fillOval(cx-r/2, cy-r/2, r, r);
             }
-            // Manda redesenhar de novo IMEDIATAMENTE.
-            // Isso cria o "loop" da animação, fazendo o flash apagar (fade out).
-            repaint();
+            // (O próximo quadro é pedido pelo AgendadorAnimacoes, no ritmo da tela.)
+        }
+    }
+
+    /**
+     * Cola a camada fixa (madeira, grade, hoshi, coordenadas) no painel,
+     * refazendo a imagem só se alguma medida mudou desde a última vez.
+     */
+    private void desenharCamadaFixa(Graphics2D g2, int n, int x0, int y0, int boardPixels, double escala) {
+        int w = getWidth(), h = getHeight();
+
+        if (camadaFixa == null || w != camadaLargura || h != camadaAltura || n != camadaN
+                || tamanhoCelula != camadaCelula || escala != camadaEscala) {
+            int iw = Math.max(1, (int) Math.ceil(w * escala)), ih = Math.max(1, (int) Math.ceil(h * escala));
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            camadaFixa = (gc != null) ? gc.createCompatibleImage(iw, ih, Transparency.OPAQUE)
+                                      : new BufferedImage(iw, ih, BufferedImage.TYPE_INT_RGB);
+            Graphics2D gi = camadaFixa.createGraphics();
+            gi.scale(escala, escala);
+            gi.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            gi.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            // Fundo do painel inteiro (o que o 'super.paintComponent' pintaria).
+            gi.setColor(getBackground());
+            gi.fillRect(0, 0, w, h);
+            renderizador.desenharParteFixa(gi, n, x0, y0, tamanhoCelula, PADDING, getFont().deriveFont(Font.PLAIN, 12f));
+            gi.dispose();
+            camadaLargura = w; camadaAltura = h; camadaN = n;
+            camadaCelula = tamanhoCelula; camadaEscala = escala;
+        }
+        // Com a escala do Graphics, (w x h) lógicos = exatamente os pixels da imagem: cópia 1:1.
+        if (escala == 1.0) g2.drawImage(camadaFixa, 0, 0, null); // Caminho mais rápido (sem escala).
+        else g2.drawImage(camadaFixa, 0, 0, w, h, null);
+    }
+
+    // Peça entrando: cresce de 60% a 100% (desacelerando no fim).
+    // Peça saindo: mantém o tamanho e fica transparente até sumir.
+    private void desenharPecaAnimada(Graphics2D g2, AnimacaoPeca a, float p, int cx, int cy) {
+        if (a.entrando) {
+            float ease = 1f - (1f - p) * (1f - p);
+            renderizador.desenharPeca(g2, a.cor, cx, cy, 0.6f + 0.4f * ease);
+        } else {
+            Composite antigo = g2.getComposite();
+            g2.setComposite(AlphaComposite.SrcOver.derive(1f - p));
+            renderizador.desenharPeca(g2, a.cor, cx, cy);
+            g2.setComposite(antigo);
         }
     }
 
@@ -0,0 +1,208 @@
+package visao;
+
+import modelo.Tabuleiro;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * O desenho do tabuleiro (madeira, grade, hoshi, coordenadas e peças),
+ * separado de qualquer componente Swing.
+ *
+ * O 'PainelTabuleiro' usa esta classe para pintar na tela, e 'renderizar'
+ * usa a mesma para desenhar um tabuleiro inteiro numa imagem, o que funciona
+ * também sem tela (java.awt.headless=true), ex: miniaturas do lobby.
+ *
+ * Guarda os "sprites" das peças: cada peça (e cada sombra do mouse) é
+ * desenhada uma única vez numa imagem transparente, para o tamanho de célula
+ * e escala atuais. Pintar o tabuleiro vira só copiar imagens.
+ *
+ * Uma instância não é thread-safe (os sprites são refeitos sob demanda):
+ * use uma por thread.
+ */
+public class RenderizadorTabuleiro {
+
+    /** Cor de fundo "madeira clara". */
+    public static final Color MADEIRA = new Color(247, 220, 153);
+    private static final Color GRADE = new Color(70,70,70);
+    private static final Color HOSHI = new Color(60,60,60);
+    private static final Color COORDENADAS = new Color(80,80,80);
+    private static final Color MARCA_ULTIMA = new Color(220,20,60);
+    private static final Stroke TRACO_GRADE = new BasicStroke(1.2f);
+
+    private BufferedImage spritePreta, spriteBranca, sombraPreta, sombraBranca;
+    private int spriteCelula;
+    private double spriteEscala;
+
+    /**
+     * Desenha um tabuleiro inteiro numa imagem quadrada de 'lado' pixels.
+     * As coordenadas (A, B... 1, 2...) só aparecem se couberem (células de 18px ou mais).
+     */
+    public BufferedImage renderizar(Tabuleiro t, int lado) {
+        int n = t.getTamanho();
+        // Margem proporcional ao tamanho (com coordenadas, precisa de mais espaço).
+        boolean coordenadas = (lado - 36) / Math.max(1, n - 1) >= 18;
+        int padding = coordenadas ? 36 : Math.max(4, lado / 16);
+        int celula = Math.max(2, (lado - padding) / Math.max(1, n - 1));
+        int boardPixels = (n - 1) * celula;
+        int x0 = (lado - boardPixels) / 2, y0 = x0;
+
+        BufferedImage img = new BufferedImage(lado, lado, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        g.setColor(MADEIRA);
+        g.fillRect(0, 0, lado, lado);
+        desenharParteFixa(g, n, x0, y0, celula, padding,
+                coordenadas ? new Font(Font.SANS_SERIF, Font.PLAIN, 12) : null);
+        prepararSprites(celula, 1.0);
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                if (t.get(i, j) != Tabuleiro.VAZIO) desenharPeca(g, t.get(i, j), x0 + i * celula, y0 + j * celula);
+        g.dispose();
+        return img;
+    }
+
+    /**
+     * Desenha a madeira, a grade, os hoshi e as coordenadas (se 'fonte' não for null).
+     * (x0, y0) é o pixel da interseção [0][0].
+     */
+    public void desenharParteFixa(Graphics2D g2, int n, int x0, int y0, int celula, int padding, Font fonte) {
+        int boardPixels = (n - 1) * celula;
+
+        // --- CAMADA 2: FUNDO DE MADEIRA ---
+        g2.setColor(MADEIRA);
+        g2.fillRect(x0 - padding/2, y0 - padding/2, boardPixels + padding, boardPixels + padding);
+
+        // --- CAMADA 3: GRADE ---
+        g2.setColor(GRADE); // Cor da linha (cinza escuro).
+        g2.setStroke(TRACO_GRADE); // Espessura da linha.
+        for (int i=0; i<n; i++){
+            int x = x0 + i * celula; // Posição X da linha vertical.
+            int y = y0 + i * celula; // Posição Y da linha horizontal.
+            g2.drawLine(x, y0, x, y0 + boardPixels); // Desenha linha vertical.
+            g2.drawLine(x0, y, x0 + boardPixels, y); // Desenha linha horizontal.
+        }
+
+        // --- CAMADA 4: HOSHI (PONTOS-ESTRELA) ---
+        // Define as coordenadas [x,y] dos pontos de estrela baseado no tamanho.
+        int[][] hoshi;
+        if (n == 9) hoshi = new int[][]{{2,2},{2,6},{6,2},{6,6},{4,4}};
+        else if (n == 13) hoshi = new int[][]{{3,3},{3,9},{9,3},{9,9},{6,6}};
+        else if (n == 19) hoshi = new int[][]{{3,3},{3,9},{3,15},{9,3},{9,9},{9,15},{15,3},{15,9},{15,15}};
+        else hoshi = new int[0][0]; // Nenhum, se for outro tamanho.
+
+        // Desenha um pequeno círculo em cada coordenada hoshi (menor em miniaturas).
+        int r = Math.max(1, Math.min(3, celula / 8));
+        g2.setColor(HOSHI);
+        for (int[] h : hoshi) {
+            int hx = x0 + h[0]*celula; // Converte grade (h[0]) para pixel.
+            int hy = y0 + h[1]*celula; // Converte grade (h[1]) para pixel.
+            g2.fillOval(hx-r, hy-r, 2*r, 2*r);
+        }
+
+        // --- CAMADA 5: COORDENADAS (A, B, C... 1, 2, 3...) ---
+        if (fonte == null) return;
+        g2.setFont(fonte);
+        g2.setColor(COORDENADAS);
+        for (int i=0;i<n;i++){
+            int x = x0 + i*celula;
+            int y = y0 + i*celula;
+            char letra = (char)('A' + i + (i >= 8 ? 1 : 0)); // A, B... (pula 'I').
+            g2.drawString(String.valueOf(letra), x-4, y0 - 8); // Desenha letras (em cima).
+            g2.drawString(String.valueOf(n-i), x0 - 20, y+4); // Desenha números (na esquerda).
+        }
+    }
+
+    /**
+     * Refaz os sprites das peças e das sombras se o tamanho da célula ou a escala mudou.
+     * O desenho é feito uma vez por tamanho (gradiente com brilho no canto superior
+     * esquerdo e borda sutil), em vez de uma vez por peça.
+     */
+    public void prepararSprites(int celula, double escala) {
+        if (spritePreta != null && spriteCelula == celula && spriteEscala == escala) return;
+        int d = (int)(celula*0.72);  // Diâmetro da peça (72% da célula).
+        int ds = (int)(celula*0.70); // Diâmetro da sombra (70%).
+        spritePreta  = criarPeca(d, celula, escala, Color.BLACK, new Color(80,80,80));
+        spriteBranca = criarPeca(d, celula, escala, Color.WHITE, new Color(235,235,235));
+        sombraPreta  = criarSombra(ds, escala, new Color(0,0,0,90));
+        sombraBranca = criarSombra(ds, escala, new Color(255,255,255,130));
+        spriteCelula = celula;
+        spriteEscala = escala;
+    }
+
+    /** Copia o sprite da peça 'cor' centrado em (cx, cy). */
+    public void desenharPeca(Graphics2D g2, int cor, int cx, int cy) {
+        desenharSprite(g2, cor == Tabuleiro.PRETO ? spritePreta : spriteBranca, cx, cy);
+    }
+
+    /** Peça em outro tamanho ('fator' = 1 é o normal), ex: para animações. */
+    public void desenharPeca(Graphics2D g2, int cor, int cx, int cy, float fator) {
+        BufferedImage sprite = cor == Tabuleiro.PRETO ? spritePreta : spriteBranca;
+        int lado = (int) Math.round(sprite.getWidth() / spriteEscala);
+        int l = Math.max(1, Math.round(lado * fator));
+        g2.drawImage(sprite, cx - l/2, cy - l/2, l, l, null);
+    }
+
+    /** Sombra (prévia de jogada) na cor 'cor', centrada em (cx, cy). */
+    public void desenharSombra(Graphics2D g2, int cor, int cx, int cy) {
+        desenharSprite(g2, cor == Tabuleiro.PRETO ? sombraPreta : sombraBranca, cx, cy);
+    }
+
+    /** Pequeno círculo vermelho no centro da última peça jogada. */
+    public void desenharMarcaUltimaJogada(Graphics2D g2, int cx, int cy) {
+        g2.setColor(MARCA_ULTIMA);
+        g2.fillOval(cx-4, cy-4, 8, 8);
+    }
+
+    // Imagem transparente de lado (d + 2) px lógicos, já na escala da tela, com o
+    // centro do círculo no centro da imagem.
+    private static BufferedImage novoSprite(int d, double escala) {
+        int lado = Math.max(1, (int) Math.ceil((d + 2) * escala));
+        return new BufferedImage(lado, lado, BufferedImage.TYPE_INT_ARGB);
+    }
+    private static Graphics2D graficoSprite(BufferedImage img, double escala) {
+        Graphics2D g = img.createGraphics();
+        g.scale(escala, escala);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        return g;
+    }
+
+    private static BufferedImage criarPeca(int d, int celula, double escala, Color base, Color brilho) {
+        BufferedImage img = novoSprite(d, escala);
+        Graphics2D g = graficoSprite(img, escala);
+        int c = d/2 + 1; // Centro da peça dentro da imagem.
+        // Efeito de "relevo": luz vindo levemente de cima/esquerda
+        // (6px do centro; menos em peças pequenas, como nas miniaturas).
+        int luz = Math.min(6, celula / 7);
+        g.setPaint(new RadialGradientPaint(new Point(c-luz, c-luz), Math.max(1f, (float)(celula*0.45)),
+                new float[]{0f, 1f}, new Color[]{brilho, base}));
+        g.fillOval(c-d/2, c-d/2, d, d);
+        g.setColor(new Color(0,0,0,130)); // Borda escura sutil.
+        g.drawOval(c-d/2, c-d/2, d, d);
+        g.dispose();
+        return img;
+    }
+
+    private static BufferedImage criarSombra(int d, double escala, Color cor) {
+        BufferedImage img = novoSprite(d, escala);
+        Graphics2D g = graficoSprite(img, escala);
+        int c = d/2 + 1;
+        g.setColor(cor);
+        g.fillOval(c-d/2, c-d/2, d, d);
+        g.setColor(new Color(0,0,0,100)); // Borda sutil na sombra.
+        g.drawOval(c-d/2, c-d/2, d, d);
+        g.dispose();
+        return img;
+    }
+
+    // Copia um sprite com o centro em (cx, cy). O tamanho lógico (d + 2) vezes a escala
+    // do Graphics dá exatamente os pixels da imagem: cópia 1:1, sem reamostragem.
+    private void desenharSprite(Graphics2D g2, BufferedImage sprite, int cx, int cy) {
+        double escala = spriteEscala;
+        int lado = (int) Math.round(sprite.getWidth() / escala);
+        int c = (lado - 2) / 2 + 1;
+        if (escala == 1.0) g2.drawImage(sprite, cx - c, cy - c, null);
+        else g2.drawImage(sprite, cx - c, cy - c, lado, lado, null);
+    }
+}